@@ -0,0 +1,41 @@
+package io.github.wwhysohard.search.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar, which accepts the usual JMH command line options
+ * and attaches {@link GCProfiler} unless other profilers are requested,
+ * so that every run reports allocation rate per operation next to throughput
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Creating an instance of {@link BenchmarkRunner} is illegal
+     */
+    private BenchmarkRunner() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Runs benchmarks
+     *
+     * @param args JMH command line options
+     *
+     * @throws Exception if options are malformed or benchmarks fail
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+
+        if (options.getProfilers().isEmpty()) {
+            builder.addProfiler(GCProfiler.class);
+        }
+
+        new Runner(builder.build()).run();
+    }
+
+}
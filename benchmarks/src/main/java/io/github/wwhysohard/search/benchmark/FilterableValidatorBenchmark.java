@@ -0,0 +1,37 @@
+package io.github.wwhysohard.search.benchmark;
+
+import io.github.wwhysohard.search.benchmark.model.Book;
+import io.github.wwhysohard.search.validator.FilterableValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of filter paths of increasing join depth, including a path which is not allowed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterableValidatorBenchmark {
+
+    @Param({ "title", "author.fullName", "author.agency.name", "author.agency.address.city", "author.agency.address.street" })
+    public String path;
+
+    @Benchmark
+    public boolean isValid() {
+        return FilterableValidator.isValid(Book.class, path);
+    }
+
+}
@@ -0,0 +1,72 @@
+package io.github.wwhysohard.search.benchmark;
+
+import io.github.wwhysohard.search.benchmark.model.Address;
+import io.github.wwhysohard.search.benchmark.model.Agency;
+import io.github.wwhysohard.search.benchmark.model.Author;
+import io.github.wwhysohard.search.benchmark.model.Book;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+
+/**
+ * Hibernate metamodel of the benchmark models backed by in-memory H2 database.
+ * No rows are ever queried, the database only lets Hibernate bootstrap.
+ */
+@State(Scope.Benchmark)
+public class HibernateState {
+
+    private StandardServiceRegistry registry;
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+
+    /**
+     * Bootstraps Hibernate
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.URL, "jdbc:h2:mem:benchmarks;DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.USER, "sa")
+                .applySetting(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .build();
+
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(Address.class)
+                .addAnnotatedClass(Agency.class)
+                .addAnnotatedClass(Author.class)
+                .addAnnotatedClass(Book.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        entityManager = sessionFactory.createEntityManager();
+    }
+
+    /**
+     * Shuts Hibernate down
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    /**
+     * @return {@link CriteriaBuilder} of the metamodel
+     */
+    public CriteriaBuilder getCriteriaBuilder() {
+        return entityManager.getCriteriaBuilder();
+    }
+
+}
@@ -0,0 +1,128 @@
+package io.github.wwhysohard.search.benchmark;
+
+import io.github.wwhysohard.search.benchmark.model.Book;
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.utils.GenericCriteriaPredicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of {@link Predicate}s by {@link GenericCriteriaPredicate} for large <code>IN</code> lists
+ * and deeply nested <code>OR</code>/<code>AND</code> trees
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredicateBenchmark {
+
+    @Benchmark
+    public Predicate largeIn(HibernateState hibernate, InState state) {
+        return predicate(hibernate.getCriteriaBuilder(), state.filters);
+    }
+
+    @Benchmark
+    public Predicate nestedTree(HibernateState hibernate, TreeState state) {
+        return predicate(hibernate.getCriteriaBuilder(), state.filters);
+    }
+
+    /**
+     * Constructs {@link Predicate} of the given filters on a new query
+     */
+    private static Predicate predicate(CriteriaBuilder criteriaBuilder, List<FilterRequest> filters) {
+        CriteriaQuery<Book> query = criteriaBuilder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        return GenericCriteriaPredicate.get(root, criteriaBuilder, new HashMap<>(), filters, QueryOperator.AND, Book.class);
+    }
+
+    /**
+     * Builds tree of the given depth alternating <code>OR</code> and <code>AND</code> groups,
+     * each having two leaf filters and the next group
+     */
+    private static FilterRequest tree(int depth) {
+        List<FilterRequest> filters = new ArrayList<>(Arrays.asList(
+                leaf("title", QueryOperator.LIKE, "Harry " + depth),
+                leaf("pages", QueryOperator.GREATER_THAN, String.valueOf(depth))));
+
+        if (depth > 1) {
+            filters.add(tree(depth - 1));
+        }
+
+        return FilterRequest.builder()
+                .withOperator((depth % 2 == 0) ? QueryOperator.OR : QueryOperator.AND)
+                .withFilters(filters)
+                .build();
+    }
+
+    /**
+     * Single <code>IN</code> filter of the given number of values
+     */
+    @State(Scope.Benchmark)
+    public static class InState {
+
+        @Param({ "10", "1000", "10000" })
+        public int size;
+
+        private List<FilterRequest> filters;
+
+        @Setup
+        public void setUp() {
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(String.valueOf(i));
+            }
+
+            filters = Collections.singletonList(FilterRequest.builder()
+                    .withField("id")
+                    .withOperator(QueryOperator.IN)
+                    .withValues(values)
+                    .build());
+        }
+
+    }
+
+    /**
+     * Tree of nested groups of the given depth
+     */
+    @State(Scope.Benchmark)
+    public static class TreeState {
+
+        @Param({ "2", "8", "32" })
+        public int depth;
+
+        private List<FilterRequest> filters;
+
+        @Setup
+        public void setUp() {
+            filters = Collections.singletonList(tree(depth));
+        }
+
+    }
+
+    private static FilterRequest leaf(String field, QueryOperator operator, String value) {
+        return FilterRequest.builder().withField(field).withOperator(operator).withValue(value).build();
+    }
+
+}
@@ -0,0 +1,83 @@
+package io.github.wwhysohard.search.benchmark;
+
+import io.github.wwhysohard.search.benchmark.model.Book;
+import io.github.wwhysohard.search.benchmark.model.BookSpecification;
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.utils.QueryParameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@link BookSpecification#toPredicate(Root, CriteriaQuery, CriteriaBuilder)} of a typical search
+ * with joined filters, a range, a pattern and sorts, with filter values rendered as literals and bound as parameters
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpecificationBenchmark {
+
+    private BookSpecification specification;
+
+    @Setup
+    public void setUp() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Arrays.asList(
+                filter("author.agency.address.city", QueryOperator.EQUALS, "London"),
+                filter("price", QueryOperator.GREATER_THAN_OR_EQUAL, "10.00"),
+                filter("price", QueryOperator.LESS_THAN, "50.00"),
+                filter("title", QueryOperator.ILIKE, "potter"),
+                FilterRequest.builder()
+                        .withField("genre")
+                        .withOperator(QueryOperator.IN)
+                        .withValues(Arrays.asList("FANTASY", "DETECTIVE"))
+                        .build()));
+        request.setSorts(Arrays.asList(
+                SortRequest.builder().withField("published").withOrder(SortOrder.DESC).build(),
+                SortRequest.builder().withField("author.fullName").withOrder(SortOrder.ASC).build()));
+
+        specification = new BookSpecification(request);
+    }
+
+    @Benchmark
+    public Predicate literals(HibernateState hibernate) {
+        CriteriaBuilder criteriaBuilder = hibernate.getCriteriaBuilder();
+        CriteriaQuery<Book> query = criteriaBuilder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        return specification.toPredicate(root, query, criteriaBuilder);
+    }
+
+    @Benchmark
+    public Predicate parameters(HibernateState hibernate) {
+        CriteriaBuilder criteriaBuilder = hibernate.getCriteriaBuilder();
+        CriteriaQuery<Book> query = criteriaBuilder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        return specification.toPredicate(root, query, criteriaBuilder, new QueryParameters());
+    }
+
+    private static FilterRequest filter(String field, QueryOperator operator, String value) {
+        return FilterRequest.builder().withField(field).withOperator(operator).withValue(value).build();
+    }
+
+}
@@ -0,0 +1,82 @@
+package io.github.wwhysohard.search.benchmark;
+
+import io.github.wwhysohard.search.benchmark.model.Genre;
+import io.github.wwhysohard.search.converter.ValueConverter;
+import io.github.wwhysohard.search.converter.ValueConverters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of a filter value for every type supported out of the box,
+ * including lookup of {@link ValueConverter} as it is done for every filter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueConversionBenchmark {
+
+    private static final Map<String, Object[]> SAMPLES = new HashMap<>();
+
+    static {
+        SAMPLES.put("String", new Object[] { String.class, "Harry Potter" });
+        SAMPLES.put("Long", new Object[] { Long.class, "1234567890" });
+        SAMPLES.put("int", new Object[] { int.class, "42" });
+        SAMPLES.put("double", new Object[] { double.class, "3.14" });
+        SAMPLES.put("boolean", new Object[] { boolean.class, "true" });
+        SAMPLES.put("char", new Object[] { char.class, "c" });
+        SAMPLES.put("BigDecimal", new Object[] { BigDecimal.class, "12345.6789" });
+        SAMPLES.put("BigInteger", new Object[] { BigInteger.class, "123456789012345678901234567890" });
+        SAMPLES.put("UUID", new Object[] { UUID.class, "3f2504e0-4f89-11d3-9a0c-0305e82c3301" });
+        SAMPLES.put("Enum", new Object[] { Genre.class, "DETECTIVE" });
+        SAMPLES.put("LocalDate", new Object[] { LocalDate.class, "1997-06-26" });
+        SAMPLES.put("LocalDateTime", new Object[] { LocalDateTime.class, "1997-06-26T10:15:30" });
+        SAMPLES.put("LocalTime", new Object[] { LocalTime.class, "10:15:30" });
+        SAMPLES.put("Instant", new Object[] { Instant.class, "1997-06-26T10:15:30Z" });
+        SAMPLES.put("OffsetDateTime", new Object[] { OffsetDateTime.class, "1997-06-26T10:15:30+01:00" });
+        SAMPLES.put("ZonedDateTime", new Object[] { ZonedDateTime.class, "1997-06-26T10:15:30+01:00[Europe/London]" });
+    }
+
+    @Param({ "String", "Long", "int", "double", "boolean", "char", "BigDecimal", "BigInteger", "UUID", "Enum",
+            "LocalDate", "LocalDateTime", "LocalTime", "Instant", "OffsetDateTime", "ZonedDateTime" })
+    public String type;
+
+    private Class<?> javaType;
+    private String value;
+
+    @Setup
+    public void setUp() {
+        javaType = (Class<?>) SAMPLES.get(type)[0];
+        value = (String) SAMPLES.get(type)[1];
+    }
+
+    @Benchmark
+    public Object convert() {
+        return ValueConverters.convert(ValueConverters.get(javaType), value);
+    }
+
+}
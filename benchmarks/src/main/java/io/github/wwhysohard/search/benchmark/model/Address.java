@@ -0,0 +1,28 @@
+package io.github.wwhysohard.search.benchmark.model;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+
+@Getter
+@Setter
+@Entity
+public class Address {
+
+    @Id
+    @Filterable
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Filterable
+    private String city;
+
+    @Filterable
+    private String country;
+
+}
@@ -0,0 +1,31 @@
+package io.github.wwhysohard.search.benchmark.model;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+
+@Getter
+@Setter
+@Entity
+public class Agency {
+
+    @Id
+    @Filterable
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Filterable
+    private String name;
+
+    @Filterable(joinable = true)
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Address address;
+
+}
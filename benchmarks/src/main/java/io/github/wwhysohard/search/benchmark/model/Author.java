@@ -0,0 +1,41 @@
+package io.github.wwhysohard.search.benchmark.model;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Entity
+public class Author {
+
+    @Id
+    @Filterable
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Filterable(names = "fullName")
+    private String name;
+
+    @Filterable
+    private Integer rating;
+
+    @Filterable(joinable = true)
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Agency agency;
+
+    @Filterable(joinable = true)
+    @OneToMany(mappedBy = "author")
+    private List<Book> books = new ArrayList<>();
+
+}
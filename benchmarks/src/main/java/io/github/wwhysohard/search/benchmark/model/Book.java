@@ -0,0 +1,62 @@
+package io.github.wwhysohard.search.benchmark.model;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Entity
+public class Book {
+
+    @Id
+    @Filterable
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Filterable
+    private String title;
+
+    @Filterable
+    private UUID isbn;
+
+    @Filterable
+    private BigDecimal price;
+
+    @Filterable
+    private int pages;
+
+    @Filterable
+    private double weight;
+
+    @Filterable
+    private boolean available;
+
+    @Filterable
+    @Enumerated(EnumType.STRING)
+    private Genre genre;
+
+    @Filterable
+    private LocalDate published;
+
+    @Filterable
+    private LocalDateTime updated;
+
+    @Filterable(joinable = true)
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Author author;
+
+}
@@ -0,0 +1,12 @@
+package io.github.wwhysohard.search.benchmark.model;
+
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.specification.GenericSpecification;
+
+public class BookSpecification extends GenericSpecification<Book> {
+
+    public BookSpecification(SearchRequest request) {
+        super(request, Book.class, false);
+    }
+
+}
@@ -0,0 +1,10 @@
+package io.github.wwhysohard.search.benchmark.model;
+
+public enum Genre {
+
+    FANTASY,
+    SCIENCE_FICTION,
+    DETECTIVE,
+    ROMANCE,
+
+}
@@ -0,0 +1,55 @@
+package io.github.wwhysohard.search.advisor;
+
+import io.github.wwhysohard.search.enums.IndexAdviceType;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Immutable index advice of {@link IndexAdvisor}
+ */
+@Getter
+@ToString
+public final class IndexAdvice {
+
+    /**
+     * Kind of the advised index
+     */
+    private final IndexAdviceType type;
+
+    /**
+     * Model from which the columns are reached, the first one if they are reached from several models
+     */
+    private final Class<?> model;
+
+    /**
+     * Filterable path of the model which reaches the columns, the shortest one if there are several
+     */
+    private final String path;
+
+    /**
+     * Table of the columns as mapped by Hibernate
+     */
+    private final String table;
+
+    /**
+     * Columns to be indexed in order
+     */
+    private final List<String> columns;
+
+    /**
+     * Number of filters and sorts which reached the columns, <code>0</code> if usage is not known
+     */
+    private final long usage;
+
+    IndexAdvice(IndexAdviceType type, Class<?> model, String path, String table, List<String> columns, long usage) {
+        this.type = type;
+        this.model = model;
+        this.path = path;
+        this.table = table;
+        this.columns = columns;
+        this.usage = usage;
+    }
+
+}
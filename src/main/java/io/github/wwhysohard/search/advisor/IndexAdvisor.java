@@ -0,0 +1,381 @@
+package io.github.wwhysohard.search.advisor;
+
+import io.github.wwhysohard.search.enums.IndexAdviceType;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.metadata.FilterableJoin;
+import io.github.wwhysohard.search.metadata.FilterablePath;
+import io.github.wwhysohard.search.metadata.FilterableRegistry;
+import io.github.wwhysohard.search.metrics.UsageSearchMetrics;
+import org.hibernate.MappingException;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.CollectionType;
+import org.hibernate.type.Type;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.BiPredicate;
+
+/**
+ * Cross-checks @{@link io.github.wwhysohard.search.annotation.Filterable} fields of all entities against indexes
+ * of the database, which are read from JDBC {@link DatabaseMetaData}. Meant to be run on demand or once at startup.
+ * Every path reachable from an entity is checked, join paths included, and the following is advised:
+ * <ul>
+ *     <li>indexes on filtered and sorted columns, see {@link IndexAdviceType#MISSING_INDEX}</li>
+ *     <li>indexes on key columns of joinable collections, see {@link IndexAdviceType#MISSING_JOIN_INDEX}.
+ *     Many-to-one joins are not checked, they are always made by identifier of the joined entity</li>
+ *     <li>trigram indexes on columns filtered by <code>LIKE</code> and <code>ILIKE</code>, and text search indexes
+ *     on columns filtered by <code>FULL_TEXT</code>, if usage is given.
+ *     {@link DatabaseMetaData} does not tell index methods apart, so these are reported whenever such filters are used
+ *     and have to be checked against existing indexes</li>
+ * </ul>
+ * Advice is ranked by usage counted by {@link UsageSearchMetrics} if it is given.
+ * Requires Hibernate.
+ */
+public class IndexAdvisor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Constructs {@link IndexAdvisor}
+     *
+     * @param entityManagerFactory {@link EntityManagerFactory} of the entities, which provides database connection
+     */
+    public IndexAdvisor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Advises missing indexes regardless of usage
+     *
+     * @return {@link List} of {@link IndexAdvice}s ordered by table
+     */
+    public List<IndexAdvice> advise() {
+        return advise(null);
+    }
+
+    /**
+     * Creates predicate which tells paths reported by {@link IndexAdviceType#MISSING_INDEX} advice as not indexed,
+     * e.g. for {@link io.github.wwhysohard.search.cost.SearchCostModel}.
+     * Columns reached by several paths are reported by the shortest one only
+     *
+     * @param advice {@link List} of {@link IndexAdvice}s returned by {@link #advise(UsageSearchMetrics)}
+     *
+     * @return predicate of a model and its path of field names which is <code>false</code> for missing indexes
+     */
+    public static BiPredicate<Class<?>, String> indexedPaths(List<IndexAdvice> advice) {
+        Set<List<Object>> missing = new HashSet<>();
+        for (IndexAdvice indexAdvice : advice) {
+            if (indexAdvice.getType() == IndexAdviceType.MISSING_INDEX) {
+                missing.add(Arrays.asList(indexAdvice.getModel(), indexAdvice.getPath()));
+            }
+        }
+        return (model, path) -> !missing.contains(Arrays.asList(model, path));
+    }
+
+    /**
+     * Advises missing indexes ranked by usage
+     *
+     * @param usage {@link UsageSearchMetrics} which counted filters and sorts, may be <code>null</code>
+     *
+     * @return {@link List} of {@link IndexAdvice}s, the most used first
+     */
+    public List<IndexAdvice> advise(UsageSearchMetrics usage) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            Class<?> model = entity.getJavaType();
+            List<String> paths = new ArrayList<>(FilterableRegistry.getPaths(model));
+            paths.sort(Comparator.comparingInt(IndexAdvisor::depth).thenComparing(Comparator.naturalOrder()));
+
+            for (String path : paths) {
+                collect(sessionFactory, model, path, usage, candidates);
+            }
+        }
+
+        Set<String> tables = new HashSet<>();
+        candidates.values().forEach(candidate -> tables.add(candidate.table));
+        Map<String, List<List<String>>> indexes = readIndexes(tables);
+
+        List<IndexAdvice> advice = new ArrayList<>();
+        for (Candidate candidate : candidates.values()) {
+            if (!isIndexed(candidate, indexes.get(candidate.table))) {
+                advice.add(new IndexAdvice(candidate.type, candidate.model, candidate.path, candidate.table,
+                        Collections.unmodifiableList(candidate.columns), candidate.usage));
+            }
+        }
+
+        advice.sort(Comparator.comparingLong(IndexAdvice::getUsage).reversed()
+                .thenComparing(IndexAdvice::getTable)
+                .thenComparing(IndexAdvice::getType)
+                .thenComparing(IndexAdvice::getPath));
+        return advice;
+    }
+
+    /**
+     * Collects columns which the given path filters, sorts and joins
+     *
+     * @param sessionFactory {@link SessionFactoryImplementor} which maps models to tables
+     * @param model {@link Class} of the entity
+     * @param path valid path of the entity
+     * @param usage {@link UsageSearchMetrics} which counted filters and sorts, may be <code>null</code>
+     * @param candidates receives columns by their tables and advice types
+     */
+    private static void collect(SessionFactoryImplementor sessionFactory, Class<?> model, String path,
+                                UsageSearchMetrics usage, Map<String, Candidate> candidates) {
+        FilterablePath resolved = FilterableRegistry.resolve(model, path);
+        long used = (usage != null) ? usage.getFilterCount(model, path) + usage.getSortCount(model, path) : 0;
+        Class<?> owner = model;
+
+        for (FilterableJoin join : resolved.getJoins()) {
+            AbstractEntityPersister persister = getPersister(sessionFactory, owner);
+            Type type = (persister != null) ? persister.getPropertyType(join.getAttributeName()) : null;
+
+            if (type instanceof CollectionType) {
+                AbstractCollectionPersister collection = (AbstractCollectionPersister) sessionFactory.getMetamodel()
+                        .collectionPersister(((CollectionType) type).getRole());
+                add(candidates, IndexAdviceType.MISSING_JOIN_INDEX, model, join.getKey(),
+                        collection.getTableName(), collection.getKeyColumnNames(), used);
+            }
+
+            owner = join.getJavaType();
+        }
+
+        AbstractEntityPersister persister = getPersister(sessionFactory, owner);
+        if (persister == null) return;
+
+        String attributeName = resolved.getAttributeName();
+        String table = persister.getPropertyTableName(attributeName);
+        String[] columns = persister.getPropertyColumnNames(attributeName);
+        add(candidates, IndexAdviceType.MISSING_INDEX, model, path, table, columns, used);
+
+        if (usage != null && String.class.equals(resolved.getJavaType())) {
+            add(candidates, IndexAdviceType.TRIGRAM_INDEX, model, path, table, columns,
+                    usage.getFilterCount(model, path, QueryOperator.LIKE));
+            add(candidates, IndexAdviceType.FUNCTIONAL_INDEX, model, path, table, columns,
+                    usage.getFilterCount(model, path, QueryOperator.ILIKE));
+            add(candidates, IndexAdviceType.FULL_TEXT_INDEX, model, path, table, columns,
+                    usage.getFilterCount(model, path, QueryOperator.FULL_TEXT));
+        }
+    }
+
+    /**
+     * Adds usage of the given columns, columns are added if they are seen for the first time
+     * and keep the shortest path which reaches them. Trigram advice is added only if it is used
+     *
+     * @param candidates columns by their tables and advice types
+     * @param type {@link IndexAdviceType} of the columns
+     * @param model {@link Class} of the entity
+     * @param path path of the entity which reaches the columns
+     * @param table table of the columns
+     * @param columns columns in order
+     * @param usage number of filters and sorts which reached the columns
+     */
+    private static void add(Map<String, Candidate> candidates, IndexAdviceType type, Class<?> model, String path,
+                            String table, String[] columns, long usage) {
+        if (table == null || columns == null || columns.length == 0 || (isExpression(type) && usage == 0)) return;
+
+        String key = type + " " + table + " " + String.join(",", columns);
+        Candidate candidate = candidates.computeIfAbsent(key, k -> new Candidate(type, model, path, table, Arrays.asList(columns)));
+        candidate.usage += usage;
+
+        if (depth(path) < depth(candidate.path)) {
+            candidate.model = model;
+            candidate.path = path;
+        }
+    }
+
+    /**
+     * Checks whether the given type advises an index on an expression of columns, which {@link DatabaseMetaData} does not describe
+     *
+     * @param type {@link IndexAdviceType} to be checked
+     *
+     * @return <code>true</code> for trigram, functional and full-text indexes
+     */
+    private static boolean isExpression(IndexAdviceType type) {
+        return type == IndexAdviceType.TRIGRAM_INDEX || type == IndexAdviceType.FUNCTIONAL_INDEX
+                || type == IndexAdviceType.FULL_TEXT_INDEX;
+    }
+
+    /**
+     * Checks whether the given columns are leading columns of any index.
+     * Advice on expression indexes is never considered indexed
+     *
+     * @param candidate columns to be checked
+     * @param indexes columns of every index of the table
+     *
+     * @return <code>true</code> if the columns are indexed
+     */
+    private static boolean isIndexed(Candidate candidate, List<List<String>> indexes) {
+        if (isExpression(candidate.type)) return false;
+        if (indexes == null) return false;
+
+        Set<String> columns = new HashSet<>();
+        candidate.columns.forEach(column -> columns.add(normalize(column)));
+
+        for (List<String> index : indexes) {
+            if (index.size() >= columns.size() && columns.equals(new HashSet<>(index.subList(0, columns.size())))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads columns of indexes of the given tables
+     *
+     * @param tables tables as mapped by Hibernate
+     *
+     * @return {@link Map} of tables to columns of their indexes in order
+     */
+    private Map<String, List<List<String>>> readIndexes(Set<String> tables) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+
+        try {
+            return entityManager.unwrap(Session.class).doReturningWork(connection -> readIndexes(connection, tables));
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Reads columns of indexes of the given tables through the given connection
+     *
+     * @param connection {@link Connection} to the database
+     * @param tables tables as mapped by Hibernate
+     *
+     * @return {@link Map} of tables to columns of their indexes in order
+     *
+     * @throws SQLException if {@link DatabaseMetaData} cannot be read
+     */
+    private static Map<String, List<List<String>>> readIndexes(Connection connection, Set<String> tables) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        Map<String, List<List<String>>> indexes = new HashMap<>();
+
+        for (String table : tables) {
+            int indexOfPoint = table.lastIndexOf('.');
+            String schema = (indexOfPoint != -1) ? identifier(metaData, table.substring(0, indexOfPoint)) : null;
+            String name = identifier(metaData, table.substring(indexOfPoint + 1));
+            Map<String, SortedMap<Short, String>> columns = new HashMap<>();
+
+            try (ResultSet resultSet = metaData.getIndexInfo(null, schema, name, false, true)) {
+                while (resultSet.next()) {
+                    String indexName = resultSet.getString("INDEX_NAME");
+                    String column = resultSet.getString("COLUMN_NAME");
+                    if (indexName == null || column == null) continue;
+
+                    columns.computeIfAbsent(indexName, index -> new TreeMap<>())
+                            .put(resultSet.getShort("ORDINAL_POSITION"), normalize(column));
+                }
+            }
+
+            List<List<String>> tableIndexes = new ArrayList<>();
+            columns.values().forEach(index -> tableIndexes.add(new ArrayList<>(index.values())));
+            indexes.put(table, tableIndexes);
+        }
+
+        return indexes;
+    }
+
+    /**
+     * Converts the given identifier to the case in which the database stores it
+     *
+     * @param metaData {@link DatabaseMetaData} of the database
+     * @param identifier identifier as mapped by Hibernate, may be quoted
+     *
+     * @return identifier as stored by the database
+     *
+     * @throws SQLException if {@link DatabaseMetaData} cannot be read
+     */
+    private static String identifier(DatabaseMetaData metaData, String identifier) throws SQLException {
+        if (isQuoted(identifier)) return identifier.substring(1, identifier.length() - 1);
+        if (metaData.storesUpperCaseIdentifiers()) return identifier.toUpperCase(Locale.ROOT);
+        if (metaData.storesLowerCaseIdentifiers()) return identifier.toLowerCase(Locale.ROOT);
+        return identifier;
+    }
+
+    /**
+     * Normalizes the given column for case-insensitive comparison
+     *
+     * @param column column, may be quoted
+     *
+     * @return unquoted column in lower case
+     */
+    private static String normalize(String column) {
+        return (isQuoted(column) ? column.substring(1, column.length() - 1) : column).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param identifier identifier to be checked
+     *
+     * @return <code>true</code> if the identifier is quoted by double quotes or backticks
+     */
+    private static boolean isQuoted(String identifier) {
+        return identifier.length() > 1
+                && ((identifier.startsWith("\"") && identifier.endsWith("\"")) || (identifier.startsWith("`") && identifier.endsWith("`")));
+    }
+
+    /**
+     * Finds persister of the given entity
+     *
+     * @param sessionFactory {@link SessionFactoryImplementor} which maps models to tables
+     * @param model {@link Class} of the entity
+     *
+     * @return {@link AbstractEntityPersister} of the entity, <code>null</code> if the model is not a mapped entity
+     */
+    private static AbstractEntityPersister getPersister(SessionFactoryImplementor sessionFactory, Class<?> model) {
+        try {
+            EntityPersister persister = sessionFactory.getMetamodel().entityPersister(model);
+            return (persister instanceof AbstractEntityPersister) ? (AbstractEntityPersister) persister : null;
+        } catch (MappingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param path path to be measured
+     *
+     * @return number of joins of the path
+     */
+    private static int depth(String path) {
+        int depth = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '.') depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Columns which may need an index, together with their usage
+     */
+    private static class Candidate {
+
+        private final IndexAdviceType type;
+        private final String table;
+        private final List<String> columns;
+
+        private Class<?> model;
+        private String path;
+        private long usage;
+
+        Candidate(IndexAdviceType type, Class<?> model, String path, String table, List<String> columns) {
+            this.type = type;
+            this.model = model;
+            this.path = path;
+            this.table = table;
+            this.columns = columns;
+        }
+
+    }
+
+}
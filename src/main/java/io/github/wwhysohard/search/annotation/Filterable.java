@@ -1,7 +1,10 @@
 package io.github.wwhysohard.search.annotation;
 
+import io.github.wwhysohard.search.enums.JoinStrategy;
+import io.github.wwhysohard.search.utils.GenericCriteriaJoin;
 import io.github.wwhysohard.search.utils.GenericCriteriaPredicate;
 
+import javax.persistence.criteria.JoinType;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -28,4 +31,27 @@ public @interface Filterable {
      */
     String[] names() default {};
 
+    /**
+     * Used on relationships between models.
+     * Defines {@link JoinType} of the join which {@link GenericCriteriaJoin} creates on demand,
+     * when the field is referenced by a filter or sort path
+     */
+    JoinType joinType() default JoinType.LEFT;
+
+    /**
+     * Used on relationships between models.
+     * Defines whether filters on related object's fields are applied through a join
+     * or through a correlated <code>EXISTS</code> subquery, see {@link JoinStrategy}
+     */
+    JoinStrategy joinStrategy() default JoinStrategy.AUTO;
+
+    /**
+     * Used on text fields.
+     * Name of a field of the same model which holds lower-cased value of the annotated field,
+     * e.g. a generated column or a column maintained by an entity callback. Case-insensitive operators compare it
+     * instead of <code>lower(field)</code>, so that a plain index on it is used.
+     * By default, <code>lower(field)</code> is compared, which can be supported by a functional index
+     */
+    String caseInsensitiveField() default "";
+
 }
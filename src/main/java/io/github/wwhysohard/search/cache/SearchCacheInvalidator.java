@@ -0,0 +1,135 @@
+package io.github.wwhysohard.search.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityListeners;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JPA entity listener which invalidates cached search results of changed entity types.
+ * Register it on searched entities and entities they join with @{@link EntityListeners},
+ * or as a default entity listener in <code>orm.xml</code>.
+ * Every change increments version of the entity type and all of its superclasses, and {@link SearchResultCache}
+ * treats results read before the change as stale. Changes are flushed before they are committed, so within
+ * a Spring managed transaction versions are incremented once more after the transaction completes,
+ * which invalidates results read by other transactions before the commit, and results are not cached
+ * by the changing transaction itself, so that uncommitted rows are never shared.
+ */
+public class SearchCacheInvalidator {
+
+    private static final ConcurrentMap<Class<?>, AtomicLong> VERSIONS = new ConcurrentHashMap<>();
+
+    /**
+     * Key of the transaction resource which holds entity types changed by the current transaction
+     */
+    private static final Object PENDING = new Object();
+
+    /**
+     * Invalidates cached results of the type of the changed entity
+     *
+     * @param entity persisted, updated or removed entity
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        invalidate(entity.getClass());
+    }
+
+    /**
+     * Invalidates cached results of the given entity type explicitly,
+     * e.g. after bulk updates or native queries which bypass entity lifecycle events
+     *
+     * @param entityType changed entity type
+     */
+    public static void invalidate(Class<?> entityType) {
+        increment(entityType);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            getPending().add(entityType);
+        }
+    }
+
+    /**
+     * Checks whether the current transaction has changed any of the given entity types and not completed yet
+     *
+     * @param entityTypes entity types of a search
+     *
+     * @return <code>true</code> if results of the entity types may include uncommitted changes
+     */
+    static boolean hasPendingChanges(Set<Class<?>> entityTypes) {
+        @SuppressWarnings("unchecked")
+        Set<Class<?>> pending = (Set<Class<?>>) TransactionSynchronizationManager.getResource(PENDING);
+        if (pending == null) return false;
+
+        for (Class<?> entityType : pending) {
+            for (Class<?> current = entityType; current != null && current != Object.class; current = current.getSuperclass()) {
+                if (entityTypes.contains(current)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns entity types changed by the current transaction, registering their invalidation
+     * after the transaction completes on the first change
+     *
+     * @return modifiable {@link Set} of changed entity types
+     */
+    @SuppressWarnings("unchecked")
+    private static Set<Class<?>> getPending() {
+        Set<Class<?>> pending = (Set<Class<?>>) TransactionSynchronizationManager.getResource(PENDING);
+        if (pending != null) return pending;
+
+        Set<Class<?>> changed = new HashSet<>();
+        TransactionSynchronizationManager.bindResource(PENDING, changed);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(PENDING);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(PENDING, changed);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PENDING);
+                changed.forEach(SearchCacheInvalidator::increment);
+            }
+        });
+        return changed;
+    }
+
+    /**
+     * Increments version of the given entity type and all of its superclasses
+     *
+     * @param entityType changed entity type
+     */
+    private static void increment(Class<?> entityType) {
+        for (Class<?> current = entityType; current != null && current != Object.class; current = current.getSuperclass()) {
+            VERSIONS.computeIfAbsent(current, type -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * @param entityType entity type
+     *
+     * @return current version of the given entity type, which is incremented on every change
+     */
+    static long getVersion(Class<?> entityType) {
+        AtomicLong version = VERSIONS.get(entityType);
+        return (version != null) ? version.get() : 0;
+    }
+
+}
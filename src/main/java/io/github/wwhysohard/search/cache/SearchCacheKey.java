@@ -0,0 +1,207 @@
+package io.github.wwhysohard.search.cache;
+
+import io.github.wwhysohard.search.converter.ValueConverters;
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.metadata.FilterableJoin;
+import io.github.wwhysohard.search.metadata.FilterablePath;
+import io.github.wwhysohard.search.metadata.FilterableRegistry;
+import io.github.wwhysohard.search.specification.GenericSpecification;
+import io.github.wwhysohard.search.utils.GenericCriteriaOrder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Key of cached search results built from canonical form of {@link SearchRequest}.
+ * Field names and aliases are resolved to JPA attribute paths, values are converted to field types
+ * and printed back, and filters of every group are ordered, so requests which differ only in those
+ * respects share the same key.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class SearchCacheKey {
+
+    /**
+     * Canonical form of the search including specification class and page
+     */
+    private final String canonical;
+
+    /**
+     * Scope of the specification, see {@link GenericSpecification#getCacheScope()}
+     */
+    private final Object scope;
+
+    /**
+     * Entity types which the search reads, i.e. the searched model and every joined model
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Set<Class<?>> entityTypes;
+
+    private SearchCacheKey(String canonical, Object scope, Set<Class<?>> entityTypes) {
+        this.canonical = canonical;
+        this.scope = scope;
+        this.entityTypes = entityTypes;
+    }
+
+    /**
+     * Creates key of the given specification
+     *
+     * @param specification {@link GenericSpecification} to be executed
+     * @param page description of the requested results, e.g. page number and size
+     *
+     * @return {@link SearchCacheKey} of the search
+     *
+     * @throws FilterException with the same {@link ErrorCode}s as the search does on invalid filters or sorts
+     */
+    public static SearchCacheKey of(GenericSpecification<?> specification, String page) {
+        SearchRequest request = specification.getRequest();
+        Class<?> clazz = specification.getGenericType();
+        Set<Class<?>> entityTypes = new LinkedHashSet<>();
+        entityTypes.add(clazz);
+
+        StringBuilder builder = new StringBuilder(specification.getClass().getName()).append('|').append(clazz.getName());
+
+        if (request.getFilters() != null) {
+            builder.append("|AND").append(group(request.getFilters(), clazz, entityTypes));
+        }
+
+        builder.append('|');
+
+        if (request.getSorts() != null) {
+            for (SortRequest sort : request.getSorts()) {
+                if (GenericCriteriaOrder.RELEVANCE.equals(sort.getField())) {
+                    builder.append(GenericCriteriaOrder.RELEVANCE).append(' ').append(sort.getOrder()).append(',');
+                    continue;
+                }
+
+                FilterablePath path = FilterableRegistry.resolve(clazz, sort.getField());
+                if (!path.isValid()) throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_SORTING);
+
+                builder.append(canonicalPath(path, entityTypes)).append(' ').append(sort.getOrder()).append(',');
+            }
+        }
+
+        if (request.isKeyset()) {
+            builder.append("|keyset ");
+            append(builder, request.getCursor());
+        }
+
+        builder.append('|').append(page);
+
+        return new SearchCacheKey(builder.toString(), specification.getCacheScope(), Collections.unmodifiableSet(entityTypes));
+    }
+
+    /**
+     * Returns canonical form of the given filters enclosed in parentheses, ordered as their operator is commutative
+     */
+    private static String group(List<FilterRequest> filters, Class<?> clazz, Set<Class<?>> entityTypes) {
+        if (filters == null || filters.isEmpty()) throw new FilterException(ErrorCode.FILTERS_CANNOT_BE_EMPTY);
+
+        List<String> canonical = new ArrayList<>(filters.size());
+        for (FilterRequest filter : filters) {
+            canonical.add(filter(filter, clazz, entityTypes));
+        }
+        Collections.sort(canonical);
+
+        return "(" + String.join(",", canonical) + ")";
+    }
+
+    /**
+     * Returns canonical form of the given filter
+     */
+    private static String filter(FilterRequest filter, Class<?> clazz, Set<Class<?>> entityTypes) {
+        QueryOperator operator = filter.getOperator();
+        if (operator == QueryOperator.AND || operator == QueryOperator.OR) {
+            return operator + group(filter.getFilters(), clazz, entityTypes);
+        }
+
+        if (filter.getField() == null) throw new FilterException(ErrorCode.FIELD_CANNOT_BE_NULL);
+
+        FilterablePath path = FilterableRegistry.resolve(clazz, filter.getField());
+        if (!path.isValid()) throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_FILTERING);
+
+        StringBuilder builder = new StringBuilder(canonicalPath(path, entityTypes)).append(' ').append(operator).append(' ');
+
+        switch (operator) {
+            case LIKE:
+            case STARTS_WITH:
+            case ENDS_WITH:
+            case FULL_TEXT:
+                append(builder, filter.getValue());
+                break;
+            case ILIKE:
+            case EQUALS_IGNORE_CASE:
+            case ISTARTS_WITH:
+                append(builder, (filter.getValue() != null) ? filter.getValue().toLowerCase() : null);
+                break;
+            case IN:
+            case NOT_IN:
+                Set<String> values = new TreeSet<>();
+                for (Object value : ValueConverters.convert(ValueConverters.get(path.getJavaType()), filter.getValues())) {
+                    values.add(toString(value));
+                }
+                for (String value : values) {
+                    append(builder, value);
+                }
+                break;
+            case NULL:
+            case NOT_NULL:
+                break;
+            default:
+                append(builder, toString(ValueConverters.convert(ValueConverters.get(path.getJavaType()), filter.getValue())));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Returns path of JPA attribute names of the given path, collecting types of joined models
+     */
+    private static String canonicalPath(FilterablePath path, Set<Class<?>> entityTypes) {
+        if (path.getJoins().isEmpty()) return path.getAttributeName();
+
+        for (FilterableJoin join : path.getJoins()) {
+            entityTypes.add(join.getJavaType());
+        }
+
+        return path.getJoins().get(path.getJoins().size() - 1).getKey() + "." + path.getAttributeName();
+    }
+
+    /**
+     * Prints converted value, so that equal values of different representations are printed equally
+     */
+    private static String toString(Object value) {
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            return (decimal.signum() == 0) ? "0" : decimal.stripTrailingZeros().toPlainString();
+        }
+        return (value instanceof Enum) ? ((Enum<?>) value).name() : String.valueOf(value);
+    }
+
+    /**
+     * Appends length-prefixed value, so that values cannot be confused with the surrounding syntax
+     */
+    private static void append(StringBuilder builder, String value) {
+        if (value == null) {
+            builder.append('~');
+        } else {
+            builder.append(value.length()).append(':').append(value);
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package io.github.wwhysohard.search.cache;
+
+import lombok.Getter;
+
+/**
+ * Snapshot of {@link SearchResultCache} statistics
+ */
+@Getter
+public class SearchCacheStatistics {
+
+    /**
+     * Number of searches served from the cache
+     */
+    private final long hits;
+
+    /**
+     * Number of searches executed against the database
+     */
+    private final long misses;
+
+    /**
+     * Number of results removed because they expired or the cache was full
+     */
+    private final long evictions;
+
+    /**
+     * Number of results removed because entities they were read from changed, or the cache was cleared
+     */
+    private final long invalidations;
+
+    /**
+     * Number of cached results
+     */
+    private final int size;
+
+    SearchCacheStatistics(long hits, long misses, long evictions, long invalidations, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.size = size;
+    }
+
+    /**
+     * @return ratio of searches served from the cache
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return (total == 0) ? 0 : (double) hits / total;
+    }
+
+}
@@ -0,0 +1,193 @@
+package io.github.wwhysohard.search.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe cache of search results bounded by size and time to live.
+ * Least recently used results are evicted when the cache is full. Every result remembers versions of entity types
+ * it was read from, see {@link SearchCacheInvalidator}, and is treated as stale once any of them changes.
+ * Cached results are shared between callers and must not be modified.
+ */
+public class SearchResultCache {
+
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final LongSupplier ticker;
+    private final LinkedHashMap<SearchCacheKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Constructs {@link SearchResultCache}
+     *
+     * @param maximumSize maximum number of cached results
+     * @param timeToLive time after which cached results expire
+     */
+    public SearchResultCache(int maximumSize, Duration timeToLive) {
+        this(maximumSize, timeToLive, System::nanoTime);
+    }
+
+    /**
+     * Constructs {@link SearchResultCache} with the given source of time
+     *
+     * @param maximumSize maximum number of cached results
+     * @param timeToLive time after which cached results expire
+     * @param ticker source of time in nanoseconds
+     */
+    SearchResultCache(int maximumSize, Duration timeToLive, LongSupplier ticker) {
+        if (maximumSize <= 0) throw new IllegalArgumentException("Maximum size must be positive");
+        if (timeToLive.isNegative() || timeToLive.isZero()) throw new IllegalArgumentException("Time to live must be positive");
+
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.ticker = ticker;
+    }
+
+    /**
+     * Returns cached result of the given key, loading and caching it if absent, expired or stale.
+     * Versions of entity types are read before loading, so a result read concurrently with a change is never served.
+     * Within a transaction which has changed any of the entity types the result is loaded without using the cache,
+     * see {@link SearchCacheInvalidator}.
+     *
+     * @param key {@link SearchCacheKey} of the search
+     * @param loader executes the search
+     * @param <V> type of the result
+     *
+     * @return cached or loaded result
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(SearchCacheKey key, Supplier<V> loader) {
+        if (SearchCacheInvalidator.hasPendingChanges(key.getEntityTypes())) {
+            misses.increment();
+            return loader.get();
+        }
+
+        long now = ticker.getAsLong();
+
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+
+            if (entry != null) {
+                if (now - entry.created >= timeToLiveNanos) {
+                    entries.remove(key);
+                    evictions.increment();
+                } else if (entry.isStale(key.getEntityTypes())) {
+                    entries.remove(key);
+                    invalidations.increment();
+                } else {
+                    hits.increment();
+                    return (V) entry.value;
+                }
+            }
+        }
+
+        misses.increment();
+        long[] versions = versions(key.getEntityTypes());
+        V value = loader.get();
+
+        synchronized (entries) {
+            entries.put(key, new Entry(value, now, versions));
+            evictOverflow();
+        }
+
+        return value;
+    }
+
+    /**
+     * Removes all cached results
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return number of cached results, including expired and stale ones which have not been removed yet
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return snapshot of the statistics
+     */
+    public SearchCacheStatistics getStatistics() {
+        return new SearchCacheStatistics(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size());
+    }
+
+    /**
+     * Evicts least recently used results beyond the maximum size
+     */
+    private void evictOverflow() {
+        Iterator<Map.Entry<SearchCacheKey, Entry>> iterator = entries.entrySet().iterator();
+
+        while (entries.size() > maximumSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * @param entityTypes entity types of a search
+     *
+     * @return current versions of the given entity types
+     */
+    private static long[] versions(Set<Class<?>> entityTypes) {
+        long[] versions = new long[entityTypes.size()];
+        int i = 0;
+
+        for (Class<?> entityType : entityTypes) {
+            versions[i++] = SearchCacheInvalidator.getVersion(entityType);
+        }
+
+        return versions;
+    }
+
+    /**
+     * Cached result with time of creation and versions of entity types it was read from
+     */
+    private static final class Entry {
+
+        private final Object value;
+        private final long created;
+        private final long[] versions;
+
+        private Entry(Object value, long created, long[] versions) {
+            this.value = value;
+            this.created = created;
+            this.versions = versions;
+        }
+
+        /**
+         * @param entityTypes entity types of the search in the same order as they were versioned
+         *
+         * @return <code>true</code> if any of the entity types changed since the result was read
+         */
+        private boolean isStale(Set<Class<?>> entityTypes) {
+            int i = 0;
+
+            for (Class<?> entityType : entityTypes) {
+                if (SearchCacheInvalidator.getVersion(entityType) != versions[i++]) return true;
+            }
+
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,23 @@
+package io.github.wwhysohard.search.converter;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+
+/**
+ * Converts <code>value</code> or <code>values</code> of {@link FilterRequest} to the type of the filtered field
+ *
+ * @param <T> type to which values are converted
+ */
+@FunctionalInterface
+public interface ValueConverter<T> {
+
+    /**
+     * Converts the given value
+     *
+     * @param value non-null value to be converted
+     *
+     * @return converted value
+     * @throws RuntimeException if the value cannot be converted
+     */
+    T convert(String value);
+
+}
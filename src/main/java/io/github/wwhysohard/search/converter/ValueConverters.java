@@ -0,0 +1,183 @@
+package io.github.wwhysohard.search.converter;
+
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.exception.FilterException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of {@link ValueConverter}s keyed by target type.
+ * Converters for {@link String}, enums, primitives and their wrappers, {@link BigDecimal}, {@link BigInteger},
+ * {@link UUID} and <code>java.time</code> types are registered by default,
+ * custom value types can be added with {@link #register(Class, ValueConverter)}.
+ */
+public class ValueConverters {
+
+    /**
+     * Used for types which no converter can be resolved for
+     */
+    private static final ValueConverter<Object> UNSUPPORTED = value -> {
+        throw new FilterException(ErrorCode.ILLEGAL_ARGUMENT);
+    };
+
+    private static final ConcurrentMap<Class<?>, ValueConverter<?>> CONVERTERS = new ConcurrentHashMap<>();
+
+    static {
+        register(String.class, value -> value);
+        register(LocalDateTime.class, LocalDateTime::parse);
+        register(LocalDate.class, LocalDate::parse);
+        register(LocalTime.class, LocalTime::parse);
+        register(Instant.class, Instant::parse);
+        register(OffsetDateTime.class, OffsetDateTime::parse);
+        register(ZonedDateTime.class, ZonedDateTime::parse);
+        register(UUID.class, UUID::fromString);
+        register(BigDecimal.class, BigDecimal::new);
+        register(BigInteger.class, BigInteger::new);
+        registerPrimitive(long.class, Long.class, Long::valueOf);
+        registerPrimitive(double.class, Double.class, Double::valueOf);
+        registerPrimitive(int.class, Integer.class, Integer::valueOf);
+        registerPrimitive(boolean.class, Boolean.class, Boolean::valueOf);
+        registerPrimitive(short.class, Short.class, Short::valueOf);
+        registerPrimitive(byte.class, Byte.class, Byte::valueOf);
+        registerPrimitive(float.class, Float.class, Float::valueOf);
+        registerPrimitive(char.class, Character.class, ValueConverters::toCharacter);
+    }
+
+    /**
+     * Creating an instance of {@link ValueConverters} is illegal
+     */
+    private ValueConverters() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Registers {@link ValueConverter} for the given type, replacing the existing one if any
+     *
+     * @param type {@link Class} of the filtered field
+     * @param converter {@link ValueConverter} which converts values to the given type
+     * @param <T> type of the filtered field
+     */
+    public static <T> void register(Class<T> type, ValueConverter<? extends T> converter) {
+        CONVERTERS.put(type, converter);
+    }
+
+    /**
+     * Resolves {@link ValueConverter} for the given type. Resolution result is cached,
+     * so it is cheap to call this method once per filter.
+     *
+     * @param type {@link Class} of the filtered field
+     * @param <T> type of the filtered field
+     *
+     * @return {@link ValueConverter} for the given type, which throws {@link FilterException}
+     * with <code>ILLEGAL_ARGUMENT</code> {@link ErrorCode} if the type is not supported
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ValueConverter<T> get(Class<T> type) {
+        ValueConverter<?> converter = CONVERTERS.get(type);
+        if (converter == null) {
+            converter = CONVERTERS.computeIfAbsent(type, ValueConverters::create);
+        }
+        return (ValueConverter<T>) converter;
+    }
+
+    /**
+     * Converts <code>value</code> with the given {@link ValueConverter}
+     *
+     * @param converter {@link ValueConverter} to be applied
+     * @param value value to be converted
+     * @param <T> type to which value is converted
+     *
+     * @return converted value
+     *
+     * @throws FilterException with <code>VALUE_CANNOT_BE_NULL</code> {@link ErrorCode} if value is <code>null</code>,
+     * with <code>ILLEGAL_ARGUMENT</code> {@link ErrorCode} if value cannot be converted
+     */
+    public static <T> T convert(ValueConverter<T> converter, String value) {
+        if (value == null) {
+            throw new FilterException(ErrorCode.VALUE_CANNOT_BE_NULL);
+        }
+
+        try {
+            return converter.convert(value);
+        } catch (FilterException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new FilterException(ErrorCode.ILLEGAL_ARGUMENT);
+        }
+    }
+
+    /**
+     * Converts <code>values</code> in a single pass with the given {@link ValueConverter}
+     *
+     * @param converter {@link ValueConverter} to be applied
+     * @param values values to be converted
+     *
+     * @return array of converted values in the same order
+     *
+     * @throws FilterException with <code>VALUES_CANNOT_BE_NULL</code> {@link ErrorCode} if values are <code>null</code>
+     */
+    public static Object[] convert(ValueConverter<?> converter, List<String> values) {
+        if (values == null) {
+            throw new FilterException(ErrorCode.VALUES_CANNOT_BE_NULL);
+        }
+
+        Object[] converted = new Object[values.size()];
+        int i = 0;
+
+        for (String value : values) {
+            converted[i++] = convert(converter, value);
+        }
+
+        return converted;
+    }
+
+    /**
+     * Creates {@link ValueConverter} for a type which was not registered explicitly
+     *
+     * @param type {@link Class} of the filtered field
+     *
+     * @return created {@link ValueConverter}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ValueConverter<?> create(Class<?> type) {
+        if (Enum.class.isAssignableFrom(type)) {
+            return value -> Enum.valueOf((Class) type, value);
+        } else if (type.isAssignableFrom(String.class)) {
+            return value -> value;
+        }
+
+        return UNSUPPORTED;
+    }
+
+    /**
+     * Registers the same {@link ValueConverter} for primitive type and its wrapper
+     */
+    private static <T> void registerPrimitive(Class<?> primitive, Class<T> wrapper, ValueConverter<T> converter) {
+        CONVERTERS.put(primitive, converter);
+        CONVERTERS.put(wrapper, converter);
+    }
+
+    /**
+     * Converts value to its first {@link Character}
+     *
+     * @throws FilterException with <code>ILLEGAL_ARGUMENT</code> {@link ErrorCode} if value is empty
+     */
+    private static Character toCharacter(String value) {
+        if (value.isEmpty()) {
+            throw new FilterException(ErrorCode.ILLEGAL_ARGUMENT);
+        }
+        return value.charAt(0);
+    }
+
+}
@@ -0,0 +1,34 @@
+package io.github.wwhysohard.search.cost;
+
+/**
+ * Utility class which holds {@link SearchCostModel} of specifications which do not define their own,
+ * {@link SearchCostModel#DEFAULT} by default. The model is meant to be set once at startup
+ */
+public class AdmissionControl {
+
+    private static volatile SearchCostModel costModel = SearchCostModel.DEFAULT;
+
+    /**
+     * Creating an instance of {@link AdmissionControl} is illegal
+     */
+    private AdmissionControl() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @return current default {@link SearchCostModel}
+     */
+    public static SearchCostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * Sets default {@link SearchCostModel}
+     *
+     * @param model {@link SearchCostModel} to be used, <code>null</code> to restore {@link SearchCostModel#DEFAULT}
+     */
+    public static void setCostModel(SearchCostModel model) {
+        costModel = (model != null) ? model : SearchCostModel.DEFAULT;
+    }
+
+}
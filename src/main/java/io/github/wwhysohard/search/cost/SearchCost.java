@@ -0,0 +1,48 @@
+package io.github.wwhysohard.search.cost;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Immutable cost of a search estimated by {@link SearchCostEstimator}
+ */
+@Getter
+@ToString
+public final class SearchCost {
+
+    /**
+     * Estimated cost of the search
+     */
+    private final double cost;
+
+    /**
+     * Maximum cost of admitted searches
+     */
+    private final double budget;
+
+    /**
+     * Share of the budget above which admitted searches are near the limit
+     */
+    private final double nearLimitRatio;
+
+    SearchCost(double cost, double budget, double nearLimitRatio) {
+        this.cost = cost;
+        this.budget = budget;
+        this.nearLimitRatio = nearLimitRatio;
+    }
+
+    /**
+     * @return <code>true</code> if the search is not to be admitted
+     */
+    public boolean isOverBudget() {
+        return cost > budget;
+    }
+
+    /**
+     * @return <code>true</code> if the search is admitted, but its cost is close to the budget
+     */
+    public boolean isNearLimit() {
+        return !isOverBudget() && cost > budget * nearLimitRatio;
+    }
+
+}
@@ -0,0 +1,169 @@
+package io.github.wwhysohard.search.cost;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.metadata.FilterableJoin;
+import io.github.wwhysohard.search.metadata.FilterablePath;
+import io.github.wwhysohard.search.metadata.FilterableRegistry;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utility class which estimates cost of a {@link SearchRequest} by {@link SearchCostModel}
+ * from the request and @{@link io.github.wwhysohard.search.annotation.Filterable} metadata only, before any SQL is built.
+ * Fields which are not allowed for filtering or sorting cost nothing, they are rejected later anyway
+ */
+public class SearchCostEstimator {
+
+    /**
+     * Creating an instance of {@link SearchCostEstimator} is illegal
+     */
+    private SearchCostEstimator() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Estimates cost of the given request
+     *
+     * @param request {@link SearchRequest} to be estimated
+     * @param clazz {@link Class} instance of the searched model
+     * @param model {@link SearchCostModel} of weights and budget
+     *
+     * @return {@link SearchCost} of the request
+     */
+    public static SearchCost estimate(SearchRequest request, Class<?> clazz, SearchCostModel model) {
+        Set<String> joins = new HashSet<>();
+        double cost = 0;
+
+        if (request.getFilters() != null) {
+            cost += filters(request.getFilters(), 1, clazz, model, joins);
+        }
+
+        if (request.getSorts() != null) {
+            for (SortRequest sort : request.getSorts()) {
+                cost += sort(sort, clazz, model, joins);
+            }
+        }
+
+        cost += joins.size() * model.getJoinWeight();
+
+        return new SearchCost(cost, model.getBudget(), model.getNearLimitRatio());
+    }
+
+    /**
+     * Estimates cost of the given filters of a group at the given depth, collecting join hops
+     */
+    private static double filters(List<FilterRequest> filters, int depth, Class<?> clazz,
+                                  SearchCostModel model, Set<String> joins) {
+        double cost = 0;
+
+        for (FilterRequest filter : filters) {
+            QueryOperator operator = filter.getOperator();
+
+            if (operator == QueryOperator.AND || operator == QueryOperator.OR) {
+                cost += depth * model.getDepthWeight();
+                if (filter.getFilters() != null) {
+                    cost += filters(filter.getFilters(), depth + 1, clazz, model, joins);
+                }
+            } else {
+                cost += filter(filter, clazz, model, joins);
+            }
+        }
+
+        return cost;
+    }
+
+    /**
+     * Estimates cost of the given filter on a field, collecting its join hops
+     */
+    private static double filter(FilterRequest filter, Class<?> clazz, SearchCostModel model, Set<String> joins) {
+        FilterablePath path = resolve(clazz, filter.getField());
+        if (path == null) return 0;
+
+        collectJoins(path, joins);
+        double cost = model.getFilterWeight();
+
+        if (filter.getValues() != null) {
+            cost += filter.getValues().size() * model.getInValueWeight();
+        }
+
+        if (isNonSargable(filter.getOperator(), path)) {
+            cost += model.getNonSargableWeight();
+        }
+
+        return cost;
+    }
+
+    /**
+     * Estimates cost of the given sort, collecting its join hops
+     */
+    private static double sort(SortRequest sort, Class<?> clazz, SearchCostModel model, Set<String> joins) {
+        FilterablePath path = resolve(clazz, sort.getField());
+        if (path == null) return model.getSortWeight();
+
+        collectJoins(path, joins);
+        double cost = model.getSortWeight();
+
+        if (!model.getIndexedPaths().test(clazz, canonical(path))) {
+            cost += model.getUnindexedSortWeight();
+        }
+
+        return cost;
+    }
+
+    /**
+     * Checks whether no B-tree index on the field supports the given operator
+     */
+    private static boolean isNonSargable(QueryOperator operator, FilterablePath path) {
+        if (operator == null) return false;
+
+        switch (operator) {
+            case LIKE:
+            case ILIKE:
+            case ENDS_WITH:
+                return true;
+            case EQUALS_IGNORE_CASE:
+            case ISTARTS_WITH:
+                return path.getCaseInsensitiveField() == null;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Resolves the given field, <code>null</code> if it is not allowed
+     */
+    private static FilterablePath resolve(Class<?> clazz, String field) {
+        if (field == null) return null;
+
+        FilterablePath path = FilterableRegistry.resolve(clazz, field);
+        return path.isValid() ? path : null;
+    }
+
+    /**
+     * Collects keys of join hops of the given path
+     */
+    private static void collectJoins(FilterablePath path, Set<String> joins) {
+        for (FilterableJoin join : path.getJoins()) {
+            joins.add(join.getKey());
+        }
+    }
+
+    /**
+     * Returns path of field names of the given path, as reported by {@link io.github.wwhysohard.search.advisor.IndexAdvisor}
+     */
+    private static String canonical(FilterablePath path) {
+        StringBuilder canonical = new StringBuilder();
+        for (Field field : path.getFields()) {
+            if (canonical.length() > 0) canonical.append('.');
+            canonical.append(field.getName());
+        }
+        return canonical.toString();
+    }
+
+}
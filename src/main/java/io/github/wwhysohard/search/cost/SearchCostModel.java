@@ -0,0 +1,87 @@
+package io.github.wwhysohard.search.cost;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.function.BiPredicate;
+
+/**
+ * Immutable weights by which {@link SearchCostEstimator} estimates cost of a search, and the budget of admitted searches.
+ * Default weights make a search of a few filters and sorts cost tens of units within the default budget of 1000,
+ * while e.g. 40 nested groups, an <code>IN</code> list of 50 000 values or dozens of unanchored <code>LIKE</code>s exceed it
+ */
+@Getter
+@Builder(setterPrefix = "with", toBuilder = true)
+public final class SearchCostModel {
+
+    /**
+     * {@link SearchCostModel} of default weights and budget
+     */
+    public static final SearchCostModel DEFAULT = SearchCostModel.builder().build();
+
+    /**
+     * Maximum cost of admitted searches
+     */
+    @Builder.Default
+    private final double budget = 1000;
+
+    /**
+     * Share of the budget above which admitted searches are counted as near the limit
+     */
+    @Builder.Default
+    private final double nearLimitRatio = 0.8;
+
+    /**
+     * Cost of every filter on a field
+     */
+    @Builder.Default
+    private final double filterWeight = 1;
+
+    /**
+     * Cost of every <code>AND</code> or <code>OR</code> group multiplied by its nesting depth,
+     * where groups of the top-level filters have depth of 1
+     */
+    @Builder.Default
+    private final double depthWeight = 2;
+
+    /**
+     * Cost of every value of <code>IN</code> and <code>NOT_IN</code> filters
+     */
+    @Builder.Default
+    private final double inValueWeight = 0.02;
+
+    /**
+     * Cost of every distinct join hop referenced by filters and sorts
+     */
+    @Builder.Default
+    private final double joinWeight = 5;
+
+    /**
+     * Additional cost of filters which no B-tree index on the field supports:
+     * <code>LIKE</code>, <code>ILIKE</code>, <code>ENDS_WITH</code>, and <code>EQUALS_IGNORE_CASE</code>
+     * and <code>ISTARTS_WITH</code> on fields without <code>caseInsensitiveField</code>
+     */
+    @Builder.Default
+    private final double nonSargableWeight = 20;
+
+    /**
+     * Cost of every sort
+     */
+    @Builder.Default
+    private final double sortWeight = 1;
+
+    /**
+     * Additional cost of sorts on paths which are not indexed according to <code>indexedPaths</code>
+     */
+    @Builder.Default
+    private final double unindexedSortWeight = 25;
+
+    /**
+     * Tells whether a path of JPA attribute names of a model is indexed, every path is by default.
+     * Can be built from advice of {@link io.github.wwhysohard.search.advisor.IndexAdvisor}
+     * by {@link io.github.wwhysohard.search.advisor.IndexAdvisor#indexedPaths(java.util.List)}
+     */
+    @Builder.Default
+    private final BiPredicate<Class<?>, String> indexedPaths = (model, path) -> true;
+
+}
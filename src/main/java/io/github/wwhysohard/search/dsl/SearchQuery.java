@@ -0,0 +1,322 @@
+package io.github.wwhysohard.search.dsl;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.exception.FilterException;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utility class which parses and formats compact textual form of {@link SearchRequest},
+ * meant for query strings of cacheable GET requests, e.g.
+ * <code>filter=name~Harry;(id&gt;5,status:in:A|B)&amp;sort=-createdAt</code>:
+ * <ul>
+ *     <li><code>filter</code>: filters combined by <code>;</code> (AND) and <code>,</code> (OR), AND binds tighter,
+ *     groups are enclosed in parentheses</li>
+ *     <li>a filter is a field followed by an operator and a value: <code>=</code>, <code>!=</code>, <code>&lt;</code>,
+ *     <code>&gt;</code>, <code>&lt;=</code>, <code>&gt;=</code>, <code>~</code> (LIKE), or name of any
+ *     {@link QueryOperator} in lower case enclosed by colons, e.g. <code>title:starts_with:Harry</code>.
+ *     Values of <code>:in:</code> and <code>:not_in:</code> are separated by <code>|</code>,
+ *     <code>:null</code> and <code>:not_null</code> take no value</li>
+ *     <li>characters <code>\ ; , ( ) | &amp;</code> of values are escaped by a backslash</li>
+ *     <li><code>sort</code>: comma-separated fields, descending ones prefixed by <code>-</code></li>
+ *     <li><code>select</code>: comma-separated projection fields, <code>cursor</code>: keyset pagination cursor,
+ *     <code>keyset</code>: <code>true</code> to enable keyset pagination</li>
+ * </ul>
+ * {@link #format(SearchRequest)} prints requests in the same form, so equal requests are printed equally
+ * and the form can serve as a cache key.
+ */
+public class SearchQuery {
+
+    private static final Map<String, QueryOperator> OPERATORS = new HashMap<>();
+    private static final Map<QueryOperator, String> SYMBOLS = new EnumMap<>(QueryOperator.class);
+
+    static {
+        for (QueryOperator operator : QueryOperator.values()) {
+            OPERATORS.put(operator.name().toLowerCase(), operator);
+        }
+
+        SYMBOLS.put(QueryOperator.EQUALS, "=");
+        SYMBOLS.put(QueryOperator.NOT_EQUALS, "!=");
+        SYMBOLS.put(QueryOperator.LESS_THAN, "<");
+        SYMBOLS.put(QueryOperator.GREATER_THAN, ">");
+        SYMBOLS.put(QueryOperator.LESS_THAN_OR_EQUAL, "<=");
+        SYMBOLS.put(QueryOperator.GREATER_THAN_OR_EQUAL, ">=");
+        SYMBOLS.put(QueryOperator.LIKE, "~");
+    }
+
+    /**
+     * Creating an instance of {@link SearchQuery} is illegal
+     */
+    private SearchQuery() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Parses the whole query of <code>filter</code>, <code>sort</code>, <code>select</code>, <code>cursor</code>
+     * and <code>keyset</code> parameters separated by <code>&amp;</code>. Other parameters, e.g. page number, are ignored.
+     * The query is expected to be URL-decoded
+     *
+     * @param query query to be parsed, may be <code>null</code>
+     *
+     * @return {@link SearchRequest} of the query
+     *
+     * @throws FilterException with <code>MALFORMED_QUERY</code> {@link ErrorCode} if the query cannot be parsed
+     */
+    public static SearchRequest parse(String query) {
+        SearchRequest request = new SearchRequest();
+        if (query == null || query.isEmpty()) return request;
+
+        int start = 0;
+        while (start <= query.length()) {
+            int end = nextParameter(query, start);
+            int equals = query.indexOf('=', start);
+            String name = (equals != -1 && equals < end) ? query.substring(start, equals) : query.substring(start, end);
+            String value = (equals != -1 && equals < end) ? query.substring(equals + 1, end) : "";
+
+            switch (name) {
+                case "filter":
+                    request.setFilters(new SearchQueryParser(value).parseFilters());
+                    break;
+                case "sort":
+                    request.setSorts(new SearchQueryParser(value).parseSorts());
+                    break;
+                case "select":
+                    request.setProjection(new SearchQueryParser(value).parseFields());
+                    break;
+                case "cursor":
+                    request.setCursor(value);
+                    break;
+                case "keyset":
+                    request.setKeyset(Boolean.parseBoolean(value));
+                    break;
+                default:
+                    break;
+            }
+
+            start = end + 1;
+        }
+
+        return request;
+    }
+
+    /**
+     * Parses values of <code>filter</code> and <code>sort</code> parameters
+     *
+     * @param filter value of <code>filter</code> parameter, may be <code>null</code>
+     * @param sort value of <code>sort</code> parameter, may be <code>null</code>
+     *
+     * @return {@link SearchRequest} of the filters and sorts
+     *
+     * @throws FilterException with <code>MALFORMED_QUERY</code> {@link ErrorCode} if the parameters cannot be parsed
+     */
+    public static SearchRequest parse(String filter, String sort) {
+        SearchRequest request = new SearchRequest();
+        if (filter != null) request.setFilters(parseFilters(filter));
+        if (sort != null) request.setSorts(parseSorts(sort));
+        return request;
+    }
+
+    /**
+     * Parses value of <code>filter</code> parameter
+     *
+     * @param filter filters to be parsed
+     *
+     * @return {@link List} of {@link FilterRequest}s combined by <code>AND</code>
+     *
+     * @throws FilterException with <code>MALFORMED_QUERY</code> {@link ErrorCode} if the filters cannot be parsed
+     */
+    public static List<FilterRequest> parseFilters(String filter) {
+        return new SearchQueryParser(filter).parseFilters();
+    }
+
+    /**
+     * Parses value of <code>sort</code> parameter
+     *
+     * @param sort sorts to be parsed
+     *
+     * @return {@link List} of {@link SortRequest}s
+     *
+     * @throws FilterException with <code>MALFORMED_QUERY</code> {@link ErrorCode} if the sorts cannot be parsed
+     */
+    public static List<SortRequest> parseSorts(String sort) {
+        return new SearchQueryParser(sort).parseSorts();
+    }
+
+    /**
+     * Formats the given request, parameters which are not set are omitted
+     *
+     * @param request {@link SearchRequest} to be formatted
+     *
+     * @return query which {@link #parse(String)} parses into an equal request
+     *
+     * @throws FilterException with <code>MALFORMED_QUERY</code> {@link ErrorCode}
+     * if a field or an operator cannot be formatted
+     */
+    public static String format(SearchRequest request) {
+        StringBuilder builder = new StringBuilder();
+
+        if (request.getFilters() != null && !request.getFilters().isEmpty()) {
+            formatFilters(builder.append("filter="), request.getFilters(), ';');
+        }
+
+        if (request.getSorts() != null && !request.getSorts().isEmpty()) {
+            separate(builder).append("sort=");
+            for (int i = 0; i < request.getSorts().size(); i++) {
+                SortRequest sort = request.getSorts().get(i);
+                if (i > 0) builder.append(',');
+                if (sort.getOrder() == SortOrder.DESC) builder.append('-');
+                appendField(builder, sort.getField());
+            }
+        }
+
+        if (request.getProjection() != null && !request.getProjection().isEmpty()) {
+            separate(builder).append("select=");
+            for (int i = 0; i < request.getProjection().size(); i++) {
+                if (i > 0) builder.append(',');
+                appendField(builder, request.getProjection().get(i));
+            }
+        }
+
+        if (request.getCursor() != null) {
+            separate(builder).append("cursor=").append(request.getCursor());
+        } else if (request.isKeyset()) {
+            separate(builder).append("keyset=true");
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Formats the given filters combined by <code>AND</code>
+     *
+     * @param filters filters to be formatted
+     *
+     * @return value of <code>filter</code> parameter
+     *
+     * @throws FilterException with <code>MALFORMED_QUERY</code> {@link ErrorCode}
+     * if a field or an operator cannot be formatted
+     */
+    public static String formatFilters(List<FilterRequest> filters) {
+        StringBuilder builder = new StringBuilder();
+        formatFilters(builder, filters, ';');
+        return builder.toString();
+    }
+
+    /**
+     * Resolves {@link QueryOperator} by its name in lower case
+     *
+     * @param name name of the operator
+     *
+     * @return {@link QueryOperator}, <code>null</code> if there is none of the given name
+     */
+    static QueryOperator operator(String name) {
+        return OPERATORS.get(name);
+    }
+
+    /**
+     * Appends the given filters separated by the given separator, groups are enclosed in parentheses
+     */
+    private static void formatFilters(StringBuilder builder, List<FilterRequest> filters, char separator) {
+        for (int i = 0; i < filters.size(); i++) {
+            if (i > 0) builder.append(separator);
+            formatFilter(builder, filters.get(i));
+        }
+    }
+
+    /**
+     * Appends the given filter
+     */
+    private static void formatFilter(StringBuilder builder, FilterRequest filter) {
+        QueryOperator operator = filter.getOperator();
+        if (operator == null) throw new FilterException(ErrorCode.MALFORMED_QUERY);
+
+        if (operator == QueryOperator.AND || operator == QueryOperator.OR) {
+            if (filter.getFilters() == null || filter.getFilters().isEmpty()) throw new FilterException(ErrorCode.FILTERS_CANNOT_BE_EMPTY);
+
+            builder.append('(');
+            formatFilters(builder, filter.getFilters(), (operator == QueryOperator.AND) ? ';' : ',');
+            builder.append(')');
+            return;
+        }
+
+        appendField(builder, filter.getField());
+
+        String symbol = SYMBOLS.get(operator);
+        if (symbol != null) {
+            builder.append(symbol);
+        } else {
+            builder.append(':').append(operator.name().toLowerCase());
+            if (operator == QueryOperator.NULL || operator == QueryOperator.NOT_NULL) return;
+            builder.append(':');
+        }
+
+        if (operator == QueryOperator.IN || operator == QueryOperator.NOT_IN) {
+            List<String> values = filter.getValues();
+            for (int i = 0; values != null && i < values.size(); i++) {
+                if (i > 0) builder.append('|');
+                appendValue(builder, values.get(i));
+            }
+        } else {
+            appendValue(builder, filter.getValue());
+        }
+    }
+
+    /**
+     * Appends the given field, validating that it consists of letters, digits, underscores and dots
+     */
+    private static void appendField(StringBuilder builder, String field) {
+        if (field == null || field.isEmpty()) throw new FilterException(ErrorCode.MALFORMED_QUERY);
+
+        for (int i = 0; i < field.length(); i++) {
+            if (!SearchQueryParser.isFieldChar(field.charAt(i))) throw new FilterException(ErrorCode.MALFORMED_QUERY);
+        }
+        builder.append(field);
+    }
+
+    /**
+     * Appends the given value escaping delimiters, and a leading <code>=</code>,
+     * which would otherwise be read as a part of the operator
+     */
+    private static void appendValue(StringBuilder builder, String value) {
+        if (value == null) return;
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '|' || c == '(' || SearchQueryParser.isDelimiter(c) || (i == 0 && c == '=')) {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+    }
+
+    /**
+     * Appends <code>&amp;</code> if the builder is not empty
+     */
+    private static StringBuilder separate(StringBuilder builder) {
+        return (builder.length() > 0) ? builder.append('&') : builder;
+    }
+
+    /**
+     * Finds end of the parameter which starts at the given index, skipping escaped <code>&amp;</code>
+     */
+    private static int nextParameter(String query, int start) {
+        for (int i = start; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '&') {
+                return i;
+            }
+        }
+        return query.length();
+    }
+
+}
@@ -0,0 +1,296 @@
+package io.github.wwhysohard.search.dsl;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.exception.FilterException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single-pass parser of filters and sorts in the form of {@link SearchQuery}.
+ * Reads the input by index without tokenizing it first, and creates substrings only for fields and values,
+ * so that {@link FilterRequest}s and {@link SortRequest}s are built directly. Not thread-safe, one parser per input
+ */
+final class SearchQueryParser {
+
+    private final String input;
+    private int position;
+
+    /**
+     * Unescaped value, reused for values which contain escaped characters
+     */
+    private StringBuilder buffer;
+
+    SearchQueryParser(String input) {
+        this.input = input;
+    }
+
+    /**
+     * Parses filters, which are combined by <code>AND</code> at the top level
+     *
+     * @return {@link List} of {@link FilterRequest}s, empty if the input is empty
+     *
+     * @throws FilterException with <code>MALFORMED_QUERY</code> {@link ErrorCode} if the input cannot be parsed
+     */
+    List<FilterRequest> parseFilters() {
+        if (input.isEmpty()) return new ArrayList<>();
+
+        FilterRequest filter = or();
+        if (position < input.length()) throw malformed();
+
+        return (filter.getOperator() == QueryOperator.AND)
+                ? filter.getFilters()
+                : new ArrayList<>(Collections.singletonList(filter));
+    }
+
+    /**
+     * Parses comma-separated sorts, where descending fields are prefixed by <code>-</code>
+     *
+     * @return {@link List} of {@link SortRequest}s, empty if the input is empty
+     *
+     * @throws FilterException with <code>MALFORMED_QUERY</code> {@link ErrorCode} if the input cannot be parsed
+     */
+    List<SortRequest> parseSorts() {
+        List<SortRequest> sorts = new ArrayList<>();
+        if (input.isEmpty()) return sorts;
+
+        do {
+            SortOrder order = SortOrder.ASC;
+            if (peek() == '-' || peek() == '+') {
+                order = (input.charAt(position++) == '-') ? SortOrder.DESC : SortOrder.ASC;
+            }
+            sorts.add(SortRequest.builder().withField(field()).withOrder(order).build());
+        } while (consume(','));
+
+        if (position < input.length()) throw malformed();
+        return sorts;
+    }
+
+    /**
+     * Parses comma-separated fields
+     *
+     * @return {@link List} of fields, empty if the input is empty
+     *
+     * @throws FilterException with <code>MALFORMED_QUERY</code> {@link ErrorCode} if the input cannot be parsed
+     */
+    List<String> parseFields() {
+        List<String> fields = new ArrayList<>();
+        if (input.isEmpty()) return fields;
+
+        do {
+            fields.add(field());
+        } while (consume(','));
+
+        if (position < input.length()) throw malformed();
+        return fields;
+    }
+
+    /**
+     * <code>or := and (',' and)*</code>
+     */
+    private FilterRequest or() {
+        FilterRequest first = and();
+        if (peek() != ',') return first;
+
+        List<FilterRequest> filters = new ArrayList<>();
+        filters.add(first);
+        while (consume(',')) {
+            filters.add(and());
+        }
+        return FilterRequest.builder().withOperator(QueryOperator.OR).withFilters(filters).build();
+    }
+
+    /**
+     * <code>and := term (';' term)*</code>
+     */
+    private FilterRequest and() {
+        FilterRequest first = term();
+        if (peek() != ';') return first;
+
+        List<FilterRequest> filters = new ArrayList<>();
+        filters.add(first);
+        while (consume(';')) {
+            filters.add(term());
+        }
+        return FilterRequest.builder().withOperator(QueryOperator.AND).withFilters(filters).build();
+    }
+
+    /**
+     * <code>term := '(' or ')' | field operator value</code>
+     */
+    private FilterRequest term() {
+        if (consume('(')) {
+            FilterRequest group = or();
+            if (!consume(')')) throw malformed();
+            return group;
+        }
+
+        String field = field();
+        QueryOperator operator = operator();
+
+        switch (operator) {
+            case NULL:
+            case NOT_NULL:
+                return FilterRequest.builder().withField(field).withOperator(operator).build();
+            case IN:
+            case NOT_IN:
+                return FilterRequest.builder().withField(field).withOperator(operator).withValues(values()).build();
+            default:
+                return FilterRequest.builder().withField(field).withOperator(operator).withValue(value(false)).build();
+        }
+    }
+
+    /**
+     * Reads field of letters, digits, underscores and dots
+     */
+    private String field() {
+        int start = position;
+        while (position < input.length() && isFieldChar(input.charAt(position))) {
+            position++;
+        }
+        if (position == start) throw malformed();
+        return input.substring(start, position);
+    }
+
+    /**
+     * Reads either symbolic operator or operator name enclosed by colons, e.g. <code>:starts_with:</code>.
+     * The closing colon of <code>:null</code> and <code>:not_null</code> may be omitted
+     */
+    private QueryOperator operator() {
+        char c = peek();
+        position++;
+
+        switch (c) {
+            case '=':
+                return QueryOperator.EQUALS;
+            case '~':
+                return QueryOperator.LIKE;
+            case '!':
+                if (!consume('=')) throw malformed();
+                return QueryOperator.NOT_EQUALS;
+            case '<':
+                return consume('=') ? QueryOperator.LESS_THAN_OR_EQUAL : QueryOperator.LESS_THAN;
+            case '>':
+                return consume('=') ? QueryOperator.GREATER_THAN_OR_EQUAL : QueryOperator.GREATER_THAN;
+            case ':':
+                return namedOperator();
+            default:
+                throw malformed();
+        }
+    }
+
+    /**
+     * Reads name of {@link QueryOperator} in lower case after the opening colon
+     */
+    private QueryOperator namedOperator() {
+        int start = position;
+        while (position < input.length() && (Character.isLowerCase(input.charAt(position)) || input.charAt(position) == '_')) {
+            position++;
+        }
+
+        QueryOperator operator = SearchQuery.operator(input.substring(start, position));
+        if (operator == null || operator == QueryOperator.AND || operator == QueryOperator.OR) throw malformed();
+
+        boolean closed = consume(':');
+        if (!closed && operator != QueryOperator.NULL && operator != QueryOperator.NOT_NULL) throw malformed();
+        return operator;
+    }
+
+    /**
+     * Reads <code>|</code>-separated values
+     */
+    private List<String> values() {
+        List<String> values = new ArrayList<>();
+        do {
+            values.add(value(true));
+        } while (consume('|'));
+        return values;
+    }
+
+    /**
+     * Reads value up to the next unescaped delimiter, unescaping characters preceded by a backslash
+     *
+     * @param list whether <code>|</code> delimits the value
+     */
+    private String value(boolean list) {
+        int start = position;
+        boolean escaped = false;
+
+        while (position < input.length()) {
+            char c = input.charAt(position);
+            if (c == '\\') {
+                escaped = true;
+                position += 2;
+            } else if (isDelimiter(c) || (list && c == '|')) {
+                break;
+            } else {
+                position++;
+            }
+        }
+
+        if (position > input.length()) throw malformed();
+        return escaped ? unescape(start, position) : input.substring(start, position);
+    }
+
+    /**
+     * Removes escaping backslashes from the given range of the input
+     */
+    private String unescape(int start, int end) {
+        if (buffer == null) buffer = new StringBuilder(end - start);
+        buffer.setLength(0);
+
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c == '\\') c = input.charAt(++i);
+            buffer.append(c);
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Consumes the given character if it is the next one
+     */
+    private boolean consume(char c) {
+        if (peek() != c) return false;
+        position++;
+        return true;
+    }
+
+    /**
+     * @return the next character, <code>0</code> at the end of the input
+     */
+    private char peek() {
+        return (position < input.length()) ? input.charAt(position) : 0;
+    }
+
+    /**
+     * @return {@link FilterException} with <code>MALFORMED_QUERY</code> {@link ErrorCode}
+     */
+    private FilterException malformed() {
+        return new FilterException(ErrorCode.MALFORMED_QUERY);
+    }
+
+    /**
+     * @param c character to be checked
+     *
+     * @return <code>true</code> if the character may be a part of a field
+     */
+    static boolean isFieldChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '.';
+    }
+
+    /**
+     * @param c character to be checked
+     *
+     * @return <code>true</code> if the character ends a value unless it is escaped
+     */
+    static boolean isDelimiter(char c) {
+        return c == ';' || c == ',' || c == ')' || c == '&';
+    }
+
+}
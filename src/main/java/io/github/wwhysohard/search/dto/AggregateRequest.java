@@ -0,0 +1,29 @@
+package io.github.wwhysohard.search.dto;
+
+import io.github.wwhysohard.search.enums.AggregateFunction;
+import lombok.Builder;
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Used to compute an aggregate using {@link io.github.wwhysohard.search.facet.FacetSearch}
+ */
+@Data
+@Builder(setterPrefix = "with")
+public class AggregateRequest {
+
+    /**
+     * The field of which values will be aggregated
+     */
+    @NotBlank(message = "FIELD_REQUIRED")
+    private String field;
+
+    /**
+     * Indicates a function by which values of the specified field will be aggregated
+     */
+    @NotNull
+    private AggregateFunction function;
+
+}
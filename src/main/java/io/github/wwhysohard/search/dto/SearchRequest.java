@@ -16,4 +16,42 @@ public class SearchRequest {
     @Valid
     private List<SortRequest> sorts;
 
+    /**
+     * Enables keyset (seek) pagination, which orders results by <code>sorts</code> and identifier as a tiebreaker
+     */
+    private boolean keyset;
+
+    /**
+     * Opaque keyset pagination cursor pointing right after the last row of the previous page.
+     * Implies <code>keyset</code> pagination
+     */
+    private String cursor;
+
+    /**
+     * Fields to be selected by projection queries, e.g. <code>name</code> and <code>author.name</code>,
+     * see {@link io.github.wwhysohard.search.executor.SearchExecutor#findTuples(io.github.wwhysohard.search.specification.GenericSpecification)}.
+     * Ignored by queries of whole models
+     */
+    private List<String> projection;
+
+    /**
+     * Fields of which value counts are computed, e.g. <code>status</code> and <code>author.name</code>,
+     * see {@link io.github.wwhysohard.search.facet.FacetSearch}. Ignored by searches of models
+     */
+    private List<String> facets;
+
+    /**
+     * Aggregates computed over all models matching the filters, see {@link io.github.wwhysohard.search.facet.FacetSearch}.
+     * Ignored by searches of models
+     */
+    @Valid
+    private List<AggregateRequest> aggregates;
+
+    /**
+     * @return <code>true</code> if keyset pagination is enabled either explicitly or by <code>cursor</code>
+     */
+    public boolean isKeyset() {
+        return keyset || cursor != null;
+    }
+
 }
@@ -0,0 +1,29 @@
+package io.github.wwhysohard.search.enums;
+
+/**
+ * Indicates aggregate function computed over values of a field of all models matching a search,
+ * see {@link io.github.wwhysohard.search.facet.FacetSearch}
+ */
+public enum AggregateFunction {
+
+    /**
+     * Sum of numeric values
+     */
+    SUM,
+
+    /**
+     * The least of comparable values
+     */
+    MIN,
+
+    /**
+     * The greatest of comparable values
+     */
+    MAX,
+
+    /**
+     * Average of numeric values
+     */
+    AVG,
+
+}
@@ -2,6 +2,7 @@ package io.github.wwhysohard.search.enums;
 
 import io.github.wwhysohard.search.annotation.Filterable;
 import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
 import io.github.wwhysohard.search.exception.FilterException;
 
 /**
@@ -53,4 +54,49 @@ public enum ErrorCode {
      */
     FIELD_IS_NOT_ALLOWED_FOR_SORTING,
 
+    /**
+     * Indicates that <code>cursor</code> of {@link SearchRequest} is malformed,
+     * or it was issued for different sorts, or its values do not match types of the sorted fields
+     */
+    INVALID_CURSOR,
+
+    /**
+     * Indicates that the specified operator is not supported by the database, e.g. functions it needs are not registered
+     */
+    OPERATOR_IS_NOT_SUPPORTED,
+
+    /**
+     * Indicates that <code>projection</code> of {@link SearchRequest} cannot be neither null nor empty in this context
+     */
+    PROJECTION_CANNOT_BE_EMPTY,
+
+    /**
+     * Same as {@link ErrorCode#FIELD_IS_NOT_ALLOWED_FOR_FILTERING} but indicates that the specified field is not allowed
+     * for projection, which is also the case for fields of collections
+     */
+    FIELD_IS_NOT_ALLOWED_FOR_PROJECTION,
+
+    /**
+     * Indicates that estimated cost of {@link SearchRequest} exceeds the budget of the specification,
+     * see {@link io.github.wwhysohard.search.cost.SearchCostModel}
+     */
+    SEARCH_IS_TOO_EXPENSIVE,
+
+    /**
+     * Indicates that textual form of {@link io.github.wwhysohard.search.dto.SearchRequest} cannot be parsed or formatted,
+     * see {@link io.github.wwhysohard.search.dsl.SearchQuery}
+     */
+    MALFORMED_QUERY,
+
+    /**
+     * Indicates that a facet field is not allowed for filtering
+     */
+    FIELD_IS_NOT_ALLOWED_FOR_FACETING,
+
+    /**
+     * Indicates that an aggregate field is not allowed for filtering, goes through a collection,
+     * or its type does not support the aggregate function
+     */
+    FIELD_IS_NOT_ALLOWED_FOR_AGGREGATION,
+
 }
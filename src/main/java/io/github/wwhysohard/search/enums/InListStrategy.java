@@ -0,0 +1,27 @@
+package io.github.wwhysohard.search.enums;
+
+/**
+ * Indicates how <code>IN</code> and <code>NOT_IN</code> filters are rendered,
+ * chosen by {@link io.github.wwhysohard.search.utils.InLists} by number of values and database
+ */
+public enum InListStrategy {
+
+    /**
+     * Values are rendered as a single <code>IN</code> list
+     */
+    PLAIN,
+
+    /**
+     * Values are split into <code>IN</code> lists of at most <code>chunkSize</code> values combined by <code>OR</code>,
+     * which keeps lists within limits of databases, e.g. 1000 elements of Oracle
+     */
+    CHUNKED,
+
+    /**
+     * Values are bound as a single SQL array parameter compared by <code>= ANY</code>,
+     * so the query is the same regardless of number of values. Available only if values are bound as parameters
+     * and {@link io.github.wwhysohard.search.hibernate.SearchFunctions#ANY} is registered for PostgreSQL or H2
+     */
+    ARRAY,
+
+}
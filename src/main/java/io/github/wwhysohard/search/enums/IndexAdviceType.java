@@ -0,0 +1,37 @@
+package io.github.wwhysohard.search.enums;
+
+/**
+ * Indicates what kind of index is advised by {@link io.github.wwhysohard.search.advisor.IndexAdvisor}
+ */
+public enum IndexAdviceType {
+
+    /**
+     * Filtered or sorted columns are not leading columns of any index
+     */
+    MISSING_INDEX,
+
+    /**
+     * Key columns of a joinable collection are not leading columns of any index,
+     * so <code>EXISTS</code> subqueries and joins on the collection scan its table
+     */
+    MISSING_JOIN_INDEX,
+
+    /**
+     * Column is filtered by <code>LIKE</code>, which is a contains search no B-tree index supports.
+     * Requires a trigram index, e.g. <code>gin (column gin_trgm_ops)</code> of PostgreSQL
+     */
+    TRIGRAM_INDEX,
+
+    /**
+     * Column is filtered by <code>ILIKE</code>, which compares <code>lower(column)</code>.
+     * Requires a functional trigram index, e.g. <code>gin (lower(column) gin_trgm_ops)</code> of PostgreSQL
+     */
+    FUNCTIONAL_INDEX,
+
+    /**
+     * Column is filtered by <code>FULL_TEXT</code>, which matches a text search vector of the column.
+     * Requires an index on the same expression, e.g. <code>gin (to_tsvector('english', column))</code> of PostgreSQL
+     */
+    FULL_TEXT_INDEX,
+
+}
@@ -0,0 +1,28 @@
+package io.github.wwhysohard.search.enums;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+
+/**
+ * Indicates how filters on fields of a related model are applied,
+ * used by <code>joinStrategy</code> of @{@link Filterable}
+ */
+public enum JoinStrategy {
+
+    /**
+     * {@link JoinStrategy#EXISTS} for collections, {@link JoinStrategy#JOIN} otherwise
+     */
+    AUTO,
+
+    /**
+     * Filters are applied on a join of the related model, which multiplies rows of collections
+     */
+    JOIN,
+
+    /**
+     * Filters are applied inside a correlated <code>EXISTS</code> subquery, which never multiplies rows.
+     * Filters of the same group on the same relationship are applied inside the same subquery,
+     * so they have to be matched by the same related row
+     */
+    EXISTS,
+
+}
@@ -45,6 +45,40 @@ public enum QueryOperator {
      */
     ILIKE,
 
+    /**
+     * The specified <code>field</code> must start with the specified <code>value</code>, in which <code>%</code>
+     * and <code>_</code> are matched literally. Can be supported by an index on the field
+     */
+    STARTS_WITH,
+
+    /**
+     * The specified <code>field</code> must end with the specified <code>value</code>, in which <code>%</code>
+     * and <code>_</code> are matched literally
+     */
+    ENDS_WITH,
+
+    /**
+     * The specified <code>field</code> must be equal to the specified <code>value</code> ignoring case.
+     * Compares <code>caseInsensitiveField</code> of @{@link io.github.wwhysohard.search.annotation.Filterable} if it is set,
+     * <code>lower(field)</code> otherwise
+     */
+    EQUALS_IGNORE_CASE,
+
+    /**
+     * The specified <code>field</code> must start with the specified <code>value</code> ignoring case,
+     * in which <code>%</code> and <code>_</code> are matched literally.
+     * Compares <code>caseInsensitiveField</code> of @{@link io.github.wwhysohard.search.annotation.Filterable} if it is set,
+     * <code>lower(field)</code> otherwise
+     */
+    ISTARTS_WITH,
+
+    /**
+     * The specified <code>field</code> must match the specified <code>value</code> by full-text search of the database,
+     * e.g. <code>to_tsvector(field) @@ plainto_tsquery(value)</code> of PostgreSQL.
+     * Requires {@link io.github.wwhysohard.search.hibernate.SearchMetadataBuilderContributor} to be registered
+     */
+    FULL_TEXT,
+
     /**
      * The specified <code>values</code> must contain the specified <code>field</code>
      */
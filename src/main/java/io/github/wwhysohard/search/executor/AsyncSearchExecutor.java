@@ -0,0 +1,522 @@
+package io.github.wwhysohard.search.executor;
+
+import io.github.wwhysohard.search.metrics.Instrumentation;
+import io.github.wwhysohard.search.metrics.SearchMetrics;
+import io.github.wwhysohard.search.specification.GenericSpecification;
+import io.github.wwhysohard.search.utils.QueryParameters;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import javax.persistence.QueryTimeoutException;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Executes {@link GenericSpecification}s asynchronously. Content and count queries of a page run concurrently,
+ * each by its own {@link EntityManager} and connection, so latency of a page is the longer of the two rather than their sum.
+ * The count query is cancelled if the content alone determines the total, e.g. on a short first page.
+ * <p>
+ * At most <code>maxConcurrency</code> queries are executed at once, and at most <code>queueCapacity</code> wait
+ * for execution, beyond which searches are rejected with {@link RejectedExecutionException} instead of piling up.
+ * A search with a timeout fails with {@link TimeoutException} when it elapses, and a cancelled or failed search
+ * cancels its running statements by {@link Session#cancelQuery()}; remaining time is also passed to JDBC as query timeout.
+ * <p>
+ * Queries are built on the calling thread, since specifications are not thread-safe, and executed with values bound
+ * as parameters, see {@link SearchExecutor}. Models are loaded read-only into an {@link EntityManager} which is closed
+ * right after the query, so they are detached. Executors have to be closed on shutdown.
+ */
+public class AsyncSearchExecutor implements AutoCloseable {
+
+    /**
+     * Default number of queries which wait for execution per query executed at once
+     */
+    public static final int DEFAULT_QUEUE_FACTOR = 4;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final int maxConcurrency;
+    private final int queueCapacity;
+
+    private final Semaphore permits;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder saturated = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * Constructs {@link AsyncSearchExecutor} with its own executor, see {@link #newExecutorService(int)},
+     * and default queue capacity
+     *
+     * @param entityManagerFactory {@link EntityManagerFactory} which creates {@link EntityManager} of every query
+     * @param maxConcurrency maximum number of queries executed at once, which should not exceed size of connection pool
+     */
+    public AsyncSearchExecutor(EntityManagerFactory entityManagerFactory, int maxConcurrency) {
+        this(entityManagerFactory, newExecutorService(maxConcurrency), true, maxConcurrency, maxConcurrency * DEFAULT_QUEUE_FACTOR);
+    }
+
+    /**
+     * Constructs {@link AsyncSearchExecutor} which runs queries by the given {@link Executor}.
+     * The executor is not shut down by {@link #close()}
+     *
+     * @param entityManagerFactory {@link EntityManagerFactory} which creates {@link EntityManager} of every query
+     * @param executor {@link Executor} which runs queries
+     * @param maxConcurrency maximum number of queries executed at once, which should not exceed size of connection pool
+     * @param queueCapacity maximum number of queries waiting for execution
+     */
+    public AsyncSearchExecutor(EntityManagerFactory entityManagerFactory, Executor executor, int maxConcurrency, int queueCapacity) {
+        this(entityManagerFactory, executor, false, maxConcurrency, queueCapacity);
+    }
+
+    /**
+     * Constructs {@link AsyncSearchExecutor}
+     *
+     * @param entityManagerFactory {@link EntityManagerFactory} which creates {@link EntityManager} of every query
+     * @param executor {@link Executor} which runs queries
+     * @param ownsExecutor whether the executor is shut down by {@link #close()}
+     * @param maxConcurrency maximum number of queries executed at once
+     * @param queueCapacity maximum number of queries waiting for execution
+     */
+    private AsyncSearchExecutor(EntityManagerFactory entityManagerFactory, Executor executor, boolean ownsExecutor,
+                                int maxConcurrency, int queueCapacity) {
+        if (maxConcurrency < 1 || queueCapacity < 0) {
+            throw new IllegalArgumentException("Concurrency must be positive and queue capacity must not be negative");
+        }
+
+        this.entityManagerFactory = entityManagerFactory;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.permits = new Semaphore(maxConcurrency);
+
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, threadFactory("search-async-timeout-"));
+        timer.setRemoveOnCancelPolicy(true);
+        this.scheduler = timer;
+    }
+
+    /**
+     * Creates {@link ExecutorService} for queries: a virtual thread per query where the runtime supports virtual threads,
+     * a pool of daemon threads otherwise. Either way, concurrency is bounded by {@link AsyncSearchExecutor} itself
+     *
+     * @param maxConcurrency maximum number of queries executed at once
+     *
+     * @return {@link ExecutorService} to be shut down by its owner
+     */
+    public static ExecutorService newExecutorService(int maxConcurrency) {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // no virtual threads before Java 21
+        }
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("search-async-"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Finds a page of models matching the given specification without timeout,
+     * see {@link #findAll(GenericSpecification, Pageable, Duration)}
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param pageable {@link Pageable} defining the page
+     * @param <T> generic type of the model
+     *
+     * @return {@link CompletableFuture} of the {@link Page} of models
+     */
+    public <T> CompletableFuture<Page<T>> findAll(GenericSpecification<T> specification, Pageable pageable) {
+        return findAll(specification, pageable, null);
+    }
+
+    /**
+     * Finds a page of models matching the given specification, running content and count queries concurrently.
+     * Results are sorted by sorts of the specification, sort of {@link Pageable} is ignored.
+     * Cancelling the returned future cancels running queries.
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param pageable {@link Pageable} defining the page
+     * @param timeout maximum duration of the search, waiting for execution included, <code>null</code> for no timeout
+     * @param <T> generic type of the model
+     *
+     * @return {@link CompletableFuture} of the {@link Page} of models, which fails with {@link TimeoutException}
+     * if the timeout elapses, with {@link RejectedExecutionException} if the executor is saturated, and with
+     * {@link io.github.wwhysohard.search.exception.FilterException} if the request is invalid
+     */
+    public <T> CompletableFuture<Page<T>> findAll(GenericSpecification<T> specification, Pageable pageable, Duration timeout) {
+        CompletableFuture<Page<T>> result = new CompletableFuture<>();
+
+        if (specification.getOptimizedFilters().isUnsatisfiable()) {
+            result.complete(pageable.isUnpaged() ? Page.empty() : new PageImpl<>(Collections.emptyList(), pageable, 0));
+            return result;
+        }
+
+        long deadline = (timeout != null) ? System.nanoTime() + timeout.toNanos() : 0;
+        QueryTask<List<T>> content;
+        QueryTask<Long> count;
+
+        try {
+            content = new QueryTask<>(specification, deadline, contentQuery(specification, pageable));
+            count = pageable.isPaged() ? new QueryTask<>(specification, deadline, countQuery(specification)) : null;
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        if (!reserve((count != null) ? 2 : 1)) {
+            saturated.increment();
+            SearchMetrics metrics = Instrumentation.getMetrics();
+            if (metrics.isEnabled()) metrics.countSaturation(specification.getClass());
+
+            result.completeExceptionally(new RejectedExecutionException("Search executor is saturated"));
+            return result;
+        }
+
+        result.whenComplete((page, error) -> {
+            content.cancel();
+            if (count != null) count.cancel();
+            if (isTimeout(error)) recordTimeout(specification);
+        });
+
+        if (timeout != null) {
+            ScheduledFuture<?> timer = scheduler.schedule(
+                    () -> result.completeExceptionally(new TimeoutException("Search timed out after " + timeout)),
+                    timeout.toNanos(), TimeUnit.NANOSECONDS);
+            result.whenComplete((page, error) -> timer.cancel(false));
+        }
+
+        content.future.whenComplete((models, error) -> {
+            if (error != null) {
+                result.completeExceptionally(unwrap(error));
+            } else if (count == null) {
+                result.complete(new PageImpl<>(models));
+            } else if (isTotalKnown(models, pageable)) {
+                result.complete(new PageImpl<>(models, pageable, pageable.getOffset() + models.size()));
+            } else {
+                count.future.whenComplete((total, countError) -> {
+                    if (countError != null) {
+                        result.completeExceptionally(unwrap(countError));
+                    } else {
+                        result.complete(new PageImpl<>(models, pageable, total));
+                    }
+                });
+            }
+        });
+
+        execute(content);
+        if (count != null) execute(count);
+
+        return result;
+    }
+
+    /**
+     * @return snapshot of the statistics
+     */
+    public AsyncSearchStatistics getStatistics() {
+        int running = active.get();
+        return new AsyncSearchStatistics(maxConcurrency, queueCapacity, running, Math.max(0, pending.get() - running),
+                saturated.sum(), timedOut.sum());
+    }
+
+    /**
+     * Stops timeouts and shuts down the executor if it was created by this {@link AsyncSearchExecutor}.
+     * Queries which are already running are completed
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        if (ownsExecutor && executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    /**
+     * Builds parameterised content query of the given specification
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param pageable {@link Pageable} defining the page
+     * @param <T> generic type of the model
+     *
+     * @return function which creates the query by the given {@link EntityManager} with the given timeout and executes it
+     */
+    private <T> BiFunction<EntityManager, Integer, List<T>> contentQuery(GenericSpecification<T> specification, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManagerFactory.getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(specification.getGenericType());
+        Root<T> root = query.from(specification.getGenericType());
+        QueryParameters parameters = new QueryParameters();
+
+        query.select(root).where(specification.toPredicate(root, query, criteriaBuilder, parameters));
+
+        return (entityManager, timeout) -> {
+            TypedQuery<T> typedQuery = prepare(parameters.apply(entityManager.createQuery(query)), timeout);
+            typedQuery.setHint(QueryHints.HINT_READONLY, true);
+            if (pageable.isPaged()) {
+                typedQuery.setFirstResult((int) pageable.getOffset());
+                typedQuery.setMaxResults(pageable.getPageSize());
+            }
+            return typedQuery.getResultList();
+        };
+    }
+
+    /**
+     * Builds parameterised count query of the given specification
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param <T> generic type of the model
+     *
+     * @return function which creates the query by the given {@link EntityManager} with the given timeout and executes it
+     */
+    private <T> BiFunction<EntityManager, Integer, Long> countQuery(GenericSpecification<T> specification) {
+        CriteriaBuilder criteriaBuilder = entityManagerFactory.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<T> root = query.from(specification.getGenericType());
+        QueryParameters parameters = new QueryParameters();
+
+        query.where(specification.toPredicate(root, query, criteriaBuilder, parameters));
+        query.select(query.isDistinct() ? criteriaBuilder.countDistinct(root) : criteriaBuilder.count(root));
+
+        return (entityManager, timeout) -> prepare(parameters.apply(entityManager.createQuery(query)), timeout).getSingleResult();
+    }
+
+    /**
+     * Applies JDBC query timeout, which is rounded by JPA to whole seconds, so it is at least a second.
+     * Timeouts of a finer precision are enforced by cancelling the statement
+     *
+     * @param query {@link TypedQuery} to be executed
+     * @param timeout remaining time of the search in milliseconds, <code>null</code> for no timeout
+     * @param <R> type of the result
+     *
+     * @return the given query
+     */
+    private static <R> TypedQuery<R> prepare(TypedQuery<R> query, Integer timeout) {
+        if (timeout != null) {
+            query.setHint(QueryHints.SPEC_HINT_TIMEOUT, Math.max(1000, timeout));
+        }
+        return query;
+    }
+
+    /**
+     * Reserves places of the given number of queries unless the executor is saturated
+     *
+     * @param queries number of queries of a search
+     *
+     * @return <code>true</code> if the places were reserved
+     */
+    private boolean reserve(int queries) {
+        while (true) {
+            int current = pending.get();
+            if (current + queries > maxConcurrency + queueCapacity) return false;
+            if (pending.compareAndSet(current, current + queries)) return true;
+        }
+    }
+
+    /**
+     * Submits the given task, failing it if the {@link Executor} rejects it
+     *
+     * @param task {@link QueryTask} to be executed
+     */
+    private void execute(QueryTask<?> task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            task.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Records a search which timed out
+     *
+     * @param specification {@link GenericSpecification} of the search
+     */
+    private void recordTimeout(GenericSpecification<?> specification) {
+        timedOut.increment();
+        SearchMetrics metrics = Instrumentation.getMetrics();
+        if (metrics.isEnabled()) metrics.countTimeout(specification.getClass());
+    }
+
+    /**
+     * Checks whether the content alone determines the total, the same way as Spring Data does for paged searches
+     *
+     * @param models models of the page
+     * @param pageable {@link Pageable} defining the page
+     * @param <T> generic type of the model
+     *
+     * @return <code>true</code> if the page is the last one, so the count query is not needed
+     */
+    private static <T> boolean isTotalKnown(List<T> models, Pageable pageable) {
+        return models.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !models.isEmpty());
+    }
+
+    /**
+     * @param error error of a search, may be <code>null</code>
+     *
+     * @return <code>true</code> if the search failed by its timeout or by JDBC query timeout
+     */
+    private static boolean isTimeout(Throwable error) {
+        return error instanceof TimeoutException || error instanceof QueryTimeoutException;
+    }
+
+    /**
+     * @param error error of a {@link CompletableFuture} stage
+     *
+     * @return cause of {@link CompletionException}, the error itself otherwise
+     */
+    private static Throwable unwrap(Throwable error) {
+        return (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+    }
+
+    /**
+     * @param prefix prefix of thread names
+     *
+     * @return {@link ThreadFactory} of daemon threads
+     */
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger number = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Query executed by its own {@link EntityManager}, which can be cancelled while running
+     *
+     * @param <R> type of the result
+     */
+    private final class QueryTask<R> implements Runnable {
+
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        private final GenericSpecification<?> specification;
+        private final long deadline;
+        private final BiFunction<EntityManager, Integer, R> query;
+        private final long submitted = System.nanoTime();
+
+        private volatile Session session;
+
+        QueryTask(GenericSpecification<?> specification, long deadline, BiFunction<EntityManager, Integer, R> query) {
+            this.specification = specification;
+            this.deadline = deadline;
+            this.query = query;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (future.isDone()) return;
+
+                permits.acquire();
+                active.incrementAndGet();
+                try {
+                    execute();
+                } finally {
+                    active.decrementAndGet();
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                pending.decrementAndGet();
+            }
+        }
+
+        /**
+         * Executes the query unless the search is over or out of time
+         */
+        private void execute() {
+            long now = System.nanoTime();
+            SearchMetrics metrics = Instrumentation.getMetrics();
+            if (metrics.isEnabled()) metrics.recordQueueTime(specification.getClass(), now - submitted);
+
+            Integer timeout = null;
+            if (deadline != 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - now);
+                if (remaining <= 0) {
+                    future.completeExceptionally(new TimeoutException("Search timed out before execution"));
+                    return;
+                }
+                timeout = (int) Math.min(Integer.MAX_VALUE, remaining);
+            }
+
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+            try {
+                session = unwrap(entityManager);
+                if (future.isDone()) return;
+
+                future.complete(query.apply(entityManager, timeout));
+            } finally {
+                session = null;
+                entityManager.close();
+            }
+        }
+
+        /**
+         * Cancels the query, and its statement if it is running
+         */
+        void cancel() {
+            if (future.cancel(false)) {
+                Session running = session;
+                if (running != null) {
+                    try {
+                        running.cancelQuery();
+                    } catch (RuntimeException e) {
+                        // the statement has already completed
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param entityManager {@link EntityManager} of the query
+         *
+         * @return Hibernate {@link Session}, <code>null</code> if the provider is not Hibernate
+         */
+        private Session unwrap(EntityManager entityManager) {
+            try {
+                return entityManager.unwrap(Session.class);
+            } catch (PersistenceException e) {
+                return null;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,57 @@
+package io.github.wwhysohard.search.executor;
+
+import lombok.Getter;
+
+/**
+ * Snapshot of {@link AsyncSearchExecutor} statistics, which show how saturated the executor is
+ */
+@Getter
+public class AsyncSearchStatistics {
+
+    /**
+     * Maximum number of queries executed at once, i.e. connections held by the executor
+     */
+    private final int maxConcurrency;
+
+    /**
+     * Maximum number of queries waiting for execution, beyond which searches are rejected
+     */
+    private final int queueCapacity;
+
+    /**
+     * Number of queries being executed
+     */
+    private final int active;
+
+    /**
+     * Number of queries waiting for execution
+     */
+    private final int waiting;
+
+    /**
+     * Number of searches rejected because the executor was saturated
+     */
+    private final long saturated;
+
+    /**
+     * Number of searches which timed out
+     */
+    private final long timedOut;
+
+    AsyncSearchStatistics(int maxConcurrency, int queueCapacity, int active, int waiting, long saturated, long timedOut) {
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.active = active;
+        this.waiting = waiting;
+        this.saturated = saturated;
+        this.timedOut = timedOut;
+    }
+
+    /**
+     * @return ratio of active queries to the maximum number of queries executed at once
+     */
+    public double getUtilization() {
+        return (double) active / maxConcurrency;
+    }
+
+}
@@ -0,0 +1,60 @@
+package io.github.wwhysohard.search.executor;
+
+import io.github.wwhysohard.search.cache.SearchCacheInvalidator;
+import io.github.wwhysohard.search.cache.SearchCacheKey;
+import io.github.wwhysohard.search.cache.SearchResultCache;
+import io.github.wwhysohard.search.specification.GenericSpecification;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link SearchExecutor} which serves repeated searches from {@link SearchResultCache}.
+ * Searches are keyed by {@link SearchCacheKey}, so identical requests share results regardless of order of filters
+ * and representation of values. Results are invalidated when entities of searched or joined types change,
+ * given that {@link SearchCacheInvalidator} is registered on them.
+ * Cached models are shared between callers and persistence contexts, so they are meant for read-only use.
+ */
+public class CachingSearchExecutor extends SearchExecutor {
+
+    private final SearchResultCache cache;
+
+    /**
+     * Constructs {@link CachingSearchExecutor}
+     *
+     * @param entityManager {@link EntityManager} by which queries are executed
+     * @param cache {@link SearchResultCache} of the results, may be shared between executors
+     */
+    public CachingSearchExecutor(EntityManager entityManager, SearchResultCache cache) {
+        super(entityManager);
+        this.cache = cache;
+    }
+
+    @Override
+    public <T> List<T> findAll(GenericSpecification<T> specification) {
+        return cache.get(SearchCacheKey.of(specification, "all"),
+                () -> Collections.unmodifiableList(super.findAll(specification)));
+    }
+
+    @Override
+    public <T> Page<T> findAll(GenericSpecification<T> specification, Pageable pageable) {
+        String page = pageable.isPaged() ? "page " + pageable.getPageNumber() + " of " + pageable.getPageSize() : "unpaged";
+        return cache.get(SearchCacheKey.of(specification, page), () -> super.findAll(specification, pageable));
+    }
+
+    @Override
+    public <T> long count(GenericSpecification<T> specification) {
+        return cache.get(SearchCacheKey.of(specification, "count"), () -> super.count(specification));
+    }
+
+    /**
+     * @return {@link SearchResultCache} of the executor
+     */
+    public SearchResultCache getCache() {
+        return cache;
+    }
+
+}
@@ -0,0 +1,592 @@
+package io.github.wwhysohard.search.executor;
+
+import io.github.wwhysohard.search.facet.FacetResult;
+import io.github.wwhysohard.search.facet.FacetSearch;
+import io.github.wwhysohard.search.metadata.FilterableRegistry;
+import io.github.wwhysohard.search.specification.GenericSpecification;
+import io.github.wwhysohard.search.utils.InLists;
+import io.github.wwhysohard.search.utils.QueryParameters;
+import io.github.wwhysohard.search.utils.SearchShape;
+import org.hibernate.SessionFactory;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.stat.Statistics;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Fetch;
+import javax.persistence.criteria.FetchParent;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Executes {@link GenericSpecification}s with filter values bound as query parameters.
+ * Searches of the same shape, see {@link SearchShape}, produce the same JPQL and SQL regardless of values,
+ * so Hibernate query plan cache and prepared statement caches are reused.
+ * Searches with unsatisfiable filters, see {@link io.github.wwhysohard.search.utils.FilterOptimizer},
+ * return empty results without querying database.
+ * Thread-safe if the given {@link EntityManager} is, e.g. the shared one injected by Spring.
+ */
+public class SearchExecutor {
+
+    /**
+     * Upper bound of tracked shapes, shapes beyond it are counted as misses
+     */
+    private static final int MAX_TRACKED_SHAPES = 10_000;
+
+    /**
+     * Default JDBC fetch size and number of rows between detaching models of streamed searches
+     */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    protected final EntityManager entityManager;
+
+    private final Set<String> shapes = ConcurrentHashMap.newKeySet();
+    private final LongAdder shapeHits = new LongAdder();
+    private final LongAdder shapeMisses = new LongAdder();
+
+    /**
+     * Constructs {@link SearchExecutor}
+     *
+     * @param entityManager {@link EntityManager} by which queries are executed
+     */
+    public SearchExecutor(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Finds all models matching the given specification
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param <T> generic type of the model
+     *
+     * @return {@link List} of models
+     */
+    public <T> List<T> findAll(GenericSpecification<T> specification) {
+        if (isUnsatisfiable(specification)) return new ArrayList<>();
+
+        return createQuery(specification).getResultList();
+    }
+
+    /**
+     * Finds a page of models matching the given specification.
+     * Results are sorted by sorts of the specification, sort of {@link Pageable} is ignored.
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param pageable {@link Pageable} defining the page
+     * @param <T> generic type of the model
+     *
+     * @return {@link Page} of models
+     */
+    public <T> Page<T> findAll(GenericSpecification<T> specification, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(specification));
+        }
+
+        if (isUnsatisfiable(specification)) {
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+
+        TypedQuery<T> query = createQuery(specification);
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(specification));
+    }
+
+    /**
+     * Finds a page of models matching the given specification together with the given associations in two phases,
+     * see {@link #findAll(GenericSpecification, Pageable, EntityGraph)}
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param pageable {@link Pageable} defining the page
+     * @param fetches paths of JPA attribute names to be fetched, e.g. <code>books</code> and <code>books.publisher</code>
+     * @param <T> generic type of the model
+     *
+     * @return {@link Page} of models with the given associations initialized
+     */
+    public <T> Page<T> findAll(GenericSpecification<T> specification, Pageable pageable, String... fetches) {
+        return findAll(specification, pageable, Arrays.asList(fetches), null);
+    }
+
+    /**
+     * Finds a page of models matching the given specification together with associations of the given
+     * {@link EntityGraph} in two phases. The first one pages through identifiers of the models filtered and sorted
+     * by the database, the second one fetches models of the page with the associations by a single query
+     * and puts them in order of the first one. Unlike fetch joins in the paged query, which make Hibernate
+     * paginate in memory, and lazy loading, which issues a query per model, the page costs a fixed number of queries.
+     * Fetching more than one <code>List</code> collection at once is not supported by Hibernate.
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param pageable {@link Pageable} defining the page
+     * @param entityGraph {@link EntityGraph} of the associations to be fetched
+     * @param <T> generic type of the model
+     *
+     * @return {@link Page} of models with associations of the graph initialized
+     */
+    public <T> Page<T> findAll(GenericSpecification<T> specification, Pageable pageable, EntityGraph<T> entityGraph) {
+        return findAll(specification, pageable, Collections.emptyList(), entityGraph);
+    }
+
+    /**
+     * Finds values of <code>projection</code> fields of all models matching the given specification.
+     * Only the projected columns are selected, so no model is loaded into persistence context.
+     * Values are available in {@link Tuple}s by the fields as they were requested, e.g. <code>tuple.get("author.name")</code>
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param <T> generic type of the model
+     *
+     * @return {@link List} of {@link Tuple}s
+     *
+     * @throws io.github.wwhysohard.search.exception.FilterException if projection is empty or not allowed
+     */
+    public <T> List<Tuple> findTuples(GenericSpecification<T> specification) {
+        return findAll(specification, Tuple.class);
+    }
+
+    /**
+     * Finds a page of values of <code>projection</code> fields, see {@link #findTuples(GenericSpecification)}
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param pageable {@link Pageable} defining the page
+     * @param <T> generic type of the model
+     *
+     * @return {@link Page} of {@link Tuple}s
+     */
+    public <T> Page<Tuple> findTuples(GenericSpecification<T> specification, Pageable pageable) {
+        return findAll(specification, Tuple.class, pageable);
+    }
+
+    /**
+     * Finds values of <code>projection</code> fields of all models matching the given specification
+     * and constructs DTOs of them. The DTO has to have a public constructor which takes values
+     * of the projected fields in order of the projection
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param resultType {@link Class} of the DTO, or {@link Tuple}
+     * @param <T> generic type of the model
+     * @param <R> type of the DTO
+     *
+     * @return {@link List} of DTOs
+     *
+     * @throws io.github.wwhysohard.search.exception.FilterException if projection is empty or not allowed
+     */
+    public <T, R> List<R> findAll(GenericSpecification<T> specification, Class<R> resultType) {
+        if (isUnsatisfiable(specification)) return new ArrayList<>();
+
+        return createQuery(specification, resultType).getResultList();
+    }
+
+    /**
+     * Finds a page of DTOs, see {@link #findAll(GenericSpecification, Class)}.
+     * Results are sorted by sorts of the specification, sort of {@link Pageable} is ignored.
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param resultType {@link Class} of the DTO, or {@link Tuple}
+     * @param pageable {@link Pageable} defining the page
+     * @param <T> generic type of the model
+     * @param <R> type of the DTO
+     *
+     * @return {@link Page} of DTOs
+     */
+    public <T, R> Page<R> findAll(GenericSpecification<T> specification, Class<R> resultType, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(specification, resultType));
+        }
+
+        if (isUnsatisfiable(specification)) {
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+
+        TypedQuery<R> query = createQuery(specification, resultType);
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(specification));
+    }
+
+    /**
+     * Counts models matching the given specification
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param <T> generic type of the model
+     *
+     * @return number of models
+     */
+    public <T> long count(GenericSpecification<T> specification) {
+        if (isUnsatisfiable(specification)) return 0;
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<T> root = query.from(specification.getGenericType());
+        QueryParameters parameters = new QueryParameters();
+
+        query.where(specification.toPredicate(root, query, criteriaBuilder, parameters));
+        query.select(query.isDistinct() ? criteriaBuilder.countDistinct(root) : criteriaBuilder.count(root));
+
+        return parameters.apply(entityManager.createQuery(query)).getSingleResult();
+    }
+
+    /**
+     * Computes <code>facets</code> and <code>aggregates</code> of the request of the given specification,
+     * see {@link FacetSearch}
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param <T> generic type of the model
+     *
+     * @return {@link FacetResult} of the request
+     *
+     * @throws io.github.wwhysohard.search.exception.FilterException if a facet or an aggregate is not allowed
+     */
+    public <T> FacetResult findFacets(GenericSpecification<T> specification) {
+        return FacetSearch.find(entityManager, specification);
+    }
+
+    /**
+     * Streams models matching the given specification with default fetch size, see {@link #stream(GenericSpecification, int, int)}
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param <T> generic type of the model
+     *
+     * @return {@link Stream} of models, which has to be closed
+     */
+    public <T> Stream<T> stream(GenericSpecification<T> specification) {
+        return stream(specification, DEFAULT_FETCH_SIZE, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Streams models matching the given specification from a forward-only cursor, so that memory does not depend
+     * on number of results, e.g. for bulk exports. Models are read-only, and streamed models are detached
+     * every <code>detachInterval</code> models before the next one is fetched, so up to <code>detachInterval</code>
+     * models stay managed at once. Other entities of the persistence context, including their pending changes,
+     * are left intact, but related entities loaded with streamed models stay managed unless detaching cascades to them.
+     * The stream has to be consumed within a transaction and closed, e.g. by try-with-resources.
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param fetchSize number of rows fetched by JDBC driver at once
+     * @param detachInterval number of models after which streamed models are detached
+     * @param <T> generic type of the model
+     *
+     * @return {@link Stream} of models, which has to be closed
+     */
+    public <T> Stream<T> stream(GenericSpecification<T> specification, int fetchSize, int detachInterval) {
+        if (fetchSize < 1 || detachInterval < 1) {
+            throw new IllegalArgumentException("Fetch size and detach interval must be positive");
+        }
+
+        if (isUnsatisfiable(specification)) return Stream.empty();
+
+        Stream<T> results = createQuery(specification)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+
+        Iterator<T> iterator = new DetachingIterator<>(results.iterator(), entityManager, detachInterval);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(results::close);
+    }
+
+    /**
+     * @return snapshot of the statistics, Hibernate query plan cache statistics are included
+     * if <code>hibernate.generate_statistics</code> is enabled
+     */
+    public SearchStatistics getStatistics() {
+        long queryPlanCacheHits = 0;
+        long queryPlanCacheMisses = 0;
+
+        try {
+            Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+            if (statistics.isStatisticsEnabled()) {
+                queryPlanCacheHits = statistics.getQueryPlanCacheHitCount();
+                queryPlanCacheMisses = statistics.getQueryPlanCacheMissCount();
+            }
+        } catch (PersistenceException e) {
+            // not Hibernate, only shape statistics are available
+        }
+
+        return new SearchStatistics(shapeHits.sum(), shapeMisses.sum(), queryPlanCacheHits, queryPlanCacheMisses);
+    }
+
+    /**
+     * Creates parameterised query of the given specification with values bound
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param <T> generic type of the model
+     *
+     * @return {@link TypedQuery} ready to be executed
+     */
+    protected <T> TypedQuery<T> createQuery(GenericSpecification<T> specification) {
+        recordShape(specification);
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(specification.getGenericType());
+        Root<T> root = query.from(specification.getGenericType());
+        QueryParameters parameters = new QueryParameters();
+
+        query.select(root).where(specification.toPredicate(root, query, criteriaBuilder, parameters));
+        return parameters.apply(entityManager.createQuery(query));
+    }
+
+    /**
+     * Finds a page of models in two phases: identifiers first, then models with associations
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param pageable {@link Pageable} defining the page
+     * @param fetches paths of JPA attribute names to be fetched
+     * @param entityGraph {@link EntityGraph} to be fetched, may be <code>null</code>
+     * @param <T> generic type of the model
+     *
+     * @return {@link Page} of models in order of their identifiers
+     */
+    private <T> Page<T> findAll(GenericSpecification<T> specification, Pageable pageable,
+                                List<String> fetches, EntityGraph<T> entityGraph) {
+        if (isUnsatisfiable(specification)) {
+            return pageable.isUnpaged() ? Page.empty() : new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+
+        TypedQuery<Object> idQuery = createIdQuery(specification);
+        if (pageable.isPaged()) {
+            idQuery.setFirstResult((int) pageable.getOffset());
+            idQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Object> ids = idQuery.getResultList();
+        List<T> models = fetch(specification.getGenericType(), ids, fetches, entityGraph);
+
+        return pageable.isUnpaged()
+                ? new PageImpl<>(models)
+                : PageableExecutionUtils.getPage(models, pageable, () -> count(specification));
+    }
+
+    /**
+     * Creates parameterised query of identifiers of models matching the given specification in its order
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param <T> generic type of the model
+     *
+     * @return {@link TypedQuery} ready to be executed
+     */
+    private <T> TypedQuery<Object> createIdQuery(GenericSpecification<T> specification) {
+        recordShape(specification);
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object> query = criteriaBuilder.createQuery(Object.class);
+        Root<T> root = query.from(specification.getGenericType());
+        QueryParameters parameters = new QueryParameters();
+
+        query.where(specification.toPredicate(root, query, criteriaBuilder, parameters));
+        query.select(root.get(getIdField(specification.getGenericType()).getName()));
+
+        return parameters.apply(entityManager.createQuery(query));
+    }
+
+    /**
+     * Fetches models of the given identifiers with the given associations by a single query
+     *
+     * @param clazz {@link Class} instance of the model
+     * @param ids identifiers of the models
+     * @param fetches paths of JPA attribute names to be fetched
+     * @param entityGraph {@link EntityGraph} to be fetched, may be <code>null</code>
+     * @param <T> generic type of the model
+     *
+     * @return {@link List} of models in order of the identifiers
+     */
+    private <T> List<T> fetch(Class<T> clazz, List<Object> ids, List<String> fetches, EntityGraph<T> entityGraph) {
+        if (ids.isEmpty()) return new ArrayList<>();
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(clazz);
+        Root<T> root = query.from(clazz);
+        QueryParameters parameters = new QueryParameters();
+
+        Map<String, Fetch<?, ?>> fetched = new HashMap<>();
+        for (String path : fetches) {
+            fetch(root, fetched, path);
+        }
+
+        query.select(root).where(InLists.in(root.get(getIdField(clazz).getName()), criteriaBuilder, parameters, ids.toArray()));
+
+        TypedQuery<T> typedQuery = parameters.apply(entityManager.createQuery(query));
+        if (entityGraph != null) {
+            typedQuery.setHint(QueryHints.HINT_FETCHGRAPH, entityGraph);
+        }
+
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        Map<Object, T> models = new HashMap<>();
+        for (T model : typedQuery.getResultList()) {
+            models.putIfAbsent(persistenceUnitUtil.getIdentifier(model), model);
+        }
+
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            T model = models.get(id);
+            if (model != null) ordered.add(model);
+        }
+        return ordered;
+    }
+
+    /**
+     * Creates {@link JoinType#LEFT} {@link Fetch}es of every hop of the given path which is not fetched yet
+     *
+     * @param root {@link Root} of the model
+     * @param fetched {@link Map} of already created {@link Fetch}es by their paths, receives created {@link Fetch}es
+     * @param path path of JPA attribute names, e.g. <code>books.publisher</code>
+     */
+    private static void fetch(Root<?> root, Map<String, Fetch<?, ?>> fetched, String path) {
+        FetchParent<?, ?> parent = root;
+        int end = -1;
+
+        do {
+            int start = end + 1;
+            end = path.indexOf('.', start);
+            String key = (end == -1) ? path : path.substring(0, end);
+            String attributeName = (end == -1) ? path.substring(start) : path.substring(start, end);
+
+            Fetch<?, ?> fetch = fetched.get(key);
+            if (fetch == null) {
+                fetch = parent.fetch(attributeName, JoinType.LEFT);
+                fetched.put(key, fetch);
+            }
+            parent = fetch;
+        } while (end != -1);
+    }
+
+    /**
+     * @param clazz {@link Class} instance of the model
+     *
+     * @return identifier {@link Field} of the model
+     */
+    private static Field getIdField(Class<?> clazz) {
+        Field idField = FilterableRegistry.getIdField(clazz);
+        if (idField == null) {
+            throw new IllegalStateException("Two-phase search requires identifier field in " + clazz.getName());
+        }
+        return idField;
+    }
+
+    /**
+     * Creates parameterised projection query of the given specification with values bound.
+     * Filters and sorts are applied first, so that projected fields reuse their joins
+     *
+     * @param specification {@link GenericSpecification} to be applied
+     * @param resultType {@link Class} of the DTO, or {@link Tuple}
+     * @param <T> generic type of the model
+     * @param <R> type of the DTO
+     *
+     * @return {@link TypedQuery} ready to be executed
+     */
+    protected <T, R> TypedQuery<R> createQuery(GenericSpecification<T> specification, Class<R> resultType) {
+        recordShape(specification);
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = criteriaBuilder.createQuery(resultType);
+        Root<T> root = query.from(specification.getGenericType());
+        QueryParameters parameters = new QueryParameters();
+
+        query.where(specification.toPredicate(root, query, criteriaBuilder, parameters));
+        List<Selection<?>> selections = specification.select(root);
+
+        if (Tuple.class.equals(resultType)) {
+            query.multiselect(selections);
+        } else {
+            query.select(criteriaBuilder.construct(resultType, selections.toArray(new Selection<?>[0])));
+        }
+
+        return parameters.apply(entityManager.createQuery(query));
+    }
+
+    /**
+     * Checks whether filters of the given specification are unsatisfiable, so the database need not be queried
+     *
+     * @param specification {@link GenericSpecification} to be executed
+     *
+     * @return <code>true</code> if no model can match the specification
+     */
+    private boolean isUnsatisfiable(GenericSpecification<?> specification) {
+        return specification.getOptimizedFilters().isUnsatisfiable();
+    }
+
+    /**
+     * Records whether shape of the given specification was executed before
+     *
+     * @param specification {@link GenericSpecification} to be executed
+     */
+    private void recordShape(GenericSpecification<?> specification) {
+        String shape = SearchShape.of(specification.getRequest(), specification.getOptimizedFilters(),
+                specification.getGenericType(), entityManager.getCriteriaBuilder());
+
+        if (shapes.contains(shape)) {
+            shapeHits.increment();
+            return;
+        }
+
+        if (shapes.size() < MAX_TRACKED_SHAPES) {
+            shapes.add(shape);
+        }
+        shapeMisses.increment();
+    }
+
+    /**
+     * {@link Iterator} which detaches the models it has returned every <code>interval</code> models,
+     * right before the next model is fetched, leaving the rest of persistence context intact
+     *
+     * @param <T> generic type of the model
+     */
+    private static class DetachingIterator<T> implements Iterator<T> {
+
+        private final Iterator<T> iterator;
+        private final EntityManager entityManager;
+        private final int interval;
+        private final List<T> managed;
+
+        DetachingIterator(Iterator<T> iterator, EntityManager entityManager, int interval) {
+            this.iterator = iterator;
+            this.entityManager = entityManager;
+            this.interval = interval;
+            this.managed = new ArrayList<>(Math.min(interval, DEFAULT_FETCH_SIZE));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (managed.size() >= interval) {
+                managed.forEach(entityManager::detach);
+                managed.clear();
+            }
+            return iterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            T next = iterator.next();
+            managed.add(next);
+            return next;
+        }
+
+    }
+
+}
@@ -0,0 +1,57 @@
+package io.github.wwhysohard.search.executor;
+
+import lombok.Getter;
+
+/**
+ * Snapshot of {@link SearchExecutor} statistics
+ */
+@Getter
+public class SearchStatistics {
+
+    /**
+     * Number of searches which shape had already been executed before
+     */
+    private final long shapeHits;
+
+    /**
+     * Number of searches which shape was executed for the first time
+     */
+    private final long shapeMisses;
+
+    /**
+     * Hibernate query plan cache hits, zero unless Hibernate statistics are enabled
+     */
+    private final long queryPlanCacheHits;
+
+    /**
+     * Hibernate query plan cache misses, zero unless Hibernate statistics are enabled
+     */
+    private final long queryPlanCacheMisses;
+
+    SearchStatistics(long shapeHits, long shapeMisses, long queryPlanCacheHits, long queryPlanCacheMisses) {
+        this.shapeHits = shapeHits;
+        this.shapeMisses = shapeMisses;
+        this.queryPlanCacheHits = queryPlanCacheHits;
+        this.queryPlanCacheMisses = queryPlanCacheMisses;
+    }
+
+    /**
+     * @return ratio of searches which reused the parameterised query of an already executed shape
+     */
+    public double getShapeHitRate() {
+        return ratio(shapeHits, shapeMisses);
+    }
+
+    /**
+     * @return Hibernate query plan cache hit ratio
+     */
+    public double getQueryPlanCacheHitRate() {
+        return ratio(queryPlanCacheHits, queryPlanCacheMisses);
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return (total == 0) ? 0 : (double) hits / total;
+    }
+
+}
@@ -0,0 +1,33 @@
+package io.github.wwhysohard.search.facet;
+
+import io.github.wwhysohard.search.enums.AggregateFunction;
+import lombok.Getter;
+
+/**
+ * Immutable result of an aggregate function over values of a field of all models matching a search
+ */
+@Getter
+public final class AggregateValue {
+
+    /**
+     * Aggregated field as it was requested
+     */
+    private final String field;
+
+    /**
+     * {@link AggregateFunction} by which values were aggregated
+     */
+    private final AggregateFunction function;
+
+    /**
+     * Result of the function, <code>null</code> if no model matches the search
+     */
+    private final Object value;
+
+    AggregateValue(String field, AggregateFunction function, Object value) {
+        this.field = field;
+        this.function = function;
+        this.value = value;
+    }
+
+}
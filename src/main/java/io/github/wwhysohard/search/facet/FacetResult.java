@@ -0,0 +1,54 @@
+package io.github.wwhysohard.search.facet;
+
+import io.github.wwhysohard.search.enums.AggregateFunction;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable result of {@link FacetSearch}
+ */
+@Getter
+public final class FacetResult {
+
+    /**
+     * Value counts of every facet by the field as it was requested, in order of the request.
+     * Values of a facet are ordered by count descending
+     */
+    private final Map<String, List<FacetValue>> facets;
+
+    /**
+     * Aggregates in order of the request
+     */
+    private final List<AggregateValue> aggregates;
+
+    FacetResult(Map<String, List<FacetValue>> facets, List<AggregateValue> aggregates) {
+        this.facets = Collections.unmodifiableMap(facets);
+        this.aggregates = Collections.unmodifiableList(aggregates);
+    }
+
+    /**
+     * @param field facet field as it was requested
+     *
+     * @return value counts of the facet, empty if the facet was not requested
+     */
+    public List<FacetValue> getFacet(String field) {
+        return facets.getOrDefault(field, Collections.emptyList());
+    }
+
+    /**
+     * @param field aggregated field as it was requested
+     * @param function {@link AggregateFunction} of the aggregate
+     *
+     * @return result of the aggregate, <code>null</code> if it was not requested or no model matches the search
+     */
+    public Object getAggregate(String field, AggregateFunction function) {
+        for (AggregateValue aggregate : aggregates) {
+            if (aggregate.getField().equals(field) && aggregate.getFunction() == function) return aggregate.getValue();
+        }
+        return null;
+    }
+
+}
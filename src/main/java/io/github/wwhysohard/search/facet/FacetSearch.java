@@ -0,0 +1,388 @@
+package io.github.wwhysohard.search.facet;
+
+import io.github.wwhysohard.search.dto.AggregateRequest;
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.enums.AggregateFunction;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.hibernate.SearchFunctions;
+import io.github.wwhysohard.search.metadata.FilterableJoin;
+import io.github.wwhysohard.search.metadata.FilterablePath;
+import io.github.wwhysohard.search.metadata.FilterableRegistry;
+import io.github.wwhysohard.search.specification.GenericSpecification;
+import io.github.wwhysohard.search.utils.FilterOptimizer;
+import io.github.wwhysohard.search.utils.GenericCriteriaJoin;
+import io.github.wwhysohard.search.utils.OptimizedFilters;
+import io.github.wwhysohard.search.utils.QueryParameters;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utility class which computes value counts of <code>facets</code> and <code>aggregates</code>
+ * of {@link SearchRequest} of a {@link GenericSpecification}, e.g. for filter sidebars shown next to search results.
+ * Filters are applied the same way as by the search itself, access restrictions included.
+ * <p>
+ * Each facet excludes its own filters, i.e. top-level filters and groups of filters which refer only to the facet field,
+ * so that values other than the selected ones are still counted. Facets which exclude the same filters are counted
+ * by a single query with <code>GROUPING SETS</code> where {@link SearchFunctions#GROUPING_SETS} is registered,
+ * and by a grouped query per facet otherwise. Aggregates are computed by a single query over all filters.
+ */
+public class FacetSearch {
+
+    /**
+     * Creating an instance of {@link FacetSearch} is illegal
+     */
+    private FacetSearch() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Computes facets and aggregates of the request of the given specification
+     *
+     * @param entityManager {@link EntityManager} by which queries are executed
+     * @param specification {@link GenericSpecification} to be applied
+     * @param <T> generic type of the model
+     *
+     * @return {@link FacetResult} of the request
+     *
+     * @throws FilterException with <code>FIELD_IS_NOT_ALLOWED_FOR_FACETING</code> {@link ErrorCode} if a facet field
+     * is not allowed for filtering, with <code>FIELD_IS_NOT_ALLOWED_FOR_AGGREGATION</code> {@link ErrorCode}
+     * if an aggregate field is not allowed for filtering, goes through a collection, or does not support the function
+     */
+    public static <T> FacetResult find(EntityManager entityManager, GenericSpecification<T> specification) {
+        SearchRequest request = specification.getRequest();
+        Class<T> clazz = specification.getGenericType();
+
+        List<String> fields = (request.getFacets() != null) ? new ArrayList<>(new LinkedHashSet<>(request.getFacets())) : Collections.emptyList();
+        List<FilterablePath> facetPaths = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            facetPaths.add(getFacetPath(clazz, field));
+        }
+
+        List<AggregateRequest> aggregates = (request.getAggregates() != null) ? request.getAggregates() : Collections.emptyList();
+        List<FilterablePath> aggregatePaths = new ArrayList<>(aggregates.size());
+        for (AggregateRequest aggregate : aggregates) {
+            aggregatePaths.add(getAggregatePath(clazz, aggregate));
+        }
+
+        Map<List<FilterRequest>, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < facetPaths.size(); i++) {
+            List<FilterRequest> filters = exclude(request.getFilters(), canonicalPath(facetPaths.get(i)), clazz);
+            groups.computeIfAbsent(filters, key -> new ArrayList<>()).add(i);
+        }
+
+        List<List<FacetValue>> counts = new ArrayList<>(Collections.nCopies(fields.size(), Collections.emptyList()));
+        boolean groupingSets = SearchFunctions.isRegistered(entityManager.getCriteriaBuilder(), SearchFunctions.GROUPING_SETS);
+
+        for (Map.Entry<List<FilterRequest>, List<Integer>> group : groups.entrySet()) {
+            OptimizedFilters filters = FilterOptimizer.optimize(group.getKey(), clazz);
+            if (filters.isUnsatisfiable()) continue;
+
+            if (groupingSets && group.getValue().size() > 1) {
+                count(entityManager, specification, filters, facetPaths, group.getValue(), counts);
+                continue;
+            }
+
+            for (Integer index : group.getValue()) {
+                count(entityManager, specification, filters, facetPaths, Collections.singletonList(index), counts);
+            }
+        }
+
+        Map<String, List<FacetValue>> facets = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            facets.put(fields.get(i), counts.get(i));
+        }
+
+        return new FacetResult(facets, aggregate(entityManager, specification, aggregates, aggregatePaths));
+    }
+
+    /**
+     * Counts values of the given facets by a single query. A single facet is grouped by its field,
+     * several facets are grouped by {@link SearchFunctions#GROUPING_SETS}, and rows of each facet
+     * are told apart by {@link SearchFunctions#GROUPING}. Models are counted distinctly if joins multiply rows
+     *
+     * @param entityManager {@link EntityManager} by which the query is executed
+     * @param specification {@link GenericSpecification} to be applied
+     * @param filters filters of the facets
+     * @param paths {@link FilterablePath}s of all facets
+     * @param indexes indexes of the facets to be counted
+     * @param counts value counts of all facets by their indexes, receives counts of the given facets
+     * @param <T> generic type of the model
+     */
+    private static <T> void count(EntityManager entityManager, GenericSpecification<T> specification, OptimizedFilters filters,
+                                  List<FilterablePath> paths, List<Integer> indexes, List<List<FacetValue>> counts) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<T> root = query.from(specification.getGenericType());
+        QueryParameters parameters = new QueryParameters();
+
+        query.where(specification.toPredicate(root, query, criteriaBuilder, parameters, filters));
+
+        List<Expression<?>> values = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            FilterablePath path = paths.get(index);
+            values.add(specification.join(root, path).get(path.getAttributeName()));
+        }
+
+        List<Selection<?>> selections = new ArrayList<>(values);
+        if (indexes.size() > 1) {
+            for (Expression<?> value : values) {
+                selections.add(criteriaBuilder.function(SearchFunctions.GROUPING, Integer.class, value));
+            }
+            query.groupBy(criteriaBuilder.function(SearchFunctions.GROUPING_SETS, Integer.class, values.toArray(new Expression<?>[0])));
+        } else {
+            query.groupBy(values);
+        }
+        selections.add(GenericCriteriaJoin.multipliesRows(root) ? criteriaBuilder.countDistinct(root) : criteriaBuilder.count(root));
+        query.multiselect(selections);
+
+        List<List<FacetValue>> results = split(parameters.apply(entityManager.createQuery(query)).getResultList(), indexes.size());
+        for (int i = 0; i < indexes.size(); i++) {
+            counts.set(indexes.get(i), results.get(i));
+        }
+    }
+
+    /**
+     * Splits rows of a facet query into value counts of each facet. Rows consist of values of the facets,
+     * followed by {@link SearchFunctions#GROUPING} of each value if there are several facets, and by the count.
+     * A row of several facets belongs to the facet whose value is grouped, i.e. whose <code>GROUPING</code> is <code>0</code>
+     *
+     * @param rows rows of the query
+     * @param facets number of counted facets
+     *
+     * @return value counts of each facet in order of the facets, the most frequent first
+     */
+    static List<List<FacetValue>> split(List<Tuple> rows, int facets) {
+        List<List<FacetValue>> results = new ArrayList<>(facets);
+        for (int i = 0; i < facets; i++) {
+            results.add(new ArrayList<>());
+        }
+
+        int countIndex = (facets > 1) ? 2 * facets : 1;
+        for (Tuple tuple : rows) {
+            long count = ((Number) tuple.get(countIndex)).longValue();
+
+            for (int i = 0; i < facets; i++) {
+                if (facets == 1 || ((Number) tuple.get(facets + i)).intValue() == 0) {
+                    results.get(i).add(new FacetValue(tuple.get(i), count));
+                }
+            }
+        }
+
+        for (List<FacetValue> result : results) {
+            result.sort(Comparator.comparingLong(FacetValue::getCount).reversed());
+        }
+        return results;
+    }
+
+    /**
+     * Computes the given aggregates over all models matching filters of the request by a single query
+     *
+     * @param entityManager {@link EntityManager} by which the query is executed
+     * @param specification {@link GenericSpecification} to be applied
+     * @param aggregates aggregates to be computed
+     * @param paths {@link FilterablePath}s of the aggregates
+     * @param <T> generic type of the model
+     *
+     * @return {@link AggregateValue}s in order of the aggregates
+     */
+    private static <T> List<AggregateValue> aggregate(EntityManager entityManager, GenericSpecification<T> specification,
+                                                      List<AggregateRequest> aggregates, List<FilterablePath> paths) {
+        List<AggregateValue> values = new ArrayList<>(aggregates.size());
+        if (aggregates.isEmpty()) return values;
+
+        OptimizedFilters filters = specification.getOptimizedFilters();
+        Tuple tuple = null;
+
+        if (!filters.isUnsatisfiable()) {
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+            Root<T> root = query.from(specification.getGenericType());
+            QueryParameters parameters = new QueryParameters();
+
+            query.where(specification.toPredicate(root, query, criteriaBuilder, parameters, filters));
+
+            List<Selection<?>> selections = new ArrayList<>(aggregates.size());
+            for (int i = 0; i < aggregates.size(); i++) {
+                FilterablePath path = paths.get(i);
+                Path<?> value = specification.join(root, path).get(path.getAttributeName());
+                selections.add(aggregate(criteriaBuilder, value, aggregates.get(i).getFunction()));
+            }
+            query.multiselect(selections);
+
+            tuple = parameters.apply(entityManager.createQuery(query)).getSingleResult();
+        }
+
+        for (int i = 0; i < aggregates.size(); i++) {
+            AggregateRequest aggregate = aggregates.get(i);
+            values.add(new AggregateValue(aggregate.getField(), aggregate.getFunction(), (tuple != null) ? tuple.get(i) : null));
+        }
+        return values;
+    }
+
+    /**
+     * Constructs aggregate {@link Expression} of the given function
+     *
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Expression}
+     * @param value {@link Path} of the aggregated field
+     * @param function {@link AggregateFunction} to be applied
+     *
+     * @return aggregate {@link Expression}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Expression<?> aggregate(CriteriaBuilder criteriaBuilder, Path<?> value, AggregateFunction function) {
+        switch (function) {
+            case SUM:
+                return criteriaBuilder.sum((Expression<Number>) value);
+            case AVG:
+                return criteriaBuilder.avg((Expression<Number>) value);
+            case MIN:
+                return criteriaBuilder.least((Expression) value);
+            default:
+                return criteriaBuilder.greatest((Expression) value);
+        }
+    }
+
+    /**
+     * Returns top-level filters except the ones which refer only to the given path
+     *
+     * @param filters filters of the request, may be <code>null</code>
+     * @param path canonical path of a facet, see {@link #canonicalPath(FilterablePath)}
+     * @param clazz {@link Class} instance of the model
+     *
+     * @return filters to be applied to the facet
+     */
+    private static List<FilterRequest> exclude(List<FilterRequest> filters, String path, Class<?> clazz) {
+        if (filters == null) return Collections.emptyList();
+
+        List<FilterRequest> remaining = new ArrayList<>(filters.size());
+        for (FilterRequest filter : filters) {
+            if (!refersOnlyTo(filter, path, clazz)) remaining.add(filter);
+        }
+        return remaining;
+    }
+
+    /**
+     * Checks whether the given filter, or every filter of the given group, refers to the given path
+     *
+     * @param filter filter to be checked
+     * @param path canonical path of a facet
+     * @param clazz {@link Class} instance of the model
+     *
+     * @return <code>true</code> if the filter refers only to the path
+     */
+    private static boolean refersOnlyTo(FilterRequest filter, String path, Class<?> clazz) {
+        if (filter == null) return false;
+
+        if (filter.getOperator() == QueryOperator.AND || filter.getOperator() == QueryOperator.OR) {
+            if (filter.getFilters() == null || filter.getFilters().isEmpty()) return false;
+
+            for (FilterRequest nested : filter.getFilters()) {
+                if (!refersOnlyTo(nested, path, clazz)) return false;
+            }
+            return true;
+        }
+
+        if (filter.getField() == null) return false;
+
+        FilterablePath resolved = FilterableRegistry.resolve(clazz, filter.getField());
+        return resolved.isValid() && path.equals(canonicalPath(resolved));
+    }
+
+    /**
+     * @param path resolved {@link FilterablePath}
+     *
+     * @return path of JPA attribute names, the same for a field and its aliases
+     */
+    private static String canonicalPath(FilterablePath path) {
+        if (path.getJoins().isEmpty()) return path.getAttributeName();
+
+        return path.getJoins().get(path.getJoins().size() - 1).getKey() + "." + path.getAttributeName();
+    }
+
+    /**
+     * Resolves the specified facet field
+     *
+     * @param clazz {@link Class} instance of the model
+     * @param field field to be resolved
+     *
+     * @return resolved {@link FilterablePath} of the field
+     *
+     * @throws FilterException with <code>FIELD_IS_NOT_ALLOWED_FOR_FACETING</code> {@link ErrorCode}
+     * if the field is not allowed for filtering
+     */
+    private static FilterablePath getFacetPath(Class<?> clazz, String field) {
+        FilterablePath path = (field != null) ? FilterableRegistry.resolve(clazz, field) : null;
+
+        if (path == null || !path.isValid()) {
+            throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_FACETING);
+        }
+        return path;
+    }
+
+    /**
+     * Resolves field of the specified aggregate and validates that the aggregate is allowed
+     *
+     * @param clazz {@link Class} instance of the model
+     * @param aggregate aggregate to be validated
+     *
+     * @return resolved {@link FilterablePath} of the field
+     *
+     * @throws FilterException with <code>FIELD_IS_NOT_ALLOWED_FOR_AGGREGATION</code> {@link ErrorCode}
+     * if the field is not allowed for filtering, its path goes through a collection, which would aggregate
+     * values of a model more than once, or the function is missing or not applicable to the field type
+     */
+    private static FilterablePath getAggregatePath(Class<?> clazz, AggregateRequest aggregate) {
+        FilterablePath path = (aggregate != null && aggregate.getField() != null) ? FilterableRegistry.resolve(clazz, aggregate.getField()) : null;
+
+        if (path == null || !path.isValid() || aggregate.getFunction() == null) {
+            throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_AGGREGATION);
+        }
+
+        for (FilterableJoin join : path.getJoins()) {
+            if (join.isCollection()) throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_AGGREGATION);
+        }
+
+        boolean numeric = aggregate.getFunction() == AggregateFunction.SUM || aggregate.getFunction() == AggregateFunction.AVG;
+        if (numeric ? !isNumeric(path.getJavaType()) : !isComparable(path.getJavaType())) {
+            throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_AGGREGATION);
+        }
+
+        return path;
+    }
+
+    /**
+     * @param type Java type of a field
+     *
+     * @return <code>true</code> if the type is a number or a numeric primitive
+     */
+    private static boolean isNumeric(Class<?> type) {
+        return type.isPrimitive() ? type != boolean.class && type != char.class : Number.class.isAssignableFrom(type);
+    }
+
+    /**
+     * @param type Java type of a field
+     *
+     * @return <code>true</code> if the type is {@link Comparable} or a primitive
+     */
+    private static boolean isComparable(Class<?> type) {
+        return type.isPrimitive() || Comparable.class.isAssignableFrom(type);
+    }
+
+}
@@ -0,0 +1,26 @@
+package io.github.wwhysohard.search.facet;
+
+import lombok.Getter;
+
+/**
+ * Immutable count of models which have the given value of a facet field
+ */
+@Getter
+public final class FacetValue {
+
+    /**
+     * Value of the facet field, <code>null</code> counts models without value
+     */
+    private final Object value;
+
+    /**
+     * Number of models matching the search which have the value
+     */
+    private final long count;
+
+    FacetValue(Object value, long count) {
+        this.value = value;
+        this.count = count;
+    }
+
+}
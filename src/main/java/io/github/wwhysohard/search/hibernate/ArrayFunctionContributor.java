@@ -0,0 +1,52 @@
+package io.github.wwhysohard.search.hibernate;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.type.BooleanType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Registers {@link SearchFunctions#ANY} and array types of PostgreSQL and H2,
+ * so that values of <code>IN</code> filters can be bound as a single array parameter
+ */
+public class ArrayFunctionContributor implements SearchFunctionContributor {
+
+    /**
+     * Element types of arrays which can be bound as parameters, mapped to their SQL names
+     */
+    private static final Map<Class<?>, String> ARRAY_ELEMENT_TYPES;
+
+    static {
+        Map<Class<?>, String> types = new LinkedHashMap<>();
+        types.put(Long.class, "bigint");
+        types.put(Integer.class, "integer");
+        types.put(Short.class, "smallint");
+        types.put(String.class, "varchar");
+        types.put(UUID.class, "uuid");
+        types.put(BigDecimal.class, "numeric");
+        types.put(LocalDate.class, "date");
+        ARRAY_ELEMENT_TYPES = Collections.unmodifiableMap(types);
+    }
+
+    @Override
+    public boolean supports(Dialect dialect) {
+        return dialect instanceof PostgreSQL81Dialect || dialect instanceof H2Dialect;
+    }
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder, ConfigurationService configuration) {
+        metadataBuilder.applySqlFunction(SearchFunctions.ANY, new SQLFunctionTemplate(BooleanType.INSTANCE, "(?1 = any(?2))"));
+        ARRAY_ELEMENT_TYPES.forEach((type, name) -> metadataBuilder.applyBasicType(new SqlArrayType(type, name)));
+    }
+
+}
@@ -0,0 +1,72 @@
+package io.github.wwhysohard.search.hibernate;
+
+import org.hibernate.QueryException;
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.dialect.DB2Dialect;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.Oracle10gDialect;
+import org.hibernate.dialect.PostgreSQL95Dialect;
+import org.hibernate.dialect.SQLServer2008Dialect;
+import org.hibernate.dialect.function.SQLFunction;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.Mapping;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.type.IntegerType;
+import org.hibernate.type.Type;
+
+import java.util.List;
+
+/**
+ * Registers {@link SearchFunctions#GROUPING_SETS} and {@link SearchFunctions#GROUPING} for databases which support
+ * <code>GROUPING SETS</code>, so that value counts of several facets are computed by a single query
+ */
+public class GroupingSetsContributor implements SearchFunctionContributor {
+
+    @Override
+    public boolean supports(Dialect dialect) {
+        return dialect instanceof PostgreSQL95Dialect || dialect instanceof SQLServer2008Dialect
+                || dialect instanceof Oracle10gDialect || dialect instanceof DB2Dialect;
+    }
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder, ConfigurationService configuration) {
+        metadataBuilder.applySqlFunction(SearchFunctions.GROUPING_SETS, new GroupingSetsFunction());
+        metadataBuilder.applySqlFunction(SearchFunctions.GROUPING, new SQLFunctionTemplate(IntegerType.INSTANCE, "grouping(?1)"));
+    }
+
+    /**
+     * {@link SQLFunction} of any number of arguments rendered as <code>grouping sets ((a), (b), ...)</code>
+     */
+    private static class GroupingSetsFunction implements SQLFunction {
+
+        @Override
+        public boolean hasArguments() {
+            return true;
+        }
+
+        @Override
+        public boolean hasParenthesesIfNoArguments() {
+            return true;
+        }
+
+        @Override
+        public Type getReturnType(Type firstArgumentType, Mapping mapping) {
+            return IntegerType.INSTANCE;
+        }
+
+        @Override
+        public String render(Type firstArgumentType, List arguments, SessionFactoryImplementor factory) {
+            if (arguments.isEmpty()) throw new QueryException(SearchFunctions.GROUPING_SETS + " requires arguments");
+
+            StringBuilder builder = new StringBuilder("grouping sets (");
+            for (int i = 0; i < arguments.size(); i++) {
+                if (i > 0) builder.append(", ");
+                builder.append('(').append(arguments.get(i)).append(')');
+            }
+            return builder.append(')').toString();
+        }
+
+    }
+
+}
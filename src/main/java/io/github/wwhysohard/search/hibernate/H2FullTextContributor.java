@@ -0,0 +1,32 @@
+package io.github.wwhysohard.search.hibernate;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.type.BooleanType;
+import org.hibernate.type.DoubleType;
+
+/**
+ * Registers approximations of full-text functions for H2, meant for tests of code which uses PostgreSQL in production.
+ * Native full-text search of H2 works on whole tables rather than columns, so {@link SearchFunctions#FULL_TEXT}
+ * matches columns which contain the query ignoring case, and {@link SearchFunctions#FULL_TEXT_RANK}
+ * ranks earlier occurrences higher
+ */
+public class H2FullTextContributor implements SearchFunctionContributor {
+
+    @Override
+    public boolean supports(Dialect dialect) {
+        return dialect instanceof H2Dialect;
+    }
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder, ConfigurationService configuration) {
+        metadataBuilder.applySqlFunction(SearchFunctions.FULL_TEXT,
+                new SQLFunctionTemplate(BooleanType.INSTANCE, "(locate(lower(?2), lower(?1)) > 0)"));
+        metadataBuilder.applySqlFunction(SearchFunctions.FULL_TEXT_RANK,
+                new SQLFunctionTemplate(DoubleType.INSTANCE, "(1.0 / nullif(locate(lower(?2), lower(?1)), 0))"));
+    }
+
+}
@@ -0,0 +1,52 @@
+package io.github.wwhysohard.search.hibernate;
+
+import org.hibernate.HibernateException;
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.type.BooleanType;
+import org.hibernate.type.DoubleType;
+
+import java.util.regex.Pattern;
+
+/**
+ * Registers full-text functions of PostgreSQL: {@link SearchFunctions#FULL_TEXT} matches
+ * <code>to_tsvector(configuration, column) @@ plainto_tsquery(configuration, query)</code>,
+ * {@link SearchFunctions#FULL_TEXT_RANK} is <code>ts_rank</code> of them.
+ * Text search configuration is set by {@link #CONFIGURATION_SETTING}, <code>english</code> by default.
+ * Searches use a GIN index created on the same expression,
+ * e.g. <code>create index on article using gin (to_tsvector('english', body))</code>
+ */
+public class PostgreSQLFullTextContributor implements SearchFunctionContributor {
+
+    /**
+     * Setting of the persistence unit which holds text search configuration
+     */
+    public static final String CONFIGURATION_SETTING = "search.full_text_configuration";
+
+    private static final Pattern CONFIGURATION = Pattern.compile("[A-Za-z_][A-Za-z0-9_.]*");
+
+    @Override
+    public boolean supports(Dialect dialect) {
+        return dialect instanceof PostgreSQL81Dialect;
+    }
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder, ConfigurationService configuration) {
+        String textSearchConfiguration = configuration.getSetting(CONFIGURATION_SETTING, String.class, "english");
+        if (!CONFIGURATION.matcher(textSearchConfiguration).matches()) {
+            throw new HibernateException("Invalid text search configuration: " + textSearchConfiguration);
+        }
+
+        String vector = "to_tsvector('" + textSearchConfiguration + "', ?1)";
+        String query = "plainto_tsquery('" + textSearchConfiguration + "', ?2)";
+
+        metadataBuilder.applySqlFunction(SearchFunctions.FULL_TEXT,
+                new SQLFunctionTemplate(BooleanType.INSTANCE, "(" + vector + " @@ " + query + ")"));
+        metadataBuilder.applySqlFunction(SearchFunctions.FULL_TEXT_RANK,
+                new SQLFunctionTemplate(DoubleType.INSTANCE, "ts_rank(" + vector + ", " + query + ")"));
+    }
+
+}
@@ -0,0 +1,30 @@
+package io.github.wwhysohard.search.hibernate;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.config.spi.ConfigurationService;
+
+/**
+ * Registers functions named by {@link SearchFunctions}, and types they need, for particular databases.
+ * Applied by {@link SearchMetadataBuilderContributor} if it supports the dialect. Custom contributors are loaded
+ * by {@link java.util.ServiceLoader} from <code>META-INF/services/io.github.wwhysohard.search.hibernate.SearchFunctionContributor</code>
+ * and applied after built-in ones, so they can override them
+ */
+public interface SearchFunctionContributor {
+
+    /**
+     * @param dialect {@link Dialect} of the database
+     *
+     * @return <code>true</code> if the contributor is to be applied for the given dialect
+     */
+    boolean supports(Dialect dialect);
+
+    /**
+     * Registers functions and types
+     *
+     * @param metadataBuilder {@link MetadataBuilder} which receives functions and types
+     * @param configuration {@link ConfigurationService} with settings of the persistence unit
+     */
+    void contribute(MetadataBuilder metadataBuilder, ConfigurationService configuration);
+
+}
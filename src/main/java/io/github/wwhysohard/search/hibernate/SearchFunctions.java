@@ -0,0 +1,75 @@
+package io.github.wwhysohard.search.hibernate;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.criteria.internal.CriteriaBuilderImpl;
+
+import javax.persistence.criteria.CriteriaBuilder;
+
+/**
+ * Utility class which holds names of SQL functions registered by {@link SearchFunctionContributor}s
+ * and checks whether they are available
+ */
+public class SearchFunctions {
+
+    /**
+     * Boolean function <code>search_any(value, array)</code> which checks whether the value equals any element of an SQL array
+     */
+    public static final String ANY = "search_any";
+
+    /**
+     * Boolean function <code>search_full_text(column, query)</code> which checks whether text of the column matches the query
+     */
+    public static final String FULL_TEXT = "search_full_text";
+
+    /**
+     * Numeric function <code>search_full_text_rank(column, query)</code> which computes relevance of the column
+     * to the query, the greater the more relevant
+     */
+    public static final String FULL_TEXT_RANK = "search_full_text_rank";
+
+    /**
+     * Grouping function <code>search_grouping_sets(a, b, ...)</code> which groups rows by each of the arguments
+     * separately, i.e. <code>GROUPING SETS ((a), (b), ...)</code>, to be used in <code>GROUP BY</code> clause
+     */
+    public static final String GROUPING_SETS = "search_grouping_sets";
+
+    /**
+     * Numeric function <code>search_grouping(a)</code> which is <code>0</code> in rows grouped by the argument
+     * by {@link #GROUPING_SETS}, and <code>1</code> otherwise
+     */
+    public static final String GROUPING = "search_grouping";
+
+    /**
+     * Creating an instance of {@link SearchFunctions} is illegal
+     */
+    private SearchFunctions() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Returns Hibernate session factory of the given {@link CriteriaBuilder}
+     *
+     * @param criteriaBuilder {@link CriteriaBuilder} of a query
+     *
+     * @return {@link SessionFactoryImplementor}, <code>null</code> if the criteria builder is not Hibernate one
+     */
+    public static SessionFactoryImplementor getSessionFactory(CriteriaBuilder criteriaBuilder) {
+        return (criteriaBuilder instanceof CriteriaBuilderImpl)
+                ? ((CriteriaBuilderImpl) criteriaBuilder).getEntityManagerFactory()
+                : null;
+    }
+
+    /**
+     * Checks whether the given function is registered
+     *
+     * @param criteriaBuilder {@link CriteriaBuilder} of a query
+     * @param function name of the function
+     *
+     * @return <code>true</code> if the function can be used in queries of the given criteria builder
+     */
+    public static boolean isRegistered(CriteriaBuilder criteriaBuilder, String function) {
+        SessionFactoryImplementor sessionFactory = getSessionFactory(criteriaBuilder);
+        return sessionFactory != null && sessionFactory.getSqlFunctionRegistry().findSQLFunction(function) != null;
+    }
+
+}
@@ -0,0 +1,54 @@
+package io.github.wwhysohard.search.hibernate;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.boot.spi.MetadataBuilderImplementor;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.jdbc.spi.JdbcServices;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Registers SQL functions and types used by the library in Hibernate.
+ * Enabled by <code>spring.jpa.properties.hibernate.metadata_builder_contributor</code> set to the name of this class.
+ * Contributions depend on the dialect and are made by {@link SearchFunctionContributor}s,
+ * nothing is registered for unsupported databases
+ */
+public class SearchMetadataBuilderContributor implements MetadataBuilderContributor {
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder) {
+        if (!(metadataBuilder instanceof MetadataBuilderImplementor)) return;
+
+        StandardServiceRegistry serviceRegistry = ((MetadataBuilderImplementor) metadataBuilder).getBootstrapContext().getServiceRegistry();
+        JdbcServices jdbcServices = serviceRegistry.getService(JdbcServices.class);
+        Dialect dialect = (jdbcServices != null) ? jdbcServices.getDialect() : null;
+        ConfigurationService configuration = serviceRegistry.getService(ConfigurationService.class);
+
+        for (SearchFunctionContributor contributor : getContributors()) {
+            if (contributor.supports(dialect)) {
+                contributor.contribute(metadataBuilder, configuration);
+            }
+        }
+    }
+
+    /**
+     * @return built-in {@link SearchFunctionContributor}s followed by the ones loaded by {@link ServiceLoader}
+     */
+    private static List<SearchFunctionContributor> getContributors() {
+        List<SearchFunctionContributor> contributors = new ArrayList<>(Arrays.asList(
+                new ArrayFunctionContributor(), new PostgreSQLFullTextContributor(), new H2FullTextContributor(),
+                new GroupingSetsContributor()));
+
+        for (SearchFunctionContributor contributor : ServiceLoader.load(SearchFunctionContributor.class)) {
+            contributors.add(contributor);
+        }
+        return contributors;
+    }
+
+}
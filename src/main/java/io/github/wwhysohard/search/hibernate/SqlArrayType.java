@@ -0,0 +1,151 @@
+package io.github.wwhysohard.search.hibernate;
+
+import org.hibernate.HibernateException;
+import org.hibernate.type.AbstractSingleColumnStandardBasicType;
+import org.hibernate.type.descriptor.ValueBinder;
+import org.hibernate.type.descriptor.ValueExtractor;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.AbstractTypeDescriptor;
+import org.hibernate.type.descriptor.java.JavaTypeDescriptor;
+import org.hibernate.type.descriptor.sql.BasicBinder;
+import org.hibernate.type.descriptor.sql.BasicExtractor;
+import org.hibernate.type.descriptor.sql.SqlTypeDescriptor;
+
+import java.sql.*;
+import java.util.Arrays;
+
+/**
+ * Hibernate type which binds arrays of the given element type as JDBC {@link Array}s.
+ * Registered by {@link SearchMetadataBuilderContributor} under {@link Class} name of the array,
+ * so that array values of parameters are resolved to it
+ */
+class SqlArrayType extends AbstractSingleColumnStandardBasicType<Object[]> {
+
+    private final Class<?> elementType;
+
+    /**
+     * Constructs {@link SqlArrayType}
+     *
+     * @param elementType {@link Class} of the array elements
+     * @param elementTypeName SQL name of the element type passed to {@link Connection#createArrayOf(String, Object[])}
+     */
+    SqlArrayType(Class<?> elementType, String elementTypeName) {
+        super(new ArraySqlTypeDescriptor(elementTypeName), new ArrayJavaTypeDescriptor());
+        this.elementType = elementType;
+    }
+
+    @Override
+    public String getName() {
+        return "search_array_" + elementType.getName();
+    }
+
+    @Override
+    public String[] getRegistrationKeys() {
+        return new String[] { java.lang.reflect.Array.newInstance(elementType, 0).getClass().getName() };
+    }
+
+    /**
+     * Describes arrays on the Java side, they are bound as is and never copied
+     */
+    private static class ArrayJavaTypeDescriptor extends AbstractTypeDescriptor<Object[]> {
+
+        ArrayJavaTypeDescriptor() {
+            super(Object[].class);
+        }
+
+        @Override
+        public String toString(Object[] value) {
+            return Arrays.toString(value);
+        }
+
+        @Override
+        public Object[] fromString(String string) {
+            throw new UnsupportedOperationException("Arrays cannot be parsed");
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <X> X unwrap(Object[] value, Class<X> type, WrapperOptions options) {
+            if (value == null) return null;
+            if (type.isInstance(value)) return (X) value;
+            throw unknownUnwrap(type);
+        }
+
+        @Override
+        public <X> Object[] wrap(X value, WrapperOptions options) {
+            if (value == null) return null;
+            if (value instanceof Object[]) return (Object[]) value;
+
+            try {
+                if (value instanceof Array) return (Object[]) ((Array) value).getArray();
+            } catch (SQLException e) {
+                throw new HibernateException("Unable to read SQL array", e);
+            }
+            throw unknownWrap(value.getClass());
+        }
+
+    }
+
+    /**
+     * Describes arrays on the JDBC side, they are created by {@link Connection#createArrayOf(String, Object[])}
+     */
+    private static class ArraySqlTypeDescriptor implements SqlTypeDescriptor {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String elementTypeName;
+
+        ArraySqlTypeDescriptor(String elementTypeName) {
+            this.elementTypeName = elementTypeName;
+        }
+
+        @Override
+        public int getSqlType() {
+            return Types.ARRAY;
+        }
+
+        @Override
+        public boolean canBeRemapped() {
+            return false;
+        }
+
+        @Override
+        public <X> ValueBinder<X> getBinder(JavaTypeDescriptor<X> javaTypeDescriptor) {
+            return new BasicBinder<X>(javaTypeDescriptor, this) {
+                @Override
+                protected void doBind(PreparedStatement st, X value, int index, WrapperOptions options) throws SQLException {
+                    Object[] elements = javaTypeDescriptor.unwrap(value, Object[].class, options);
+                    st.setArray(index, st.getConnection().createArrayOf(elementTypeName, elements));
+                }
+
+                @Override
+                protected void doBind(CallableStatement st, X value, String name, WrapperOptions options) throws SQLException {
+                    Object[] elements = javaTypeDescriptor.unwrap(value, Object[].class, options);
+                    st.setObject(name, st.getConnection().createArrayOf(elementTypeName, elements), Types.ARRAY);
+                }
+            };
+        }
+
+        @Override
+        public <X> ValueExtractor<X> getExtractor(JavaTypeDescriptor<X> javaTypeDescriptor) {
+            return new BasicExtractor<X>(javaTypeDescriptor, this) {
+                @Override
+                protected X doExtract(ResultSet rs, String name, WrapperOptions options) throws SQLException {
+                    return javaTypeDescriptor.wrap(rs.getArray(name), options);
+                }
+
+                @Override
+                protected X doExtract(CallableStatement statement, int index, WrapperOptions options) throws SQLException {
+                    return javaTypeDescriptor.wrap(statement.getArray(index), options);
+                }
+
+                @Override
+                protected X doExtract(CallableStatement statement, String name, WrapperOptions options) throws SQLException {
+                    return javaTypeDescriptor.wrap(statement.getArray(name), options);
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,581 @@
+package io.github.wwhysohard.search.memory;
+
+import io.github.wwhysohard.search.converter.ValueConverter;
+import io.github.wwhysohard.search.converter.ValueConverters;
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.metadata.FilterableJoin;
+import io.github.wwhysohard.search.metadata.FilterablePath;
+import io.github.wwhysohard.search.metadata.FilterableRegistry;
+
+import javax.persistence.criteria.JoinType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Utility class which compiles {@link SearchRequest} into {@link Predicate} and {@link Comparator}
+ * to search collections of models already loaded in memory, e.g. caches or test fixtures.
+ * Paths, converters and accessors are resolved once at compile time, so evaluation does neither reflection
+ * nor value conversion, and follows the semantics of {@link io.github.wwhysohard.search.utils.GenericCriteriaPredicate}:
+ * <ul>
+ *     <li>comparisons with <code>null</code> are never satisfied, including <code>NOT_EQUALS</code> and <code>NOT_IN</code></li>
+ *     <li><code>LIKE</code> and <code>ILIKE</code> match <code>%value%</code>, treating <code>%</code> and <code>_</code> as wildcards</li>
+ *     <li><code>STARTS_WITH</code>, <code>ENDS_WITH</code>, <code>EQUALS_IGNORE_CASE</code> and <code>ISTARTS_WITH</code>
+ *     match values literally, lower-cased value of the field stands for <code>caseInsensitiveField</code></li>
+ *     <li><code>FULL_TEXT</code> is approximated by containing every word of the value ignoring case,
+ *     without stemming of the database</li>
+ *     <li>a path through a collection is satisfied if any of its elements satisfies it, filters of the same group on
+ *     the same <code>EXISTS</code> relationship have to be satisfied by the same element</li>
+ *     <li>missing related models are treated as <code>null</code> for {@link JoinType#LEFT} joins
+ *     and never satisfy filters for {@link JoinType#INNER} joins</li>
+ * </ul>
+ * Sorting places <code>null</code> values first in ascending order, sort paths through collections use the first element.
+ */
+public class InMemorySearch {
+
+    /**
+     * Creating an instance of {@link InMemorySearch} is illegal
+     */
+    private InMemorySearch() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Filters and sorts the given models by the given {@link SearchRequest}
+     *
+     * @param models models to be searched
+     * @param request {@link SearchRequest} with filters and sorts
+     * @param clazz {@link Class} instance of the model
+     * @param <T> generic type of the model
+     *
+     * @return new {@link List} of the matching models in requested order
+     */
+    public static <T> List<T> search(Collection<? extends T> models, SearchRequest request, Class<T> clazz) {
+        Predicate<T> predicate = predicate(request.getFilters(), clazz);
+        List<T> result = new ArrayList<>();
+
+        for (T model : models) {
+            if (predicate.test(model)) result.add(model);
+        }
+
+        if (request.getSorts() != null && !request.getSorts().isEmpty()) {
+            result.sort(comparator(request.getSorts(), clazz));
+        }
+
+        return result;
+    }
+
+    /**
+     * Compiles the given filters into {@link Predicate} collected by <code>AND</code> operator
+     *
+     * @param filters filters to be compiled, <code>null</code> or empty to accept every model
+     * @param clazz {@link Class} instance of the model
+     * @param <T> generic type of the model
+     *
+     * @return thread-safe {@link Predicate} of the model
+     *
+     * @throws FilterException with the same {@link ErrorCode}s as JPA search does on invalid filters
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Predicate<T> predicate(List<FilterRequest> filters, Class<T> clazz) {
+        if (filters == null || filters.isEmpty()) return model -> true;
+        return (Predicate<T>) compile(filters, QueryOperator.AND, clazz);
+    }
+
+    /**
+     * Compiles the given sorts into {@link Comparator}
+     *
+     * @param sorts sorts to be compiled, <code>null</code> or empty to keep models in encounter order
+     * @param clazz {@link Class} instance of the model
+     * @param <T> generic type of the model
+     *
+     * @return thread-safe {@link Comparator} of the model
+     *
+     * @throws FilterException with <code>FIELD_IS_NOT_ALLOWED_FOR_SORTING</code> {@link ErrorCode}
+     * if any of sort fields is not allowed for sorting
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> Comparator<T> comparator(List<SortRequest> sorts, Class<T> clazz) {
+        Comparator<Object> comparator = (left, right) -> 0;
+        if (sorts == null) return (Comparator<T>) comparator;
+
+        for (SortRequest sort : sorts) {
+            FilterablePath path = FilterableRegistry.resolve(clazz, sort.getField());
+            if (!path.isValid()) throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_SORTING);
+
+            Navigation navigation = new Navigation(path, 0, path.getFields().size());
+            Comparator<Comparable> order = Comparator.nullsFirst(Comparator.<Comparable>naturalOrder());
+            if (sort.getOrder() == SortOrder.DESC) order = order.reversed();
+
+            comparator = comparator.thenComparing(model -> (Comparable) navigation.first(model), order);
+        }
+
+        return (Comparator<T>) comparator;
+    }
+
+    /**
+     * Compiles the given filters into {@link Predicate} collected by the specified operation.
+     * Filters on relationships with <code>EXISTS</code> semantics are compiled per relationship,
+     * so that they are matched by the same related element.
+     *
+     * @param filters filters to be compiled
+     * @param operator operator by which {@link Predicate}s will be collected
+     * @param clazz {@link Class} instance of the model
+     *
+     * @return compiled {@link Predicate}
+     */
+    private static Predicate<Object> compile(List<FilterRequest> filters, QueryOperator operator, Class<?> clazz) {
+        List<Predicate<Object>> predicates = new ArrayList<>();
+        Map<String, List<FilterRequest>> semiJoins = new LinkedHashMap<>();
+        Map<String, List<FilterablePath>> semiJoinPaths = new LinkedHashMap<>();
+
+        for (FilterRequest filter : filters) {
+            if (isGroup(filter)) {
+                validateFilters(filter.getFilters());
+                predicates.add(compile(filter.getFilters(), filter.getOperator(), clazz));
+                continue;
+            }
+
+            FilterablePath path = getFilterablePath(clazz, filter);
+
+            if (path.getSemiJoin() != null) {
+                semiJoins.computeIfAbsent(path.getSemiJoin().getKey(), key -> new ArrayList<>()).add(filter);
+                semiJoinPaths.computeIfAbsent(path.getSemiJoin().getKey(), key -> new ArrayList<>()).add(path);
+            } else {
+                predicates.add(compile(filter, path, 0));
+            }
+        }
+
+        for (Map.Entry<String, List<FilterRequest>> entry : semiJoins.entrySet()) {
+            predicates.add(exists(entry.getValue(), semiJoinPaths.get(entry.getKey()), operator));
+        }
+
+        return combine(predicates, operator);
+    }
+
+    /**
+     * Compiles filters on the same relationship into {@link Predicate} which is satisfied
+     * if any element of the relationship satisfies all of them collected by the specified operation
+     *
+     * @param filters filters on the same relationship
+     * @param paths resolved paths of the filters
+     * @param operator operator by which filters will be collected
+     *
+     * @return compiled {@link Predicate}
+     */
+    private static Predicate<Object> exists(List<FilterRequest> filters, List<FilterablePath> paths, QueryOperator operator) {
+        FilterablePath first = paths.get(0);
+        int depth = first.getJoins().indexOf(first.getSemiJoin()) + 1;
+        List<Predicate<Object>> predicates = new ArrayList<>(filters.size());
+
+        for (int i = 0; i < filters.size(); i++) {
+            predicates.add(compile(filters.get(i), paths.get(i), depth));
+        }
+
+        Navigation navigation = new Navigation(first, 0, depth);
+        Predicate<Object> element = combine(predicates, operator);
+        return model -> navigation.anyMatch(model, element);
+    }
+
+    /**
+     * Compiles the given filter into {@link Predicate}
+     *
+     * @param filter filter to be compiled
+     * @param path resolved path of the filter
+     * @param depth number of path segments already navigated by the caller
+     *
+     * @return compiled {@link Predicate} of the model or of the related element at <code>depth</code>
+     */
+    private static Predicate<Object> compile(FilterRequest filter, FilterablePath path, int depth) {
+        Navigation navigation = new Navigation(path, depth, path.getFields().size());
+        Predicate<Object> value = compile(filter, path.getJavaType());
+        return model -> navigation.anyMatch(model, value);
+    }
+
+    /**
+     * Compiles predicate on a field value by the specified <code>filter</code>
+     *
+     * @param filter filter to be compiled
+     * @param javaType type of the field
+     *
+     * @return {@link Predicate} of the field value
+     *
+     * @throws FilterException with <code>ILLEGAL_OPERATOR</code> if the specified <code>operator</code> is not allowed
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate<Object> compile(FilterRequest filter, Class<?> javaType) {
+        switch (filter.getOperator()) {
+            case EQUALS: {
+                Object expected = convert(javaType, filter.getValue());
+                return value -> value != null && isEqual(value, expected);
+            }
+            case NOT_EQUALS: {
+                Object expected = convert(javaType, filter.getValue());
+                return value -> value != null && !isEqual(value, expected);
+            }
+            case LESS_THAN: {
+                Comparable expected = (Comparable) convert(javaType, filter.getValue());
+                return value -> value != null && ((Comparable) value).compareTo(expected) < 0;
+            }
+            case GREATER_THAN: {
+                Comparable expected = (Comparable) convert(javaType, filter.getValue());
+                return value -> value != null && ((Comparable) value).compareTo(expected) > 0;
+            }
+            case LESS_THAN_OR_EQUAL: {
+                Comparable expected = (Comparable) convert(javaType, filter.getValue());
+                return value -> value != null && ((Comparable) value).compareTo(expected) <= 0;
+            }
+            case GREATER_THAN_OR_EQUAL: {
+                Comparable expected = (Comparable) convert(javaType, filter.getValue());
+                return value -> value != null && ((Comparable) value).compareTo(expected) >= 0;
+            }
+            case LIKE: {
+                validateValue(filter.getValue());
+                String pattern = filter.getValue();
+                return value -> value != null && contains(value.toString(), pattern);
+            }
+            case ILIKE: {
+                validateValue(filter.getValue());
+                String pattern = filter.getValue().toLowerCase();
+                return value -> value != null && contains(value.toString().toLowerCase(), pattern);
+            }
+            case STARTS_WITH: {
+                validateValue(filter.getValue());
+                String prefix = filter.getValue();
+                return value -> value != null && value.toString().startsWith(prefix);
+            }
+            case ENDS_WITH: {
+                validateValue(filter.getValue());
+                String suffix = filter.getValue();
+                return value -> value != null && value.toString().endsWith(suffix);
+            }
+            case EQUALS_IGNORE_CASE: {
+                validateValue(filter.getValue());
+                String expected = filter.getValue().toLowerCase();
+                return value -> value != null && value.toString().toLowerCase().equals(expected);
+            }
+            case ISTARTS_WITH: {
+                validateValue(filter.getValue());
+                String prefix = filter.getValue().toLowerCase();
+                return value -> value != null && value.toString().toLowerCase().startsWith(prefix);
+            }
+            case FULL_TEXT: {
+                validateValue(filter.getValue());
+                String[] words = filter.getValue().toLowerCase().trim().split("\\s+");
+                return value -> value != null && containsAll(value.toString().toLowerCase(), words);
+            }
+            case IN: {
+                Set<Object> expected = in(javaType, filter.getValues());
+                return value -> value != null && expected.contains(normalize(value));
+            }
+            case NOT_IN: {
+                Set<Object> expected = in(javaType, filter.getValues());
+                return value -> value != null && !expected.contains(normalize(value));
+            }
+            case NULL:
+                return Objects::isNull;
+            case NOT_NULL:
+                return Objects::nonNull;
+            default:
+                throw new FilterException(ErrorCode.ILLEGAL_OPERATOR);
+        }
+    }
+
+    /**
+     * Collects {@link Predicate}s by the specified operation
+     *
+     * @param predicates {@link Predicate}s to be collected
+     * @param operator operator by which {@link Predicate}s will be collected
+     *
+     * @return collected {@link Predicate}, which is satisfied by empty <code>AND</code> and never by empty <code>OR</code>
+     *
+     * @throws FilterException with <code>ILLEGAL_OPERATOR</code> if the specified <code>operator</code> is not allowed
+     */
+    @SuppressWarnings("unchecked")
+    private static Predicate<Object> combine(List<Predicate<Object>> predicates, QueryOperator operator) {
+        Predicate<Object>[] array = predicates.toArray(new Predicate[0]);
+        if (array.length == 1 && (operator == QueryOperator.AND || operator == QueryOperator.OR)) return array[0];
+
+        switch (operator) {
+            case AND:
+                return model -> {
+                    for (Predicate<Object> predicate : array) {
+                        if (!predicate.test(model)) return false;
+                    }
+                    return true;
+                };
+            case OR:
+                return model -> {
+                    for (Predicate<Object> predicate : array) {
+                        if (predicate.test(model)) return true;
+                    }
+                    return false;
+                };
+            default:
+                throw new FilterException(ErrorCode.ILLEGAL_OPERATOR);
+        }
+    }
+
+    /**
+     * Converts the <code>value</code> to the given type
+     *
+     * @throws FilterException with <code>ILLEGAL_ARGUMENT</code> {@link ErrorCode}
+     * if value cannot be converted to the given type
+     */
+    private static Object convert(Class<?> javaType, String value) {
+        return normalize(ValueConverters.convert(ValueConverters.get(javaType), value));
+    }
+
+    /**
+     * Converts the <code>values</code> to the given type, resolving {@link ValueConverter} only once
+     *
+     * @return {@link Set} of the converted values
+     */
+    private static Set<Object> in(Class<?> javaType, List<String> values) {
+        Object[] converted = ValueConverters.convert(ValueConverters.get(javaType), values);
+        Set<Object> set = new HashSet<>(converted.length * 2);
+
+        for (Object value : converted) {
+            set.add(normalize(value));
+        }
+
+        return set;
+    }
+
+    /**
+     * Normalizes values which are compared by value rather than by {@link Object#equals(Object)} in SQL,
+     * so that <code>1.0</code> and <code>1.00</code> are equal as they are in database
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            return (decimal.signum() == 0) ? BigDecimal.ZERO : decimal.stripTrailingZeros();
+        }
+        return value;
+    }
+
+    /**
+     * @return <code>true</code> if the field value equals to the expected normalized value
+     */
+    private static boolean isEqual(Object value, Object expected) {
+        return expected.equals(normalize(value));
+    }
+
+    /**
+     * Matches the given text against SQL pattern <code>%pattern%</code>, where <code>%</code> matches any
+     * sequence of characters and <code>_</code> matches any single character
+     *
+     * @param text text to be matched
+     * @param pattern pattern to be found in the text
+     *
+     * @return <code>true</code> if the text matches the pattern
+     */
+    static boolean contains(String text, String pattern) {
+        if (pattern.indexOf('%') == -1 && pattern.indexOf('_') == -1) return text.contains(pattern);
+        return like(text, "%" + pattern + "%");
+    }
+
+    /**
+     * Checks whether the given text contains every given word
+     *
+     * @param text text to be searched
+     * @param words words to be found in the text
+     *
+     * @return <code>true</code> if the text contains all the words
+     */
+    private static boolean containsAll(String text, String[] words) {
+        for (String word : words) {
+            if (!text.contains(word)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Matches the given text against SQL <code>LIKE</code> pattern without escape character
+     */
+    private static boolean like(String text, String pattern) {
+        int t = 0;
+        int p = 0;
+        int wildcard = -1;
+        int backtrack = 0;
+
+        while (t < text.length()) {
+            char current = (p < pattern.length()) ? pattern.charAt(p) : 0;
+
+            if (p < pattern.length() && current == '%') {
+                wildcard = p++;
+                backtrack = t;
+            } else if (p < pattern.length() && (current == '_' || current == text.charAt(t))) {
+                p++;
+                t++;
+            } else if (wildcard != -1) {
+                p = wildcard + 1;
+                t = ++backtrack;
+            } else {
+                return false;
+            }
+        }
+
+        while (p < pattern.length() && pattern.charAt(p) == '%') p++;
+        return p == pattern.length();
+    }
+
+    /**
+     * @param filter filter to be checked
+     *
+     * @return <code>true</code> if the filter collects nested filters, <code>false</code> if it is applied on a field
+     */
+    private static boolean isGroup(FilterRequest filter) {
+        return filter.getOperator() == QueryOperator.OR || filter.getOperator() == QueryOperator.AND;
+    }
+
+    /**
+     * Validates that provided <code>value</code> is NOT <code>null</code>
+     *
+     * @throws FilterException with <code>VALUE_CANNOT_BE_NULL</code> {@link ErrorCode}
+     * if value is <code>null</code>
+     */
+    private static void validateValue(String value) {
+        if (value == null) {
+            throw new FilterException(ErrorCode.VALUE_CANNOT_BE_NULL);
+        }
+    }
+
+    /**
+     * Validates that provided list of <code>filters</code> is neither NOT <code>null</code> nor empty
+     *
+     * @throws FilterException with <code>FILTERS_CANNOT_BE_EMPTY</code> {@link ErrorCode}
+     * if <code>filters</code> are <code>null</code> or empty
+     */
+    private static void validateFilters(List<FilterRequest> filters) {
+        if (filters == null || filters.isEmpty()) {
+            throw new FilterException(ErrorCode.FILTERS_CANNOT_BE_EMPTY);
+        }
+    }
+
+    /**
+     * Resolves field of the specified filter and validates that it is allowed for filtering
+     *
+     * @throws FilterException with <code>FIELD_CANNOT_BE_NULL</code> {@link ErrorCode} if field is <code>null</code>,
+     * with <code>FIELD_IS_NOT_ALLOWED_FOR_FILTERING</code> {@link ErrorCode} if field is not allowed for filtering
+     */
+    private static FilterablePath getFilterablePath(Class<?> clazz, FilterRequest filter) {
+        if (filter.getField() == null) {
+            throw new FilterException(ErrorCode.FIELD_CANNOT_BE_NULL);
+        }
+
+        FilterablePath path = FilterableRegistry.resolve(clazz, filter.getField());
+
+        if (!path.isValid()) {
+            throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_FILTERING);
+        }
+
+        return path;
+    }
+
+    /**
+     * Compiled navigation through a range of path segments.
+     * Collections fan out to their elements and match nothing if they have none, missing values of other join hops
+     * are either passed on as <code>null</code>
+     * or stop the navigation, depending on {@link JoinType} of the hop.
+     */
+    private static final class Navigation {
+
+        private final Function<Object, Object>[] accessors;
+        private final boolean[] collections;
+        private final boolean[] optional;
+
+        /**
+         * @param path resolved path
+         * @param from index of the first segment to navigate
+         * @param to index after the last segment to navigate
+         */
+        @SuppressWarnings("unchecked")
+        private Navigation(FilterablePath path, int from, int to) {
+            accessors = new Function[to - from];
+            collections = new boolean[to - from];
+            optional = new boolean[to - from];
+
+            for (int i = from; i < to; i++) {
+                accessors[i - from] = PropertyAccessors.get(path.getFields().get(i));
+
+                if (i < path.getJoins().size()) {
+                    FilterableJoin hop = path.getJoins().get(i);
+                    collections[i - from] = hop.isCollection();
+                    optional[i - from] = hop.getJoinType() != JoinType.INNER;
+                } else {
+                    optional[i - from] = true;
+                }
+            }
+        }
+
+        /**
+         * @param model model or related element to start navigation from
+         * @param test {@link Predicate} of the navigated values
+         *
+         * @return <code>true</code> if any of the navigated values satisfies the given {@link Predicate}
+         */
+        private boolean anyMatch(Object model, Predicate<Object> test) {
+            return anyMatch(model, 0, test);
+        }
+
+        /**
+         * Navigates the segment at the given index and the following ones
+         */
+        private boolean anyMatch(Object target, int index, Predicate<Object> test) {
+            if (index == accessors.length) return test.test(target);
+
+            Object value = (target != null) ? accessors[index].apply(target) : null;
+
+            if (collections[index]) {
+                // like EXISTS of the database, a collection matches only through one of its elements
+                if (value == null) return false;
+
+                for (Object element : (Collection<?>) value) {
+                    if (anyMatch(element, index + 1, test)) return true;
+                }
+                return false;
+            }
+
+            if (value == null && !optional[index]) return false;
+            return anyMatch(value, index + 1, test);
+        }
+
+        /**
+         * @param model model to start navigation from
+         *
+         * @return the first navigated value, <code>null</code> if there is none
+         */
+        private Object first(Object model) {
+            Object value = model;
+
+            for (int i = 0; i < accessors.length && value != null; i++) {
+                value = accessors[i].apply(value);
+
+                if (collections[i] && value != null) {
+                    Collection<?> elements = (Collection<?>) value;
+                    value = elements.isEmpty() ? null : elements.iterator().next();
+                }
+            }
+
+            return value;
+        }
+
+    }
+
+}
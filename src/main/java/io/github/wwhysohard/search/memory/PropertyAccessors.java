@@ -0,0 +1,131 @@
+package io.github.wwhysohard.search.memory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Creates and caches fast accessors of model fields.
+ * Public getters are bound through {@link LambdaMetafactory}, which lets JIT inline them like hand-written code,
+ * other fields are read through {@link MethodHandle}s. Reflection is used only once per field.
+ */
+final class PropertyAccessors {
+
+    private static final ConcurrentMap<Field, Function<Object, Object>> ACCESSORS = new ConcurrentHashMap<>();
+
+    /**
+     * Creating an instance of {@link PropertyAccessors} is illegal
+     */
+    private PropertyAccessors() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Returns accessor of the given field
+     *
+     * @param field {@link Field} to be read
+     *
+     * @return {@link Function} which reads value of the field from the given model
+     */
+    static Function<Object, Object> get(Field field) {
+        return ACCESSORS.computeIfAbsent(field, PropertyAccessors::create);
+    }
+
+    /**
+     * Creates accessor of the given field, preferring its public getter
+     */
+    private static Function<Object, Object> create(Field field) {
+        Method getter = getGetter(field);
+
+        if (getter != null && isVisible(getter.getDeclaringClass())) {
+            try {
+                return metafactory(getter);
+            } catch (Throwable e) {
+                // fall back to method handle
+            }
+        }
+
+        return methodHandle(field);
+    }
+
+    /**
+     * Spins {@link Function} implementation which invokes the given getter directly
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> metafactory(Method getter) throws Throwable {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle = lookup.unreflect(getter);
+
+        CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class),
+                handle,
+                handle.type().wrap());
+
+        return (Function<Object, Object>) site.getTarget().invokeExact();
+    }
+
+    /**
+     * Creates {@link Function} which reads the given field through {@link MethodHandle}
+     */
+    private static Function<Object, Object> methodHandle(Field field) {
+        try {
+            field.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+
+            return model -> {
+                try {
+                    return handle.invokeExact(model);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalStateException("Cannot access " + field.getName() + " of " + field.getDeclaringClass().getName(), e);
+        }
+    }
+
+    /**
+     * Finds public non-static getter of the given field
+     */
+    private static Method getGetter(Field field) {
+        String capitalized = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+
+        for (String prefix : new String[] { "get", "is" }) {
+            try {
+                Method method = field.getDeclaringClass().getMethod(prefix + capitalized);
+                if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() == field.getType()) return method;
+            } catch (NoSuchMethodException ignored) {
+                // try next prefix
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks that the given class is public and visible from this library,
+     * so that a class spun by {@link LambdaMetafactory} is able to link against it
+     */
+    private static boolean isVisible(Class<?> clazz) {
+        if (!Modifier.isPublic(clazz.getModifiers())) return false;
+
+        try {
+            return Class.forName(clazz.getName(), false, PropertyAccessors.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+package io.github.wwhysohard.search.metadata;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+import io.github.wwhysohard.search.enums.JoinStrategy;
+import lombok.Getter;
+
+import javax.persistence.criteria.JoinType;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.util.Collection;
+
+/**
+ * Immutable descriptor of a single @{@link Filterable} field of a model, as seen under one of its names.
+ * Instances are either listed by a generated {@link FilterableMetamodel} or scanned by {@link FilterableRegistry}.
+ */
+@Getter
+public final class FilterableField {
+
+    /**
+     * Name under which the field is looked up, either the field name or one of @{@link Filterable} <code>names</code>
+     */
+    private final String name;
+
+    /**
+     * {@link Class} which declares the field, either the model itself or one of its superclasses
+     */
+    private final Class<?> declaringClass;
+
+    /**
+     * Name of the field as declared
+     */
+    private final String fieldName;
+
+    /**
+     * Java type of the field
+     */
+    private final Class<?> type;
+
+    /**
+     * Type of the joined model, which is element type if the field is a {@link Collection}, equals <code>type</code> otherwise
+     */
+    private final Class<?> targetType;
+
+    /**
+     * Whether the field is <code>joinable</code>
+     */
+    private final boolean joinable;
+
+    /**
+     * {@link JoinType} of the field
+     */
+    private final JoinType joinType;
+
+    /**
+     * {@link JoinStrategy} of the field
+     */
+    private final JoinStrategy joinStrategy;
+
+    /**
+     * Name of the field which holds lower-cased value of this one, <code>null</code> if there is none
+     */
+    private final String caseInsensitiveField;
+
+    /**
+     * Lazily looked up {@link Field}
+     */
+    @Getter(lombok.AccessLevel.NONE)
+    private volatile Field field;
+
+    private FilterableField(String name, Class<?> declaringClass, String fieldName, Class<?> type, Class<?> targetType,
+                            boolean joinable, JoinType joinType, JoinStrategy joinStrategy, String caseInsensitiveField,
+                            Field field) {
+        this.name = name;
+        this.declaringClass = declaringClass;
+        this.fieldName = fieldName;
+        this.type = type;
+        this.targetType = targetType;
+        this.joinable = joinable;
+        this.joinType = joinType;
+        this.joinStrategy = joinStrategy;
+        this.caseInsensitiveField = caseInsensitiveField;
+        this.field = field;
+    }
+
+    /**
+     * Constructs {@link FilterableField} from metadata computed at build time, used by generated {@link FilterableMetamodel}s
+     *
+     * @param name name under which the field is looked up
+     * @param declaringClass {@link Class} which declares the field
+     * @param fieldName name of the field as declared
+     * @param type Java type of the field
+     * @param targetType type of the joined model
+     * @param joinable whether the field is <code>joinable</code>
+     * @param joinType {@link JoinType} of the field
+     * @param joinStrategy {@link JoinStrategy} of the field
+     * @param caseInsensitiveField name of the field which holds lower-cased value of this one, <code>null</code> if there is none
+     *
+     * @return constructed {@link FilterableField}
+     */
+    public static FilterableField of(String name, Class<?> declaringClass, String fieldName, Class<?> type,
+                                     Class<?> targetType, boolean joinable, JoinType joinType, JoinStrategy joinStrategy,
+                                     String caseInsensitiveField) {
+        return new FilterableField(name, declaringClass, fieldName, type, targetType, joinable, joinType, joinStrategy,
+                caseInsensitiveField, null);
+    }
+
+    /**
+     * Constructs {@link FilterableField} from an annotated {@link Field} found by reflection
+     *
+     * @param name name under which the field is looked up
+     * @param field annotated {@link Field}
+     * @param filterable @{@link Filterable} annotation of the <code>field</code>
+     *
+     * @return constructed {@link FilterableField}
+     */
+    static FilterableField of(String name, Field field, Filterable filterable) {
+        return new FilterableField(name, field.getDeclaringClass(), field.getName(), field.getType(), getJoinObjectType(field),
+                filterable.joinable(), filterable.joinType(), filterable.joinStrategy(),
+                filterable.caseInsensitiveField().isEmpty() ? null : filterable.caseInsensitiveField(), field);
+    }
+
+    /**
+     * @return <code>true</code> if the field is a {@link Collection}
+     */
+    public boolean isCollection() {
+        return Collection.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Returns {@link Field} described by this {@link FilterableField}, looking it up once
+     *
+     * @return described {@link Field}
+     *
+     * @throws IllegalStateException if the field does not exist anymore, meaning that the metamodel is stale
+     */
+    public Field getField() {
+        Field result = field;
+        if (result == null) {
+            try {
+                result = declaringClass.getDeclaredField(fieldName);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException("Stale metamodel, field " + fieldName + " is not declared by "
+                        + declaringClass.getName(), e);
+            }
+            field = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Determines and returns <code>field</code>'s {@link Class} type,
+     * which is element type if the field is a {@link Collection}
+     *
+     * @param field which {@link Class} type is to be determined
+     *
+     * @return <code>field</code>'s {@link Class} type
+     */
+    private static Class<?> getJoinObjectType(Field field) {
+        Class<?> joinObjectType = field.getType();
+
+        if (Collection.class.isAssignableFrom(joinObjectType) && field.getGenericType() instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) field.getGenericType();
+            joinObjectType = (Class<?>) parameterizedType.getActualTypeArguments()[0];
+        }
+
+        return joinObjectType;
+    }
+
+}
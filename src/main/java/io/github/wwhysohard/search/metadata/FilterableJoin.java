@@ -0,0 +1,55 @@
+package io.github.wwhysohard.search.metadata;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+import lombok.Getter;
+
+import javax.persistence.criteria.JoinType;
+
+/**
+ * Immutable descriptor of a single join hop of a {@link FilterablePath}
+ */
+@Getter
+public final class FilterableJoin {
+
+    /**
+     * Path of JPA attribute names from the model up to and including this hop, e.g. <code>books.publisher</code>.
+     * Used as a key of memoised joins
+     */
+    private final String key;
+
+    /**
+     * Name of the JPA attribute which is joined
+     */
+    private final String attributeName;
+
+    /**
+     * Model class of the joined field, which is element type if the field is a collection
+     */
+    private final Class<?> javaType;
+
+    /**
+     * {@link JoinType} defined by @{@link Filterable} of the joined field
+     */
+    private final JoinType joinType;
+
+    /**
+     * Whether the joined field is a collection, i.e. the join may multiply rows
+     */
+    private final boolean collection;
+
+    /**
+     * Whether filters on this hop are applied inside a correlated <code>EXISTS</code> subquery
+     */
+    private final boolean semiJoin;
+
+    FilterableJoin(String key, String attributeName, Class<?> javaType, JoinType joinType,
+                   boolean collection, boolean semiJoin) {
+        this.key = key;
+        this.attributeName = attributeName;
+        this.javaType = javaType;
+        this.joinType = joinType;
+        this.collection = collection;
+        this.semiJoin = semiJoin;
+    }
+
+}
@@ -0,0 +1,35 @@
+package io.github.wwhysohard.search.metadata;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+
+import java.util.List;
+
+/**
+ * Static table of @{@link Filterable} metadata of a model, computed at build time by
+ * {@link io.github.wwhysohard.search.processor.FilterableProcessor}.
+ * The implementation of a model is named after binary name of the model followed by <code>_Filterable</code>,
+ * e.g. <code>com.example.Book_Filterable</code>, and is picked up by {@link FilterableRegistry} instead of reflection.
+ */
+public interface FilterableMetamodel {
+
+    /**
+     * @return {@link Class} of the described model
+     */
+    Class<?> getModel();
+
+    /**
+     * Lists @{@link Filterable} fields of the entire model hierarchy by every name under which they are looked up.
+     * Entries are in order of precedence, an entry is ignored if its name is already taken by a previous one.
+     *
+     * @return unmodifiable {@link List} of {@link FilterableField}s
+     */
+    List<FilterableField> getFields();
+
+    /**
+     * Lists every path of the model which is allowed for filtering and sorting, as does {@link FilterableRegistry#getPaths(Class)}
+     *
+     * @return unmodifiable {@link List} of valid paths
+     */
+    List<String> getPaths();
+
+}
@@ -0,0 +1,91 @@
+package io.github.wwhysohard.search.metadata;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+import lombok.Getter;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable descriptor of a filter or sort path resolved against @{@link Filterable} metadata of a model.
+ * Instances are created and cached by {@link FilterableRegistry}.
+ */
+@Getter
+public final class FilterablePath {
+
+    /**
+     * Shared descriptor of any path which is not allowed for filtering or sorting
+     */
+    static final FilterablePath INVALID = new FilterablePath(false, null, null, null, null, null, null,
+            Collections.emptyList(), Collections.emptyList(), null);
+
+    /**
+     * Whether the path is allowed for filtering and sorting
+     */
+    private final boolean valid;
+
+    /**
+     * Full path as it was requested, e.g. <code>author.name</code>
+     */
+    private final String path;
+
+    /**
+     * Join path as it was requested (the part of <code>path</code> before the last dot),
+     * <code>null</code> if the path is a field of the model itself
+     */
+    private final String join;
+
+    /**
+     * Name of the JPA attribute to which the last segment of the path refers.
+     * Differs from the last segment if the path uses one of @{@link Filterable} <code>names</code>
+     */
+    private final String attributeName;
+
+    /**
+     * Resolved {@link Field} of the last segment of the path
+     */
+    private final Field field;
+
+    /**
+     * Java type of the resolved {@link Field}
+     */
+    private final Class<?> javaType;
+
+    /**
+     * Name of the field which holds lower-cased value of the resolved one, see <code>caseInsensitiveField</code>
+     * of @{@link Filterable}, <code>null</code> if there is none
+     */
+    private final String caseInsensitiveField;
+
+    /**
+     * Resolved {@link Field}s of every segment of the path, join hops first and <code>field</code> last
+     */
+    private final List<Field> fields;
+
+    /**
+     * Join hops of the path in order from the model, empty if the path is a field of the model itself
+     */
+    private final List<FilterableJoin> joins;
+
+    /**
+     * First join hop of the path which is filtered through a correlated <code>EXISTS</code> subquery,
+     * <code>null</code> if there is none
+     */
+    private final FilterableJoin semiJoin;
+
+    FilterablePath(boolean valid, String path, String join, String attributeName, Field field, Class<?> javaType,
+                   String caseInsensitiveField, List<Field> fields, List<FilterableJoin> joins, FilterableJoin semiJoin) {
+        this.valid = valid;
+        this.path = path;
+        this.join = join;
+        this.attributeName = attributeName;
+        this.field = field;
+        this.javaType = javaType;
+        this.caseInsensitiveField = caseInsensitiveField;
+        this.fields = fields;
+        this.joins = joins;
+        this.semiJoin = semiJoin;
+    }
+
+}
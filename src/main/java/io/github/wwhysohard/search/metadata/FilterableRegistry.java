@@ -0,0 +1,302 @@
+package io.github.wwhysohard.search.metadata;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+import io.github.wwhysohard.search.enums.JoinStrategy;
+
+import javax.persistence.EmbeddedId;
+import javax.persistence.Id;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe registry of @{@link Filterable} metadata.
+ * Fields of every model are scanned only once, and every valid path is resolved only once
+ * into an immutable {@link FilterablePath}, so that repeated lookups do neither reflection nor string splitting.
+ * Models which have a {@link FilterableMetamodel} generated at build time are not scanned at all.
+ */
+public class FilterableRegistry {
+
+    /**
+     * Upper bound of cached paths per model, protects the cache from being flooded by arbitrary join paths
+     */
+    private static final int MAX_CACHED_PATHS_PER_CLASS = 4096;
+
+    /**
+     * Suffix of the binary name of a generated {@link FilterableMetamodel}
+     */
+    public static final String METAMODEL_SUFFIX = "_Filterable";
+
+    private static final ConcurrentMap<Class<?>, Optional<FilterableMetamodel>> METAMODELS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, Map<String, FilterableField>> FIELDS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, FilterablePath>> PATHS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, Optional<Field>> ID_FIELDS = new ConcurrentHashMap<>();
+
+    /**
+     * Creating an instance of {@link FilterableRegistry} is illegal
+     */
+    private FilterableRegistry() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Resolves the specified <code>path</code> of the given model.
+     * Applied recursively to JPA related models if <code>joinable</code> is set to <code>true</code>.
+     *
+     * @param clazz {@link Class} of the given model
+     * @param path either field name or full join path
+     *
+     * @return {@link FilterablePath} describing the specified <code>path</code>,
+     * which is not <code>valid</code> if the path is not allowed for filtering
+     */
+    public static FilterablePath resolve(Class<?> clazz, String path) {
+        if (clazz == null || path == null) return FilterablePath.INVALID;
+
+        ConcurrentMap<String, FilterablePath> paths = PATHS.computeIfAbsent(clazz, c -> new ConcurrentHashMap<>());
+        FilterablePath resolved = paths.get(path);
+        if (resolved != null) return resolved;
+
+        resolved = doResolve(clazz, path);
+        if (resolved.isValid() && paths.size() < MAX_CACHED_PATHS_PER_CLASS) {
+            paths.putIfAbsent(path, resolved);
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Returns identifier field of the given model, which is the field annotated
+     * with @{@link Id} or @{@link EmbeddedId} somewhere in the model hierarchy
+     *
+     * @param clazz {@link Class} of the given model
+     *
+     * @return identifier {@link Field} if exists, <code>null</code> otherwise
+     */
+    public static Field getIdField(Class<?> clazz) {
+        return ID_FIELDS.computeIfAbsent(clazz, FilterableRegistry::scanIdField).orElse(null);
+    }
+
+    /**
+     * Enumerates every path of the given model which is allowed for filtering and sorting, join paths included.
+     * Paths consist of field names, <code>names</code> of @{@link Filterable} are not included.
+     * A model is not joined again on a path which already passes through it, so that cyclic relationships end.
+     *
+     * @param clazz {@link Class} of the given model
+     *
+     * @return {@link List} of valid paths
+     */
+    public static List<String> getPaths(Class<?> clazz) {
+        FilterableMetamodel metamodel = getMetamodel(clazz);
+        if (metamodel != null) return new ArrayList<>(metamodel.getPaths());
+
+        List<String> paths = new ArrayList<>();
+        List<Class<?>> visiting = new ArrayList<>();
+        collectPaths(clazz, "", visiting, paths);
+        return paths;
+    }
+
+    /**
+     * Returns {@link FilterableMetamodel} generated for the given model at build time
+     *
+     * @param clazz {@link Class} of the given model
+     *
+     * @return {@link FilterableMetamodel} if it is generated, <code>null</code> otherwise
+     */
+    public static FilterableMetamodel getMetamodel(Class<?> clazz) {
+        return METAMODELS.computeIfAbsent(clazz, FilterableRegistry::loadMetamodel).orElse(null);
+    }
+
+    /**
+     * Loads {@link FilterableMetamodel} of the given model by its name, see {@link #METAMODEL_SUFFIX}
+     *
+     * @param clazz {@link Class} of the given model
+     *
+     * @return {@link FilterableMetamodel} if it is generated
+     */
+    private static Optional<FilterableMetamodel> loadMetamodel(Class<?> clazz) {
+        try {
+            Class<?> generated = Class.forName(clazz.getName() + METAMODEL_SUFFIX, true, clazz.getClassLoader());
+            if (!FilterableMetamodel.class.isAssignableFrom(generated)) return Optional.empty();
+
+            FilterableMetamodel metamodel = (FilterableMetamodel) generated.getDeclaredConstructor().newInstance();
+            return (metamodel.getModel() == clazz) ? Optional.of(metamodel) : Optional.empty();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Collects valid paths of the given model prefixed by the given join path
+     *
+     * @param clazz {@link Class} of the current model
+     * @param prefix join path to the current model followed by a dot, empty for the model itself
+     * @param visiting models on the join path, the current one excluded
+     * @param paths receives valid paths
+     */
+    private static void collectPaths(Class<?> clazz, String prefix, List<Class<?>> visiting, List<String> paths) {
+        visiting.add(clazz);
+
+        for (FilterableField field : getFields(clazz).values()) {
+            if (!field.getName().equals(field.getFieldName())) continue;
+
+            if (!field.isJoinable()) {
+                paths.add(prefix + field.getFieldName());
+                continue;
+            }
+
+            Class<?> joined = field.getTargetType();
+            if (!visiting.contains(joined)) {
+                collectPaths(joined, prefix + field.getFieldName() + ".", visiting, paths);
+            }
+        }
+
+        visiting.remove(visiting.size() - 1);
+    }
+
+    /**
+     * Walks the specified <code>path</code> segment by segment through the models' fields
+     *
+     * @param clazz {@link Class} of the given model
+     * @param path either field name or full join path
+     *
+     * @return resolved {@link FilterablePath}
+     */
+    private static FilterablePath doResolve(Class<?> clazz, String path) {
+        List<Field> fields = new ArrayList<>();
+        List<FilterableJoin> joins = new ArrayList<>();
+        FilterableJoin semiJoin = null;
+        Class<?> current = clazz;
+        int start = 0;
+
+        while (true) {
+            int indexOfPoint = path.indexOf('.', start);
+            String fieldName = (indexOfPoint != -1) ? path.substring(start, indexOfPoint) : path.substring(start);
+
+            FilterableField field = getFields(current).get(fieldName);
+            if (field == null) return FilterablePath.INVALID;
+
+            fields.add(field.getField());
+
+            if (indexOfPoint == -1) {
+                if (field.isJoinable()) return FilterablePath.INVALID;
+
+                String join = (start > 0) ? path.substring(0, start - 1) : null;
+                return new FilterablePath(true, path, join, field.getFieldName(), field.getField(), field.getType(),
+                        field.getCaseInsensitiveField(), Collections.unmodifiableList(fields), Collections.unmodifiableList(joins), semiJoin);
+            }
+
+            if (!field.isJoinable()) return FilterablePath.INVALID;
+
+            String key = joins.isEmpty() ? field.getFieldName() : joins.get(joins.size() - 1).getKey() + "." + field.getFieldName();
+            boolean collection = field.isCollection();
+            boolean exists = field.getJoinStrategy() == JoinStrategy.EXISTS
+                    || (field.getJoinStrategy() == JoinStrategy.AUTO && collection);
+
+            current = field.getTargetType();
+
+            FilterableJoin hop = new FilterableJoin(key, field.getFieldName(), current, field.getJoinType(), collection, exists);
+            joins.add(hop);
+            if (exists && semiJoin == null) semiJoin = hop;
+
+            start = indexOfPoint + 1;
+        }
+    }
+
+    /**
+     * Returns @{@link Filterable} fields of the entire model hierarchy, allowing to use domain model inheritance.
+     * Keys are field names and <code>names</code> specified in @{@link Filterable} annotations.
+     * Fields of a class take precedence over <code>names</code> of the same class,
+     * which take precedence over anything declared in its superclasses.
+     *
+     * @param clazz {@link Class} of the given model
+     *
+     * @return unmodifiable {@link Map} of {@link FilterableField}s by their names
+     */
+    private static Map<String, FilterableField> getFields(Class<?> clazz) {
+        return FIELDS.computeIfAbsent(clazz, FilterableRegistry::loadFields);
+    }
+
+    /**
+     * Takes fields of the given model from its {@link FilterableMetamodel}, scans them if there is none
+     *
+     * @param clazz {@link Class} of the given model
+     *
+     * @return unmodifiable {@link Map} of {@link FilterableField}s by their names
+     */
+    private static Map<String, FilterableField> loadFields(Class<?> clazz) {
+        FilterableMetamodel metamodel = getMetamodel(clazz);
+        if (metamodel == null) return scanFields(clazz);
+
+        Map<String, FilterableField> fields = new LinkedHashMap<>();
+        for (FilterableField field : metamodel.getFields()) {
+            fields.putIfAbsent(field.getName(), field);
+        }
+
+        return Collections.unmodifiableMap(fields);
+    }
+
+    /**
+     * Scans fields of the given {@link Class} and its superclasses
+     *
+     * @param clazz {@link Class} of the given model
+     *
+     * @return unmodifiable {@link Map} of {@link FilterableField}s by their names
+     */
+    private static Map<String, FilterableField> scanFields(Class<?> clazz) {
+        Map<String, Field> fields = new HashMap<>();
+
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            Field[] declaredFields = current.getDeclaredFields();
+
+            for (Field field : declaredFields) {
+                fields.putIfAbsent(field.getName(), field);
+            }
+
+            for (Field field : declaredFields) {
+                Filterable filterable = field.getDeclaredAnnotation(Filterable.class);
+                if (filterable == null) continue;
+
+                for (String name : filterable.names()) {
+                    fields.putIfAbsent(name, field);
+                }
+            }
+        }
+
+        Map<String, FilterableField> filterableFields = new LinkedHashMap<>();
+        for (Map.Entry<String, Field> entry : fields.entrySet()) {
+            Filterable filterable = entry.getValue().getDeclaredAnnotation(Filterable.class);
+            if (filterable != null) {
+                filterableFields.put(entry.getKey(), FilterableField.of(entry.getKey(), entry.getValue(), filterable));
+            }
+        }
+
+        return Collections.unmodifiableMap(filterableFields);
+    }
+
+    /**
+     * Scans fields of the given {@link Class} and its superclasses for identifier field
+     *
+     * @param clazz {@link Class} of the given model
+     *
+     * @return identifier {@link Field} if exists
+     */
+    private static Optional<Field> scanIdField(Class<?> clazz) {
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Id.class) || field.isAnnotationPresent(EmbeddedId.class)) {
+                    return Optional.of(field);
+                }
+            }
+        }
+
+        return Optional.empty();
+    }
+
+}
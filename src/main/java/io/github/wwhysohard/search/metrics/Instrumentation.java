@@ -0,0 +1,35 @@
+package io.github.wwhysohard.search.metrics;
+
+/**
+ * Utility class which holds {@link SearchMetrics} of the library, {@link SearchMetrics#NOOP} by default.
+ * Metrics are meant to be set once at startup:
+ * <code>Instrumentation.setMetrics(new MicrometerSearchMetrics(meterRegistry))</code>
+ */
+public class Instrumentation {
+
+    private static volatile SearchMetrics metrics = SearchMetrics.NOOP;
+
+    /**
+     * Creating an instance of {@link Instrumentation} is illegal
+     */
+    private Instrumentation() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @return current {@link SearchMetrics}
+     */
+    public static SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets {@link SearchMetrics} which receive measurements of all searches
+     *
+     * @param searchMetrics {@link SearchMetrics} to be used, <code>null</code> to disable measurements
+     */
+    public static void setMetrics(SearchMetrics searchMetrics) {
+        metrics = (searchMetrics != null) ? searchMetrics : SearchMetrics.NOOP;
+    }
+
+}
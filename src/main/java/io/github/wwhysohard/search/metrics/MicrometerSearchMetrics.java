@@ -0,0 +1,179 @@
+package io.github.wwhysohard.search.metrics;
+
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SearchMetrics} which publishes measurements to Micrometer {@link MeterRegistry}.
+ * Requires <code>io.micrometer:micrometer-core</code>, which is an optional dependency of the library.
+ * Meters are tagged by <code>specification</code> with simple name of the specification class:
+ * <ul>
+ *     <li><code>search.predicate</code>, <code>search.filters</code> and <code>search.sorts</code> timers</li>
+ *     <li><code>search.operators</code> counter tagged by <code>operator</code></li>
+ *     <li><code>search.rejections</code> counter tagged by <code>code</code></li>
+ *     <li><code>search.filters.depth</code>, <code>search.filters.in.size</code> and <code>search.cost</code> distribution summaries</li>
+ *     <li><code>search.cost.near.limit</code> counter of admitted requests which cost is close to the budget</li>
+ *     <li><code>search.async.queue</code> timer of asynchronous queries waiting for execution,
+ *     <code>search.async.saturated</code> and <code>search.async.timeouts</code> counters of asynchronous searches</li>
+ *     <li><code>search.fields</code> counter tagged by <code>model</code>, <code>field</code>, <code>operator</code>
+ *     and <code>usage</code>, which is either <code>filter</code> or <code>sort</code></li>
+ * </ul>
+ */
+public class MicrometerSearchMetrics implements SearchMetrics {
+
+    private static final String SPECIFICATION = "specification";
+
+    private final MeterRegistry registry;
+
+    /**
+     * Constructs {@link MicrometerSearchMetrics}
+     *
+     * @param registry {@link MeterRegistry} to which meters are registered
+     */
+    public MicrometerSearchMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void recordPredicateTime(Class<?> specification, long nanos) {
+        timer("search.predicate", specification).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordFiltersTime(Class<?> specification, long nanos) {
+        timer("search.filters", specification).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordSortsTime(Class<?> specification, long nanos) {
+        timer("search.sorts", specification).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void countOperator(Class<?> specification, QueryOperator operator) {
+        Counter.builder("search.operators")
+                .tag(SPECIFICATION, specification.getSimpleName())
+                .tag("operator", operator.name())
+                .register(registry)
+                .increment();
+    }
+
+    @Override
+    public void countRejection(Class<?> specification, ErrorCode code) {
+        Counter.builder("search.rejections")
+                .tag(SPECIFICATION, specification.getSimpleName())
+                .tag("code", code.name())
+                .register(registry)
+                .increment();
+    }
+
+    @Override
+    public void recordFilterDepth(Class<?> specification, int depth) {
+        summary("search.filters.depth", specification).record(depth);
+    }
+
+    @Override
+    public void recordInListSize(Class<?> specification, int size) {
+        summary("search.filters.in.size", specification).record(size);
+    }
+
+    @Override
+    public void countFilteredField(Class<?> specification, Class<?> model, String field, QueryOperator operator) {
+        countField(specification, model, field, "filter", operator.name());
+    }
+
+    @Override
+    public void countSortedField(Class<?> specification, Class<?> model, String field) {
+        countField(specification, model, field, "sort", "none");
+    }
+
+    @Override
+    public void recordCost(Class<?> specification, double cost) {
+        summary("search.cost", specification).record(cost);
+    }
+
+    @Override
+    public void countNearLimit(Class<?> specification) {
+        Counter.builder("search.cost.near.limit")
+                .tag(SPECIFICATION, specification.getSimpleName())
+                .register(registry)
+                .increment();
+    }
+
+    @Override
+    public void recordQueueTime(Class<?> specification, long nanos) {
+        timer("search.async.queue", specification).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void countSaturation(Class<?> specification) {
+        Counter.builder("search.async.saturated")
+                .tag(SPECIFICATION, specification.getSimpleName())
+                .register(registry)
+                .increment();
+    }
+
+    @Override
+    public void countTimeout(Class<?> specification) {
+        Counter.builder("search.async.timeouts")
+                .tag(SPECIFICATION, specification.getSimpleName())
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Increments usage counter of the given field
+     *
+     * @param specification {@link Class} of the specification
+     * @param model {@link Class} of the searched model
+     * @param field field as given in the request
+     * @param usage either <code>filter</code> or <code>sort</code>
+     * @param operator name of {@link QueryOperator} of a filter, <code>none</code> for sorts
+     */
+    private void countField(Class<?> specification, Class<?> model, String field, String usage, String operator) {
+        Counter.builder("search.fields")
+                .tag(SPECIFICATION, specification.getSimpleName())
+                .tag("model", model.getSimpleName())
+                .tag("field", field)
+                .tag("usage", usage)
+                .tag("operator", operator)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Finds or registers {@link Timer} of the given specification
+     *
+     * @param name name of the {@link Timer}
+     * @param specification {@link Class} of the specification
+     *
+     * @return registered {@link Timer}
+     */
+    private Timer timer(String name, Class<?> specification) {
+        return Timer.builder(name).tag(SPECIFICATION, specification.getSimpleName()).register(registry);
+    }
+
+    /**
+     * Finds or registers {@link DistributionSummary} of the given specification
+     *
+     * @param name name of the {@link DistributionSummary}
+     * @param specification {@link Class} of the specification
+     *
+     * @return registered {@link DistributionSummary}
+     */
+    private DistributionSummary summary(String name, Class<?> specification) {
+        return DistributionSummary.builder(name).tag(SPECIFICATION, specification.getSimpleName()).register(registry);
+    }
+
+}
@@ -0,0 +1,138 @@
+package io.github.wwhysohard.search.metrics;
+
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+
+/**
+ * Receives measurements of the search pipeline, all of which are tagged by {@link Class} of the specification.
+ * Methods do nothing by default, and are not called at all unless {@link #isEnabled()} returns <code>true</code>.
+ * Implementations have to be thread-safe
+ */
+public interface SearchMetrics {
+
+    /**
+     * {@link SearchMetrics} which records nothing
+     */
+    SearchMetrics NOOP = new SearchMetrics() {};
+
+    /**
+     * @return <code>true</code> if measurements are to be taken
+     */
+    default boolean isEnabled() {
+        return false;
+    }
+
+    /**
+     * Records time of constructing the whole {@link javax.persistence.criteria.Predicate} of a specification
+     *
+     * @param specification {@link Class} of the specification
+     * @param nanos elapsed time in nanoseconds
+     */
+    default void recordPredicateTime(Class<?> specification, long nanos) {}
+
+    /**
+     * Records time of constructing filter {@link javax.persistence.criteria.Predicate}
+     *
+     * @param specification {@link Class} of the specification
+     * @param nanos elapsed time in nanoseconds
+     */
+    default void recordFiltersTime(Class<?> specification, long nanos) {}
+
+    /**
+     * Records time of constructing {@link javax.persistence.criteria.Order}s
+     *
+     * @param specification {@link Class} of the specification
+     * @param nanos elapsed time in nanoseconds
+     */
+    default void recordSortsTime(Class<?> specification, long nanos) {}
+
+    /**
+     * Counts a filter of the given operator, groups included
+     *
+     * @param specification {@link Class} of the specification
+     * @param operator {@link QueryOperator} of the filter
+     */
+    default void countOperator(Class<?> specification, QueryOperator operator) {}
+
+    /**
+     * Counts a request rejected by {@link io.github.wwhysohard.search.exception.FilterException}
+     *
+     * @param specification {@link Class} of the specification
+     * @param code {@link ErrorCode} of the rejection
+     */
+    default void countRejection(Class<?> specification, ErrorCode code) {}
+
+    /**
+     * Records nesting depth of filters of a request, where a flat list of filters has depth of 1
+     *
+     * @param specification {@link Class} of the specification
+     * @param depth depth of the filters
+     */
+    default void recordFilterDepth(Class<?> specification, int depth) {}
+
+    /**
+     * Records number of values of an <code>IN</code> or <code>NOT_IN</code> filter
+     *
+     * @param specification {@link Class} of the specification
+     * @param size number of values
+     */
+    default void recordInListSize(Class<?> specification, int size) {}
+
+    /**
+     * Counts a filter on the given field
+     *
+     * @param specification {@link Class} of the specification
+     * @param model {@link Class} of the searched model
+     * @param field field as given in the request
+     * @param operator {@link QueryOperator} of the filter
+     */
+    default void countFilteredField(Class<?> specification, Class<?> model, String field, QueryOperator operator) {}
+
+    /**
+     * Counts a sort on the given field
+     *
+     * @param specification {@link Class} of the specification
+     * @param model {@link Class} of the searched model
+     * @param field field as given in the request
+     */
+    default void countSortedField(Class<?> specification, Class<?> model, String field) {}
+
+    /**
+     * Records estimated cost of a request, see {@link io.github.wwhysohard.search.cost.SearchCostEstimator}
+     *
+     * @param specification {@link Class} of the specification
+     * @param cost estimated cost
+     */
+    default void recordCost(Class<?> specification, double cost) {}
+
+    /**
+     * Counts an admitted request which cost is close to the budget
+     *
+     * @param specification {@link Class} of the specification
+     */
+    default void countNearLimit(Class<?> specification) {}
+
+    /**
+     * Records time which a query of {@link io.github.wwhysohard.search.executor.AsyncSearchExecutor}
+     * spent waiting for a free thread and connection slot
+     *
+     * @param specification {@link Class} of the specification
+     * @param nanos elapsed time in nanoseconds
+     */
+    default void recordQueueTime(Class<?> specification, long nanos) {}
+
+    /**
+     * Counts a search rejected because {@link io.github.wwhysohard.search.executor.AsyncSearchExecutor} is saturated
+     *
+     * @param specification {@link Class} of the specification
+     */
+    default void countSaturation(Class<?> specification) {}
+
+    /**
+     * Counts a search of {@link io.github.wwhysohard.search.executor.AsyncSearchExecutor} which timed out
+     *
+     * @param specification {@link Class} of the specification
+     */
+    default void countTimeout(Class<?> specification) {}
+
+}
@@ -0,0 +1,139 @@
+package io.github.wwhysohard.search.metrics;
+
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.metadata.FilterablePath;
+import io.github.wwhysohard.search.metadata.FilterableRegistry;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link SearchMetrics} which counts in memory how often fields of models are filtered and sorted.
+ * Fields are counted by their paths of field names, so <code>names</code> of @{@link io.github.wwhysohard.search.annotation.Filterable}
+ * are counted together with the fields they refer to. Used by {@link io.github.wwhysohard.search.advisor.IndexAdvisor}
+ * to rank missing indexes by traffic
+ */
+public class UsageSearchMetrics implements SearchMetrics {
+
+    /**
+     * Upper bound of counted fields, fields beyond it are not counted
+     */
+    private static final int MAX_COUNTED_FIELDS = 10_000;
+
+    private final ConcurrentMap<String, Usage> usages = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void countFilteredField(Class<?> specification, Class<?> model, String field, QueryOperator operator) {
+        Usage usage = getUsage(model, field, true);
+        if (usage != null) {
+            usage.filters.increment();
+            usage.operators.computeIfAbsent(operator, o -> new LongAdder()).increment();
+        }
+    }
+
+    @Override
+    public void countSortedField(Class<?> specification, Class<?> model, String field) {
+        Usage usage = getUsage(model, field, true);
+        if (usage != null) usage.sorts.increment();
+    }
+
+    /**
+     * Returns number of filters on the given field
+     *
+     * @param model {@link Class} of the searched model
+     * @param path field name, alias or join path of the field
+     *
+     * @return number of filters
+     */
+    public long getFilterCount(Class<?> model, String path) {
+        Usage usage = getUsage(model, path, false);
+        return (usage != null) ? usage.filters.sum() : 0;
+    }
+
+    /**
+     * Returns number of filters of the given operator on the given field
+     *
+     * @param model {@link Class} of the searched model
+     * @param path field name, alias or join path of the field
+     * @param operator {@link QueryOperator} of the filters
+     *
+     * @return number of filters
+     */
+    public long getFilterCount(Class<?> model, String path, QueryOperator operator) {
+        Usage usage = getUsage(model, path, false);
+        LongAdder count = (usage != null) ? usage.operators.get(operator) : null;
+        return (count != null) ? count.sum() : 0;
+    }
+
+    /**
+     * Returns number of sorts on the given field
+     *
+     * @param model {@link Class} of the searched model
+     * @param path field name, alias or join path of the field
+     *
+     * @return number of sorts
+     */
+    public long getSortCount(Class<?> model, String path) {
+        Usage usage = getUsage(model, path, false);
+        return (usage != null) ? usage.sorts.sum() : 0;
+    }
+
+    /**
+     * Finds counters of the given field
+     *
+     * @param model {@link Class} of the searched model
+     * @param path field name, alias or join path of the field
+     * @param create whether counters are to be created if there are none
+     *
+     * @return counters of the field, <code>null</code> if there are none and they are not to be created
+     */
+    private Usage getUsage(Class<?> model, String path, boolean create) {
+        String key = model.getName() + '#' + canonicalize(model, path);
+        Usage usage = usages.get(key);
+
+        if (usage == null && create && usages.size() < MAX_COUNTED_FIELDS) {
+            usage = usages.computeIfAbsent(key, k -> new Usage());
+        }
+        return usage;
+    }
+
+    /**
+     * Replaces <code>names</code> in the given path with field names
+     *
+     * @param model {@link Class} of the searched model
+     * @param path field name, alias or join path of the field
+     *
+     * @return path of field names, the given path if it is not valid
+     */
+    private static String canonicalize(Class<?> model, String path) {
+        FilterablePath resolved = FilterableRegistry.resolve(model, path);
+        if (!resolved.isValid()) return path;
+
+        StringBuilder canonical = new StringBuilder();
+        for (Field field : resolved.getFields()) {
+            if (canonical.length() > 0) canonical.append('.');
+            canonical.append(field.getName());
+        }
+        return canonical.toString();
+    }
+
+    /**
+     * Counters of a single field
+     */
+    private static class Usage {
+
+        private final LongAdder filters = new LongAdder();
+        private final LongAdder sorts = new LongAdder();
+        private final Map<QueryOperator, LongAdder> operators = new ConcurrentHashMap<>();
+
+    }
+
+}
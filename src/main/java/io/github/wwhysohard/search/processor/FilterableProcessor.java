@@ -0,0 +1,538 @@
+package io.github.wwhysohard.search.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor which validates @{@link io.github.wwhysohard.search.annotation.Filterable} configuration
+ * and generates {@link io.github.wwhysohard.search.metadata.FilterableMetamodel} of every model which has
+ * filterable fields, so that {@link io.github.wwhysohard.search.metadata.FilterableRegistry} does not scan them at runtime.
+ * The build fails if a <code>joinable</code> field refers to a type without filterable fields or to a raw collection,
+ * or if <code>caseInsensitiveField</code> refers to a field which does not exist.
+ * Metamodels are not generated for models which are not accessible from their package, those are still scanned.
+ * Annotations are read as mirrors, so that the processor needs neither JPA nor the models on its path.
+ */
+@SupportedAnnotationTypes(FilterableProcessor.FILTERABLE)
+public class FilterableProcessor extends AbstractProcessor {
+
+    static final String FILTERABLE = "io.github.wwhysohard.search.annotation.Filterable";
+
+    private static final String METAMODEL = "io.github.wwhysohard.search.metadata.FilterableMetamodel";
+    private static final String FIELD = "io.github.wwhysohard.search.metadata.FilterableField";
+    private static final String JOIN_TYPE = "javax.persistence.criteria.JoinType";
+    private static final String JOIN_STRATEGY = "io.github.wwhysohard.search.enums.JoinStrategy";
+    private static final String SUFFIX = "_Filterable";
+
+    private Elements elements;
+    private Types types;
+    private Messager messager;
+    private Filer filer;
+
+    /**
+     * Binary names of models which metamodels are already generated, a file cannot be created twice
+     */
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        messager = processingEnv.getMessager();
+        filer = processingEnv.getFiler();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) return false;
+
+        for (VariableElement field : ElementFilter.fieldsIn(collectFields(roundEnv))) {
+            validate(field);
+        }
+
+        Set<TypeElement> models = new LinkedHashSet<>();
+        for (Element root : roundEnv.getRootElements()) {
+            collectModels(root, models);
+        }
+
+        for (TypeElement model : models) {
+            generate(model);
+        }
+
+        return false;
+    }
+
+    /**
+     * Collects every field of the round annotated with @{@link io.github.wwhysohard.search.annotation.Filterable}
+     *
+     * @param roundEnv current {@link RoundEnvironment}
+     *
+     * @return annotated fields
+     */
+    private Set<Element> collectFields(RoundEnvironment roundEnv) {
+        TypeElement annotation = elements.getTypeElement(FILTERABLE);
+        return (annotation != null) ? new LinkedHashSet<>(roundEnv.getElementsAnnotatedWith(annotation)) : new HashSet<>();
+    }
+
+    /**
+     * Collects the given type and its nested types which hierarchy has filterable fields
+     *
+     * @param element root or nested element of the round
+     * @param models receives found models
+     */
+    private void collectModels(Element element, Set<TypeElement> models) {
+        if (element.getKind() != ElementKind.CLASS) return;
+
+        TypeElement type = (TypeElement) element;
+        if (hasFilterableFields(type)) models.add(type);
+
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            collectModels(nested, models);
+        }
+    }
+
+    /**
+     * Validates configuration of a single annotated field
+     *
+     * @param field annotated field
+     */
+    private void validate(VariableElement field) {
+        AnnotationMirror mirror = getFilterable(field);
+        Map<String, AnnotationValue> values = getValues(mirror);
+        boolean joinable = (Boolean) values.get("joinable").getValue();
+
+        String caseInsensitiveField = (String) values.get("caseInsensitiveField").getValue();
+        if (!caseInsensitiveField.isEmpty() && !declaresField((TypeElement) field.getEnclosingElement(), caseInsensitiveField)) {
+            error(field, mirror, "caseInsensitiveField refers to " + caseInsensitiveField
+                    + ", which is not a field of " + field.getEnclosingElement());
+        }
+
+        if (!joinable) {
+            for (ExecutableElement attribute : mirror.getElementValues().keySet()) {
+                String name = attribute.getSimpleName().toString();
+                if (name.equals("joinType") || name.equals("joinStrategy")) {
+                    messager.printMessage(Diagnostic.Kind.WARNING, name + " is ignored since the field is not joinable",
+                            field, mirror);
+                }
+            }
+            return;
+        }
+
+        TypeMirror target = getTargetType(field.asType());
+        if (target == null) {
+            error(field, mirror, "joinable collection has to declare its element type");
+        } else if (target.getKind() != TypeKind.DECLARED || !hasFilterableFields((TypeElement) types.asElement(target))) {
+            error(field, mirror, "joinable field refers to " + target + ", which has no @Filterable fields");
+        }
+    }
+
+    /**
+     * Generates {@link io.github.wwhysohard.search.metadata.FilterableMetamodel} of the given model
+     *
+     * @param model model which hierarchy has filterable fields
+     */
+    private void generate(TypeElement model) {
+        String binaryName = elements.getBinaryName(model).toString();
+        if (!generated.add(binaryName)) return;
+
+        List<Entry> entries = getEntries(model);
+        if (entries == null) return;
+
+        List<String> paths = new ArrayList<>();
+        List<TypeElement> visiting = new ArrayList<>();
+        collectPaths(model, "", visiting, paths);
+
+        PackageElement pkg = elements.getPackageOf(model);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+        String modelLiteral = literal(model.asType());
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) source.append("package ").append(packageName).append(";\n\n");
+        source.append("/**\n * Generated by ").append(FilterableProcessor.class.getName()).append(", do not edit\n */\n")
+                .append("public final class ").append(simpleName).append(" implements ").append(METAMODEL).append(" {\n\n")
+                .append("    private static final java.util.List<").append(FIELD).append("> FIELDS = java.util.Collections.unmodifiableList(java.util.Arrays.asList(");
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            source.append(i > 0 ? ",\n" : "\n")
+                    .append("            ").append(FIELD).append(".of(").append(quote(entry.name)).append(", ")
+                    .append(literal(entry.field.getEnclosingElement().asType())).append(", ")
+                    .append(quote(entry.field.getSimpleName().toString())).append(", ")
+                    .append(literal(entry.type)).append(", ")
+                    .append(literal(entry.targetType)).append(", ")
+                    .append(entry.joinable).append(", ")
+                    .append(JOIN_TYPE).append('.').append(entry.joinType).append(", ")
+                    .append(JOIN_STRATEGY).append('.').append(entry.joinStrategy).append(", ")
+                    .append(entry.caseInsensitiveField.isEmpty() ? "null" : quote(entry.caseInsensitiveField)).append(')');
+        }
+        source.append("));\n\n")
+                .append("    private static final java.util.List<String> PATHS = java.util.Collections.unmodifiableList(java.util.Arrays.asList(");
+        for (int i = 0; i < paths.size(); i++) {
+            source.append(i > 0 ? ",\n" : "\n").append("            ").append(quote(paths.get(i)));
+        }
+        source.append("));\n\n")
+                .append("    @Override\n    public Class<?> getModel() {\n        return ").append(modelLiteral).append(";\n    }\n\n")
+                .append("    @Override\n    public java.util.List<").append(FIELD).append("> getFields() {\n        return FIELDS;\n    }\n\n")
+                .append("    @Override\n    public java.util.List<String> getPaths() {\n        return PATHS;\n    }\n\n")
+                .append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try {
+            JavaFileObject file = filer.createSourceFile(qualifiedName, model);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Cannot generate " + qualifiedName + ": " + e.getMessage(), model);
+        }
+    }
+
+    /**
+     * Lists filterable fields of the model hierarchy by their names in order of precedence,
+     * following the rules of {@link io.github.wwhysohard.search.metadata.FilterableRegistry}
+     *
+     * @param model model which fields are listed
+     *
+     * @return {@link List} of entries, <code>null</code> if any type to be referred to is not accessible
+     */
+    private List<Entry> getEntries(TypeElement model) {
+        PackageElement pkg = elements.getPackageOf(model);
+        if (!isAccessible(model, pkg)) return null;
+
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<String, VariableElement> named : getFields(model).entrySet()) {
+            VariableElement field = named.getValue();
+            AnnotationMirror mirror = getFilterable(field);
+            if (mirror == null) continue;
+
+            Map<String, AnnotationValue> values = getValues(mirror);
+            boolean joinable = (Boolean) values.get("joinable").getValue();
+            TypeMirror type = types.erasure(field.asType());
+            TypeMirror targetType = joinable ? getTargetType(types.asMemberOf((DeclaredType) model.asType(), field)) : type;
+            if (targetType == null) return null;
+            targetType = types.erasure(targetType);
+
+            if (!isAccessible((TypeElement) field.getEnclosingElement(), pkg)
+                    || !isAccessible(type, pkg) || !isAccessible(targetType, pkg)) return null;
+
+            entries.add(new Entry(named.getKey(), field, type, targetType, joinable,
+                    ((VariableElement) values.get("joinType").getValue()).getSimpleName().toString(),
+                    ((VariableElement) values.get("joinStrategy").getValue()).getSimpleName().toString(),
+                    (String) values.get("caseInsensitiveField").getValue()));
+        }
+
+        return entries;
+    }
+
+    /**
+     * Collects valid paths of the given model prefixed by the given join path,
+     * following the rules of {@link io.github.wwhysohard.search.metadata.FilterableRegistry#getPaths(Class)}
+     *
+     * @param model current model
+     * @param prefix join path to the current model followed by a dot, empty for the model itself
+     * @param visiting models on the join path, the current one excluded
+     * @param paths receives valid paths
+     */
+    private void collectPaths(TypeElement model, String prefix, List<TypeElement> visiting, List<String> paths) {
+        visiting.add(model);
+
+        for (Map.Entry<String, VariableElement> named : getFields(model).entrySet()) {
+            VariableElement field = named.getValue();
+            AnnotationMirror mirror = getFilterable(field);
+            String fieldName = field.getSimpleName().toString();
+            if (mirror == null || !named.getKey().equals(fieldName)) continue;
+
+            if (!(Boolean) getValues(mirror).get("joinable").getValue()) {
+                paths.add(prefix + fieldName);
+                continue;
+            }
+
+            TypeMirror target = getTargetType(types.asMemberOf((DeclaredType) model.asType(), field));
+            if (target == null || target.getKind() != TypeKind.DECLARED) continue;
+
+            TypeElement joined = (TypeElement) types.asElement(types.erasure(target));
+            if (!visiting.contains(joined)) {
+                collectPaths(joined, prefix + fieldName + ".", visiting, paths);
+            }
+        }
+
+        visiting.remove(visiting.size() - 1);
+    }
+
+    /**
+     * Returns fields of the entire model hierarchy by field names and <code>names</code> of their annotations.
+     * Fields of a class take precedence over <code>names</code> of the same class,
+     * which take precedence over anything declared in its superclasses.
+     *
+     * @param model model which fields are returned
+     *
+     * @return {@link Map} of fields by their names in order of precedence
+     */
+    private Map<String, VariableElement> getFields(TypeElement model) {
+        Map<String, VariableElement> fields = new LinkedHashMap<>();
+
+        for (TypeElement current = model; current != null; current = getSuperclass(current)) {
+            List<VariableElement> declaredFields = ElementFilter.fieldsIn(current.getEnclosedElements());
+
+            for (VariableElement field : declaredFields) {
+                fields.putIfAbsent(field.getSimpleName().toString(), field);
+            }
+
+            for (VariableElement field : declaredFields) {
+                AnnotationMirror mirror = getFilterable(field);
+                if (mirror == null) continue;
+
+                for (Object name : (List<?>) getValues(mirror).get("names").getValue()) {
+                    fields.putIfAbsent((String) ((AnnotationValue) name).getValue(), field);
+                }
+            }
+        }
+
+        return fields;
+    }
+
+    /**
+     * Determines type of the model joined through the given field, which is element type if the field is a collection
+     *
+     * @param type type of the joinable field as a member of the model
+     *
+     * @return joined type, <code>null</code> if the field is a raw collection
+     */
+    private TypeMirror getTargetType(TypeMirror type) {
+        if (type.getKind() == TypeKind.TYPEVAR) return types.erasure(type);
+
+        TypeElement collection = elements.getTypeElement("java.util.Collection");
+        if (collection == null || !types.isAssignable(types.erasure(type), types.erasure(collection.asType()))) return type;
+        if (type.getKind() != TypeKind.DECLARED) return null;
+
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        if (arguments.isEmpty()) return null;
+
+        TypeMirror argument = arguments.get(0);
+        if (argument.getKind() == TypeKind.WILDCARD) {
+            argument = ((WildcardType) argument).getExtendsBound();
+            if (argument == null) return null;
+        }
+
+        return (argument.getKind() == TypeKind.TYPEVAR) ? types.erasure(argument) : argument;
+    }
+
+    /**
+     * @param model model to check
+     *
+     * @return <code>true</code> if any class of the model hierarchy declares a filterable field
+     */
+    private boolean hasFilterableFields(TypeElement model) {
+        for (TypeElement current = model; current != null; current = getSuperclass(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (getFilterable(field) != null) return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param model model to check
+     * @param name name of the field
+     *
+     * @return <code>true</code> if any class of the model hierarchy declares a field of the given name
+     */
+    private boolean declaresField(TypeElement model, String name) {
+        for (TypeElement current = model; current != null; current = getSuperclass(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (field.getSimpleName().contentEquals(name)) return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param type class of which superclass is returned
+     *
+     * @return superclass of the given class, <code>null</code> if there is none
+     */
+    private TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        return (superclass.getKind() == TypeKind.DECLARED) ? (TypeElement) types.asElement(superclass) : null;
+    }
+
+    /**
+     * @param field field to check
+     *
+     * @return mirror of @{@link io.github.wwhysohard.search.annotation.Filterable} of the field, <code>null</code> if not annotated
+     */
+    private AnnotationMirror getFilterable(VariableElement field) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(FILTERABLE)) {
+                return mirror;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param mirror annotation mirror
+     *
+     * @return values of every attribute of the annotation, defaults included, by attribute names
+     */
+    private Map<String, AnnotationValue> getValues(AnnotationMirror mirror) {
+        Map<String, AnnotationValue> values = new LinkedHashMap<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            values.put(entry.getKey().getSimpleName().toString(), entry.getValue());
+        }
+
+        return values;
+    }
+
+    /**
+     * @param type erased type to check
+     * @param pkg package of the generated metamodel
+     *
+     * @return <code>true</code> if a class literal of the type compiles in the given package
+     */
+    private boolean isAccessible(TypeMirror type, PackageElement pkg) {
+        if (type.getKind() == TypeKind.ARRAY) return isAccessible(((ArrayType) type).getComponentType(), pkg);
+        if (type.getKind() != TypeKind.DECLARED) return type.getKind().isPrimitive();
+
+        return isAccessible((TypeElement) types.asElement(type), pkg);
+    }
+
+    /**
+     * @param type type to check
+     * @param pkg package of the generated metamodel
+     *
+     * @return <code>true</code> if the type and every type enclosing it are accessible from the given package
+     */
+    private boolean isAccessible(TypeElement type, PackageElement pkg) {
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            Set<Modifier> modifiers = current.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) return false;
+            if (!modifiers.contains(Modifier.PUBLIC) && !elements.getPackageOf(current).equals(pkg)) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @param type type of which class literal is built
+     *
+     * @return class literal of the erased type
+     */
+    private String literal(TypeMirror type) {
+        return typeName(types.erasure(type)) + ".class";
+    }
+
+    /**
+     * @param type erased type, either declared, array or primitive
+     *
+     * @return canonical name of the type
+     */
+    private String typeName(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) return typeName(((ArrayType) type).getComponentType()) + "[]";
+        if (type.getKind() == TypeKind.DECLARED) return ((TypeElement) types.asElement(type)).getQualifiedName().toString();
+
+        return type.getKind().name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param value string to quote
+     *
+     * @return Java string literal of the value
+     */
+    private static String quote(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') literal.append('\\');
+            if (c < ' ' || c > '~') {
+                literal.append(String.format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+
+        return literal.append('"').toString();
+    }
+
+    /**
+     * Prints error which fails the build
+     *
+     * @param field annotated field
+     * @param mirror annotation of the field
+     * @param message error message
+     */
+    private void error(VariableElement field, AnnotationMirror mirror, String message) {
+        messager.printMessage(Diagnostic.Kind.ERROR, "@Filterable " + field.getSimpleName() + ": " + message, field, mirror);
+    }
+
+    /**
+     * Filterable field of a model under one of its names
+     */
+    private static final class Entry {
+
+        private final String name;
+        private final VariableElement field;
+        private final TypeMirror type;
+        private final TypeMirror targetType;
+        private final boolean joinable;
+        private final String joinType;
+        private final String joinStrategy;
+        private final String caseInsensitiveField;
+
+        private Entry(String name, VariableElement field, TypeMirror type, TypeMirror targetType,
+                      boolean joinable, String joinType, String joinStrategy, String caseInsensitiveField) {
+            this.name = name;
+            this.field = field;
+            this.type = type;
+            this.targetType = targetType;
+            this.joinable = joinable;
+            this.joinType = joinType;
+            this.joinStrategy = joinStrategy;
+            this.caseInsensitiveField = caseInsensitiveField;
+        }
+
+    }
+
+}
@@ -1,21 +1,39 @@
 package io.github.wwhysohard.search.specification;
 
+import io.github.wwhysohard.search.cost.AdmissionControl;
+import io.github.wwhysohard.search.cost.SearchCost;
+import io.github.wwhysohard.search.cost.SearchCostEstimator;
+import io.github.wwhysohard.search.cost.SearchCostModel;
 import io.github.wwhysohard.search.dto.FilterRequest;
 import io.github.wwhysohard.search.dto.SearchRequest;
 import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
 import io.github.wwhysohard.search.enums.QueryOperator;
-import io.github.wwhysohard.search.utils.GenericCriteriaOrder;
-import io.github.wwhysohard.search.utils.GenericCriteriaPredicate;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.metadata.FilterablePath;
+import io.github.wwhysohard.search.metrics.Instrumentation;
+import io.github.wwhysohard.search.metrics.SearchMetrics;
+import io.github.wwhysohard.search.utils.FilterOptimizer;
+import io.github.wwhysohard.search.utils.GenericCriteriaJoin;
+import io.github.wwhysohard.search.utils.KeysetCursor;
+import io.github.wwhysohard.search.utils.OptimizedFilters;
+import io.github.wwhysohard.search.utils.QueryParameters;
 import org.springframework.data.jpa.domain.Specification;
 
+import javax.persistence.Query;
 import javax.persistence.criteria.*;
+import java.util.AbstractList;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
- * Base {@link Specification} class
+ * Base {@link Specification} class.
+ * The request is compiled into an immutable {@link SearchPlan} once, on first use, and {@link Join}s and {@link Predicate}s
+ * are kept per invocation, so a specification can be applied to any number of queries, also concurrently
  *
  * @param <T> generic type of model
  */
@@ -25,79 +43,620 @@ public abstract class GenericSpecification<T> implements Specification<T> {
     private final Class<T> genericType;
     private final boolean distinct;
 
-    protected final Map<String, Join<?, ?>> joins;
-    protected final List<Predicate> predicates;
+    private volatile SearchCost cost;
+    private volatile SearchPlan<T> plan;
+
+    private final ThreadLocal<Invocation<T>> currentInvocation = new ThreadLocal<>();
+
+    /**
+     * {@link Join}s of the query to which the specification is being applied by the current thread.
+     * Available only within {@link #initializeJoins(Root)}, {@link #processAccess(Root, CriteriaBuilder)},
+     * {@link #filter(Root, CriteriaBuilder)} and {@link #sort(Root, CriteriaQuery, CriteriaBuilder)}
+     *
+     * @deprecated use <code>joins</code> passed to {@link #initializeJoins(Root, Map)}
+     * and {@link #processAccess(Root, CriteriaBuilder, Map, List)}
+     */
+    @Deprecated
+    protected final Map<String, Join<?, ?>> joins = new CurrentJoins();
+
+    /**
+     * {@link Predicate}s of the query to which the specification is being applied by the current thread.
+     * Available only within {@link #initializeJoins(Root)}, {@link #processAccess(Root, CriteriaBuilder)},
+     * {@link #filter(Root, CriteriaBuilder)} and {@link #sort(Root, CriteriaQuery, CriteriaBuilder)}
+     *
+     * @deprecated use <code>predicates</code> passed to {@link #processAccess(Root, CriteriaBuilder, Map, List)}
+     */
+    @Deprecated
+    protected final List<Predicate> predicates = new CurrentPredicates();
 
     /**
      * Constructs {@link GenericSpecification}
      *
      * @param request {@link SearchRequest} with filters and sorts
      * @param genericType {@link Class} instance of a model
+     * @param distinct whether distinct records are to be fetched, which is applied
+     *                 only if a collection is actually joined or fetched
      */
     protected GenericSpecification(SearchRequest request, Class<T> genericType, boolean distinct) {
         this.request = request;
         this.genericType = genericType;
         this.distinct = distinct;
-
-        this.joins = new HashMap<>();
-        this.predicates = new ArrayList<>();
     }
 
     @Override
     public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
-        initializeJoins(root);
-        processAccess(root, criteriaBuilder);
-        filter(root, criteriaBuilder);
-        sort(root, query, criteriaBuilder);
+        return toPredicate(root, query, criteriaBuilder, null);
+    }
+
+    /**
+     * Same as {@link #toPredicate(Root, CriteriaQuery, CriteriaBuilder)}, but filter values are bound
+     * as {@link ParameterExpression}s collected by the given {@link QueryParameters}.
+     * The values have to be applied to the created query with {@link QueryParameters#apply(Query)}.
+     *
+     * @param root {@link Root} of the model
+     * @param query {@link CriteriaQuery} to which the specification is applied
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     * @param parameters {@link QueryParameters} which collect filter values, <code>null</code> to render values as literals
+     *
+     * @return {@link Predicate} of the specification
+     */
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder,
+                                 QueryParameters parameters) {
+        SearchMetrics metrics = Instrumentation.getMetrics();
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+
+        SearchPlan<T> searchPlan = getPlan();
+        Map<String, Join<?, ?>> joins = new HashMap<>();
+        List<Predicate> predicates = new ArrayList<>();
+        Invocation<T> previous = currentInvocation.get();
+        currentInvocation.set(new Invocation<>(searchPlan, query, parameters, searchPlan.getFilters(), joins, predicates));
+
+        try {
+            access(root, criteriaBuilder, joins, predicates);
+            filter(root, criteriaBuilder);
+            add(predicates, searchPlan.seek(root, criteriaBuilder, joins, parameters));
+
+            if (!isCountQuery(query)) {
+                sort(root, query, criteriaBuilder);
+            }
+        } catch (FilterException e) {
+            if (metrics.isEnabled()) metrics.countRejection(getClass(), e.getCode());
+            throw e;
+        } finally {
+            restore(currentInvocation, previous);
+        }
+
+        query.distinct(distinct && GenericCriteriaJoin.multipliesRows(root));
+        Predicate predicate = criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+
+        if (metrics.isEnabled()) {
+            metrics.recordPredicateTime(getClass(), System.nanoTime() - start);
+            if (!isCountQuery(query)) record(metrics, searchPlan.getRequestedFilters());
+        }
+
+        return predicate;
+    }
+
+    /**
+     * Same as {@link #toPredicate(Root, CriteriaQuery, CriteriaBuilder, QueryParameters)}, but the given filters
+     * are applied instead of filters of the request, and neither keyset pagination nor sorts are applied.
+     * Used by {@link io.github.wwhysohard.search.facet.FacetSearch}, where each facet excludes its own filters
+     *
+     * @param root {@link Root} of the model
+     * @param query {@link CriteriaQuery} to which the specification is applied
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     * @param parameters {@link QueryParameters} which collect filter values, <code>null</code> to render values as literals
+     * @param filters filters to be applied instead of filters of the request
+     *
+     * @return {@link Predicate} of the specification
+     */
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder,
+                                 QueryParameters parameters, OptimizedFilters filters) {
+        SearchPlan<T> searchPlan = getPlan();
+        Map<String, Join<?, ?>> joins = new HashMap<>();
+        List<Predicate> predicates = new ArrayList<>();
+        Invocation<T> previous = currentInvocation.get();
+        currentInvocation.set(new Invocation<>(searchPlan, query, parameters, filters, joins, predicates));
+
+        try {
+            access(root, criteriaBuilder, joins, predicates);
+            filter(root, criteriaBuilder);
+        } catch (FilterException e) {
+            SearchMetrics metrics = Instrumentation.getMetrics();
+            if (metrics.isEnabled()) metrics.countRejection(getClass(), e.getCode());
+            throw e;
+        } finally {
+            restore(currentInvocation, previous);
+        }
 
-        query.distinct(distinct);
         return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
     }
 
     /**
-     * Override and initialize joins if necessary
+     * Returns {@link From} of the given path, which is joined on demand the same way as for filters and sorts.
+     * Has to be called after <code>toPredicate</code> on the same {@link Root}, so that existing {@link Join}s are reused
      *
      * @param root {@link Root} of the model
+     * @param path {@link FilterablePath} resolved by {@link io.github.wwhysohard.search.metadata.FilterableRegistry}
+     *
+     * @return {@link From} which holds the last attribute of the path
      */
-    protected void initializeJoins(Root<T> root) {}
+    public From<?, ?> join(Root<T> root, FilterablePath path) {
+        return GenericCriteriaJoin.get(root, GenericCriteriaJoin.existing(root), path);
+    }
+
+    /**
+     * Checks whether the given query is a count query, such as the one Spring Data runs for paged searches.
+     * Count queries are neither sorted nor joined for sorting
+     *
+     * @param query {@link CriteriaQuery} to be checked
+     *
+     * @return <code>true</code> if result type of the query is {@link Long}
+     */
+    protected boolean isCountQuery(CriteriaQuery<?> query) {
+        return Long.class.equals(query.getResultType()) || long.class.equals(query.getResultType());
+    }
+
+    /**
+     * Override and initialize joins if necessary.
+     * Joins referenced by filters and sorts are created on demand, so it is only needed
+     * to reuse or customize particular {@link Join}s
+     *
+     * @param root {@link Root} of the model
+     * @param joins {@link Map} of {@link Join}s of the current query by field names or <code>names</code> of them
+     */
+    protected void initializeJoins(Root<T> root, Map<String, Join<?, ?>> joins) {}
 
     /**
      * Override and process access if necessary
      *
      * @param root {@link Root} of the model
      * @param criteriaBuilder {@link CriteriaBuilder} which may be needed for access operations
+     * @param joins {@link Map} of {@link Join}s of the current query, including the ones of {@link #initializeJoins(Root, Map)}
+     * @param predicates receives access {@link Predicate}s, which are collected with filters by <code>AND</code> operator
      */
+    protected void processAccess(Root<T> root, CriteriaBuilder criteriaBuilder, Map<String, Join<?, ?>> joins,
+                                 List<Predicate> predicates) {}
+
+    /**
+     * Override and initialize joins if necessary. Called before {@link #initializeJoins(Root, Map)}
+     *
+     * @param root {@link Root} of the model
+     *
+     * @deprecated override {@link #initializeJoins(Root, Map)}, which receives {@link Join}s of the current query
+     */
+    @Deprecated
+    protected void initializeJoins(Root<T> root) {}
+
+    /**
+     * Override and process access if necessary. Called before {@link #processAccess(Root, CriteriaBuilder, Map, List)},
+     * {@link Predicate}s added into <code>predicates</code> are applied the same way
+     *
+     * @param root {@link Root} of the model
+     * @param criteriaBuilder {@link CriteriaBuilder} which may be needed for access operations
+     *
+     * @deprecated override {@link #processAccess(Root, CriteriaBuilder, Map, List)}, which receives {@link Join}s
+     * and {@link Predicate}s of the current query
+     */
+    @Deprecated
     protected void processAccess(Root<T> root, CriteriaBuilder criteriaBuilder) {}
 
     /**
-     * Constructs {@link Predicate} using provided filters and adds it into <code>predicates</code>
+     * Constructs {@link Predicate} of filters of the request optimized by {@link FilterOptimizer}, or of the ones given
+     * to {@link #toPredicate(Root, CriteriaQuery, CriteriaBuilder, QueryParameters, OptimizedFilters)},
+     * and adds it into <code>predicates</code>. Called after {@link #processAccess(Root, CriteriaBuilder, Map, List)}
      *
      * @param root {@link Root} of the model on which filtering will be processed
      * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     *
+     * @deprecated filters are compiled into {@link SearchPlan}, add custom {@link Predicate}s
+     * in {@link #processAccess(Root, CriteriaBuilder, Map, List)}
      */
+    @Deprecated
     protected void filter(Root<T> root, CriteriaBuilder criteriaBuilder) {
-        List<FilterRequest> filters = request.getFilters();
+        Invocation<T> invocation = currentInvocation();
+        add(invocation.predicates, filter(invocation.plan, root, invocation.query, criteriaBuilder,
+                invocation.joins, invocation.parameters, invocation.filters));
+    }
 
-        if (filters != null && !filters.isEmpty()) {
-            Predicate predicate = GenericCriteriaPredicate.get(root, criteriaBuilder, joins, filters, QueryOperator.AND, genericType);
-            predicates.add(predicate);
+    /**
+     * Collects {@link List} of {@link Order}s of the request and sorts result. Not called for count queries
+     *
+     * @param root {@link Root} of the model on which sorting will be processed
+     * @param query {@link CriteriaQuery} which will be used to sort result
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Order}s
+     *
+     * @deprecated sorts are compiled into {@link SearchPlan}, pass them as <code>sorts</code> of {@link SearchRequest}
+     */
+    @Deprecated
+    protected void sort(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        Invocation<T> invocation = currentInvocation();
+        sort(invocation.plan, root, query, criteriaBuilder, invocation.joins, invocation.parameters);
+    }
+
+    /**
+     * Returns {@link SearchCostModel} by which requests of this specification are admitted.
+     * Override to give the specification its own budget or weights
+     *
+     * @return {@link SearchCostModel}, the one of {@link AdmissionControl} by default
+     */
+    protected SearchCostModel getCostModel() {
+        return AdmissionControl.getCostModel();
+    }
+
+    /**
+     * Rejects the request if its estimated cost exceeds the budget, before any SQL is built.
+     * Called by {@link #getPlan()}
+     *
+     * @throws FilterException with <code>SEARCH_IS_TOO_EXPENSIVE</code> {@link ErrorCode} if the request is over budget
+     */
+    public void admit() {
+        if (getCost().isOverBudget()) {
+            throw new FilterException(ErrorCode.SEARCH_IS_TOO_EXPENSIVE);
+        }
+    }
+
+    /**
+     * Estimates cost of the request once, recording it in {@link SearchMetrics}
+     *
+     * @return {@link SearchCost} of the request
+     */
+    public SearchCost getCost() {
+        SearchCost result = cost;
+        if (result == null) {
+            synchronized (this) {
+                result = cost;
+                if (result == null) {
+                    result = SearchCostEstimator.estimate(request, genericType, getCostModel());
+                    cost = result;
+
+                    SearchMetrics metrics = Instrumentation.getMetrics();
+                    if (metrics.isEnabled()) {
+                        metrics.recordCost(getClass(), result.getCost());
+                        if (result.isNearLimit()) metrics.countNearLimit(getClass());
+                    }
+                }
+            }
         }
+        return result;
     }
 
     /**
-     * Collects {@link List} of {@link Order}s and sorts result
+     * Compiles the request into {@link SearchPlan} once, rejecting it if it is over budget or invalid.
+     * The request is copied, so changing it afterwards does not change the plan
+     *
+     * @return {@link SearchPlan} of the request
      *
+     * @throws FilterException if the request is over budget or invalid, which is counted by {@link SearchMetrics}
+     */
+    public SearchPlan<T> getPlan() {
+        SearchPlan<T> result = plan;
+        if (result == null) {
+            synchronized (this) {
+                result = plan;
+                if (result == null) {
+                    try {
+                        admit();
+                        result = SearchPlan.compile(request, genericType, getCost());
+                    } catch (FilterException e) {
+                        SearchMetrics metrics = Instrumentation.getMetrics();
+                        if (metrics.isEnabled()) metrics.countRejection(getClass(), e.getCode());
+                        throw e;
+                    }
+                    plan = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Constructs {@link Selection}s of <code>projection</code> of the request.
+     * Has to be called after {@link #toPredicate(Root, CriteriaQuery, CriteriaBuilder, QueryParameters)}
+     * on the same {@link Root}, so that fields of joined models are selected through the same {@link Join}s
+     *
+     * @param root {@link Root} of the model
+     *
+     * @return {@link List} of {@link Selection}s in order of the projection
+     */
+    public List<Selection<?>> select(Root<T> root) {
+        SearchPlan<T> searchPlan = getPlan();
+
+        try {
+            return searchPlan.select(root, GenericCriteriaJoin.existing(root));
+        } catch (FilterException e) {
+            SearchMetrics metrics = Instrumentation.getMetrics();
+            if (metrics.isEnabled()) metrics.countRejection(getClass(), e.getCode());
+            throw e;
+        }
+    }
+
+    /**
+     * Constructs {@link Predicate} of the given filters, recording time of it in {@link SearchMetrics}
+     *
+     * @param searchPlan {@link SearchPlan} of the request
      * @param root {@link Root} of the model on which filtering will be processed
+     * @param query {@link CriteriaQuery} which will be used to construct <code>EXISTS</code> subqueries
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     * @param joins {@link Map} of {@link Join}s of the current query
+     * @param parameters {@link QueryParameters} which collect filter values, may be <code>null</code>
+     * @param filters filters to be applied
+     *
+     * @return {@link Predicate} of the filters, <code>null</code> if there is nothing to filter by
+     */
+    private Predicate filter(SearchPlan<T> searchPlan, Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder,
+                             Map<String, Join<?, ?>> joins, QueryParameters parameters, OptimizedFilters filters) {
+        SearchMetrics metrics = Instrumentation.getMetrics();
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+
+        Predicate predicate = searchPlan.filter(root, query, criteriaBuilder, joins, parameters, filters);
+
+        if (metrics.isEnabled() && !filters.isUnsatisfiable()) metrics.recordFiltersTime(getClass(), System.nanoTime() - start);
+        return predicate;
+    }
+
+    /**
+     * Sorts result by {@link Order}s of the given plan, recording time and sorted fields in {@link SearchMetrics}
+     *
+     * @param searchPlan {@link SearchPlan} of the request
+     * @param root {@link Root} of the model on which sorting will be processed
      * @param query {@link CriteriaQuery} which will be used to sort result
      * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Order}s
+     * @param joins {@link Map} of {@link Join}s of the current query
+     * @param parameters {@link QueryParameters} which collect filter values, may be <code>null</code>
      */
-    protected void sort(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
-        List<SortRequest> sorts = request.getSorts();
+    private void sort(SearchPlan<T> searchPlan, Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder,
+                      Map<String, Join<?, ?>> joins, QueryParameters parameters) {
+        SearchMetrics metrics = Instrumentation.getMetrics();
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+
+        List<Order> orders = searchPlan.sort(root, criteriaBuilder, joins, parameters);
+
+        if (metrics.isEnabled()) {
+            metrics.recordSortsTime(getClass(), System.nanoTime() - start);
+            List<SortRequest> sorts = searchPlan.getSorts();
+            if (sorts != null) sorts.forEach(sort -> metrics.countSortedField(getClass(), genericType, sort.getField()));
+        }
 
-        if (sorts != null && !sorts.isEmpty()) {
-            List<Order> orders = GenericCriteriaOrder.get(root, criteriaBuilder, joins, sorts, genericType);
+        if (!orders.isEmpty()) {
             query.orderBy(orders);
         }
     }
 
+    /**
+     * Initializes {@link Join}s and processes access by both current and deprecated hooks.
+     * Deprecated hooks see {@link Join}s and {@link Predicate}s of the current query through <code>joins</code>
+     * and <code>predicates</code> fields, which are bound by the caller
+     *
+     * @param root {@link Root} of the model
+     * @param criteriaBuilder {@link CriteriaBuilder} which may be needed for access operations
+     * @param joins {@link Map} of {@link Join}s of the current query
+     * @param predicates {@link Predicate}s of the current query
+     */
+    @SuppressWarnings("deprecation")
+    private void access(Root<T> root, CriteriaBuilder criteriaBuilder, Map<String, Join<?, ?>> joins,
+                        List<Predicate> predicates) {
+        initializeJoins(root);
+        initializeJoins(root, joins);
+        processAccess(root, criteriaBuilder);
+        processAccess(root, criteriaBuilder, joins, predicates);
+    }
+
+    /**
+     * Restores value of the given {@link ThreadLocal}, removing it if there was none
+     *
+     * @param local {@link ThreadLocal} to be restored
+     * @param previous previous value, may be <code>null</code>
+     * @param <V> type of the value
+     */
+    private static <V> void restore(ThreadLocal<V> local, V previous) {
+        if (previous != null) local.set(previous);
+        else local.remove();
+    }
+
+    /**
+     * Adds the given {@link Predicate} into <code>predicates</code> unless it is <code>null</code>
+     *
+     * @param predicates {@link Predicate}s of the current query
+     * @param predicate {@link Predicate} to be added, may be <code>null</code>
+     */
+    private static void add(List<Predicate> predicates, Predicate predicate) {
+        if (predicate != null) predicates.add(predicate);
+    }
+
+    /**
+     * Records usage of the given filters: depth of the filters, operators, fields and sizes of <code>IN</code> lists
+     *
+     * @param metrics {@link SearchMetrics} which receive measurements
+     * @param filters filters of the request, may be <code>null</code>
+     */
+    private void record(SearchMetrics metrics, List<FilterRequest> filters) {
+        if (filters != null && !filters.isEmpty()) {
+            metrics.recordFilterDepth(getClass(), record(metrics, filters, 1));
+        }
+    }
+
+    /**
+     * Records usage of the given filters and filters nested in them
+     *
+     * @param metrics {@link SearchMetrics} which receive measurements
+     * @param filters filters to be recorded
+     * @param depth depth of the given filters
+     *
+     * @return maximum depth of the given and nested filters
+     */
+    private int record(SearchMetrics metrics, List<FilterRequest> filters, int depth) {
+        int maxDepth = depth;
+
+        for (FilterRequest filter : filters) {
+            metrics.countOperator(getClass(), filter.getOperator());
+
+            if (filter.getFilters() != null && !filter.getFilters().isEmpty()) {
+                maxDepth = Math.max(maxDepth, record(metrics, filter.getFilters(), depth + 1));
+                continue;
+            }
+
+            metrics.countFilteredField(getClass(), genericType, filter.getField(), filter.getOperator());
+
+            if (filter.getValues() != null && (filter.getOperator() == QueryOperator.IN || filter.getOperator() == QueryOperator.NOT_IN)) {
+                metrics.recordInListSize(getClass(), filter.getValues().size());
+            }
+        }
+
+        return maxDepth;
+    }
+
+    /**
+     * @return {@link SearchRequest} of the specification
+     */
+    public SearchRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return {@link Class} instance of the model
+     */
+    public Class<T> getGenericType() {
+        return genericType;
+    }
+
+    /**
+     * Returns filters of the request optimized by {@link FilterOptimizer}, which are computed once per specification
+     *
+     * @return {@link OptimizedFilters} of {@link #getPlan()}
+     */
+    public OptimizedFilters getOptimizedFilters() {
+        return getPlan().getFilters();
+    }
+
+    /**
+     * Returns scope of cached results of the specification. Results are shared only between specifications
+     * of the same class, request and scope, so specifications which restrict access in {@link #processAccess(Root, CriteriaBuilder, Map, List)}
+     * have to return e.g. current user or tenant here.
+     *
+     * @return scope with proper <code>equals</code> and <code>hashCode</code>, <code>null</code> by default
+     */
+    public Object getCacheScope() {
+        return null;
+    }
+
+    /**
+     * Creates keyset pagination cursor of the next page
+     *
+     * @param last last model of the current page
+     *
+     * @return cursor to be passed as <code>cursor</code> of {@link SearchRequest} to fetch the next page,
+     * <code>null</code> if there is no last model
+     */
+    public String nextCursor(T last) {
+        return (last != null) ? KeysetCursor.of(last, getPlan().getSorts(), genericType) : null;
+    }
+
+    /**
+     * Returns {@link Invocation} of the query to which the specification is being applied by the current thread
+     *
+     * @return current {@link Invocation}
+     *
+     * @throws IllegalStateException if the specification is not being applied by the current thread
+     */
+    private Invocation<T> currentInvocation() {
+        Invocation<T> result = currentInvocation.get();
+        if (result == null) throw new IllegalStateException("Query is available only while the specification is applied");
+        return result;
+    }
+
+    /**
+     * @return {@link Map} of {@link Join}s of the current query
+     */
+    private Map<String, Join<?, ?>> currentJoins() {
+        return currentInvocation().joins;
+    }
+
+    /**
+     * @return {@link List} of {@link Predicate}s of the current query
+     */
+    private List<Predicate> currentPredicates() {
+        return currentInvocation().predicates;
+    }
+
+    /**
+     * State of a query to which the specification is being applied, seen by deprecated hooks
+     *
+     * @param <T> generic type of model
+     */
+    private static final class Invocation<T> {
+
+        private final SearchPlan<T> plan;
+        private final CriteriaQuery<?> query;
+        private final QueryParameters parameters;
+        private final OptimizedFilters filters;
+        private final Map<String, Join<?, ?>> joins;
+        private final List<Predicate> predicates;
+
+        private Invocation(SearchPlan<T> plan, CriteriaQuery<?> query, QueryParameters parameters, OptimizedFilters filters,
+                           Map<String, Join<?, ?>> joins, List<Predicate> predicates) {
+            this.plan = plan;
+            this.query = query;
+            this.parameters = parameters;
+            this.filters = filters;
+            this.joins = joins;
+            this.predicates = predicates;
+        }
+
+    }
+
+    /**
+     * View of {@link Join}s of the current query, backs the deprecated <code>joins</code> field
+     */
+    private final class CurrentJoins extends AbstractMap<String, Join<?, ?>> {
+
+        @Override
+        public Set<Entry<String, Join<?, ?>>> entrySet() {
+            return currentJoins().entrySet();
+        }
+
+        @Override
+        public Join<?, ?> get(Object key) {
+            return currentJoins().get(key);
+        }
+
+        @Override
+        public Join<?, ?> put(String key, Join<?, ?> value) {
+            return currentJoins().put(key, value);
+        }
+
+    }
+
+    /**
+     * View of {@link Predicate}s of the current query, backs the deprecated <code>predicates</code> field
+     */
+    private final class CurrentPredicates extends AbstractList<Predicate> {
+
+        @Override
+        public Predicate get(int index) {
+            return currentPredicates().get(index);
+        }
+
+        @Override
+        public int size() {
+            return currentPredicates().size();
+        }
+
+        @Override
+        public Predicate set(int index, Predicate element) {
+            return currentPredicates().set(index, element);
+        }
+
+        @Override
+        public void add(int index, Predicate element) {
+            currentPredicates().add(index, element);
+        }
+
+        @Override
+        public Predicate remove(int index) {
+            return currentPredicates().remove(index);
+        }
+
+    }
+
 }
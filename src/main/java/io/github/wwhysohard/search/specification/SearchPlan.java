@@ -0,0 +1,287 @@
+package io.github.wwhysohard.search.specification;
+
+import io.github.wwhysohard.search.cost.AdmissionControl;
+import io.github.wwhysohard.search.cost.SearchCost;
+import io.github.wwhysohard.search.cost.SearchCostEstimator;
+import io.github.wwhysohard.search.cost.SearchCostModel;
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.utils.FilterOptimizer;
+import io.github.wwhysohard.search.utils.GenericCriteriaOrder;
+import io.github.wwhysohard.search.utils.GenericCriteriaPredicate;
+import io.github.wwhysohard.search.utils.GenericCriteriaSelection;
+import io.github.wwhysohard.search.utils.OptimizedFilters;
+import io.github.wwhysohard.search.utils.QueryParameters;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import javax.persistence.criteria.AbstractQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable search compiled once from a {@link SearchRequest}: the request is copied, admitted by its cost,
+ * its filters are validated, converted and optimized by {@link FilterOptimizer}, its cursor is decoded and converted,
+ * and its sorts and projection are validated, so that applying the plan does not fail on the request anymore.
+ * A plan keeps no state of the queries it is applied to, every method takes {@link Join}s of the current query,
+ * so the same plan can be applied to any number of queries, also concurrently
+ *
+ * @param <T> generic type of model
+ */
+@Getter
+public final class SearchPlan<T> {
+
+    /**
+     * {@link Class} instance of the model
+     */
+    private final Class<T> genericType;
+
+    /**
+     * Estimated {@link SearchCost} of the request, which is within the budget
+     */
+    private final SearchCost cost;
+
+    /**
+     * Copy of filters of the request as they were requested, may be <code>null</code>
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final List<FilterRequest> requestedFilters;
+
+    /**
+     * Filters of the request optimized by {@link FilterOptimizer}
+     */
+    private final OptimizedFilters filters;
+
+    /**
+     * Copy of sorts of the request, may be <code>null</code>
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final List<SortRequest> sorts;
+
+    /**
+     * Keyset pagination cursor, <code>null</code> if there is none
+     */
+    private final String cursor;
+
+    /**
+     * Values of the cursor converted to types of the sorted fields and the identifier, <code>null</code> if there is no cursor
+     */
+    @Getter(AccessLevel.NONE)
+    private final List<Object> cursorValues;
+
+    /**
+     * Whether keyset pagination is enabled
+     */
+    private final boolean keyset;
+
+    /**
+     * Copy of projection of the request, may be <code>null</code>
+     */
+    private final List<String> projection;
+
+    private SearchPlan(Class<T> genericType, SearchCost cost, List<FilterRequest> requestedFilters, OptimizedFilters filters,
+                       List<SortRequest> sorts, String cursor, List<Object> cursorValues, boolean keyset, List<String> projection) {
+        this.genericType = genericType;
+        this.cost = cost;
+        this.requestedFilters = requestedFilters;
+        this.filters = filters;
+        this.sorts = sorts;
+        this.cursor = cursor;
+        this.cursorValues = cursorValues;
+        this.keyset = keyset;
+        this.projection = projection;
+    }
+
+    /**
+     * Compiles the given request admitted by {@link SearchCostModel} of {@link AdmissionControl}
+     *
+     * @param request {@link SearchRequest} with filters and sorts
+     * @param genericType {@link Class} instance of the model
+     * @param <T> generic type of the model
+     *
+     * @return compiled {@link SearchPlan}
+     *
+     * @throws FilterException if the request is over budget or invalid
+     */
+    public static <T> SearchPlan<T> compile(SearchRequest request, Class<T> genericType) {
+        return compile(request, genericType, AdmissionControl.getCostModel());
+    }
+
+    /**
+     * Compiles the given request admitted by the given {@link SearchCostModel}
+     *
+     * @param request {@link SearchRequest} with filters and sorts
+     * @param genericType {@link Class} instance of the model
+     * @param costModel {@link SearchCostModel} by which the request is admitted
+     * @param <T> generic type of the model
+     *
+     * @return compiled {@link SearchPlan}
+     *
+     * @throws FilterException if the request is over budget or invalid
+     */
+    public static <T> SearchPlan<T> compile(SearchRequest request, Class<T> genericType, SearchCostModel costModel) {
+        return compile(request, genericType, SearchCostEstimator.estimate(request, genericType, costModel));
+    }
+
+    /**
+     * Compiles the given request of already estimated cost.
+     * Nothing but the cost is computed if the request is over budget
+     *
+     * @param request {@link SearchRequest} with filters and sorts
+     * @param genericType {@link Class} instance of the model
+     * @param cost estimated {@link SearchCost} of the request
+     * @param <T> generic type of the model
+     *
+     * @return compiled {@link SearchPlan}
+     *
+     * @throws FilterException with <code>SEARCH_IS_TOO_EXPENSIVE</code> {@link ErrorCode} if the request is over budget,
+     * with the same {@link ErrorCode}s as filters, sorts, cursor and projection are rejected with otherwise
+     */
+    static <T> SearchPlan<T> compile(SearchRequest request, Class<T> genericType, SearchCost cost) {
+        if (cost.isOverBudget()) {
+            throw new FilterException(ErrorCode.SEARCH_IS_TOO_EXPENSIVE);
+        }
+
+        List<FilterRequest> requestedFilters = copyFilters(request.getFilters());
+        List<SortRequest> sorts = copySorts(request.getSorts());
+        List<String> projection = (request.getProjection() != null)
+                ? Collections.unmodifiableList(new ArrayList<>(request.getProjection())) : null;
+
+        OptimizedFilters filters = FilterOptimizer.optimize(requestedFilters, genericType);
+        GenericCriteriaOrder.validate(sorts, genericType, requestedFilters);
+        GenericCriteriaSelection.validate(projection, genericType);
+        List<Object> cursorValues = (request.getCursor() != null)
+                ? GenericCriteriaOrder.decode(request.getCursor(), sorts, genericType)
+                : null;
+
+        return new SearchPlan<>(genericType, cost, requestedFilters, filters, sorts, request.getCursor(), cursorValues,
+                request.isKeyset(), projection);
+    }
+
+    /**
+     * Constructs {@link Predicate} of the given filters. Unsatisfiable filters are replaced by a predicate which is always false
+     *
+     * @param root {@link Root} of the model
+     * @param query {@link AbstractQuery} which will be used to construct <code>EXISTS</code> subqueries
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     * @param joins {@link Map} of {@link Join}s of the current query, receives {@link Join}s created on demand
+     * @param parameters {@link QueryParameters} which collect filter values, <code>null</code> to render values as literals
+     * @param filters either <code>filters</code> of the plan or a part of them
+     *
+     * @return {@link Predicate} of the filters, <code>null</code> if there is nothing to filter by
+     */
+    public Predicate filter(Root<T> root, AbstractQuery<?> query, CriteriaBuilder criteriaBuilder,
+                            Map<String, Join<?, ?>> joins, QueryParameters parameters, OptimizedFilters filters) {
+        if (filters.isUnsatisfiable()) return criteriaBuilder.disjunction();
+        if (filters.getFilters().isEmpty()) return null;
+
+        return GenericCriteriaPredicate.get(root, query, criteriaBuilder, joins, filters, parameters);
+    }
+
+    /**
+     * Constructs keyset pagination {@link Predicate} of the cursor
+     *
+     * @param root {@link Root} of the model
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     * @param joins {@link Map} of {@link Join}s of the current query, receives {@link Join}s created on demand
+     * @param parameters {@link QueryParameters} which collect cursor values, <code>null</code> to render values as literals
+     *
+     * @return {@link Predicate} matching rows after the cursor, <code>null</code> if there is no cursor
+     */
+    public Predicate seek(Root<T> root, CriteriaBuilder criteriaBuilder, Map<String, Join<?, ?>> joins,
+                          QueryParameters parameters) {
+        return (cursorValues != null)
+                ? GenericCriteriaOrder.seek(root, criteriaBuilder, joins, sorts, cursorValues, genericType, parameters)
+                : null;
+    }
+
+    /**
+     * Collects {@link Order}s of the sorts. In keyset pagination <code>null</code> values are placed last
+     * and identifier is appended as the last {@link Order}
+     *
+     * @param root {@link Root} of the model
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Order}s
+     * @param joins {@link Map} of {@link Join}s of the current query, receives {@link Join}s created on demand
+     * @param parameters {@link QueryParameters} which collect filter values, <code>null</code> to render values as literals
+     *
+     * @return modifiable {@link List} of {@link Order}s, empty if there is nothing to sort by
+     */
+    public List<Order> sort(Root<T> root, CriteriaBuilder criteriaBuilder, Map<String, Join<?, ?>> joins,
+                            QueryParameters parameters) {
+        if (keyset) {
+            return GenericCriteriaOrder.getKeyset(root, criteriaBuilder, joins, sorts, genericType, requestedFilters, parameters);
+        }
+
+        return (sorts != null && !sorts.isEmpty())
+                ? GenericCriteriaOrder.get(root, criteriaBuilder, joins, sorts, genericType, requestedFilters, parameters)
+                : new ArrayList<>();
+    }
+
+    /**
+     * Constructs {@link Selection}s of the projection
+     *
+     * @param root {@link Root} of the model
+     * @param joins {@link Map} of {@link Join}s of the current query, receives {@link Join}s created on demand
+     *
+     * @return {@link List} of {@link Selection}s in order of the projection
+     *
+     * @throws FilterException with <code>PROJECTION_CANNOT_BE_EMPTY</code> {@link ErrorCode} if there is no projection
+     */
+    public List<Selection<?>> select(Root<T> root, Map<String, Join<?, ?>> joins) {
+        return GenericCriteriaSelection.get(root, joins, projection, genericType);
+    }
+
+    /**
+     * Copies the given filters and filters nested in them
+     *
+     * @param filters filters to be copied, may be <code>null</code>
+     *
+     * @return unmodifiable {@link List} of copied filters, <code>null</code> if the given filters are <code>null</code>
+     */
+    private static List<FilterRequest> copyFilters(List<FilterRequest> filters) {
+        if (filters == null) return null;
+
+        List<FilterRequest> copies = new ArrayList<>(filters.size());
+        for (FilterRequest filter : filters) {
+            copies.add((filter == null) ? null : FilterRequest.builder()
+                    .withOperator(filter.getOperator())
+                    .withField(filter.getField())
+                    .withValue(filter.getValue())
+                    .withValues((filter.getValues() != null) ? Collections.unmodifiableList(new ArrayList<>(filter.getValues())) : null)
+                    .withFilters(copyFilters(filter.getFilters()))
+                    .build());
+        }
+
+        return Collections.unmodifiableList(copies);
+    }
+
+    /**
+     * Copies the given sorts
+     *
+     * @param sorts sorts to be copied, may be <code>null</code>
+     *
+     * @return unmodifiable {@link List} of copied sorts, <code>null</code> if the given sorts are <code>null</code>
+     */
+    private static List<SortRequest> copySorts(List<SortRequest> sorts) {
+        if (sorts == null) return null;
+
+        List<SortRequest> copies = new ArrayList<>(sorts.size());
+        for (SortRequest sort : sorts) {
+            copies.add((sort == null) ? null : SortRequest.builder().withField(sort.getField()).withOrder(sort.getOrder()).build());
+        }
+
+        return Collections.unmodifiableList(copies);
+    }
+
+}
@@ -0,0 +1,278 @@
+package io.github.wwhysohard.search.utils;
+
+import io.github.wwhysohard.search.converter.ValueConverter;
+import io.github.wwhysohard.search.converter.ValueConverters;
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.metadata.FilterablePath;
+import io.github.wwhysohard.search.metadata.FilterableRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable filter validated and resolved before it is turned into SQL: its path is resolved
+ * by {@link FilterableRegistry}, its values are converted to the type of the field, and patterns
+ * of string operators are built, so that constructing {@link javax.persistence.criteria.Predicate}
+ * of it neither resolves nor converts anything.
+ * Either applied on a field or collecting nested filters by <code>AND</code> or <code>OR</code> operator.
+ */
+@Getter
+public final class CompiledFilter {
+
+    /**
+     * Escape character of patterns built from values which are matched literally
+     */
+    static final char ESCAPE = '\\';
+
+    /**
+     * Filter from which this one is compiled
+     */
+    private final FilterRequest filter;
+
+    /**
+     * Resolved path of the field, <code>null</code> if the filter collects nested filters
+     */
+    private final FilterablePath path;
+
+    /**
+     * Value converted to the type of the field, or pattern of string operators,
+     * <code>null</code> if the operator takes no single value
+     */
+    private final Object value;
+
+    /**
+     * Values of <code>IN</code> and <code>NOT_IN</code> operators converted to the type of the field,
+     * <code>null</code> for other operators
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final Object[] values;
+
+    /**
+     * Nested filters, empty if the filter is applied on a field
+     */
+    private final List<CompiledFilter> filters;
+
+    private CompiledFilter(FilterRequest filter, FilterablePath path, Object value, Object[] values,
+                           List<CompiledFilter> filters) {
+        this.filter = filter;
+        this.path = path;
+        this.value = value;
+        this.values = values;
+        this.filters = filters;
+    }
+
+    /**
+     * Compiles the given filters and filters nested in them
+     *
+     * @param filters filters to be compiled
+     * @param clazz {@link Class} instance of the model
+     *
+     * @return unmodifiable {@link List} of compiled filters in the same order
+     *
+     * @throws FilterException with <code>FIELD_CANNOT_BE_NULL</code>, <code>FIELD_IS_NOT_ALLOWED_FOR_FILTERING</code>,
+     * <code>FILTERS_CANNOT_BE_EMPTY</code>, <code>VALUE_CANNOT_BE_NULL</code>, <code>VALUES_CANNOT_BE_NULL</code>
+     * or <code>ILLEGAL_ARGUMENT</code> {@link ErrorCode} if a filter is invalid
+     */
+    public static List<CompiledFilter> compile(List<FilterRequest> filters, Class<?> clazz) {
+        List<CompiledFilter> compiled = new ArrayList<>(filters.size());
+
+        for (FilterRequest filter : filters) {
+            if (isGroup(filter)) {
+                if (filter.getFilters() == null || filter.getFilters().isEmpty()) {
+                    throw new FilterException(ErrorCode.FILTERS_CANNOT_BE_EMPTY);
+                }
+                compiled.add(group(filter, compile(filter.getFilters(), clazz)));
+                continue;
+            }
+
+            FilterablePath path = resolve(filter, clazz);
+            ValueConverter<?> converter = ValueConverters.get(path.getJavaType());
+
+            switch (filter.getOperator()) {
+                case IN:
+                case NOT_IN:
+                    compiled.add(leaf(filter, path, null, ValueConverters.convert(converter, filter.getValues())));
+                    break;
+                case EQUALS:
+                case NOT_EQUALS:
+                case LESS_THAN:
+                case GREATER_THAN:
+                case LESS_THAN_OR_EQUAL:
+                case GREATER_THAN_OR_EQUAL:
+                    compiled.add(leaf(filter, path, ValueConverters.convert(converter, filter.getValue()), null));
+                    break;
+                default:
+                    compiled.add(leaf(filter, path, null, null));
+            }
+        }
+
+        return Collections.unmodifiableList(compiled);
+    }
+
+    /**
+     * Creates compiled filter which collects the given compiled filters
+     *
+     * @param filter filter with <code>AND</code> or <code>OR</code> operator
+     * @param filters compiled nested filters
+     *
+     * @return compiled filter
+     */
+    static CompiledFilter group(FilterRequest filter, List<CompiledFilter> filters) {
+        return new CompiledFilter(filter, null, null, null, filters);
+    }
+
+    /**
+     * Creates compiled filter applied on a field, building pattern of string operators from the value of the filter
+     *
+     * @param filter filter applied on a field
+     * @param path resolved path of the field
+     * @param converted value converted to the type of the field, used by comparison operators
+     * @param values values converted to the type of the field, used by <code>IN</code> and <code>NOT_IN</code> operators
+     *
+     * @return compiled filter
+     *
+     * @throws FilterException with <code>VALUE_CANNOT_BE_NULL</code> {@link ErrorCode} if a string operator has no value,
+     * with <code>ILLEGAL_OPERATOR</code> {@link ErrorCode} if the operator cannot be applied on a field
+     */
+    static CompiledFilter leaf(FilterRequest filter, FilterablePath path, Object converted, Object[] values) {
+        switch (filter.getOperator()) {
+            case EQUALS:
+            case NOT_EQUALS:
+            case LESS_THAN:
+            case GREATER_THAN:
+            case LESS_THAN_OR_EQUAL:
+            case GREATER_THAN_OR_EQUAL:
+                return new CompiledFilter(filter, path, converted, null, Collections.emptyList());
+            case IN:
+            case NOT_IN:
+                return new CompiledFilter(filter, path, null, values, Collections.emptyList());
+            case NULL:
+            case NOT_NULL:
+                return new CompiledFilter(filter, path, null, null, Collections.emptyList());
+            default:
+                return new CompiledFilter(filter, path, pattern(filter), null, Collections.emptyList());
+        }
+    }
+
+    /**
+     * Builds value of string operators, which is bound as is
+     *
+     * @param filter filter with string operator
+     *
+     * @return pattern or value to be bound
+     *
+     * @throws FilterException with <code>VALUE_CANNOT_BE_NULL</code> {@link ErrorCode} if the filter has no value,
+     * with <code>ILLEGAL_OPERATOR</code> {@link ErrorCode} if the operator is not a string operator
+     */
+    private static String pattern(FilterRequest filter) {
+        String value = filter.getValue();
+
+        switch (filter.getOperator()) {
+            case LIKE:
+                return "%" + validate(value) + "%";
+            case ILIKE:
+                return "%" + validate(value).toLowerCase() + "%";
+            case STARTS_WITH:
+                return escape(validate(value)) + "%";
+            case ENDS_WITH:
+                return "%" + escape(validate(value));
+            case EQUALS_IGNORE_CASE:
+                return validate(value).toLowerCase();
+            case ISTARTS_WITH:
+                return escape(validate(value).toLowerCase()) + "%";
+            case FULL_TEXT:
+                return validate(value);
+            default:
+                throw new FilterException(ErrorCode.ILLEGAL_OPERATOR);
+        }
+    }
+
+    /**
+     * Escapes <code>%</code>, <code>_</code> and the escape character itself,
+     * so that the given value is matched literally by a pattern escaped by {@link #ESCAPE}
+     *
+     * @param value value to be escaped
+     *
+     * @return escaped value
+     */
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) escaped.append(ESCAPE);
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Validates that provided <code>value</code> is NOT <code>null</code>
+     *
+     * @param value value to be validated
+     *
+     * @return the given value
+     *
+     * @throws FilterException with <code>VALUE_CANNOT_BE_NULL</code> {@link ErrorCode} if value is <code>null</code>
+     */
+    private static String validate(String value) {
+        if (value == null) {
+            throw new FilterException(ErrorCode.VALUE_CANNOT_BE_NULL);
+        }
+        return value;
+    }
+
+    /**
+     * Resolves field of the specified filter and validates that it is allowed for filtering
+     *
+     * @param filter filter which field is to be resolved
+     * @param clazz {@link Class} instance of the model
+     *
+     * @return resolved {@link FilterablePath} of the specified field
+     *
+     * @throws FilterException with <code>FIELD_CANNOT_BE_NULL</code> {@link ErrorCode} if field is <code>null</code>,
+     * with <code>FIELD_IS_NOT_ALLOWED_FOR_FILTERING</code> {@link ErrorCode} if field is not allowed for filtering
+     */
+    private static FilterablePath resolve(FilterRequest filter, Class<?> clazz) {
+        if (filter.getField() == null) {
+            throw new FilterException(ErrorCode.FIELD_CANNOT_BE_NULL);
+        }
+
+        FilterablePath path = FilterableRegistry.resolve(clazz, filter.getField());
+        if (!path.isValid()) {
+            throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_FILTERING);
+        }
+
+        return path;
+    }
+
+    /**
+     * @return operator of the filter
+     */
+    public QueryOperator getOperator() {
+        return filter.getOperator();
+    }
+
+    /**
+     * @return <code>true</code> if the filter collects nested filters, <code>false</code> if it is applied on a field
+     */
+    public boolean isGroup() {
+        return path == null;
+    }
+
+    /**
+     * @param filter filter to be checked
+     *
+     * @return <code>true</code> if the filter collects nested filters, <code>false</code> if it is applied on a field
+     */
+    private static boolean isGroup(FilterRequest filter) {
+        return filter.getOperator() == QueryOperator.OR || filter.getOperator() == QueryOperator.AND;
+    }
+
+}
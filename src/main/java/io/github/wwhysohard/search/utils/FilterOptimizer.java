@@ -0,0 +1,557 @@
+package io.github.wwhysohard.search.utils;
+
+import io.github.wwhysohard.search.converter.ValueConverter;
+import io.github.wwhysohard.search.converter.ValueConverters;
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.metadata.FilterablePath;
+import io.github.wwhysohard.search.metadata.FilterableRegistry;
+
+import java.math.BigDecimal;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utility class which normalizes filters before they are turned into SQL:
+ * <ul>
+ *     <li>single-child groups and nested groups of the same operator are flattened</li>
+ *     <li>identical filters are deduplicated</li>
+ *     <li><code>EQUALS</code> and <code>IN</code> filters on the same field collected by <code>OR</code> are merged into <code>IN</code></li>
+ *     <li>filters on the same numeric or temporal field collected by <code>AND</code> are intersected, e.g. range bounds
+ *     are narrowed and <code>IN</code> values are reduced by bounds and exclusions</li>
+ *     <li>filters which no model can satisfy, e.g. <code>id = 1 AND id = 2</code> or <code>name IS NULL AND name = 'King'</code>,
+ *     are detected</li>
+ * </ul>
+ * Values of other types, e.g. strings, enums and booleans, are compared by database collation or mapping
+ * which may disagree with Java, so filters on them are left to the database but for <code>NULL</code> checks.
+ * Filters are validated the same way {@link GenericCriteriaPredicate} does, and optimization preserves
+ * grouping of filters on <code>EXISTS</code> relationships, i.e. filters matched by the same related row still are.
+ */
+public class FilterOptimizer {
+
+    /**
+     * Creating an instance of {@link FilterOptimizer} is illegal
+     */
+    private FilterOptimizer() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Optimizes the given filters collected by <code>AND</code> operator
+     *
+     * @param filters filters to be optimized, may be <code>null</code>
+     * @param clazz {@link Class} instance of the model
+     *
+     * @return {@link OptimizedFilters} equivalent to the given filters
+     *
+     * @throws FilterException with the same {@link ErrorCode}s as {@link GenericCriteriaPredicate} does on invalid filters
+     */
+    public static OptimizedFilters optimize(List<FilterRequest> filters, Class<?> clazz) {
+        if (filters == null || filters.isEmpty()) return new OptimizedFilters(Collections.emptyList(), false);
+
+        Group group = optimize(QueryOperator.AND, filters, clazz);
+        if (group == null) return OptimizedFilters.UNSATISFIABLE;
+
+        return new OptimizedFilters(group.toFilters(), false);
+    }
+
+    /**
+     * Optimizes the given filters collected by the specified operation
+     *
+     * @param operator operator by which filters are collected
+     * @param filters filters to be optimized
+     * @param clazz {@link Class} instance of the model
+     *
+     * @return optimized {@link Group}, <code>null</code> if the filters are unsatisfiable
+     */
+    private static Group optimize(QueryOperator operator, List<FilterRequest> filters, Class<?> clazz) {
+        Group group = new Group();
+        Set<String> semiJoins = new HashSet<>();
+
+        for (FilterRequest filter : filters) {
+            if (isGroup(filter)) continue;
+
+            Leaf leaf = leaf(filter, clazz);
+            group.leaves.add(leaf);
+            if (leaf.getSemiJoin() != null) semiJoins.add(leaf.getSemiJoin());
+        }
+
+        for (FilterRequest filter : filters) {
+            if (!isGroup(filter)) continue;
+
+            validateFilters(filter.getFilters());
+            Group child = optimize(filter.getOperator(), filter.getFilters(), clazz);
+
+            if (child == null) {
+                if (operator == QueryOperator.AND) return null;
+                continue;
+            }
+
+            if ((child.size() == 1 || filter.getOperator() == operator) && child.isDisjoint(semiJoins)) {
+                group.leaves.addAll(child.leaves);
+                group.groups.addAll(child.groups);
+                for (Leaf leaf : child.leaves) {
+                    if (leaf.getSemiJoin() != null) semiJoins.add(leaf.getSemiJoin());
+                }
+            } else {
+                List<CompiledFilter> children = child.toFilters();
+                List<FilterRequest> requests = new ArrayList<>(children.size());
+                children.forEach(compiled -> requests.add(compiled.getFilter()));
+
+                group.groups.add(CompiledFilter.group(FilterRequest.builder()
+                        .withOperator(filter.getOperator())
+                        .withFilters(requests)
+                        .build(), children));
+            }
+        }
+
+        group.leaves = deduplicate(group.leaves);
+
+        if (operator == QueryOperator.OR) {
+            group.leaves = mergeEqualities(group.leaves);
+            return (group.size() > 0) ? group : null;
+        }
+
+        return intersect(group);
+    }
+
+    /**
+     * Validates the given filter and converts its values
+     *
+     * @param filter filter applied on a field
+     * @param clazz {@link Class} instance of the model
+     *
+     * @return {@link Leaf} of the filter
+     *
+     * @throws FilterException if the filter is invalid
+     */
+    private static Leaf leaf(FilterRequest filter, Class<?> clazz) {
+        if (filter.getField() == null) throw new FilterException(ErrorCode.FIELD_CANNOT_BE_NULL);
+
+        FilterablePath path = FilterableRegistry.resolve(clazz, filter.getField());
+        if (!path.isValid()) throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_FILTERING);
+
+        ValueConverter<?> converter = ValueConverters.get(path.getJavaType());
+
+        switch (filter.getOperator()) {
+            case EQUALS:
+            case NOT_EQUALS:
+            case LESS_THAN:
+            case GREATER_THAN:
+            case LESS_THAN_OR_EQUAL:
+            case GREATER_THAN_OR_EQUAL:
+                return new Leaf(filter, path, normalize(ValueConverters.convert(converter, filter.getValue())), null);
+            case LIKE:
+            case STARTS_WITH:
+            case ENDS_WITH:
+            case FULL_TEXT:
+                if (filter.getValue() == null) throw new FilterException(ErrorCode.VALUE_CANNOT_BE_NULL);
+                return new Leaf(filter, path, filter.getValue(), null);
+            case ILIKE:
+            case EQUALS_IGNORE_CASE:
+            case ISTARTS_WITH:
+                if (filter.getValue() == null) throw new FilterException(ErrorCode.VALUE_CANNOT_BE_NULL);
+                return new Leaf(filter, path, filter.getValue().toLowerCase(), null);
+            case IN:
+            case NOT_IN:
+                Object[] converted = ValueConverters.convert(converter, filter.getValues());
+                Map<Object, String> values = new LinkedHashMap<>();
+                for (int i = 0; i < converted.length; i++) {
+                    values.putIfAbsent(normalize(converted[i]), filter.getValues().get(i));
+                }
+                return new Leaf(filter, path, null, values);
+            case NULL:
+            case NOT_NULL:
+                return new Leaf(filter, path, null, null);
+            default:
+                throw new FilterException(ErrorCode.ILLEGAL_OPERATOR);
+        }
+    }
+
+    /**
+     * Removes filters identical to preceding ones
+     */
+    private static List<Leaf> deduplicate(List<Leaf> leaves) {
+        Map<List<Object>, Leaf> unique = new LinkedHashMap<>();
+
+        for (Leaf leaf : leaves) {
+            Set<Object> values = (leaf.values != null) ? new HashSet<>(leaf.values.keySet()) : null;
+            unique.putIfAbsent(Arrays.asList(leaf.getField(), leaf.getOperator(), leaf.value, values), leaf);
+        }
+
+        return new ArrayList<>(unique.values());
+    }
+
+    /**
+     * Merges <code>EQUALS</code> and <code>IN</code> filters on the same field collected by <code>OR</code>
+     * into a single <code>IN</code> filter
+     */
+    private static List<Leaf> mergeEqualities(List<Leaf> leaves) {
+        Map<String, Map<Object, String>> merged = new LinkedHashMap<>();
+        Map<String, Integer> counts = new LinkedHashMap<>();
+
+        for (Leaf leaf : leaves) {
+            if (leaf.getOperator() == QueryOperator.EQUALS || leaf.getOperator() == QueryOperator.IN) {
+                Map<Object, String> values = merged.computeIfAbsent(leaf.getField(), field -> new LinkedHashMap<>());
+                leaf.allowed().forEach(values::putIfAbsent);
+                counts.merge(leaf.getField(), 1, Integer::sum);
+            }
+        }
+
+        List<Leaf> result = new ArrayList<>(leaves.size());
+
+        for (Leaf leaf : leaves) {
+            boolean equality = leaf.getOperator() == QueryOperator.EQUALS || leaf.getOperator() == QueryOperator.IN;
+
+            if (!equality || counts.get(leaf.getField()) == 1) {
+                result.add(leaf);
+            } else if (merged.containsKey(leaf.getField())) {
+                result.add(Leaf.in(leaf, merged.remove(leaf.getField())));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Intersects filters on the same field collected by <code>AND</code>
+     *
+     * @return the given {@link Group} with intersected filters, <code>null</code> if the filters are unsatisfiable
+     */
+    private static Group intersect(Group group) {
+        Map<String, List<Leaf>> byField = new LinkedHashMap<>();
+
+        for (Leaf leaf : group.leaves) {
+            byField.computeIfAbsent(leaf.getField(), field -> new ArrayList<>()).add(leaf);
+        }
+
+        List<Leaf> result = new ArrayList<>(group.leaves.size());
+
+        for (List<Leaf> leaves : byField.values()) {
+            List<Leaf> intersected = (leaves.size() > 1) ? intersect(leaves) : leaves;
+            if (intersected == null) return null;
+            result.addAll(intersected);
+        }
+
+        group.leaves = result;
+        return group;
+    }
+
+    /**
+     * Intersects filters on the same field
+     *
+     * @param leaves filters on the same field collected by <code>AND</code>
+     *
+     * @return intersected filters, <code>null</code> if they are unsatisfiable
+     */
+    private static List<Leaf> intersect(List<Leaf> leaves) {
+        boolean ordered = isOrdered(leaves.get(0).path.getJavaType());
+        Map<Object, String> allowed = null;
+        Set<Object> excluded = new HashSet<>();
+        List<Leaf> exclusions = new ArrayList<>();
+        List<Leaf> others = new ArrayList<>();
+        Leaf lower = null;
+        Leaf upper = null;
+        Leaf notNull = null;
+        boolean isNull = false;
+
+        for (Leaf leaf : leaves) {
+            if (!ordered && leaf.getOperator() != QueryOperator.NULL && leaf.getOperator() != QueryOperator.NOT_NULL) {
+                others.add(leaf);
+                continue;
+            }
+
+            switch (leaf.getOperator()) {
+                case NULL:
+                    isNull = true;
+                    break;
+                case NOT_NULL:
+                    notNull = leaf;
+                    break;
+                case EQUALS:
+                case IN:
+                    allowed = intersect(allowed, leaf.allowed());
+                    break;
+                case NOT_EQUALS:
+                case NOT_IN:
+                    excluded.addAll(leaf.allowed().keySet());
+                    exclusions.add(leaf);
+                    break;
+                case GREATER_THAN:
+                case GREATER_THAN_OR_EQUAL:
+                    if (leaf.value instanceof Comparable) {
+                        lower = tighter(lower, leaf, 1);
+                    } else {
+                        others.add(leaf);
+                    }
+                    break;
+                case LESS_THAN:
+                case LESS_THAN_OR_EQUAL:
+                    if (leaf.value instanceof Comparable) {
+                        upper = tighter(upper, leaf, -1);
+                    } else {
+                        others.add(leaf);
+                    }
+                    break;
+                default:
+                    others.add(leaf);
+            }
+        }
+
+        if (isNull) {
+            return (leaves.size() == 1) ? leaves : null;
+        }
+
+        List<Leaf> result = new ArrayList<>(others);
+
+        if (allowed != null) {
+            Leaf lowerBound = lower;
+            Leaf upperBound = upper;
+            allowed.keySet().removeAll(excluded);
+            allowed.keySet().removeIf(value -> !isWithin(value, lowerBound, upperBound));
+            if (allowed.isEmpty()) return null;
+
+            result.add(Leaf.in(leaves.get(0), allowed));
+            return result;
+        }
+
+        if (lower != null && upper != null) {
+            int comparison = compare(lower.value, upper.value);
+
+            if (comparison > 0 || (comparison == 0 && !(lower.isInclusive() && upper.isInclusive()))) return null;
+
+            if (comparison == 0) {
+                if (excluded.contains(lower.value)) return null;
+                result.add(Leaf.in(lower, Collections.singletonMap(lower.value, lower.filter.getValue())));
+                return result;
+            }
+        }
+
+        if (lower != null) result.add(lower);
+        if (upper != null) result.add(upper);
+        result.addAll(exclusions);
+        if (result.isEmpty() && notNull != null) result.add(notNull);
+
+        return result;
+    }
+
+    /**
+     * @return values present in both maps, <code>right</code> if <code>left</code> is <code>null</code>
+     */
+    private static Map<Object, String> intersect(Map<Object, String> left, Map<Object, String> right) {
+        Map<Object, String> result = new LinkedHashMap<>((left != null) ? left : right);
+        if (left != null) result.keySet().retainAll(right.keySet());
+        return result;
+    }
+
+    /**
+     * Chooses tighter of two bounds
+     *
+     * @param current current bound, may be <code>null</code>
+     * @param candidate candidate bound
+     * @param direction <code>1</code> for lower bounds, <code>-1</code> for upper bounds
+     *
+     * @return tighter bound, exclusive one if their values are equal
+     */
+    private static Leaf tighter(Leaf current, Leaf candidate, int direction) {
+        if (current == null) return candidate;
+
+        int comparison = compare(candidate.value, current.value) * direction;
+        if (comparison > 0 || (comparison == 0 && !candidate.isInclusive())) return candidate;
+
+        return current;
+    }
+
+    /**
+     * @return <code>true</code> if the value satisfies both bounds, or cannot be compared with them
+     */
+    private static boolean isWithin(Object value, Leaf lower, Leaf upper) {
+        if (!(value instanceof Comparable)) return true;
+
+        if (lower != null) {
+            int comparison = compare(value, lower.value);
+            if (comparison < 0 || (comparison == 0 && !lower.isInclusive())) return false;
+        }
+
+        if (upper != null) {
+            int comparison = compare(value, upper.value);
+            if (comparison > 0 || (comparison == 0 && !upper.isInclusive())) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @param type Java type of a field
+     *
+     * @return <code>true</code> if values of the type are numeric or temporal, which compare the same in Java and SQL
+     */
+    private static boolean isOrdered(Class<?> type) {
+        if (type.isPrimitive()) return type != boolean.class && type != char.class;
+
+        return Number.class.isAssignableFrom(type) || Temporal.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object left, Object right) {
+        return ((Comparable) left).compareTo(right);
+    }
+
+    /**
+     * Normalizes values which are compared by value rather than by {@link Object#equals(Object)} in SQL
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            return (decimal.signum() == 0) ? BigDecimal.ZERO : decimal.stripTrailingZeros();
+        }
+        return value;
+    }
+
+    /**
+     * @param filter filter to be checked
+     *
+     * @return <code>true</code> if the filter collects nested filters, <code>false</code> if it is applied on a field
+     */
+    private static boolean isGroup(FilterRequest filter) {
+        return filter.getOperator() == QueryOperator.OR || filter.getOperator() == QueryOperator.AND;
+    }
+
+    /**
+     * Validates that provided list of <code>filters</code> is neither NOT <code>null</code> nor empty
+     *
+     * @throws FilterException with <code>FILTERS_CANNOT_BE_EMPTY</code> {@link ErrorCode}
+     * if <code>filters</code> are <code>null</code> or empty
+     */
+    private static void validateFilters(List<FilterRequest> filters) {
+        if (filters == null || filters.isEmpty()) {
+            throw new FilterException(ErrorCode.FILTERS_CANNOT_BE_EMPTY);
+        }
+    }
+
+    /**
+     * Optimized filters of a group
+     */
+    private static final class Group {
+
+        private List<Leaf> leaves = new ArrayList<>();
+        private final List<CompiledFilter> groups = new ArrayList<>();
+
+        /**
+         * @return number of filters of the group
+         */
+        private int size() {
+            return leaves.size() + groups.size();
+        }
+
+        /**
+         * @param semiJoins keys of <code>EXISTS</code> relationships filtered by the parent group
+         *
+         * @return <code>true</code> if filters of this group can be moved into the parent group
+         * without being matched by the same related row as filters of the parent group
+         */
+        private boolean isDisjoint(Set<String> semiJoins) {
+            for (Leaf leaf : leaves) {
+                if (leaf.getSemiJoin() != null && semiJoins.contains(leaf.getSemiJoin())) return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return compiled filters of the group
+         */
+        private List<CompiledFilter> toFilters() {
+            List<CompiledFilter> filters = new ArrayList<>(size());
+            for (Leaf leaf : leaves) {
+                filters.add(leaf.compile());
+            }
+            filters.addAll(groups);
+            return filters;
+        }
+
+    }
+
+    /**
+     * Validated filter applied on a field with its converted values, which are kept by {@link CompiledFilter}
+     */
+    private static final class Leaf {
+
+        private final FilterRequest filter;
+        private final FilterablePath path;
+        private final Object value;
+        private final Map<Object, String> values;
+
+        private Leaf(FilterRequest filter, FilterablePath path, Object value, Map<Object, String> values) {
+            this.filter = filter;
+            this.path = path;
+            this.value = value;
+            this.values = values;
+        }
+
+        /**
+         * Creates <code>EQUALS</code> or <code>IN</code> filter on the field of the given filter
+         *
+         * @param leaf filter which field is to be used
+         * @param values converted values mapped to their original representation
+         *
+         * @return <code>EQUALS</code> filter if there is a single value, <code>IN</code> filter otherwise
+         */
+        private static Leaf in(Leaf leaf, Map<Object, String> values) {
+            FilterRequest.FilterRequestBuilder builder = FilterRequest.builder().withField(leaf.getField());
+
+            if (values.size() == 1) {
+                Map.Entry<Object, String> entry = values.entrySet().iterator().next();
+                return new Leaf(builder.withOperator(QueryOperator.EQUALS).withValue(entry.getValue()).build(),
+                        leaf.path, entry.getKey(), null);
+            }
+
+            return new Leaf(builder.withOperator(QueryOperator.IN).withValues(new ArrayList<>(values.values())).build(),
+                    leaf.path, null, new LinkedHashMap<>(values));
+        }
+
+        /**
+         * @return {@link CompiledFilter} of the filter with its already converted values
+         */
+        private CompiledFilter compile() {
+            return CompiledFilter.leaf(filter, path, value, (values != null) ? values.keySet().toArray() : null);
+        }
+
+        private String getField() {
+            return filter.getField();
+        }
+
+        private QueryOperator getOperator() {
+            return filter.getOperator();
+        }
+
+        private String getSemiJoin() {
+            return (path.getSemiJoin() != null) ? path.getSemiJoin().getKey() : null;
+        }
+
+        /**
+         * @return whether bound includes its value
+         */
+        private boolean isInclusive() {
+            return getOperator() == QueryOperator.GREATER_THAN_OR_EQUAL || getOperator() == QueryOperator.LESS_THAN_OR_EQUAL;
+        }
+
+        /**
+         * @return values of <code>EQUALS</code>, <code>NOT_EQUALS</code>, <code>IN</code> or <code>NOT_IN</code> filter
+         */
+        private Map<Object, String> allowed() {
+            return (values != null) ? values : Collections.singletonMap(value, filter.getValue());
+        }
+
+    }
+
+}
@@ -0,0 +1,138 @@
+package io.github.wwhysohard.search.utils;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+import io.github.wwhysohard.search.metadata.FilterableJoin;
+import io.github.wwhysohard.search.metadata.FilterablePath;
+
+import javax.persistence.criteria.Fetch;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utility class which creates {@link Join}s on demand for filter and sort paths
+ */
+public class GenericCriteriaJoin {
+
+    /**
+     * Creating an instance of {@link GenericCriteriaJoin} is illegal
+     */
+    private GenericCriteriaJoin() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Returns {@link From} on which the last segment of the given path is to be accessed.
+     * Joins are looked up in <code>joins</code> first by join path as it was requested, then hop by hop
+     * by JPA attribute names. Missing joins are created with {@link javax.persistence.criteria.JoinType}
+     * of @{@link Filterable} and memoised in <code>joins</code>, so every join is created at most once per query
+     * and only if some path actually references it.
+     *
+     * @param root {@link Root} of the model
+     * @param joins {@link Map} of already created {@link Join}s, receives created {@link Join}s
+     * @param path resolved filter or sort path
+     * @param <T> generic type of the model
+     *
+     * @return {@link Root} if the path is a field of the model itself, {@link Join} of the last join hop otherwise
+     */
+    public static <T> From<?, ?> get(Root<T> root, Map<String, Join<?, ?>> joins, FilterablePath path) {
+        if (path.getJoin() == null) return root;
+
+        Join<?, ?> requested = joins.get(path.getJoin());
+        if (requested != null) return requested;
+
+        From<?, ?> from = root;
+
+        for (FilterableJoin hop : path.getJoins()) {
+            Join<?, ?> join = joins.get(hop.getKey());
+
+            if (join == null) {
+                join = from.join(hop.getAttributeName(), hop.getJoinType());
+                joins.put(hop.getKey(), join);
+            }
+
+            from = join;
+        }
+
+        return from;
+    }
+
+    /**
+     * Collects {@link Join}s which already exist on the given {@link Root} by join paths of JPA attribute names,
+     * so that paths resolved after the query is constructed reuse the same {@link Join}s as filters and sorts.
+     * If an attribute is joined more than once, the first {@link Join} is taken
+     *
+     * @param root {@link Root} of the model
+     * @param <T> generic type of the model
+     *
+     * @return new {@link Map} of existing {@link Join}s, receives {@link Join}s created on demand
+     */
+    public static <T> Map<String, Join<?, ?>> existing(Root<T> root) {
+        Map<String, Join<?, ?>> joins = new HashMap<>();
+        collect(root, "", joins);
+        return joins;
+    }
+
+    /**
+     * Collects {@link Join}s of the given {@link From} and joins nested in them
+     *
+     * @param from {@link From} which {@link Join}s are collected
+     * @param prefix join path of the given {@link From} followed by a dot, empty for {@link Root}
+     * @param joins receives {@link Join}s by their join paths
+     */
+    private static void collect(From<?, ?> from, String prefix, Map<String, Join<?, ?>> joins) {
+        for (Join<?, ?> join : from.getJoins()) {
+            if (join.getAttribute() == null) continue;
+
+            String key = prefix + join.getAttribute().getName();
+            if (joins.putIfAbsent(key, join) == null) {
+                collect(join, key + ".", joins);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the given {@link From} has a collection {@link Join} or {@link Fetch} at any depth,
+     * i.e. whether rows of the model may be multiplied
+     *
+     * @param from {@link From} to be checked, usually {@link Root} of the model
+     *
+     * @return <code>true</code> if the given {@link From} has a collection {@link Join} or {@link Fetch}
+     */
+    public static boolean multipliesRows(From<?, ?> from) {
+        for (Join<?, ?> join : from.getJoins()) {
+            if (isCollection(join.getAttribute()) || multipliesRows(join)) return true;
+        }
+
+        return multipliesRows(from.getFetches());
+    }
+
+    /**
+     * Checks whether any of the given {@link Fetch}es or their nested {@link Fetch}es is a collection
+     *
+     * @param fetches {@link Fetch}es to be checked
+     *
+     * @return <code>true</code> if there is a collection {@link Fetch}
+     */
+    private static boolean multipliesRows(Set<? extends Fetch<?, ?>> fetches) {
+        for (Fetch<?, ?> fetch : fetches) {
+            if (isCollection(fetch.getAttribute()) || multipliesRows(fetch.getFetches())) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @param attribute {@link Attribute} to be checked, may be <code>null</code> for ad hoc joins
+     *
+     * @return <code>true</code> if the attribute is a collection
+     */
+    private static boolean isCollection(Attribute<?, ?> attribute) {
+        return attribute != null && attribute.isCollection();
+    }
+
+}
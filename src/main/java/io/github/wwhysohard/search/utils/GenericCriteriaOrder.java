@@ -1,12 +1,20 @@
 package io.github.wwhysohard.search.utils;
 
+import io.github.wwhysohard.search.converter.ValueConverters;
+import io.github.wwhysohard.search.dto.FilterRequest;
 import io.github.wwhysohard.search.dto.SortRequest;
 import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
 import io.github.wwhysohard.search.exception.FilterException;
-import io.github.wwhysohard.search.validator.FilterableValidator;
+import io.github.wwhysohard.search.hibernate.SearchFunctions;
+import io.github.wwhysohard.search.metadata.FilterablePath;
+import io.github.wwhysohard.search.metadata.FilterableRegistry;
 
 import javax.persistence.criteria.*;
+import javax.persistence.metamodel.SingularAttribute;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -15,6 +23,11 @@ import java.util.Map;
  */
 public class GenericCriteriaOrder {
 
+    /**
+     * Sort field which orders results by relevance to the first <code>FULL_TEXT</code> filter of the search
+     */
+    public static final String RELEVANCE = "_relevance";
+
     /**
      * Creating an instance of {@link GenericCriteriaOrder} is illegal
      */
@@ -26,7 +39,7 @@ public class GenericCriteriaOrder {
      *
      * @param root {@link Root} of the model on which filtering will be processed
      * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Order}s
-     * @param joins {@link Map} of {@link Join}s from the given model on which sorting is allowed
+     * @param joins {@link Map} of {@link Join}s from the given model, receives {@link Join}s created on demand
      * @param sorts sorts to be applied on the model to construct {@link Order}s
      * @param clazz {@link Class} instance of the model
      * @param <T> generic type of the model
@@ -35,17 +48,109 @@ public class GenericCriteriaOrder {
      */
     public static <T> List<Order> get(Root<T> root, CriteriaBuilder criteriaBuilder,
                                       Map<String, Join<?, ?>> joins, List<SortRequest> sorts, Class<T> clazz) {
+        return get(root, criteriaBuilder, joins, sorts, clazz, null, null);
+    }
+
+    /**
+     * Collects {@link Order}s by provided sorts, which may include {@link #RELEVANCE}
+     * to order by relevance to the first <code>FULL_TEXT</code> filter of the given filters
+     *
+     * @param root {@link Root} of the model on which filtering will be processed
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Order}s
+     * @param joins {@link Map} of {@link Join}s from the given model, receives {@link Join}s created on demand
+     * @param sorts sorts to be applied on the model to construct {@link Order}s
+     * @param clazz {@link Class} instance of the model
+     * @param filters filters of the search, may be <code>null</code>
+     * @param parameters {@link QueryParameters} which collect filter values to be bound to the query,
+     *                   <code>null</code> to render values as literals
+     * @param <T> generic type of the model
+     *
+     * @return {@link List} of {@link Order}s by which sorting will be applied
+     *
+     * @throws FilterException with <code>FIELD_IS_NOT_ALLOWED_FOR_SORTING</code> {@link ErrorCode}
+     * if a field is not allowed for sorting or relevance is requested without <code>FULL_TEXT</code> filter
+     */
+    public static <T> List<Order> get(Root<T> root, CriteriaBuilder criteriaBuilder, Map<String, Join<?, ?>> joins,
+                                      List<SortRequest> sorts, Class<T> clazz,
+                                      List<FilterRequest> filters, QueryParameters parameters) {
+        return get(root, criteriaBuilder, joins, sorts, clazz, filters, parameters, false);
+    }
+
+    /**
+     * Collects {@link Order}s of keyset pagination: {@link Order}s by provided sorts, in which <code>null</code>
+     * values of nullable fields are placed last regardless of direction, the same way as
+     * {@link #seek(Root, CriteriaBuilder, Map, List, String, Class, QueryParameters)} expects,
+     * followed by {@link #getTiebreaker(Root, CriteriaBuilder, Class)}
+     *
+     * @param root {@link Root} of the model on which filtering will be processed
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Order}s
+     * @param joins {@link Map} of {@link Join}s from the given model, receives {@link Join}s created on demand
+     * @param sorts sorts to be applied on the model to construct {@link Order}s, may be <code>null</code>
+     * @param clazz {@link Class} instance of the model
+     * @param filters filters of the search, may be <code>null</code>
+     * @param parameters {@link QueryParameters} which collect filter values to be bound to the query,
+     *                   <code>null</code> to render values as literals
+     * @param <T> generic type of the model
+     *
+     * @return {@link List} of {@link Order}s by which sorting will be applied
+     *
+     * @throws FilterException with <code>FIELD_IS_NOT_ALLOWED_FOR_SORTING</code> {@link ErrorCode}
+     * if a field is not allowed for sorting or relevance is requested without <code>FULL_TEXT</code> filter
+     */
+    public static <T> List<Order> getKeyset(Root<T> root, CriteriaBuilder criteriaBuilder, Map<String, Join<?, ?>> joins,
+                                            List<SortRequest> sorts, Class<T> clazz,
+                                            List<FilterRequest> filters, QueryParameters parameters) {
+        List<Order> orders = (sorts != null)
+                ? get(root, criteriaBuilder, joins, sorts, clazz, filters, parameters, true)
+                : new ArrayList<>();
+
+        orders.add(getTiebreaker(root, criteriaBuilder, clazz));
+        return orders;
+    }
+
+    /**
+     * Collects {@link Order}s by provided sorts
+     *
+     * @param root {@link Root} of the model on which filtering will be processed
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Order}s
+     * @param joins {@link Map} of {@link Join}s from the given model, receives {@link Join}s created on demand
+     * @param sorts sorts to be applied on the model to construct {@link Order}s
+     * @param clazz {@link Class} instance of the model
+     * @param filters filters of the search, may be <code>null</code>
+     * @param parameters {@link QueryParameters} which collect filter values, may be <code>null</code>
+     * @param nullsLast whether <code>null</code> values of nullable fields are placed last regardless of direction
+     * @param <T> generic type of the model
+     *
+     * @return {@link List} of {@link Order}s by which sorting will be applied
+     */
+    private static <T> List<Order> get(Root<T> root, CriteriaBuilder criteriaBuilder, Map<String, Join<?, ?>> joins,
+                                       List<SortRequest> sorts, Class<T> clazz,
+                                       List<FilterRequest> filters, QueryParameters parameters, boolean nullsLast) {
         List<Order> orders = new ArrayList<>();
 
         for (SortRequest sort : sorts) {
-            validateFieldSorting(clazz, sort.getField());
+            Expression<?> expression;
+
+            if (RELEVANCE.equals(sort.getField())) {
+                expression = relevance(root, criteriaBuilder, joins, filters, clazz, parameters);
+            } else {
+                FilterablePath path = getFilterablePath(clazz, sort.getField());
+                Path<?> attribute = GenericCriteriaJoin.get(root, joins, path).get(path.getAttributeName());
+                expression = attribute;
+
+                if (nullsLast && isNullable(attribute)) {
+                    orders.add(criteriaBuilder.asc(criteriaBuilder.selectCase()
+                            .when(criteriaBuilder.isNull(expression), 1)
+                            .otherwise(0)));
+                }
+            }
 
             switch (sort.getOrder()) {
                 case ASC:
-                    orders.add(criteriaBuilder.asc(getFrom(root, joins, sort).get(sort.getFieldName())));
+                    orders.add(criteriaBuilder.asc(expression));
                     break;
                 case DESC:
-                    orders.add(criteriaBuilder.desc(getFrom(root, joins, sort).get(sort.getFieldName())));
+                    orders.add(criteriaBuilder.desc(expression));
                     break;
             }
         }
@@ -54,46 +159,320 @@ public class GenericCriteriaOrder {
     }
 
     /**
-     * Validated that the specified field is allowed for sorting
+     * Validates the given sorts without constructing any {@link Order}, so that invalid sorts are rejected up front
      *
+     * @param sorts sorts to be validated, may be <code>null</code>
      * @param clazz {@link Class} instance of the model
-     * @param field field to be validated
+     * @param filters filters of the search, may be <code>null</code>
      * @param <T> generic type of the model
+     *
+     * @throws FilterException with <code>FIELD_IS_NOT_ALLOWED_FOR_SORTING</code> {@link ErrorCode}
+     * if a field is not allowed for sorting or relevance is requested without <code>FULL_TEXT</code> filter
      */
-    private static <T> void validateFieldSorting(Class<T> clazz, String field) {
-        if (!FilterableValidator.isValid(clazz, field)) {
+    public static <T> void validate(List<SortRequest> sorts, Class<T> clazz, List<FilterRequest> filters) {
+        if (sorts == null) return;
+
+        for (SortRequest sort : sorts) {
+            if (RELEVANCE.equals(sort.getField())) {
+                getFullTextPath(clazz, filters);
+            } else {
+                getFilterablePath(clazz, sort.getField());
+            }
+        }
+    }
+
+    /**
+     * Constructs relevance of the model to the first <code>FULL_TEXT</code> filter of the given filters,
+     * the greater the more relevant
+     *
+     * @param root {@link Root} of the model on which sorting will be processed
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Expression}
+     * @param joins {@link Map} of {@link Join}s from the given model, receives {@link Join}s created on demand
+     * @param filters filters of the search, may be <code>null</code>
+     * @param clazz {@link Class} instance of the model
+     * @param parameters {@link QueryParameters} which collect filter values, may be <code>null</code>
+     * @param <T> generic type of the model
+     *
+     * @return {@link Expression} of relevance
+     *
+     * @throws FilterException with <code>FIELD_IS_NOT_ALLOWED_FOR_SORTING</code> {@link ErrorCode}
+     * if there is no <code>FULL_TEXT</code> filter on a field which can be joined without multiplying rows,
+     * with <code>OPERATOR_IS_NOT_SUPPORTED</code> {@link ErrorCode} if full-text functions are not registered
+     */
+    private static <T> Expression<Double> relevance(Root<T> root, CriteriaBuilder criteriaBuilder, Map<String, Join<?, ?>> joins,
+                                                    List<FilterRequest> filters, Class<T> clazz, QueryParameters parameters) {
+        FilterablePath path = getFullTextPath(clazz, filters);
+
+        Path<?> text = GenericCriteriaJoin.get(root, joins, path).get(path.getAttributeName());
+        return GenericCriteriaPredicate.fullText(SearchFunctions.FULL_TEXT_RANK, Double.class, text, criteriaBuilder, parameters,
+                findFullText(filters).getValue());
+    }
+
+    /**
+     * Resolves field of the first <code>FULL_TEXT</code> filter and validates that relevance can be sorted by
+     *
+     * @param clazz {@link Class} instance of the model
+     * @param filters filters of the search, may be <code>null</code>
+     * @param <T> generic type of the model
+     *
+     * @return resolved {@link FilterablePath} of the searched text
+     *
+     * @throws FilterException with <code>FIELD_IS_NOT_ALLOWED_FOR_SORTING</code> {@link ErrorCode}
+     * if there is no <code>FULL_TEXT</code> filter on a field which can be joined without multiplying rows
+     */
+    private static <T> FilterablePath getFullTextPath(Class<T> clazz, List<FilterRequest> filters) {
+        FilterRequest filter = findFullText(filters);
+        if (filter == null || filter.getField() == null || filter.getValue() == null) {
+            throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_SORTING);
+        }
+
+        FilterablePath path = getFilterablePath(clazz, filter.getField());
+        if (path.getSemiJoin() != null) {
             throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_SORTING);
         }
+
+        return path;
     }
 
     /**
-     * Returns passed {@link Root} if there's no join path, calls <code>getJoin</code> method otherwise
+     * Finds the first <code>FULL_TEXT</code> filter, searching nested groups depth-first
+     *
+     * @param filters filters to be searched, may be <code>null</code>
+     *
+     * @return <code>FULL_TEXT</code> filter, <code>null</code> if there is none
+     */
+    private static FilterRequest findFullText(List<FilterRequest> filters) {
+        if (filters == null) return null;
+
+        for (FilterRequest filter : filters) {
+            if (filter.getOperator() == QueryOperator.FULL_TEXT) return filter;
+
+            if (filter.getOperator() == QueryOperator.AND || filter.getOperator() == QueryOperator.OR) {
+                FilterRequest nested = findFullText(filter.getFilters());
+                if (nested != null) return nested;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Constructs {@link Order} by identifier of the model, which makes ordering total.
+     * Used as the last {@link Order} in keyset pagination
      *
      * @param root {@link Root} of the model on which sorting will be processed
-     * @param joins {@link Map} of {@link Join}s from the given model on which sorting is allowed
-     * @param sort sort to be applied on the model to construct {@link Order}
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Order}
+     * @param clazz {@link Class} instance of the model
      * @param <T> generic type of the model
      *
-     * @return {@link From} instance which is either {@link Root} passed as parameter or {@link Join} from map
+     * @return ascending {@link Order} by identifier of the model
      */
-    private static <T> From<?, ?> getFrom(Root<T> root, Map<String, Join<?, ?>> joins, SortRequest sort) {
-        return (sort.getJoin() != null) ? getJoin(joins, sort.getJoin()) : root;
+    public static <T> Order getTiebreaker(Root<T> root, CriteriaBuilder criteriaBuilder, Class<T> clazz) {
+        return criteriaBuilder.asc(root.get(KeysetCursor.getIdField(clazz).getName()));
     }
 
     /**
-     * Returns {@link Join} from provided {@link Map} of joins
+     * Constructs keyset pagination {@link Predicate} which matches only rows placed after the given cursor
+     * in order defined by {@link #getKeyset(Root, CriteriaBuilder, Map, List, Class, List, QueryParameters)}.
+     * For sorts <code>a ASC, b DESC</code> it is <code>(a &gt; ?) OR (a = ? AND b &lt; ?) OR (a = ? AND b = ? AND id &gt; ?)</code>,
+     * where a non-<code>null</code> cursor value of a nullable field is also followed by <code>IS NULL</code>
+     * and a <code>null</code> cursor value is followed by nothing but matched by <code>IS NULL</code>
      *
-     * @param joins {@link Map} which keys are join names
-     * @param joinName name of join to be returned
+     * @param root {@link Root} of the model on which sorting will be processed
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     * @param joins {@link Map} of {@link Join}s from the given model, receives {@link Join}s created on demand
+     * @param sorts sorts of the search, may be <code>null</code>
+     * @param cursor cursor created by {@link KeysetCursor#of(Object, List, Class)}
+     * @param clazz {@link Class} instance of the model
+     * @param <T> generic type of the model
      *
-     * @return {@link Join} by the specified <code>joinName</code>
-     * @throws FilterException with <code>INVALID_SORTING_FIELD</code> {@link ErrorCode}
-     * if map does not contain required {@link Join}
+     * @return {@link Predicate} matching rows after the given cursor
+     *
+     * @throws FilterException with <code>INVALID_CURSOR</code> {@link ErrorCode} if the cursor is invalid
      */
-    private static Join<?, ?> getJoin(Map<String, Join<?, ?>> joins, String joinName) {
-        Join<?, ?> join = joins.get(joinName);
-        if (join == null) throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_SORTING);
-        return join;
+    public static <T> Predicate seek(Root<T> root, CriteriaBuilder criteriaBuilder, Map<String, Join<?, ?>> joins,
+                                     List<SortRequest> sorts, String cursor, Class<T> clazz) {
+        return seek(root, criteriaBuilder, joins, sorts, cursor, clazz, null);
+    }
+
+    /**
+     * Constructs keyset pagination {@link Predicate} which matches only rows placed after the given cursor
+     * in order defined by {@link #getKeyset(Root, CriteriaBuilder, Map, List, Class, List, QueryParameters)}.
+     * For sorts <code>a ASC, b DESC</code> it is <code>(a &gt; ?) OR (a = ? AND b &lt; ?) OR (a = ? AND b = ? AND id &gt; ?)</code>,
+     * where a non-<code>null</code> cursor value of a nullable field is also followed by <code>IS NULL</code>
+     * and a <code>null</code> cursor value is followed by nothing but matched by <code>IS NULL</code>
+     *
+     * @param root {@link Root} of the model on which sorting will be processed
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     * @param joins {@link Map} of {@link Join}s from the given model, receives {@link Join}s created on demand
+     * @param sorts sorts of the search, may be <code>null</code>
+     * @param cursor cursor created by {@link KeysetCursor#of(Object, List, Class)}
+     * @param clazz {@link Class} instance of the model
+     * @param parameters {@link QueryParameters} which collect cursor values to be bound to the query,
+     *                   <code>null</code> to render values as literals
+     * @param <T> generic type of the model
+     *
+     * @return {@link Predicate} matching rows after the given cursor
+     *
+     * @throws FilterException with <code>INVALID_CURSOR</code> {@link ErrorCode} if the cursor is invalid
+     */
+    public static <T> Predicate seek(Root<T> root, CriteriaBuilder criteriaBuilder, Map<String, Join<?, ?>> joins,
+                                     List<SortRequest> sorts, String cursor, Class<T> clazz, QueryParameters parameters) {
+        return seek(root, criteriaBuilder, joins, sorts, decode(cursor, sorts, clazz), clazz, parameters);
+    }
+
+    /**
+     * Constructs keyset pagination {@link Predicate} of cursor values already decoded by {@link #decode(String, List, Class)}
+     *
+     * @param root {@link Root} of the model on which sorting will be processed
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     * @param joins {@link Map} of {@link Join}s from the given model, receives {@link Join}s created on demand
+     * @param sorts sorts of the search, may be <code>null</code>
+     * @param values converted values of the cursor, one per sort followed by the identifier
+     * @param clazz {@link Class} instance of the model
+     * @param parameters {@link QueryParameters} which collect cursor values to be bound to the query,
+     *                   <code>null</code> to render values as literals
+     * @param <T> generic type of the model
+     *
+     * @return {@link Predicate} matching rows after the cursor
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> Predicate seek(Root<T> root, CriteriaBuilder criteriaBuilder, Map<String, Join<?, ?>> joins,
+                                     List<SortRequest> sorts, List<?> values, Class<T> clazz, QueryParameters parameters) {
+        int size = values.size();
+
+        List<Predicate> disjuncts = new ArrayList<>(size);
+        List<Predicate> equalities = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            Path path;
+            SortOrder order;
+
+            if (i < size - 1) {
+                SortRequest sort = sorts.get(i);
+                FilterablePath filterablePath = getFilterablePath(clazz, sort.getField());
+                path = GenericCriteriaJoin.get(root, joins, filterablePath).get(filterablePath.getAttributeName());
+                order = sort.getOrder();
+            } else {
+                path = root.get(KeysetCursor.getIdField(clazz).getName());
+                order = SortOrder.ASC;
+            }
+
+            if (values.get(i) == null) {
+                // nulls are placed last, so no row follows them on this field
+                equalities.add(criteriaBuilder.isNull(path));
+                continue;
+            }
+
+            Expression value = QueryParameters.value(parameters, criteriaBuilder, path.getJavaType(), values.get(i));
+            Predicate comparison = (order == SortOrder.DESC)
+                    ? criteriaBuilder.lessThan(path, value)
+                    : criteriaBuilder.greaterThan(path, value);
+            if (i < size - 1 && isNullable(path)) {
+                comparison = criteriaBuilder.or(comparison, criteriaBuilder.isNull(path));
+            }
+
+            List<Predicate> conjuncts = new ArrayList<>(equalities);
+            conjuncts.add(comparison);
+            disjuncts.add(criteriaBuilder.and(conjuncts.toArray(new Predicate[0])));
+            equalities.add(criteriaBuilder.equal(path, value));
+        }
+
+        return criteriaBuilder.or(disjuncts.toArray(new Predicate[0]));
+    }
+
+    /**
+     * Checks whether values of the given {@link Path} may be <code>null</code>, so that they have to be placed last explicitly.
+     * Attributes which are primitive, identifiers or not optional, e.g. <code>@Column(nullable = false)</code>,
+     * are never <code>null</code> unless they are reached through a <code>LEFT</code> {@link Join}
+     *
+     * @param path {@link Path} of a sorted attribute
+     *
+     * @return <code>true</code> if the path may be <code>null</code>
+     */
+    private static boolean isNullable(Path<?> path) {
+        for (Path<?> parent = path.getParentPath(); parent instanceof Join; parent = parent.getParentPath()) {
+            if (((Join<?, ?>) parent).getJoinType() == JoinType.LEFT) return true;
+        }
+
+        if (path.getJavaType().isPrimitive()) return false;
+        if (!(path.getModel() instanceof SingularAttribute)) return true;
+
+        SingularAttribute<?, ?> attribute = (SingularAttribute<?, ?>) path.getModel();
+        return attribute.isOptional() && !attribute.isId();
+    }
+
+    /**
+     * Decodes the given cursor and converts its values to types of the sorted fields and the identifier,
+     * so that queries can be built of the same cursor any number of times without decoding it again
+     *
+     * @param cursor cursor created by {@link KeysetCursor#of(Object, List, Class)}
+     * @param sorts sorts of the search, may be <code>null</code>
+     * @param clazz {@link Class} instance of the model
+     * @param <T> generic type of the model
+     *
+     * @return unmodifiable {@link List} of converted values, one per sort followed by the identifier,
+     * <code>null</code> for <code>null</code> values
+     *
+     * @throws FilterException with <code>INVALID_CURSOR</code> {@link ErrorCode} if the cursor is invalid,
+     * with <code>FIELD_IS_NOT_ALLOWED_FOR_SORTING</code> {@link ErrorCode} if a sorted field is not allowed
+     */
+    public static <T> List<Object> decode(String cursor, List<SortRequest> sorts, Class<T> clazz) {
+        List<String> values = KeysetCursor.decode(cursor, sorts);
+        int size = values.size();
+        List<Object> converted = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            Class<?> type = (i < size - 1)
+                    ? getFilterablePath(clazz, sorts.get(i).getField()).getJavaType()
+                    : KeysetCursor.getIdField(clazz).getType();
+
+            if (values.get(i) == null) {
+                if (i == size - 1) throw new FilterException(ErrorCode.INVALID_CURSOR);
+                converted.add(null);
+                continue;
+            }
+
+            converted.add(convert(type, values.get(i)));
+        }
+
+        return Collections.unmodifiableList(converted);
+    }
+
+    /**
+     * Converts cursor value to the given type
+     *
+     * @param type type of the sorted field
+     * @param value value of the cursor
+     *
+     * @return converted value
+     *
+     * @throws FilterException with <code>INVALID_CURSOR</code> {@link ErrorCode} if value cannot be converted
+     */
+    private static Comparable<?> convert(Class<?> type, String value) {
+        try {
+            return (Comparable<?>) ValueConverters.convert(ValueConverters.get(type), value);
+        } catch (FilterException | ClassCastException e) {
+            throw new FilterException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * Resolves the specified field and validates that it is allowed for sorting
+     *
+     * @param clazz {@link Class} instance of the model
+     * @param field field to be resolved
+     * @param <T> generic type of the model
+     *
+     * @return resolved {@link FilterablePath} of the specified field
+     */
+    private static <T> FilterablePath getFilterablePath(Class<T> clazz, String field) {
+        FilterablePath path = FilterableRegistry.resolve(clazz, field);
+
+        if (!path.isValid()) {
+            throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_SORTING);
+        }
+
+        return path;
     }
 
 }
@@ -2,18 +2,19 @@ package io.github.wwhysohard.search.utils;
 
 import io.github.wwhysohard.search.dto.FilterRequest;
 import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.JoinStrategy;
 import io.github.wwhysohard.search.enums.QueryOperator;
 import io.github.wwhysohard.search.exception.FilterException;
-import io.github.wwhysohard.search.validator.FilterableValidator;
+import io.github.wwhysohard.search.hibernate.SearchFunctions;
+import io.github.wwhysohard.search.metadata.FilterableJoin;
+import io.github.wwhysohard.search.metadata.FilterablePath;
 
 import javax.persistence.criteria.*;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Utility class which constructs {@link Predicate} by provided filters
@@ -29,11 +30,12 @@ public class GenericCriteriaPredicate {
 
     /**
      * Constructs {@link Predicate}s for the given {@link Root} or {@link Join} by provided filters
-     * and collects them by the specified operation
+     * and collects them by the specified operation.
+     * All filters are applied through joins, use overloaded method to filter collections through subqueries.
      *
      * @param root {@link Root} of the model on which filtering will be processed
      * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
-     * @param joins {@link Map} of {@link Join}s from the given model on which filtering is allowed
+     * @param joins {@link Map} of {@link Join}s from the given model, receives {@link Join}s created on demand
      * @param filters filters to be applied on the model to construct {@link Predicate}
      * @param operator operator by which {@link Predicate}s will be collected
      * @param clazz {@link Class} instance of the model
@@ -45,249 +47,337 @@ public class GenericCriteriaPredicate {
     public static <T> Predicate get(Root<T> root, CriteriaBuilder criteriaBuilder,
                                     Map<String, Join<?, ?>> joins, List<FilterRequest> filters,
                                     QueryOperator operator, Class<T> clazz) {
-        List<Predicate> predicates = new ArrayList<>();
-
-        for (FilterRequest filter : filters) {
-            predicates.add(get(root, criteriaBuilder, joins, filter, clazz));
-        }
-
-        switch (operator) {
-            case AND:
-                return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
-            case OR:
-                return criteriaBuilder.or(predicates.toArray(new Predicate[0]));
-            default:
-                throw new FilterException(ErrorCode.ILLEGAL_OPERATOR);
-        }
+        return get(root, null, criteriaBuilder, joins, filters, operator, clazz);
     }
 
     /**
-     * Either constructs {@link Predicate} for the given {@link Root} or {@link Join} or calls overloaded method
+     * Constructs {@link Predicate}s for the given {@link Root} or {@link Join} by provided filters
+     * and collects them by the specified operation.
+     * Filters on relationships with {@link JoinStrategy#EXISTS} semantics are applied inside correlated
+     * <code>EXISTS</code> subqueries, one per relationship and group of filters, unless <code>joins</code>
+     * already contain a {@link Join} for them.
      *
      * @param root {@link Root} of the model on which filtering will be processed
+     * @param query {@link AbstractQuery} which will be used to construct subqueries,
+     *              <code>null</code> to apply all filters through joins
      * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
-     * @param joins {@link Map} of {@link Join}s from the given model on which filtering is allowed
-     * @param filter filter to be applied on the model to construct {@link Predicate}
+     * @param joins {@link Map} of {@link Join}s from the given model, receives {@link Join}s created on demand
+     * @param filters filters to be applied on the model to construct {@link Predicate}
+     * @param operator operator by which {@link Predicate}s will be collected
      * @param clazz {@link Class} instance of the model
      * @param <T> generic type of the model
      *
      * @return {@link Predicate} constructed for the given {@link Root} or {@link Join}
+     * by provided filters and collected by the specified <code>operator</code>
      */
-    private static <T> Predicate get(Root<T> root, CriteriaBuilder criteriaBuilder,
-                                     Map<String, Join<?, ?>> joins, FilterRequest filter,
-                                     Class<T> clazz) {
-        if (filter.getOperator() == QueryOperator.OR || filter.getOperator() == QueryOperator.AND) {
-            validateFilters(filter.getFilters());
-            return get(root, criteriaBuilder, joins, filter.getFilters(), filter.getOperator(), clazz);
-        }
-
-        validateField(filter.getField());
-        validateIsFieldFilterable(clazz, filter.getField());
-
-        if (filter.getJoin() == null) {
-            return get(root, criteriaBuilder, filter);
-        } else {
-            return get(joins.get(filter.getJoin()), criteriaBuilder, filter);
-        }
+    public static <T> Predicate get(Root<T> root, AbstractQuery<?> query, CriteriaBuilder criteriaBuilder,
+                                    Map<String, Join<?, ?>> joins, List<FilterRequest> filters,
+                                    QueryOperator operator, Class<T> clazz) {
+        return get(root, query, criteriaBuilder, joins, filters, operator, clazz, null);
     }
 
     /**
-     * Constructs and returns {@link Predicate} on provided {@link From} by the specified <code>filter</code>
+     * Constructs {@link Predicate}s for the given {@link Root} or {@link Join} by provided filters
+     * and collects them by the specified operation.
+     * Filters on relationships with {@link JoinStrategy#EXISTS} semantics are applied inside correlated
+     * <code>EXISTS</code> subqueries, one per relationship and group of filters, unless <code>joins</code>
+     * already contain a {@link Join} for them.
+     * If <code>parameters</code> are provided, filter values are bound as {@link ParameterExpression}s.
      *
-     * @param from {@link From} on which <code>filter</code> will be applied
+     * @param root {@link Root} of the model on which filtering will be processed
+     * @param query {@link AbstractQuery} which will be used to construct subqueries,
+     *              <code>null</code> to apply all filters through joins
      * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
-     * @param filter filter by which {@link Predicate} will be constructed
-     *
-     * @return {@link Predicate} constructed by the given <code>filter</code>
+     * @param joins {@link Map} of {@link Join}s from the given model, receives {@link Join}s created on demand
+     * @param filters filters to be applied on the model to construct {@link Predicate}
+     * @param operator operator by which {@link Predicate}s will be collected
+     * @param clazz {@link Class} instance of the model
+     * @param parameters {@link QueryParameters} which collect filter values to be bound to the query,
+     *                   <code>null</code> to render values as literals
+     * @param <T> generic type of the model
      *
-     * @throws FilterException with <code>ILLEGAL_OPERATOR</code> if the specified <code>operator</code> is not allowed
+     * @return {@link Predicate} constructed for the given {@link Root} or {@link Join}
+     * by provided filters and collected by the specified <code>operator</code>
      */
-    @SuppressWarnings({"unchecked", "rawtypes"})
-    private static <X, Y> Predicate get(From<X, Y> from, CriteriaBuilder criteriaBuilder, FilterRequest filter) {
-        validateFrom(from);
-        switch (filter.getOperator()) {
-            case EQUALS:
-                return criteriaBuilder.equal(from.get(filter.getFieldName()),
-                        cast(from.get(filter.getFieldName()).getJavaType(), filter.getValue()));
-            case NOT_EQUALS:
-                return criteriaBuilder.notEqual(from.get(filter.getFieldName()),
-                        cast(from.get(filter.getFieldName()).getJavaType(), filter.getValue()));
-            case LESS_THAN:
-                return criteriaBuilder.lessThan(from.get(filter.getFieldName()),
-                        (Comparable) cast(from.get(filter.getFieldName()).getJavaType(), filter.getValue()));
-            case GREATER_THAN:
-                return criteriaBuilder.greaterThan(from.get(filter.getFieldName()),
-                        (Comparable) cast(from.get(filter.getFieldName()).getJavaType(), filter.getValue()));
-            case LESS_THAN_OR_EQUAL:
-                return criteriaBuilder.lessThanOrEqualTo(from.get(filter.getFieldName()),
-                        (Comparable) cast(from.get(filter.getFieldName()).getJavaType(), filter.getValue()));
-            case GREATER_THAN_OR_EQUAL:
-                return criteriaBuilder.greaterThanOrEqualTo(from.get(filter.getFieldName()),
-                        (Comparable) cast(from.get(filter.getFieldName()).getJavaType(), filter.getValue()));
-            case LIKE:
-                return criteriaBuilder.like(from.get(filter.getFieldName()), "%" + filter.getValue() + "%");
-            case ILIKE:
-                return criteriaBuilder.like(criteriaBuilder.lower(from.get(filter.getFieldName())), "%" + filter.getValue().toLowerCase() + "%");
-            case IN:
-                return from.get(filter.getFieldName()).in(cast(from.get(filter.getFieldName()).getJavaType(), filter.getValues()));
-            case NOT_IN:
-                return from.get(filter.getFieldName()).in(cast(from.get(filter.getFieldName()).getJavaType(), filter.getValues())).not();
-            case NULL:
-                return criteriaBuilder.isNull(from.get(filter.getFieldName()));
-            case NOT_NULL:
-                return criteriaBuilder.isNotNull(from.get(filter.getFieldName()));
-            default:
-                throw new FilterException(ErrorCode.ILLEGAL_OPERATOR);
-        }
+    public static <T> Predicate get(Root<T> root, AbstractQuery<?> query, CriteriaBuilder criteriaBuilder,
+                                    Map<String, Join<?, ?>> joins, List<FilterRequest> filters,
+                                    QueryOperator operator, Class<T> clazz, QueryParameters parameters) {
+        return get(root, query, criteriaBuilder, joins, CompiledFilter.compile(filters, clazz), operator, parameters);
     }
 
     /**
-     * Casts the <code>value</code> to required type
+     * Constructs {@link Predicate}s for the given {@link Root} by filters optimized by {@link FilterOptimizer}
+     * and collects them by <code>AND</code> operator. Values of the filters are already converted,
+     * so they are bound as they are.
+     * Filters on relationships with {@link JoinStrategy#EXISTS} semantics are applied inside correlated
+     * <code>EXISTS</code> subqueries the same way as by {@link #get(Root, AbstractQuery, CriteriaBuilder, Map, List, QueryOperator, Class, QueryParameters)}.
      *
-     * @param clazz {@link Class} type to which the value is to be cast
-     * @param value value to be cast
+     * @param root {@link Root} of the model on which filtering will be processed
+     * @param query {@link AbstractQuery} which will be used to construct subqueries,
+     *              <code>null</code> to apply all filters through joins
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     * @param joins {@link Map} of {@link Join}s from the given model, receives {@link Join}s created on demand
+     * @param filters {@link OptimizedFilters} to be applied on the model
+     * @param parameters {@link QueryParameters} which collect filter values to be bound to the query,
+     *                   <code>null</code> to render values as literals
+     * @param <T> generic type of the model
      *
-     * @return <code>value</code> cast to the type of {@link Class}
+     * @return {@link Predicate} constructed for the given {@link Root} by the filters
+     */
+    public static <T> Predicate get(Root<T> root, AbstractQuery<?> query, CriteriaBuilder criteriaBuilder,
+                                    Map<String, Join<?, ?>> joins, OptimizedFilters filters, QueryParameters parameters) {
+        return get(root, query, criteriaBuilder, joins, filters.getCompiled(), QueryOperator.AND, parameters);
+    }
+
+    /**
+     * Constructs {@link Predicate}s for the given {@link Root} by compiled filters and collects them by the specified operation
      *
-     * @throws FilterException with <code>ILLEGAL_ARGUMENT</code> {@link ErrorCode}
-     * if value cannot be cast to the given type
+     * @param root {@link Root} of the model on which filtering will be processed
+     * @param query {@link AbstractQuery} which will be used to construct subqueries, may be <code>null</code>
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     * @param joins {@link Map} of {@link Join}s from the given model, receives {@link Join}s created on demand
+     * @param filters compiled filters
+     * @param operator operator by which {@link Predicate}s will be collected
+     * @param parameters {@link QueryParameters} which collect filter values, may be <code>null</code>
+     * @param <T> generic type of the model
+     *
+     * @return collected {@link Predicate}
      */
-    @SuppressWarnings({"unchecked", "rawtypes"})
-    private static Object cast(Class clazz, String value) {
-        validateValue(value);
+    private static <T> Predicate get(Root<T> root, AbstractQuery<?> query, CriteriaBuilder criteriaBuilder,
+                                     Map<String, Join<?, ?>> joins, List<CompiledFilter> filters,
+                                     QueryOperator operator, QueryParameters parameters) {
+        List<Predicate> predicates = new ArrayList<>();
+        Map<String, List<CompiledFilter>> semiJoins = new LinkedHashMap<>();
+
+        for (CompiledFilter filter : filters) {
+            if (filter.isGroup()) {
+                predicates.add(get(root, query, criteriaBuilder, joins, filter.getFilters(), filter.getOperator(), parameters));
+                continue;
+            }
+
+            FilterablePath path = filter.getPath();
 
-        try {
-            if (clazz.isAssignableFrom(String.class)) {
-                return value;
-            } else if (Enum.class.isAssignableFrom(clazz)) {
-                return Enum.valueOf(clazz, value);
-            } else if (clazz.isAssignableFrom(LocalDateTime.class)) {
-                return LocalDateTime.parse(value);
-            } else if (clazz.isAssignableFrom(LocalDate.class)) {
-                return LocalDate.parse(value);
-            } else if (clazz.isAssignableFrom(LocalTime.class)) {
-                return LocalTime.parse(value);
-            } else if (clazz.isAssignableFrom(long.class) || clazz.isAssignableFrom(Long.class)) {
-                return Long.valueOf(value);
-            } else if (clazz.isAssignableFrom(double.class) || clazz.isAssignableFrom(Double.class)) {
-                return Double.valueOf(value);
-            } else if (clazz.isAssignableFrom(int.class) || clazz.isAssignableFrom(Integer.class)) {
-                return Integer.valueOf(value);
-            } else if (clazz.isAssignableFrom(boolean.class) || clazz.isAssignableFrom(Boolean.class)) {
-                return Boolean.valueOf(value);
-            } else if (clazz.isAssignableFrom(short.class) || clazz.isAssignableFrom(Short.class)) {
-                return Short.valueOf(value);
-            } else if (clazz.isAssignableFrom(byte.class) || clazz.isAssignableFrom(Byte.class)) {
-                return Byte.valueOf(value);
-            } else if (clazz.isAssignableFrom(float.class) || clazz.isAssignableFrom(Float.class)) {
-                return Float.valueOf(value);
-            } else if (value.length() > 0 && (clazz.isAssignableFrom(char.class) || clazz.isAssignableFrom(Character.class))) {
-                return value.charAt(0);
+            if (query != null && isSemiJoin(path, joins)) {
+                semiJoins.computeIfAbsent(path.getSemiJoin().getKey(), key -> new ArrayList<>()).add(filter);
+            } else {
+                From<?, ?> from = GenericCriteriaJoin.get(root, joins, path);
+                predicates.add(get(from, criteriaBuilder, filter, parameters));
             }
-        } catch (RuntimeException e) {
-            throw new FilterException(ErrorCode.ILLEGAL_ARGUMENT);
         }
 
-        throw new FilterException(ErrorCode.ILLEGAL_ARGUMENT);
+        for (List<CompiledFilter> semiJoinFilters : semiJoins.values()) {
+            predicates.add(exists(root, query, criteriaBuilder, semiJoinFilters, operator, parameters));
+        }
+
+        return combine(criteriaBuilder, predicates, operator);
     }
 
     /**
-     * Casts <code>values</code> to required type
+     * Constructs correlated <code>EXISTS</code> subquery which applies the given filters on the same related row,
+     * so that the filters never match a model without related rows
      *
-     * @param clazz {@link Class} type to which the value is to be cast
-     * @param values values to be cast
+     * @param root {@link Root} of the model to which subquery is correlated
+     * @param query {@link AbstractQuery} which will be used to construct subquery
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     * @param filters compiled filters on the same relationship to be applied inside subquery
+     * @param operator operator by which filters will be collected
+     * @param parameters {@link QueryParameters} which collect filter values, may be <code>null</code>
+     * @param <T> generic type of the model
      *
-     * @return <code>values</code> cast to the type of {@link Class}
+     * @return <code>EXISTS</code> {@link Predicate}
      */
-    private static List<Object> cast(Class<?> clazz, List<String> values) {
-        validateValues(values);
-        return values.stream().map(v -> cast(clazz, v)).collect(Collectors.toList());
+    private static <T> Predicate exists(Root<T> root, AbstractQuery<?> query, CriteriaBuilder criteriaBuilder,
+                                        List<CompiledFilter> filters, QueryOperator operator, QueryParameters parameters) {
+        Subquery<Integer> subquery = query.subquery(Integer.class);
+        Root<T> correlated = subquery.correlate(root);
+        Map<String, Join<?, ?>> subqueryJoins = new HashMap<>();
+        List<Predicate> predicates = new ArrayList<>(filters.size());
+
+        // the related row has to exist, so hops up to the semi-join are inner regardless of their join type
+        FilterablePath first = filters.get(0).getPath();
+        From<?, ?> from = correlated;
+        for (FilterableJoin hop : first.getJoins()) {
+            Join<?, ?> join = from.join(hop.getAttributeName(), JoinType.INNER);
+            subqueryJoins.put(hop.getKey(), join);
+
+            if (hop.getKey().equals(first.getSemiJoin().getKey())) break;
+            from = join;
+        }
+
+        for (CompiledFilter filter : filters) {
+            predicates.add(get(GenericCriteriaJoin.get(correlated, subqueryJoins, filter.getPath()),
+                    criteriaBuilder, filter, parameters));
+        }
+
+        subquery.select(criteriaBuilder.literal(1)).where(combine(criteriaBuilder, predicates, operator));
+        return criteriaBuilder.exists(subquery);
     }
 
     /**
-     * Validates that provided <code>value</code> is NOT <code>null</code>
+     * Collects {@link Predicate}s by the specified operation
      *
-     * @param value value to be validated
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     * @param predicates {@link Predicate}s to be collected
+     * @param operator operator by which {@link Predicate}s will be collected
      *
-     * @throws FilterException with <code>VALUE_CANNOT_BE_NULL</code> {@link ErrorCode}
-     * if value is <code>null</code>
+     * @return collected {@link Predicate}
+     *
+     * @throws FilterException with <code>ILLEGAL_OPERATOR</code> if the specified <code>operator</code> is not allowed
      */
-    private static void validateValue(String value) {
-        if (value == null) {
-            throw new FilterException(ErrorCode.VALUE_CANNOT_BE_NULL);
+    private static Predicate combine(CriteriaBuilder criteriaBuilder, List<Predicate> predicates, QueryOperator operator) {
+        switch (operator) {
+            case AND:
+                return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+            case OR:
+                return criteriaBuilder.or(predicates.toArray(new Predicate[0]));
+            default:
+                throw new FilterException(ErrorCode.ILLEGAL_OPERATOR);
         }
     }
 
     /**
-     * Validates that provided <code>values</code> is NOT <code>null</code>
+     * Checks whether the given path is to be filtered inside <code>EXISTS</code> subquery
      *
-     * @param values values to be validated
+     * @param path resolved path of the filter
+     * @param joins {@link Map} of {@link Join}s from the given model
      *
-     * @throws FilterException with <code>VALUES_CANNOT_BE_NULL</code> {@link ErrorCode}
-     * if <code>values</code> is <code>null</code>
+     * @return <code>true</code> if the path has a semi-join hop which is not joined explicitly
      */
-    private static void validateValues(List<String> values) {
-        if (values == null) {
-            throw new FilterException(ErrorCode.VALUES_CANNOT_BE_NULL);
-        }
+    private static boolean isSemiJoin(FilterablePath path, Map<String, Join<?, ?>> joins) {
+        return path.getSemiJoin() != null
+                && !joins.containsKey(path.getJoin())
+                && !joins.containsKey(path.getSemiJoin().getKey());
     }
 
     /**
-     * Validates that provided {@link From} is NOT <code>null</code>
+     * Constructs and returns {@link Predicate} on provided {@link From} by the specified compiled <code>filter</code>
+     *
+     * @param from {@link From} on which <code>filter</code> will be applied
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     * @param filter compiled filter by which {@link Predicate} will be constructed
+     * @param parameters {@link QueryParameters} which collect filter values, may be <code>null</code>
      *
-     * @param from {@link From} instance to be validated
+     * @return {@link Predicate} constructed by the given <code>filter</code>
      *
-     * @throws FilterException with <code>FIELD_IS_NOT_ALLOWED_FOR_FILTERING</code> {@link ErrorCode}
-     * if <code>from</code> is <code>null</code>
+     * @throws FilterException with <code>ILLEGAL_OPERATOR</code> if the specified <code>operator</code> is not allowed
      */
-    private static <X, Y> void validateFrom(From<X, Y> from) {
-        if (from == null) {
-            throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_FILTERING);
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <X, Y> Predicate get(From<X, Y> from, CriteriaBuilder criteriaBuilder, CompiledFilter filter,
+                                        QueryParameters parameters) {
+        FilterablePath filterablePath = filter.getPath();
+        Path path = from.get(filterablePath.getAttributeName());
+
+        switch (filter.getOperator()) {
+            case EQUALS:
+                return criteriaBuilder.equal(path, value(path, criteriaBuilder, parameters, filter.getValue()));
+            case NOT_EQUALS:
+                return criteriaBuilder.notEqual(path, value(path, criteriaBuilder, parameters, filter.getValue()));
+            case LESS_THAN:
+                return criteriaBuilder.lessThan(path, value(path, criteriaBuilder, parameters, filter.getValue()));
+            case GREATER_THAN:
+                return criteriaBuilder.greaterThan(path, value(path, criteriaBuilder, parameters, filter.getValue()));
+            case LESS_THAN_OR_EQUAL:
+                return criteriaBuilder.lessThanOrEqualTo(path, value(path, criteriaBuilder, parameters, filter.getValue()));
+            case GREATER_THAN_OR_EQUAL:
+                return criteriaBuilder.greaterThanOrEqualTo(path, value(path, criteriaBuilder, parameters, filter.getValue()));
+            case LIKE:
+                return criteriaBuilder.like(path, pattern(criteriaBuilder, parameters, filter));
+            case ILIKE:
+                return criteriaBuilder.like(criteriaBuilder.lower(path), pattern(criteriaBuilder, parameters, filter));
+            case STARTS_WITH:
+            case ENDS_WITH:
+                return criteriaBuilder.like(path, pattern(criteriaBuilder, parameters, filter), CompiledFilter.ESCAPE);
+            case EQUALS_IGNORE_CASE:
+                return criteriaBuilder.equal(lowerCase(from, criteriaBuilder, filterablePath), pattern(criteriaBuilder, parameters, filter));
+            case ISTARTS_WITH:
+                return criteriaBuilder.like(lowerCase(from, criteriaBuilder, filterablePath),
+                        pattern(criteriaBuilder, parameters, filter), CompiledFilter.ESCAPE);
+            case FULL_TEXT:
+                return criteriaBuilder.isTrue(fullText(SearchFunctions.FULL_TEXT, Boolean.class, path, criteriaBuilder, parameters,
+                        (String) filter.getValue()));
+            case IN:
+                return InLists.in(path, criteriaBuilder, parameters, filter.getValues());
+            case NOT_IN:
+                return InLists.in(path, criteriaBuilder, parameters, filter.getValues()).not();
+            case NULL:
+                return criteriaBuilder.isNull(path);
+            case NOT_NULL:
+                return criteriaBuilder.isNotNull(path);
+            default:
+                throw new FilterException(ErrorCode.ILLEGAL_OPERATOR);
         }
     }
 
     /**
-     * Validates that provided <code>field</code> is NOT <code>null</code>
+     * Returns lower-cased value of the given field, which is either <code>caseInsensitiveField</code>
+     * of @{@link io.github.wwhysohard.search.annotation.Filterable} or <code>lower(field)</code>
      *
-     * @param field field to be validated
+     * @param from {@link From} which holds the field
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Expression}
+     * @param filterablePath {@link FilterablePath} of the field
      *
-     * @throws FilterException with <code>FIELD_CANNOT_BE_NULL</code> {@link ErrorCode}
-     * if <code>field</code> is <code>null</code>
+     * @return {@link Expression} of lower-cased value of the field
      */
-    private static void validateField(String field) {
-        if (field == null) {
-            throw new FilterException(ErrorCode.FIELD_CANNOT_BE_NULL);
+    private static Expression<String> lowerCase(From<?, ?> from, CriteriaBuilder criteriaBuilder, FilterablePath filterablePath) {
+        String caseInsensitiveField = filterablePath.getCaseInsensitiveField();
+
+        if (caseInsensitiveField != null) {
+            return from.get(caseInsensitiveField);
         }
+        return criteriaBuilder.lower(from.get(filterablePath.getAttributeName()));
     }
 
     /**
-     * Validates that provided list of <code>filters</code> is neither NOT <code>null</code> nor empty
+     * Constructs call of a full-text function registered by {@link io.github.wwhysohard.search.hibernate.SearchFunctionContributor}
      *
-     * @param filters {@link List} of {@link FilterRequest}s to be validated
+     * @param function name of the function, see {@link SearchFunctions}
+     * @param type {@link Class} of the function result
+     * @param path {@link Expression} of the searched text
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Expression}
+     * @param parameters {@link QueryParameters} which collect filter values, may be <code>null</code>
+     * @param value full-text query
+     * @param <R> type of the function result
      *
-     * @throws FilterException with <code>FILTERS_CANNOT_BE_EMPTY</code> {@link ErrorCode}
-     * if <code>filters</code> are <code>null</code> or empty
+     * @return {@link Expression} of the function call
+     *
+     * @throws FilterException with <code>OPERATOR_IS_NOT_SUPPORTED</code> {@link ErrorCode}
+     * if the function is not registered for the database
      */
-    private static void validateFilters(List<FilterRequest> filters) {
-        if (filters == null || filters.isEmpty()) {
-            throw new FilterException(ErrorCode.FILTERS_CANNOT_BE_EMPTY);
+    static <R> Expression<R> fullText(String function, Class<R> type, Expression<?> path,
+                                      CriteriaBuilder criteriaBuilder, QueryParameters parameters, String value) {
+        if (!SearchFunctions.isRegistered(criteriaBuilder, function)) {
+            throw new FilterException(ErrorCode.OPERATOR_IS_NOT_SUPPORTED);
         }
+        return criteriaBuilder.function(function, type, path,
+                QueryParameters.<String>value(parameters, criteriaBuilder, String.class, value));
     }
 
     /**
-     * Validates that the specified field is allowed for filtering
+     * Returns the already converted <code>value</code> as {@link Expression} of the type of the given {@link Path}
      *
-     * @param clazz {@link Class} instance of the model
-     * @param field field to be validated
-     * @param <T> generic type of the model
+     * @param path {@link Path} to which the value is compared
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Expression}
+     * @param parameters {@link QueryParameters} which collect filter values, may be <code>null</code>
+     * @param value value converted to the type of the path
      *
-     * @throws FilterException with <code>FIELD_IS_NOT_ALLOWED_FOR_FILTERING</code> {@link ErrorCode}
-     * if the specified field is not allowed for filtering
+     * @return either literal or parameter {@link Expression} of the value
      */
-    private static <T> void validateIsFieldFilterable(Class<T> clazz, String field) {
-        if (!FilterableValidator.isValid(clazz, field)) {
-            throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_FILTERING);
-        }
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Expression value(Path<?> path, CriteriaBuilder criteriaBuilder, QueryParameters parameters, Object value) {
+        return QueryParameters.value(parameters, criteriaBuilder, (Class) path.getJavaType(), value);
+    }
+
+    /**
+     * Returns pattern of a string operator built by {@link CompiledFilter} as {@link Expression}
+     *
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Expression}
+     * @param parameters {@link QueryParameters} which collect filter values, may be <code>null</code>
+     * @param filter compiled filter with string operator
+     *
+     * @return either literal or parameter {@link Expression} of the pattern
+     */
+    private static Expression<String> pattern(CriteriaBuilder criteriaBuilder, QueryParameters parameters, CompiledFilter filter) {
+        return QueryParameters.value(parameters, criteriaBuilder, String.class, filter.getValue());
     }
 
 }
@@ -0,0 +1,105 @@
+package io.github.wwhysohard.search.utils;
+
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.metadata.FilterableJoin;
+import io.github.wwhysohard.search.metadata.FilterablePath;
+import io.github.wwhysohard.search.metadata.FilterableRegistry;
+
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utility class which constructs {@link List} of {@link Selection}s by provided projection
+ */
+public class GenericCriteriaSelection {
+
+    /**
+     * Creating an instance of {@link GenericCriteriaSelection} is illegal
+     */
+    private GenericCriteriaSelection() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Constructs {@link Selection}s of the given fields, aliased by the fields as they were requested.
+     * Duplicate fields are selected once. Fields of joined models are selected through the same {@link Join}s
+     * as filters and sorts, paths through collections are not allowed, so every row still stands for one model
+     *
+     * @param root {@link Root} of the model
+     * @param joins {@link Map} of {@link Join}s from the given model, receives {@link Join}s created on demand
+     * @param projection fields to be selected
+     * @param clazz {@link Class} instance of the model
+     * @param <T> generic type of the model
+     *
+     * @return {@link List} of {@link Selection}s in order of the projection
+     *
+     * @throws FilterException with <code>PROJECTION_CANNOT_BE_EMPTY</code> {@link ErrorCode} if projection is empty,
+     * with <code>FIELD_IS_NOT_ALLOWED_FOR_PROJECTION</code> {@link ErrorCode} if a field is not allowed for projection
+     */
+    public static <T> List<Selection<?>> get(Root<T> root, Map<String, Join<?, ?>> joins,
+                                             List<String> projection, Class<T> clazz) {
+        if (projection == null || projection.isEmpty()) {
+            throw new FilterException(ErrorCode.PROJECTION_CANNOT_BE_EMPTY);
+        }
+
+        List<Selection<?>> selections = new ArrayList<>(projection.size());
+
+        for (String field : new LinkedHashSet<>(projection)) {
+            FilterablePath path = getFilterablePath(clazz, field);
+            selections.add(GenericCriteriaJoin.get(root, joins, path).get(path.getAttributeName()).alias(field));
+        }
+
+        return selections;
+    }
+
+    /**
+     * Validates the given fields without constructing any {@link Selection}, so that invalid projection is rejected up front
+     *
+     * @param projection fields to be selected, may be <code>null</code>
+     * @param clazz {@link Class} instance of the model
+     * @param <T> generic type of the model
+     *
+     * @throws FilterException with <code>FIELD_IS_NOT_ALLOWED_FOR_PROJECTION</code> {@link ErrorCode}
+     * if a field is not allowed for projection
+     */
+    public static <T> void validate(List<String> projection, Class<T> clazz) {
+        if (projection == null) return;
+
+        for (String field : projection) {
+            getFilterablePath(clazz, field);
+        }
+    }
+
+    /**
+     * Resolves the specified field and validates that it is allowed for projection
+     *
+     * @param clazz {@link Class} instance of the model
+     * @param field field to be resolved
+     * @param <T> generic type of the model
+     *
+     * @return resolved {@link FilterablePath} of the specified field
+     *
+     * @throws FilterException with <code>FIELD_IS_NOT_ALLOWED_FOR_PROJECTION</code> {@link ErrorCode}
+     * if the field is not allowed for filtering or its path goes through a collection
+     */
+    private static <T> FilterablePath getFilterablePath(Class<T> clazz, String field) {
+        FilterablePath path = (field != null) ? FilterableRegistry.resolve(clazz, field) : null;
+
+        if (path == null || !path.isValid()) {
+            throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_PROJECTION);
+        }
+
+        for (FilterableJoin join : path.getJoins()) {
+            if (join.isCollection()) throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_PROJECTION);
+        }
+
+        return path;
+    }
+
+}
@@ -0,0 +1,211 @@
+package io.github.wwhysohard.search.utils;
+
+import io.github.wwhysohard.search.enums.InListStrategy;
+import io.github.wwhysohard.search.hibernate.SearchFunctions;
+import io.github.wwhysohard.search.hibernate.SearchMetadataBuilderContributor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Utility class which constructs <code>IN</code> {@link Predicate}s of any number of values.
+ * {@link InListStrategy} is chosen by number of values and capabilities of the database:
+ * large lists are bound as a single array parameter where {@link SearchMetadataBuilderContributor} is registered,
+ * or split into chunks otherwise. Thresholds can be changed once at startup
+ */
+public class InLists {
+
+    /**
+     * Default maximum number of values in a single <code>IN</code> list
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * Default number of values above which they are bound as an array if possible
+     */
+    public static final int DEFAULT_ARRAY_THRESHOLD = 100;
+
+    private static volatile int chunkSize = DEFAULT_CHUNK_SIZE;
+    private static volatile int arrayThreshold = DEFAULT_ARRAY_THRESHOLD;
+
+    /**
+     * Creating an instance of {@link InLists} is illegal
+     */
+    private InLists() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Sets maximum number of values in a single <code>IN</code> list, longer lists are chunked
+     *
+     * @param size positive number of values
+     */
+    public static void setChunkSize(int size) {
+        if (size < 1) throw new IllegalArgumentException("Chunk size must be positive");
+        chunkSize = size;
+    }
+
+    /**
+     * Sets number of values above which they are bound as an array, if the database supports it
+     *
+     * @param threshold non-negative number of values
+     */
+    public static void setArrayThreshold(int threshold) {
+        if (threshold < 0) throw new IllegalArgumentException("Array threshold must not be negative");
+        arrayThreshold = threshold;
+    }
+
+    /**
+     * @return maximum number of values in a single <code>IN</code> list
+     */
+    public static int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Resets thresholds to their defaults
+     */
+    public static void reset() {
+        chunkSize = DEFAULT_CHUNK_SIZE;
+        arrayThreshold = DEFAULT_ARRAY_THRESHOLD;
+    }
+
+    /**
+     * Chooses how <code>IN</code> list of the given size is rendered
+     *
+     * @param criteriaBuilder {@link CriteriaBuilder} of the query
+     * @param type {@link Class} of the values
+     * @param size number of values
+     * @param bound whether values are bound as parameters
+     *
+     * @return {@link InListStrategy} to be applied
+     */
+    public static InListStrategy select(CriteriaBuilder criteriaBuilder, Class<?> type, int size, boolean bound) {
+        if (bound && size > arrayThreshold && supportsArray(criteriaBuilder, type)) {
+            return InListStrategy.ARRAY;
+        }
+
+        return (size > chunkSize) ? InListStrategy.CHUNKED : InListStrategy.PLAIN;
+    }
+
+    /**
+     * Computes number of <code>IN</code> lists into which values are split if they are chunked
+     *
+     * @param size number of values
+     *
+     * @return number of chunks, <code>1</code> if values fit into a single list
+     */
+    public static int chunks(int size) {
+        return (size > 1) ? (size - 1) / chunkSize + 1 : 1;
+    }
+
+    /**
+     * Computes number of parameters to which Hibernate expands a bound collection of the given size,
+     * which is padded to the next power of two if <code>hibernate.query.in_clause_parameter_padding</code> is enabled
+     *
+     * @param criteriaBuilder {@link CriteriaBuilder} of the query
+     * @param size number of values
+     *
+     * @return number of parameters in the rendered <code>IN</code> list
+     */
+    public static int parameters(CriteriaBuilder criteriaBuilder, int size) {
+        SessionFactoryImplementor sessionFactory = SearchFunctions.getSessionFactory(criteriaBuilder);
+        if (size <= 1 || sessionFactory == null || !sessionFactory.getSessionFactoryOptions().inClauseParameterPaddingEnabled()) {
+            return size;
+        }
+
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Constructs <code>IN</code> {@link Predicate} of the given values rendered by the chosen {@link InListStrategy}
+     *
+     * @param path {@link Path} which values are compared
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Predicate}
+     * @param parameters {@link QueryParameters} which collect filter values, <code>null</code> to render values as literals
+     * @param values values converted to type of the <code>path</code>
+     *
+     * @return <code>IN</code> {@link Predicate}
+     */
+    public static Predicate in(Path<?> path, CriteriaBuilder criteriaBuilder, QueryParameters parameters, Object[] values) {
+        switch (select(criteriaBuilder, path.getJavaType(), values.length, parameters != null)) {
+            case ARRAY:
+                return array(path, criteriaBuilder, parameters, values);
+            case CHUNKED:
+                List<Predicate> chunks = new ArrayList<>();
+                int size = chunkSize;
+                for (int from = 0; from < values.length; from += size) {
+                    Object[] chunk = Arrays.copyOfRange(values, from, Math.min(from + size, values.length));
+                    chunks.add(plain(path, criteriaBuilder, parameters, chunk));
+                }
+                return criteriaBuilder.or(chunks.toArray(new Predicate[0]));
+            default:
+                return plain(path, criteriaBuilder, parameters, values);
+        }
+    }
+
+    /**
+     * Constructs a single <code>IN</code> {@link Predicate}, values are bound as a single collection parameter
+     * if <code>parameters</code> are provided
+     *
+     * @param path {@link Path} which values are compared
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Expression}
+     * @param parameters {@link QueryParameters} which collect filter values, may be <code>null</code>
+     * @param values values converted to type of the <code>path</code>
+     *
+     * @return <code>IN</code> {@link Predicate}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate plain(Path<?> path, CriteriaBuilder criteriaBuilder, QueryParameters parameters, Object[] values) {
+        if (parameters == null) {
+            return path.in(values);
+        }
+
+        return path.in(parameters.<Collection<?>>bind(criteriaBuilder, (Class) Collection.class, Arrays.asList(values)));
+    }
+
+    /**
+     * Constructs <code>= ANY</code> {@link Predicate} with values bound as a single array parameter
+     *
+     * @param path {@link Path} which values are compared
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Expression}
+     * @param parameters {@link QueryParameters} which collect filter values
+     * @param values values converted to type of the <code>path</code>
+     *
+     * @return <code>= ANY</code> {@link Predicate}
+     */
+    private static Predicate array(Path<?> path, CriteriaBuilder criteriaBuilder, QueryParameters parameters, Object[] values) {
+        Object[] array = (Object[]) Array.newInstance(QueryParameters.wrap(path.getJavaType()), values.length);
+        System.arraycopy(values, 0, array, 0, values.length);
+
+        Expression<Object[]> parameter = parameters.bind(criteriaBuilder, array.getClass(), array);
+        return criteriaBuilder.isTrue(criteriaBuilder.function(SearchFunctions.ANY, Boolean.class, path, parameter));
+    }
+
+    /**
+     * Checks whether values of the given type can be bound as an array,
+     * i.e. {@link SearchMetadataBuilderContributor} registered function and array type in Hibernate
+     *
+     * @param criteriaBuilder {@link CriteriaBuilder} of the query
+     * @param type {@link Class} of the values
+     *
+     * @return <code>true</code> if values can be bound as an array
+     */
+    private static boolean supportsArray(CriteriaBuilder criteriaBuilder, Class<?> type) {
+        if (!SearchFunctions.isRegistered(criteriaBuilder, SearchFunctions.ANY)) return false;
+
+        SessionFactoryImplementor sessionFactory = SearchFunctions.getSessionFactory(criteriaBuilder);
+        String arrayType = Array.newInstance(QueryParameters.wrap(type), 0).getClass().getName();
+
+        return sessionFactory.getMetamodel().getTypeConfiguration().getBasicTypeRegistry().getRegisteredType(arrayType) != null;
+    }
+
+}
@@ -0,0 +1,218 @@
+package io.github.wwhysohard.search.utils;
+
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.metadata.FilterablePath;
+import io.github.wwhysohard.search.metadata.FilterableRegistry;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Utility class which encodes and decodes opaque keyset pagination cursors.
+ * A cursor holds values of every sort field of the last row of a page followed by its identifier,
+ * prefixed with a fingerprint of the sorts, so that a cursor cannot be applied to differently sorted search.
+ */
+public class KeysetCursor {
+
+    private static final char NULL_VALUE = '~';
+    private static final char LENGTH_SEPARATOR = ':';
+
+    /**
+     * Creating an instance of {@link KeysetCursor} is illegal
+     */
+    private KeysetCursor() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Creates cursor pointing right after the given model
+     *
+     * @param last last model of the current page
+     * @param sorts sorts of the search
+     * @param clazz {@link Class} instance of the model
+     * @param <T> generic type of the model
+     *
+     * @return cursor to be passed as <code>cursor</code> of {@link SearchRequest} to fetch the next page
+     */
+    public static <T> String of(T last, List<SortRequest> sorts, Class<T> clazz) {
+        List<SortRequest> keys = nonNull(sorts);
+        List<String> values = new ArrayList<>(keys.size() + 2);
+        values.add(fingerprint(keys));
+
+        for (SortRequest sort : keys) {
+            FilterablePath path = FilterableRegistry.resolve(clazz, sort.getField());
+            if (!path.isValid()) throw new FilterException(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_SORTING);
+
+            Object value = last;
+            for (Field field : path.getFields()) {
+                value = read(value, field);
+            }
+            values.add(toString(value));
+        }
+
+        values.add(toString(read(last, getIdField(clazz))));
+        return encode(values);
+    }
+
+    /**
+     * Decodes values of the given cursor
+     *
+     * @param cursor cursor created by {@link #of(Object, List, Class)}
+     * @param sorts sorts of the search
+     *
+     * @return values of every sort field followed by the identifier value
+     *
+     * @throws FilterException with <code>INVALID_CURSOR</code> {@link ErrorCode}
+     * if the cursor is malformed or was created for different sorts
+     */
+    public static List<String> decode(String cursor, List<SortRequest> sorts) {
+        List<SortRequest> keys = nonNull(sorts);
+        List<String> values = decode(cursor);
+
+        if (values.size() != keys.size() + 2 || !fingerprint(keys).equals(values.get(0))) {
+            throw new FilterException(ErrorCode.INVALID_CURSOR);
+        }
+
+        return values.subList(1, values.size());
+    }
+
+    /**
+     * Returns identifier field of the given model
+     *
+     * @param clazz {@link Class} instance of the model
+     *
+     * @return identifier {@link Field}
+     *
+     * @throws IllegalStateException if the model has no identifier field
+     */
+    static Field getIdField(Class<?> clazz) {
+        Field idField = FilterableRegistry.getIdField(clazz);
+        if (idField == null) {
+            throw new IllegalStateException("Keyset pagination requires identifier field in " + clazz.getName());
+        }
+        return idField;
+    }
+
+    /**
+     * Encodes values as URL-safe Base64 string of length-prefixed values
+     */
+    private static String encode(List<String> values) {
+        StringBuilder builder = new StringBuilder();
+
+        for (String value : values) {
+            if (value == null) {
+                builder.append(NULL_VALUE);
+            } else {
+                builder.append(value.length()).append(LENGTH_SEPARATOR).append(value);
+            }
+        }
+
+        byte[] bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Decodes values encoded by {@link #encode(List)}
+     *
+     * @throws FilterException with <code>INVALID_CURSOR</code> {@link ErrorCode} if the cursor is malformed
+     */
+    private static List<String> decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            List<String> values = new ArrayList<>();
+            int position = 0;
+
+            while (position < decoded.length()) {
+                if (decoded.charAt(position) == NULL_VALUE) {
+                    values.add(null);
+                    position++;
+                    continue;
+                }
+
+                int separator = decoded.indexOf(LENGTH_SEPARATOR, position);
+                int end = separator + 1 + Integer.parseInt(decoded.substring(position, separator));
+                values.add(decoded.substring(separator + 1, end));
+                position = end;
+            }
+
+            return values;
+        } catch (RuntimeException e) {
+            throw new FilterException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * Computes fingerprint of the given sorts
+     */
+    private static String fingerprint(List<SortRequest> sorts) {
+        int hash = 1;
+
+        for (SortRequest sort : sorts) {
+            hash = 31 * hash + String.valueOf(sort.getField()).hashCode();
+            hash = 31 * hash + String.valueOf(sort.getOrder()).hashCode();
+        }
+
+        return Integer.toHexString(hash);
+    }
+
+    /**
+     * Converts value to {@link String} which can be converted back by {@link io.github.wwhysohard.search.converter.ValueConverters}
+     */
+    private static String toString(Object value) {
+        if (value == null) return null;
+        return (value instanceof Enum) ? ((Enum<?>) value).name() : value.toString();
+    }
+
+    /**
+     * Reads value of the given field, preferring public getter so that lazy proxies get initialized
+     */
+    private static Object read(Object target, Field field) {
+        if (target == null) return null;
+
+        try {
+            Method getter = getGetter(target.getClass(), field);
+            if (getter != null) return getter.invoke(target);
+
+            field.setAccessible(true);
+            return field.get(target);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read " + field.getName() + " of " + target.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Finds public getter of the given field
+     */
+    private static Method getGetter(Class<?> clazz, Field field) {
+        String capitalized = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+
+        for (String prefix : new String[] { "get", "is" }) {
+            try {
+                Method method = clazz.getMethod(prefix + capitalized);
+                if (!Modifier.isStatic(method.getModifiers()) && method.getParameterCount() == 0) return method;
+            } catch (NoSuchMethodException ignored) {
+                // try next prefix or fall back to field access
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Treats absent sorts as empty list
+     */
+    private static List<SortRequest> nonNull(List<SortRequest> sorts) {
+        return (sorts != null) ? sorts : Collections.emptyList();
+    }
+
+}
@@ -0,0 +1,47 @@
+package io.github.wwhysohard.search.utils;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable result of {@link FilterOptimizer}
+ */
+@Getter
+public final class OptimizedFilters {
+
+    /**
+     * Result of filters which no model can satisfy
+     */
+    static final OptimizedFilters UNSATISFIABLE = new OptimizedFilters(Collections.emptyList(), true);
+
+    /**
+     * Optimized filters to be collected by <code>AND</code> operator, empty if there is nothing to filter by
+     */
+    private final List<FilterRequest> filters;
+
+    /**
+     * Optimized filters with their resolved paths and converted values, in the same order as <code>filters</code>
+     */
+    private final List<CompiledFilter> compiled;
+
+    /**
+     * Whether no model can satisfy the filters, so search can return empty result without querying database
+     */
+    private final boolean unsatisfiable;
+
+    OptimizedFilters(List<CompiledFilter> compiled, boolean unsatisfiable) {
+        List<FilterRequest> requests = new ArrayList<>(compiled.size());
+        for (CompiledFilter filter : compiled) {
+            requests.add(filter.getFilter());
+        }
+
+        this.filters = Collections.unmodifiableList(requests);
+        this.compiled = Collections.unmodifiableList(compiled);
+        this.unsatisfiable = unsatisfiable;
+    }
+
+}
@@ -0,0 +1,112 @@
+package io.github.wwhysohard.search.utils;
+
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.ParameterExpression;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects values of {@link ParameterExpression}s created while constructing criteria query,
+ * so that values are bound to the query instead of being rendered as literals.
+ * Queries of the same shape then produce the same JPQL and SQL, which lets query plan
+ * and prepared statement caches be reused for different values.
+ * Not thread-safe, an instance is meant to be used for a single query.
+ */
+public class QueryParameters {
+
+    private static final Map<Class<?>, Class<?>> WRAPPERS;
+
+    static {
+        Map<Class<?>, Class<?>> wrappers = new HashMap<>();
+        wrappers.put(boolean.class, Boolean.class);
+        wrappers.put(byte.class, Byte.class);
+        wrappers.put(char.class, Character.class);
+        wrappers.put(short.class, Short.class);
+        wrappers.put(int.class, Integer.class);
+        wrappers.put(long.class, Long.class);
+        wrappers.put(float.class, Float.class);
+        wrappers.put(double.class, Double.class);
+        WRAPPERS = Collections.unmodifiableMap(wrappers);
+    }
+
+    private final Map<ParameterExpression<?>, Object> values = new LinkedHashMap<>();
+
+    /**
+     * Returns either a new {@link ParameterExpression} bound to the given value,
+     * or a literal if <code>parameters</code> are not collected
+     *
+     * @param parameters {@link QueryParameters} which collect values, may be <code>null</code>
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link Expression}
+     * @param type {@link Class} of the value
+     * @param value value of the expression
+     * @param <X> type of the value
+     *
+     * @return {@link Expression} of the given value
+     */
+    @SuppressWarnings("unchecked")
+    public static <X> Expression<X> value(QueryParameters parameters, CriteriaBuilder criteriaBuilder,
+                                          Class<? extends X> type, Object value) {
+        if (parameters == null) {
+            return (Expression<X>) criteriaBuilder.literal(value);
+        }
+
+        return parameters.bind(criteriaBuilder, type, value);
+    }
+
+    /**
+     * Creates {@link ParameterExpression} bound to the given value
+     *
+     * @param criteriaBuilder {@link CriteriaBuilder} which will be used to construct {@link ParameterExpression}
+     * @param type {@link Class} of the value
+     * @param value value of the parameter
+     * @param <X> type of the value
+     *
+     * @return created {@link ParameterExpression}
+     */
+    @SuppressWarnings("unchecked")
+    public <X> ParameterExpression<X> bind(CriteriaBuilder criteriaBuilder, Class<? extends X> type, Object value) {
+        ParameterExpression<X> parameter = (ParameterExpression<X>) criteriaBuilder.parameter(wrap(type));
+        values.put(parameter, value);
+        return parameter;
+    }
+
+    /**
+     * Binds collected values to the given query
+     *
+     * @param query {@link Query} created from criteria query which collected values
+     * @param <Q> type of the query
+     *
+     * @return the given query
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <Q extends Query> Q apply(Q query) {
+        for (Map.Entry<ParameterExpression<?>, Object> entry : values.entrySet()) {
+            query.setParameter((Parameter) entry.getKey(), entry.getValue());
+        }
+        return query;
+    }
+
+    /**
+     * Returns wrapper of the given primitive type
+     *
+     * @param type {@link Class} of a value
+     *
+     * @return wrapper {@link Class} if the given type is primitive, the given type otherwise
+     */
+    static Class<?> wrap(Class<?> type) {
+        return WRAPPERS.containsKey(type) ? WRAPPERS.get(type) : type;
+    }
+
+    /**
+     * @return number of collected values
+     */
+    public int size() {
+        return values.size();
+    }
+
+}
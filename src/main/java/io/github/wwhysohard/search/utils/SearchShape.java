@@ -0,0 +1,120 @@
+package io.github.wwhysohard.search.utils;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.InListStrategy;
+import io.github.wwhysohard.search.enums.QueryOperator;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import java.util.List;
+
+/**
+ * Utility class which computes shape key of a {@link SearchRequest}.
+ * Shape key describes structure of the request as it is executed, i.e. with filters optimized by {@link FilterOptimizer},
+ * with every value replaced by <code>?</code> and every list of values replaced by the way {@link InLists} renders it:
+ * <code>?[]</code> for an array parameter, <code>?n</code> for a list of <code>n</code> parameters, padded if Hibernate
+ * pads them, and <code>?nxm+?k</code> for <code>m</code> chunks of <code>n</code> parameters and the last one of <code>k</code>,
+ * so requests of the same shape produce the same parameterised query.
+ */
+public class SearchShape {
+
+    /**
+     * Creating an instance of {@link SearchShape} is illegal
+     */
+    private SearchShape() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Computes shape key of the given request
+     *
+     * @param request {@link SearchRequest} which shape is to be computed
+     * @param filters filters of the request optimized by {@link FilterOptimizer}, which are applied instead of requested ones
+     * @param clazz {@link Class} instance of the searched model
+     * @param criteriaBuilder {@link CriteriaBuilder} of the query, by which {@link InListStrategy} is chosen
+     *
+     * @return shape key, e.g. <code>Author:AND(name LIKE ?,OR(id IN ?4,rating NULL)):rating DESC</code>
+     */
+    public static String of(SearchRequest request, OptimizedFilters filters, Class<?> clazz, CriteriaBuilder criteriaBuilder) {
+        StringBuilder builder = new StringBuilder(clazz.getName()).append(':');
+
+        if (!filters.getCompiled().isEmpty()) {
+            appendFilters(builder.append("AND"), filters.getCompiled(), criteriaBuilder);
+        }
+
+        builder.append(':');
+
+        if (request.getSorts() != null) {
+            for (SortRequest sort : request.getSorts()) {
+                builder.append(sort.getField()).append(' ').append(sort.getOrder()).append(',');
+            }
+        }
+
+        if (request.isKeyset()) {
+            builder.append((request.getCursor() != null) ? ":seek ?" : ":keyset");
+        }
+
+        if (request.getProjection() != null) {
+            builder.append(":select ").append(String.join(",", request.getProjection()));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Appends shape of the given filters enclosed in parentheses
+     */
+    private static void appendFilters(StringBuilder builder, List<CompiledFilter> filters, CriteriaBuilder criteriaBuilder) {
+        builder.append('(');
+
+        for (int i = 0; i < filters.size(); i++) {
+            if (i > 0) builder.append(',');
+            appendFilter(builder, filters.get(i), criteriaBuilder);
+        }
+
+        builder.append(')');
+    }
+
+    /**
+     * Appends shape of the given filter
+     */
+    private static void appendFilter(StringBuilder builder, CompiledFilter compiled, CriteriaBuilder criteriaBuilder) {
+        FilterRequest filter = compiled.getFilter();
+
+        if (filter.getOperator() == QueryOperator.AND || filter.getOperator() == QueryOperator.OR) {
+            appendFilters(builder.append(filter.getOperator()), compiled.getFilters(), criteriaBuilder);
+            return;
+        }
+
+        builder.append(filter.getField()).append(' ').append(filter.getOperator());
+
+        if (compiled.getValues() != null) {
+            appendValues(builder.append(' '), compiled, criteriaBuilder);
+        } else if (filter.getValue() != null) {
+            builder.append(" ?");
+        }
+    }
+
+    /**
+     * Appends shape of values of the given <code>IN</code> or <code>NOT_IN</code> filter bound as parameters
+     */
+    private static void appendValues(StringBuilder builder, CompiledFilter compiled, CriteriaBuilder criteriaBuilder) {
+        int size = compiled.getValues().length;
+
+        switch (InLists.select(criteriaBuilder, compiled.getPath().getJavaType(), size, true)) {
+            case ARRAY:
+                builder.append("?[]");
+                break;
+            case CHUNKED:
+                int chunkSize = InLists.getChunkSize();
+                int chunks = InLists.chunks(size);
+                builder.append('?').append(InLists.parameters(criteriaBuilder, chunkSize)).append('x').append(chunks - 1)
+                        .append("+?").append(InLists.parameters(criteriaBuilder, size - (chunks - 1) * chunkSize));
+                break;
+            default:
+                builder.append('?').append(InLists.parameters(criteriaBuilder, size));
+        }
+    }
+
+}
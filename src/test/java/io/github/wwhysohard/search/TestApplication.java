@@ -0,0 +1,7 @@
+package io.github.wwhysohard.search;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class TestApplication {
+}
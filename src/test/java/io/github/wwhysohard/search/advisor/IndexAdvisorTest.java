@@ -0,0 +1,74 @@
+package io.github.wwhysohard.search.advisor;
+
+import io.github.wwhysohard.search.enums.IndexAdviceType;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.metrics.UsageSearchMetrics;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.AuthorSpecification;
+import io.github.wwhysohard.search.model.Book;
+import io.github.wwhysohard.search.model.BookSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class IndexAdvisorTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private IndexAdvisor indexAdvisor;
+
+    @BeforeEach
+    void setUp() {
+        indexAdvisor = new IndexAdvisor(entityManager.getEntityManager().getEntityManagerFactory());
+    }
+
+    @Test
+    void testMissingIndexesAreAdvised() {
+        List<IndexAdvice> advice = indexAdvisor.advise();
+
+        IndexAdvice name = find(advice, "name", Author.class);
+        assertEquals(IndexAdviceType.MISSING_INDEX, name.getType());
+        assertEquals(Collections.singletonList("name"), name.getColumns());
+        assertNotNull(find(advice, "country", null));
+
+        assertTrue(advice.stream().noneMatch(a -> a.getColumns().contains("id")));
+        assertTrue(advice.stream().noneMatch(a -> a.getType() == IndexAdviceType.MISSING_JOIN_INDEX));
+        assertTrue(advice.stream().noneMatch(a -> a.getType() == IndexAdviceType.TRIGRAM_INDEX));
+    }
+
+    @Test
+    void testAdviceIsRankedByUsage() {
+        UsageSearchMetrics usage = new UsageSearchMetrics();
+        for (int i = 0; i < 3; i++) {
+            usage.countFilteredField(AuthorSpecification.class, Author.class, "fullName", QueryOperator.LIKE);
+        }
+        usage.countSortedField(BookSpecification.class, Book.class, "published");
+
+        List<IndexAdvice> advice = indexAdvisor.advise(usage);
+
+        assertEquals(IndexAdviceType.MISSING_INDEX, advice.get(0).getType());
+        assertEquals("name", advice.get(0).getPath());
+        assertEquals(3, advice.get(0).getUsage());
+        assertEquals(IndexAdviceType.TRIGRAM_INDEX, advice.get(1).getType());
+        assertEquals("name", advice.get(1).getPath());
+        assertEquals("published", advice.get(2).getPath());
+        assertEquals(1, advice.get(2).getUsage());
+    }
+
+    private static IndexAdvice find(List<IndexAdvice> advice, String path, Class<?> model) {
+        return advice.stream()
+                .filter(a -> a.getPath().equals(path) && (model == null || a.getModel().equals(model)))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+
+}
@@ -0,0 +1,83 @@
+package io.github.wwhysohard.search.cache;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.AuthorSpecification;
+import io.github.wwhysohard.search.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.github.wwhysohard.search.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchResultCacheTest {
+
+    @Test
+    void testCanonicalKey() {
+        SearchCacheKey key = key(
+                filter("fullName", QueryOperator.LIKE, "Harry"),
+                FilterRequest.builder().withField("rating").withOperator(QueryOperator.IN)
+                        .withValues(Arrays.asList("3", "01", "2")).build());
+        SearchCacheKey reordered = key(
+                FilterRequest.builder().withField("rating").withOperator(QueryOperator.IN)
+                        .withValues(Arrays.asList("2", "1", "3", "3")).build(),
+                filter("name", QueryOperator.LIKE, "Harry"));
+
+        assertEquals(key, reordered);
+        assertNotEquals(key, key(filter("name", QueryOperator.LIKE, "Potter")));
+        assertEquals(key(filter("books.title", QueryOperator.EQUALS, "It")).getEntityTypes(),
+                new LinkedHashSet<>(Arrays.asList(Author.class, Book.class)));
+    }
+
+    @Test
+    void testHitsAndInvalidation() {
+        SearchResultCache cache = new SearchResultCache(10, Duration.ofMinutes(1));
+        SearchCacheKey key = key(filter("books.title", QueryOperator.EQUALS, "It"));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(key, loads::incrementAndGet);
+        cache.get(key, loads::incrementAndGet);
+        SearchCacheInvalidator.invalidate(Book.class);
+        cache.get(key, loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStatistics().getHits());
+        assertEquals(2, cache.getStatistics().getMisses());
+        assertEquals(1, cache.getStatistics().getInvalidations());
+    }
+
+    @Test
+    void testEviction() {
+        AtomicLong time = new AtomicLong();
+        SearchResultCache cache = new SearchResultCache(2, Duration.ofSeconds(10), time::get);
+        SearchCacheKey first = key(filter("rating", QueryOperator.EQUALS, "1"));
+        SearchCacheKey second = key(filter("rating", QueryOperator.EQUALS, "2"));
+        SearchCacheKey third = key(filter("rating", QueryOperator.EQUALS, "3"));
+
+        cache.get(first, () -> 1);
+        cache.get(second, () -> 2);
+        cache.get(first, () -> 1);
+        cache.get(third, () -> 3);
+
+        assertEquals(2, cache.size());
+        assertEquals(Integer.valueOf(-1), cache.get(second, () -> -1));
+
+        time.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals(Integer.valueOf(-3), cache.get(third, () -> -3));
+        assertEquals(3, cache.getStatistics().getEvictions());
+    }
+
+    private static SearchCacheKey key(FilterRequest... filters) {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Arrays.asList(filters));
+        return SearchCacheKey.of(new AuthorSpecification(request), "all");
+    }
+
+}
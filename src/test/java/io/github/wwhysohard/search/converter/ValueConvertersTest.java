@@ -0,0 +1,65 @@
+package io.github.wwhysohard.search.converter;
+
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.exception.FilterException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueConvertersTest {
+
+    @Test
+    void testDefaultConverters() {
+        assertEquals(5L, ValueConverters.convert(ValueConverters.get(long.class), "5"));
+        assertEquals(Integer.valueOf(5), ValueConverters.convert(ValueConverters.get(Integer.class), "5"));
+        assertEquals(new BigDecimal("1.50"), ValueConverters.convert(ValueConverters.get(BigDecimal.class), "1.50"));
+        assertEquals(Instant.EPOCH, ValueConverters.convert(ValueConverters.get(Instant.class), "1970-01-01T00:00:00Z"));
+        assertEquals(SortOrder.DESC, ValueConverters.convert(ValueConverters.get(SortOrder.class), "DESC"));
+
+        UUID uuid = UUID.randomUUID();
+        assertEquals(uuid, ValueConverters.convert(ValueConverters.get(UUID.class), uuid.toString()));
+    }
+
+    @Test
+    void testCustomConverter() {
+        ValueConverters.register(Money.class, Money::new);
+        assertEquals("10 USD", ValueConverters.convert(ValueConverters.get(Money.class), "10 USD").value);
+    }
+
+    @Test
+    void testConvertValues() {
+        Object[] converted = ValueConverters.convert(ValueConverters.get(Long.class), Arrays.asList("1", "2", "3"));
+        assertArrayEquals(new Object[] { 1L, 2L, 3L }, converted);
+    }
+
+    @Test
+    void testIllegalArgument() {
+        FilterException notNumber = assertThrows(FilterException.class,
+                () -> ValueConverters.convert(ValueConverters.get(Long.class), "one"));
+        FilterException unsupported = assertThrows(FilterException.class,
+                () -> ValueConverters.convert(ValueConverters.get(Object[].class), "one"));
+        FilterException nullValue = assertThrows(FilterException.class,
+                () -> ValueConverters.convert(ValueConverters.get(Long.class), (String) null));
+
+        assertEquals(ErrorCode.ILLEGAL_ARGUMENT, notNumber.getCode());
+        assertEquals(ErrorCode.ILLEGAL_ARGUMENT, unsupported.getCode());
+        assertEquals(ErrorCode.VALUE_CANNOT_BE_NULL, nullValue.getCode());
+    }
+
+    private static class Money {
+
+        private final String value;
+
+        private Money(String value) {
+            this.value = value;
+        }
+
+    }
+
+}
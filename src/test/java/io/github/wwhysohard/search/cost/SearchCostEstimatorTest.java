@@ -0,0 +1,78 @@
+package io.github.wwhysohard.search.cost;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.AuthorSpecification;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.github.wwhysohard.search.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchCostEstimatorTest {
+
+    @Test
+    void testWeights() {
+        SearchRequest request = request(
+                filter("name", QueryOperator.LIKE, "King"),
+                filter("books.title", QueryOperator.STARTS_WITH, "It"),
+                group(QueryOperator.OR, filter("rating", QueryOperator.EQUALS, "1"), filter("books.title", QueryOperator.NULL, null)));
+        request.setSorts(Collections.singletonList(SortRequest.builder().withField("rating").withOrder(SortOrder.DESC).build()));
+
+        SearchCostModel model = SearchCostModel.builder()
+                .withIndexedPaths((clazz, path) -> !"rating".equals(path))
+                .build();
+
+        // 4 filters, LIKE, a group at depth 1, 1 distinct join, sort on unindexed path
+        assertEquals(4 + 20 + 2 + 5 + 1 + 25, SearchCostEstimator.estimate(request, Author.class, model).getCost(), 1e-9);
+    }
+
+    @Test
+    void testHostileRequestsAreRejected() {
+        FilterRequest nested = filter("rating", QueryOperator.EQUALS, "1");
+        for (int i = 0; i < 40; i++) {
+            nested = group(QueryOperator.OR, nested);
+        }
+
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            values.add(String.valueOf(i));
+        }
+
+        for (SearchRequest request : Arrays.asList(request(nested),
+                request(FilterRequest.builder().withField("id").withOperator(QueryOperator.IN).withValues(values).build()))) {
+            AuthorSpecification specification = new AuthorSpecification(request);
+
+            assertTrue(specification.getCost().isOverBudget());
+            FilterException exception = assertThrows(FilterException.class, specification::admit);
+            assertEquals(ErrorCode.SEARCH_IS_TOO_EXPENSIVE, exception.getCode());
+        }
+    }
+
+    @Test
+    void testBudgetOfSpecification() {
+        SearchRequest request = request(filter("name", QueryOperator.ILIKE, "king"));
+
+        AuthorSpecification specification = new AuthorSpecification(request) {
+            @Override
+            protected SearchCostModel getCostModel() {
+                return SearchCostModel.builder().withBudget(25).build();
+            }
+        };
+
+        assertTrue(specification.getCost().isNearLimit());
+        assertDoesNotThrow(specification::admit);
+        assertFalse(new AuthorSpecification(request).getCost().isNearLimit());
+    }
+
+}
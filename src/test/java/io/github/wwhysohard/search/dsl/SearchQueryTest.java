@@ -0,0 +1,108 @@
+package io.github.wwhysohard.search.dsl;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.exception.FilterException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.github.wwhysohard.search.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchQueryTest {
+
+    @Test
+    void testParse() {
+        SearchRequest request = SearchQuery.parse("filter=name~Harry;(id>5,status:in:A|B)&sort=-createdAt,name&page=2");
+
+        assertEquals(Arrays.asList(
+                filter("name", QueryOperator.LIKE, "Harry"),
+                FilterRequest.builder().withOperator(QueryOperator.OR).withFilters(Arrays.asList(
+                        filter("id", QueryOperator.GREATER_THAN, "5"),
+                        FilterRequest.builder().withOperator(QueryOperator.IN).withField("status").withValues(Arrays.asList("A", "B")).build()
+                )).build()
+        ), request.getFilters());
+        assertEquals(Arrays.asList(
+                SortRequest.builder().withField("createdAt").withOrder(SortOrder.DESC).build(),
+                SortRequest.builder().withField("name").withOrder(SortOrder.ASC).build()
+        ), request.getSorts());
+    }
+
+    @Test
+    void testAndBindsTighterThanOr() {
+        List<FilterRequest> filters = SearchQuery.parseFilters("a=1,b=2;c=3");
+
+        assertEquals(1, filters.size());
+        assertEquals(QueryOperator.OR, filters.get(0).getOperator());
+        assertEquals(QueryOperator.AND, filters.get(0).getFilters().get(1).getOperator());
+    }
+
+    @Test
+    void testEveryOperatorRoundTrips() {
+        List<FilterRequest> filters = new ArrayList<>();
+        for (QueryOperator operator : QueryOperator.values()) {
+            switch (operator) {
+                case AND:
+                case OR:
+                    filters.add(FilterRequest.builder().withOperator(operator).withFilters(Arrays.asList(
+                            filter("a", QueryOperator.EQUALS, "1"), filter("b.c", QueryOperator.NULL, null))).build());
+                    break;
+                case IN:
+                case NOT_IN:
+                    filters.add(FilterRequest.builder().withOperator(operator).withField("a").withValues(Arrays.asList("1", "2")).build());
+                    break;
+                case NULL:
+                case NOT_NULL:
+                    filters.add(filter("a", operator, null));
+                    break;
+                default:
+                    filters.add(filter("a", operator, "1"));
+            }
+        }
+
+        SearchRequest request = new SearchRequest();
+        request.setFilters(filters);
+        request.setSorts(Collections.singletonList(SortRequest.builder().withField("a").withOrder(SortOrder.DESC).build()));
+        request.setProjection(Arrays.asList("a", "b.c"));
+        request.setCursor("abc");
+
+        String query = SearchQuery.format(request);
+        SearchRequest parsed = SearchQuery.parse(query);
+
+        assertEquals(filters, parsed.getFilters());
+        assertEquals(request.getSorts(), parsed.getSorts());
+        assertEquals(request.getProjection(), parsed.getProjection());
+        assertEquals("abc", parsed.getCursor());
+        assertEquals(query, SearchQuery.format(parsed));
+    }
+
+    @Test
+    void testEscapedValues() {
+        String value = "=a;b,c(d)e|f&g\\h";
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Arrays.asList(
+                filter("name", QueryOperator.EQUALS, value),
+                FilterRequest.builder().withOperator(QueryOperator.IN).withField("name").withValues(Arrays.asList(value, "")).build()));
+
+        String query = SearchQuery.format(request);
+
+        assertEquals(request.getFilters(), SearchQuery.parse(query).getFilters());
+    }
+
+    @Test
+    void testMalformedQueries() {
+        for (String filter : Arrays.asList("name", "(a=1", "a=1)", "a:unknown:1", "a:and:1", "a=1;;b=2", "=1", "a=1&")) {
+            FilterException exception = assertThrows(FilterException.class, () -> SearchQuery.parseFilters(filter), filter);
+            assertEquals(ErrorCode.MALFORMED_QUERY, exception.getCode(), filter);
+        }
+    }
+
+}
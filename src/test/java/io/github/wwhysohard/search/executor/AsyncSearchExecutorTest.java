@@ -0,0 +1,121 @@
+package io.github.wwhysohard.search.executor;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.AuthorRepository;
+import io.github.wwhysohard.search.model.AuthorSpecification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AsyncSearchExecutorTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @BeforeEach
+    void setUp() {
+        List<Author> authors = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Author author = new Author();
+            author.setName("Author " + i);
+            author.setRating(i);
+            authors.add(author);
+        }
+        authorRepository.saveAll(authors);
+    }
+
+    @AfterEach
+    void tearDown() {
+        authorRepository.deleteAll();
+    }
+
+    @Test
+    void testPages() throws Exception {
+        try (AsyncSearchExecutor searchExecutor = new AsyncSearchExecutor(entityManagerFactory, 2)) {
+            Page<Author> first = searchExecutor.findAll(new AuthorSpecification(request()), PageRequest.of(0, 2)).get(10, TimeUnit.SECONDS);
+            Page<Author> last = searchExecutor.findAll(new AuthorSpecification(request()), PageRequest.of(2, 2)).get(10, TimeUnit.SECONDS);
+
+            assertEquals(5, first.getTotalElements());
+            assertEquals(Arrays.asList("Author 4", "Author 3"), first.getContent().stream().map(Author::getName).collect(Collectors.toList()));
+            assertEquals(5, last.getTotalElements());
+            assertEquals("Author 0", last.getContent().get(0).getName());
+        }
+    }
+
+    @Test
+    void testTimeout() throws Exception {
+        List<Runnable> held = new ArrayList<>();
+        Executor executor = held::add;
+
+        try (AsyncSearchExecutor searchExecutor = new AsyncSearchExecutor(entityManagerFactory, executor, 2, 0)) {
+            CompletableFuture<Page<Author>> future = searchExecutor.findAll(new AuthorSpecification(request()), PageRequest.of(0, 2), Duration.ofMillis(50));
+
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+            assertTrue(exception.getCause() instanceof TimeoutException);
+            assertEquals(1, searchExecutor.getStatistics().getTimedOut());
+
+            held.forEach(Runnable::run);
+            assertEquals(0, searchExecutor.getStatistics().getWaiting());
+        }
+    }
+
+    @Test
+    void testSaturation() throws Exception {
+        List<Runnable> held = new ArrayList<>();
+        Executor executor = held::add;
+
+        try (AsyncSearchExecutor searchExecutor = new AsyncSearchExecutor(entityManagerFactory, executor, 1, 1)) {
+            CompletableFuture<Page<Author>> admitted = searchExecutor.findAll(new AuthorSpecification(request()), PageRequest.of(0, 2));
+            CompletableFuture<Page<Author>> rejected = searchExecutor.findAll(new AuthorSpecification(request()), PageRequest.of(0, 2));
+
+            ExecutionException exception = assertThrows(ExecutionException.class, rejected::get);
+            assertTrue(exception.getCause() instanceof RejectedExecutionException);
+            assertEquals(1, searchExecutor.getStatistics().getSaturated());
+            assertEquals(2, searchExecutor.getStatistics().getWaiting());
+
+            held.forEach(Runnable::run);
+            assertEquals(5, admitted.get(10, TimeUnit.SECONDS).getTotalElements());
+        }
+    }
+
+    private static SearchRequest request() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(
+                FilterRequest.builder().withField("name").withOperator(QueryOperator.STARTS_WITH).withValue("Author").build()));
+        request.setSorts(Collections.singletonList(SortRequest.builder().withField("rating").withOrder(SortOrder.DESC).build()));
+        return request;
+    }
+
+}
@@ -0,0 +1,131 @@
+package io.github.wwhysohard.search.executor;
+
+import io.github.wwhysohard.search.cache.SearchResultCache;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.AuthorSpecification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.List;
+
+import static io.github.wwhysohard.search.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CachingSearchExecutorTest {
+
+    private static final SearchRequest REQUEST = request(filter("books.title", QueryOperator.EQUALS, "It"));
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private TransactionTemplate concurrentTransaction;
+    private CachingSearchExecutor searchExecutor;
+    private Long authorId;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        concurrentTransaction = new TransactionTemplate(transactionManager);
+        concurrentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        searchExecutor = new CachingSearchExecutor(entityManager, new SearchResultCache(100, Duration.ofMinutes(1)));
+
+        authorId = transaction.execute(status -> {
+            Author author = author("Stephen King", null);
+            entityManager.persist(author);
+            entityManager.persist(book("Carrie", 1974, author, null));
+            return author.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transaction.execute(status -> {
+            entityManager.createQuery("delete from Book").executeUpdate();
+            return entityManager.createQuery("delete from Author").executeUpdate();
+        });
+    }
+
+    @Test
+    void testRepeatedSearchIsServedFromCache() {
+        SearchRequest request = request(filter("books.title", QueryOperator.EQUALS, "Carrie"));
+
+        transaction.execute(status -> {
+            assertEquals(1, searchExecutor.findAll(new AuthorSpecification(request), PageRequest.of(0, 10)).getTotalElements());
+            assertEquals(1, searchExecutor.findAll(new AuthorSpecification(request), PageRequest.of(0, 10)).getTotalElements());
+            assertEquals(1, searchExecutor.count(new AuthorSpecification(request)));
+            return searchExecutor.count(new AuthorSpecification(request));
+        });
+
+        assertEquals(2, searchExecutor.getCache().getStatistics().getHits());
+        assertEquals(2, searchExecutor.getCache().getStatistics().getMisses());
+    }
+
+    @Test
+    void testChangingTransactionBypassesCache() {
+        assertTrue(search(transaction).isEmpty());
+
+        transaction.execute(status -> {
+            entityManager.persist(book("It", 1986, entityManager.find(Author.class, authorId), null));
+            assertEquals(1, searchExecutor.findAll(new AuthorSpecification(REQUEST)).size());
+            return searchExecutor.findAll(new AuthorSpecification(REQUEST));
+        });
+
+        assertEquals(0, searchExecutor.getCache().getStatistics().getHits());
+        assertEquals(3, searchExecutor.getCache().getStatistics().getMisses());
+        assertEquals(1, search(transaction).size());
+    }
+
+    @Test
+    void testRolledBackChangeIsNotCached() {
+        assertTrue(search(transaction).isEmpty());
+
+        transaction.execute(status -> {
+            entityManager.persist(book("It", 1986, entityManager.find(Author.class, authorId), null));
+            entityManager.flush();
+            assertEquals(1, searchExecutor.findAll(new AuthorSpecification(REQUEST)).size());
+
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertTrue(search(transaction).isEmpty());
+    }
+
+    @Test
+    void testResultReadBeforeCommitIsInvalidated() {
+        transaction.execute(status -> {
+            entityManager.persist(book("It", 1986, entityManager.find(Author.class, authorId), null));
+            entityManager.flush();
+            // read by another transaction after the flush, but before the commit
+            assertTrue(search(concurrentTransaction).isEmpty());
+            return null;
+        });
+
+        assertEquals(1, search(transaction).size());
+        assertEquals(1, searchExecutor.getCache().getStatistics().getInvalidations());
+    }
+
+    private List<Author> search(TransactionTemplate template) {
+        return template.execute(status -> searchExecutor.findAll(new AuthorSpecification(REQUEST)));
+    }
+
+}
@@ -0,0 +1,113 @@
+package io.github.wwhysohard.search.executor;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.AuthorSpecification;
+import io.github.wwhysohard.search.model.Book;
+import io.github.wwhysohard.search.model.BookSpecification;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.Tuple;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class ProjectionTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private SearchExecutor searchExecutor;
+
+    @BeforeEach
+    void setUp() {
+        searchExecutor = new SearchExecutor(entityManager.getEntityManager());
+
+        for (int i = 0; i < 3; i++) {
+            Author author = new Author();
+            author.setName("Author " + i);
+            author.setRating(i);
+            entityManager.persist(author);
+
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            book.setAuthor(author);
+            entityManager.persist(book);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testTuplesOfJoinedFields() {
+        SearchRequest request = request(Arrays.asList("title", "author.fullName"), "author.rating", QueryOperator.GREATER_THAN, "0");
+
+        List<Tuple> tuples = searchExecutor.findTuples(new BookSpecification(request));
+
+        assertEquals(Arrays.asList("Book 2", "Book 1"), tuples.stream().map(tuple -> tuple.get("title")).collect(Collectors.toList()));
+        assertEquals("Author 2", tuples.get(0).get("author.fullName"));
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void testDtoPage() {
+        SearchRequest request = request(Arrays.asList("name", "rating"), "name", QueryOperator.STARTS_WITH, "Author");
+
+        Page<AuthorSummary> page = searchExecutor.findAll(new AuthorSpecification(request), AuthorSummary.class, PageRequest.of(0, 2));
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals("Author 2", page.getContent().get(0).name);
+        assertEquals(2, page.getContent().get(0).rating);
+    }
+
+    @Test
+    void testProjectionIsValidated() {
+        FilterException empty = assertThrows(FilterException.class,
+                () -> searchExecutor.findTuples(new AuthorSpecification(request(null, "rating", QueryOperator.NOT_NULL, null))));
+        FilterException collection = assertThrows(FilterException.class,
+                () -> searchExecutor.findTuples(new AuthorSpecification(request(Collections.singletonList("books.title"), "rating", QueryOperator.NOT_NULL, null))));
+
+        assertEquals(ErrorCode.PROJECTION_CANNOT_BE_EMPTY, empty.getCode());
+        assertEquals(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_PROJECTION, collection.getCode());
+    }
+
+    private static SearchRequest request(List<String> projection, String field, QueryOperator operator, String value) {
+        SearchRequest request = new SearchRequest();
+        request.setProjection(projection);
+        request.setFilters(Collections.singletonList(FilterRequest.builder().withField(field).withOperator(operator).withValue(value).build()));
+        request.setSorts(Collections.singletonList(SortRequest.builder().withField(field.startsWith("author") ? "author.rating" : "rating")
+                .withOrder(SortOrder.DESC).build()));
+        return request;
+    }
+
+    public static class AuthorSummary {
+
+        private final String name;
+        private final Integer rating;
+
+        public AuthorSummary(String name, Integer rating) {
+            this.name = name;
+            this.rating = rating;
+        }
+
+    }
+
+}
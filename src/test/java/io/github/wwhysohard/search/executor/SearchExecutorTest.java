@@ -0,0 +1,155 @@
+package io.github.wwhysohard.search.executor;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.AuthorSpecification;
+import io.github.wwhysohard.search.model.Book;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.github.wwhysohard.search.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class SearchExecutorTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private SearchExecutor searchExecutor;
+
+    @BeforeEach
+    void setUp() {
+        searchExecutor = new SearchExecutor(entityManager.getEntityManager());
+
+        for (int i = 0; i < 5; i++) {
+            Author author = new Author();
+            author.setName("Author " + i);
+            author.setRating(i);
+            entityManager.persist(author);
+
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            book.setPublished(LocalDate.of(2000 + i, 1, 1));
+            book.setAuthor(author);
+            entityManager.persist(book);
+        }
+    }
+
+    @Test
+    void testParameterisedSearch() {
+        SearchRequest request = request(
+                filter("name", QueryOperator.LIKE, "Author"),
+                FilterRequest.builder().withField("rating").withOperator(QueryOperator.IN)
+                        .withValues(Arrays.asList("1", "2", "3")).build(),
+                filter("books.published", QueryOperator.GREATER_THAN_OR_EQUAL, "2002-01-01"));
+
+        List<Author> authors = searchExecutor.findAll(new AuthorSpecification(request));
+
+        assertEquals(2, authors.size());
+    }
+
+    @Test
+    void testPagedSearch() {
+        SearchRequest request = request(filter("rating", QueryOperator.GREATER_THAN, "0"));
+        request.setSorts(Collections.singletonList(SortRequest.builder().withField("rating").withOrder(SortOrder.DESC).build()));
+
+        Page<Author> page = searchExecutor.findAll(new AuthorSpecification(request), PageRequest.of(1, 3));
+
+        assertEquals(4, page.getTotalElements());
+        assertEquals(1, page.getContent().size());
+        assertEquals(1, page.getContent().get(0).getRating());
+    }
+
+    @Test
+    void testTwoPhaseSearchFetchesAssociations() {
+        entityManager.flush();
+        entityManager.clear();
+
+        SearchRequest request = request(filter("books.published", QueryOperator.GREATER_THAN_OR_EQUAL, "2001-01-01"));
+        request.setSorts(Collections.singletonList(SortRequest.builder().withField("rating").withOrder(SortOrder.DESC).build()));
+
+        Page<Author> page = searchExecutor.findAll(new AuthorSpecification(request), PageRequest.of(0, 2), "books", "books.publisher");
+
+        assertEquals(4, page.getTotalElements());
+        assertEquals(Arrays.asList(4, 3), page.getContent().stream().map(Author::getRating).collect(Collectors.toList()));
+        assertTrue(page.getContent().stream().allMatch(author -> Hibernate.isInitialized(author.getBooks())));
+        assertEquals("Book 4", page.getContent().get(0).getBooks().get(0).getTitle());
+    }
+
+    @Test
+    void testSameShapeIsReused() {
+        searchExecutor.findAll(new AuthorSpecification(request(filter("name", QueryOperator.EQUALS, "Author 1"))));
+        searchExecutor.findAll(new AuthorSpecification(request(filter("name", QueryOperator.EQUALS, "Author 2"))));
+        searchExecutor.findAll(new AuthorSpecification(request(filter("name", QueryOperator.LIKE, "Author"))));
+
+        SearchStatistics statistics = searchExecutor.getStatistics();
+
+        assertEquals(1, statistics.getShapeHits());
+        assertEquals(2, statistics.getShapeMisses());
+    }
+
+    @Test
+    void testShapeOfOptimizedFiltersIsReused() {
+        searchExecutor.findAll(new AuthorSpecification(request(
+                filter("rating", QueryOperator.GREATER_THAN_OR_EQUAL, "1"),
+                filter("rating", QueryOperator.GREATER_THAN_OR_EQUAL, "2"))));
+        searchExecutor.findAll(new AuthorSpecification(request(filter("rating", QueryOperator.GREATER_THAN_OR_EQUAL, "3"))));
+
+        assertEquals(1, searchExecutor.getStatistics().getShapeHits());
+        assertEquals(1, searchExecutor.getStatistics().getShapeMisses());
+    }
+
+    @Test
+    void testUnsatisfiableSearchSkipsDatabase() {
+        SearchRequest request = request(
+                filter("rating", QueryOperator.GREATER_THAN, "3"),
+                filter("rating", QueryOperator.LESS_THAN, "2"));
+
+        Page<Author> page = searchExecutor.findAll(new AuthorSpecification(request), PageRequest.of(0, 3));
+
+        assertTrue(page.getContent().isEmpty());
+        assertEquals(0, searchExecutor.count(new AuthorSpecification(request)));
+        assertEquals(0, searchExecutor.getStatistics().getShapeMisses());
+    }
+
+    @Test
+    void testStreamedSearchDetachesStreamedModels() {
+        SearchRequest request = request(filter("name", QueryOperator.LIKE, "Author"));
+        request.setSorts(Collections.singletonList(SortRequest.builder().withField("rating").withOrder(SortOrder.ASC).build()));
+        entityManager.flush();
+
+        Book book = new Book();
+        book.setTitle("Unflushed");
+        entityManager.persist(book);
+
+        List<Author> authors;
+        try (Stream<Author> stream = searchExecutor.stream(new AuthorSpecification(request), 2, 2)) {
+            authors = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(5, authors.size());
+        assertEquals(4, authors.get(4).getRating());
+        assertFalse(entityManager.getEntityManager().contains(authors.get(3)));
+        assertTrue(entityManager.getEntityManager().contains(authors.get(4)));
+        assertTrue(entityManager.getEntityManager().contains(book));
+    }
+
+}
@@ -0,0 +1,145 @@
+package io.github.wwhysohard.search.facet;
+
+import io.github.wwhysohard.search.dto.AggregateRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.enums.AggregateFunction;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.AuthorSpecification;
+import io.github.wwhysohard.search.model.Book;
+import io.github.wwhysohard.search.model.BookSpecification;
+import io.github.wwhysohard.search.model.Publisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.github.wwhysohard.search.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class FacetSearchTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        Publisher[] publishers = {
+                entityManager.persist(publisher("Publisher UK", "UK")),
+                entityManager.persist(publisher("Publisher US", "US"))};
+
+        for (int i = 0; i < 3; i++) {
+            Author author = new Author();
+            author.setName("Author " + i);
+            author.setRating(i);
+            entityManager.persist(author);
+
+            for (int j = 0; j <= i; j++) {
+                Book book = new Book();
+                book.setTitle("Book " + j);
+                book.setPublished(LocalDate.of(2000 + i, 1, 1 + j));
+                book.setAuthor(author);
+                book.setPublisher(publishers[(i + j) % 2]);
+                entityManager.persist(book);
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testFacetsExcludeOwnFilters() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Arrays.asList(
+                filter("publisher.country", QueryOperator.EQUALS, "UK"),
+                filter("author.rating", QueryOperator.GREATER_THAN, "0")));
+        request.setFacets(Arrays.asList("publisher.country", "author.fullName"));
+
+        FacetResult result = FacetSearch.find(entityManager.getEntityManager(), new BookSpecification(request));
+
+        // country facet ignores the country filter: books of authors 1 and 2
+        assertEquals(counts("UK", 3L, "US", 2L), counts(result.getFacet("publisher.country")));
+        // author facet applies both filters
+        assertEquals(counts("Author 1", 1L, "Author 2", 2L), counts(result.getFacet("author.fullName")));
+    }
+
+    @Test
+    void testFacetOfCollectionCountsModelsOnce() {
+        SearchRequest request = new SearchRequest();
+        request.setFacets(Collections.singletonList("books.title"));
+
+        FacetResult result = FacetSearch.find(entityManager.getEntityManager(), new AuthorSpecification(request));
+
+        assertEquals(counts("Book 0", 3L, "Book 1", 2L, "Book 2", 1L), counts(result.getFacet("books.title")));
+    }
+
+    @Test
+    void testAggregates() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(filter("publisher.country", QueryOperator.EQUALS, "US")));
+        request.setAggregates(Arrays.asList(
+                aggregate("author.rating", AggregateFunction.SUM),
+                aggregate("author.rating", AggregateFunction.AVG),
+                aggregate("published", AggregateFunction.MIN),
+                aggregate("published", AggregateFunction.MAX)));
+
+        FacetResult result = FacetSearch.find(entityManager.getEntityManager(), new BookSpecification(request));
+
+        assertEquals(1 + 2, ((Number) result.getAggregate("author.rating", AggregateFunction.SUM)).intValue());
+        assertEquals(1.5, ((Number) result.getAggregate("author.rating", AggregateFunction.AVG)).doubleValue(), 1e-9);
+        assertEquals(LocalDate.of(2001, 1, 1), result.getAggregate("published", AggregateFunction.MIN));
+        assertEquals(LocalDate.of(2002, 1, 2), result.getAggregate("published", AggregateFunction.MAX));
+    }
+
+    @Test
+    void testNotAllowedFields() {
+        SearchRequest request = new SearchRequest();
+        request.setFacets(Collections.singletonList("normalizedName"));
+        FilterException exception = assertThrows(FilterException.class,
+                () -> FacetSearch.find(entityManager.getEntityManager(), new BookSpecification(request)));
+        assertEquals(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_FACETING, exception.getCode());
+
+        SearchRequest sum = new SearchRequest();
+        sum.setAggregates(Collections.singletonList(aggregate("title", AggregateFunction.SUM)));
+        exception = assertThrows(FilterException.class,
+                () -> FacetSearch.find(entityManager.getEntityManager(), new BookSpecification(sum)));
+        assertEquals(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_AGGREGATION, exception.getCode());
+
+        SearchRequest collection = new SearchRequest();
+        collection.setAggregates(Collections.singletonList(aggregate("books.published", AggregateFunction.MAX)));
+        exception = assertThrows(FilterException.class,
+                () -> FacetSearch.find(entityManager.getEntityManager(), new AuthorSpecification(collection)));
+        assertEquals(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_AGGREGATION, exception.getCode());
+    }
+
+    private static Map<Object, Long> counts(Object... values) {
+        Map<Object, Long> counts = new HashMap<>();
+        for (int i = 0; i < values.length; i += 2) {
+            counts.put(values[i], (Long) values[i + 1]);
+        }
+        return counts;
+    }
+
+    private static Map<Object, Long> counts(List<FacetValue> values) {
+        Map<Object, Long> counts = new HashMap<>();
+        values.forEach(value -> counts.put(value.getValue(), value.getCount()));
+        return counts;
+    }
+
+    private static AggregateRequest aggregate(String field, AggregateFunction function) {
+        return AggregateRequest.builder().withField(field).withFunction(function).build();
+    }
+
+}
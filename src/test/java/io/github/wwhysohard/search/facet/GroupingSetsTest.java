@@ -0,0 +1,165 @@
+package io.github.wwhysohard.search.facet;
+
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.hibernate.GroupingSetsContributor;
+import io.github.wwhysohard.search.model.BookSpecification;
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQL95Dialect;
+import org.hibernate.dialect.SQLServer2012Dialect;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import javax.persistence.PersistenceException;
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.metadata_builder_contributor=io.github.wwhysohard.search.facet.GroupingSetsTest$Contributor",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=io.github.wwhysohard.search.facet.GroupingSetsTest$Inspector"})
+class GroupingSetsTest {
+
+    private static final Pattern GROUPING_SETS = Pattern.compile("group by grouping sets \\(\\(([^()]+)\\), \\(([^()]+)\\)\\)");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void testFacetsOfSameFiltersAreCountedBySingleQuery() {
+        SearchRequest request = new SearchRequest();
+        request.setFacets(Arrays.asList("publisher.country", "author.fullName"));
+
+        Inspector.STATEMENTS.clear();
+        // H2 has no GROUPING SETS, so the query is only rendered
+        assertThrows(PersistenceException.class,
+                () -> FacetSearch.find(entityManager.getEntityManager(), new BookSpecification(request)));
+
+        assertEquals(1, Inspector.STATEMENTS.size());
+        String sql = Inspector.STATEMENTS.get(0);
+
+        Matcher matcher = GROUPING_SETS.matcher(sql);
+        assertTrue(matcher.find(), sql);
+        assertTrue(sql.contains("grouping(" + matcher.group(1) + ")"), sql);
+        assertTrue(sql.contains("grouping(" + matcher.group(2) + ")"), sql);
+    }
+
+    @Test
+    void testSupportedDialects() {
+        GroupingSetsContributor contributor = new GroupingSetsContributor();
+
+        assertTrue(contributor.supports(new PostgreSQL95Dialect()));
+        assertTrue(contributor.supports(new SQLServer2012Dialect()));
+        assertFalse(contributor.supports(new H2Dialect()));
+    }
+
+    @Test
+    void testGroupingSplitsRowsByFacet() {
+        List<Tuple> rows = Arrays.asList(
+                new Row("UK", null, 0, 1, 3L),
+                new Row(null, "Author 1", 1, 0, 1L),
+                new Row(null, null, 0, 1, 1L),
+                new Row("US", null, 0, 1, 2L),
+                new Row(null, "Author 2", 1, 0, 4L));
+
+        List<List<FacetValue>> facets = FacetSearch.split(rows, 2);
+
+        Map<Object, Long> countries = new HashMap<>();
+        countries.put("UK", 3L);
+        countries.put("US", 2L);
+        countries.put(null, 1L);
+        Map<Object, Long> authors = new HashMap<>();
+        authors.put("Author 2", 4L);
+        authors.put("Author 1", 1L);
+
+        assertEquals(countries, counts(facets.get(0)));
+        assertEquals(authors, counts(facets.get(1)));
+        assertEquals("Author 2", facets.get(1).get(0).getValue());
+    }
+
+    private static Map<Object, Long> counts(List<FacetValue> values) {
+        Map<Object, Long> counts = new HashMap<>();
+        values.forEach(value -> counts.put(value.getValue(), value.getCount()));
+        return counts;
+    }
+
+    public static class Contributor implements MetadataBuilderContributor {
+
+        @Override
+        public void contribute(MetadataBuilder metadataBuilder) {
+            // registered regardless of the dialect, so that the query is rendered on H2
+            new GroupingSetsContributor().contribute(metadataBuilder, null);
+        }
+
+    }
+
+    public static class Inspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+
+    }
+
+    private static class Row implements Tuple {
+
+        private final Object[] values;
+
+        Row(Object... values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object get(int i) {
+            return values[i];
+        }
+
+        @Override
+        public <X> X get(int i, Class<X> type) {
+            return type.cast(values[i]);
+        }
+
+        @Override
+        public Object[] toArray() {
+            return values.clone();
+        }
+
+        @Override
+        public <X> X get(TupleElement<X> tupleElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <X> X get(String alias, Class<X> type) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object get(String alias) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<TupleElement<?>> getElements() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
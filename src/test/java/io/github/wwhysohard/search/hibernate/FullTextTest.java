@@ -0,0 +1,96 @@
+package io.github.wwhysohard.search.hibernate;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.executor.SearchExecutor;
+import io.github.wwhysohard.search.model.Book;
+import io.github.wwhysohard.search.model.BookRepository;
+import io.github.wwhysohard.search.model.BookSpecification;
+import io.github.wwhysohard.search.utils.GenericCriteriaOrder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.metadata_builder_contributor="
+        + "io.github.wwhysohard.search.hibernate.SearchMetadataBuilderContributor")
+class FullTextTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private SearchExecutor searchExecutor;
+
+    @BeforeEach
+    void setUp() {
+        searchExecutor = new SearchExecutor(entityManager.getEntityManager());
+
+        for (String title : new String[] { "The Hobbit", "Letters of the Hobbit Author", "Emma" }) {
+            Book book = new Book();
+            book.setTitle(title);
+            entityManager.persist(book);
+        }
+    }
+
+    @Test
+    void testFullTextFilter() {
+        SearchRequest request = request(null);
+
+        assertEquals(Arrays.asList("Letters of the Hobbit Author", "The Hobbit"), sorted(bookRepository.findAll(new BookSpecification(request))));
+        assertEquals(Arrays.asList("Letters of the Hobbit Author", "The Hobbit"), sorted(searchExecutor.findAll(new BookSpecification(request))));
+    }
+
+    @Test
+    void testRelevanceSort() {
+        SearchRequest request = request(Collections.singletonList(relevance()));
+
+        assertEquals(Arrays.asList("The Hobbit", "Letters of the Hobbit Author"), titles(searchExecutor.findAll(new BookSpecification(request))));
+        assertEquals(Arrays.asList("The Hobbit", "Letters of the Hobbit Author"), titles(bookRepository.findAll(new BookSpecification(request))));
+    }
+
+    @Test
+    void testRelevanceRequiresFullTextFilter() {
+        SearchRequest request = new SearchRequest();
+        request.setSorts(Collections.singletonList(relevance()));
+
+        FilterException exception = assertThrows(FilterException.class, () -> bookRepository.findAll(new BookSpecification(request)));
+        assertEquals(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_SORTING, exception.getCode());
+    }
+
+    private static SearchRequest request(List<SortRequest> sorts) {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(
+                FilterRequest.builder().withField("title").withOperator(QueryOperator.FULL_TEXT).withValue("hobbit").build()));
+        request.setSorts(sorts);
+        return request;
+    }
+
+    private static SortRequest relevance() {
+        return SortRequest.builder().withField(GenericCriteriaOrder.RELEVANCE).withOrder(SortOrder.DESC).build();
+    }
+
+    private static List<String> titles(List<Book> books) {
+        return books.stream().map(Book::getTitle).collect(Collectors.toList());
+    }
+
+    private static List<String> sorted(List<Book> books) {
+        return books.stream().map(Book::getTitle).sorted().collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.github.wwhysohard.search.memory;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.AuthorRepository;
+import io.github.wwhysohard.search.model.AuthorSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static io.github.wwhysohard.search.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class InMemorySearchDatabaseTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @BeforeEach
+    void setUp() {
+        Author rowling = entityManager.persist(author("J. K. Rowling", null));
+        entityManager.persist(book("The Casual Vacancy", 2012, rowling, null));
+
+        Author anonymous = entityManager.persist(author("Anonymous", null));
+        entityManager.persist(book(null, 1900, anonymous, null));
+
+        entityManager.persist(author("Nobody", null));
+    }
+
+    @Test
+    void testCollectionPathsMatchSameModels() {
+        List<List<FilterRequest>> requests = Arrays.asList(
+                Collections.singletonList(filter("books.title", QueryOperator.NULL, null)),
+                Collections.singletonList(filter("books.title", QueryOperator.NOT_NULL, null)),
+                Collections.singletonList(filter("books.published", QueryOperator.LESS_THAN, "2000-01-01")),
+                Collections.singletonList(FilterRequest.builder()
+                        .withOperator(QueryOperator.OR)
+                        .withFilters(Arrays.asList(
+                                filter("books.title", QueryOperator.NULL, null),
+                                filter("fullName", QueryOperator.EQUALS, "Nobody")))
+                        .build()));
+
+        List<Author> authors = authorRepository.findAll();
+
+        for (List<FilterRequest> filters : requests) {
+            SearchRequest request = new SearchRequest();
+            request.setFilters(filters);
+
+            assertEquals(names(authorRepository.findAll(new AuthorSpecification(request))),
+                    names(InMemorySearch.search(authors, request, Author.class)));
+        }
+
+        SearchRequest request = new SearchRequest();
+        request.setFilters(requests.get(0));
+        assertEquals(Collections.singleton("Anonymous"), names(InMemorySearch.search(authors, request, Author.class)));
+    }
+
+    private static Set<String> names(List<Author> authors) {
+        return authors.stream().map(Author::getName).collect(Collectors.toCollection(TreeSet::new));
+    }
+
+}
@@ -0,0 +1,151 @@
+package io.github.wwhysohard.search.memory;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.Book;
+import io.github.wwhysohard.search.model.Publisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static io.github.wwhysohard.search.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemorySearchTest {
+
+    private List<Author> authors;
+    private List<Book> books;
+
+    @BeforeEach
+    void setUp() {
+        Publisher bloomsbury = publisher("Bloomsbury", "UK");
+
+        Author rowling = author("J. K. Rowling", 5);
+        Book stone = book("Harry Potter and the Philosopher's Stone", 1997, rowling, bloomsbury);
+        Book chamber = book("Harry Potter and the Chamber of Secrets", 1998, rowling, bloomsbury);
+        Book vacancy = book("The Casual Vacancy", 2012, rowling, null);
+
+        Author tolkien = author("J. R. R. Tolkien", null);
+        Book hobbit = book("The Hobbit", 1937, tolkien, null);
+
+        Author anonymous = author("Anonymous", 3);
+
+        authors = Arrays.asList(rowling, tolkien, anonymous);
+        books = Arrays.asList(stone, chamber, vacancy, hobbit);
+    }
+
+    @Test
+    void testComparisons() {
+        assertEquals(Collections.singletonList("J. K. Rowling"),
+                names(filter("rating", QueryOperator.GREATER_THAN, "4")));
+        assertEquals(Arrays.asList("J. K. Rowling", "Anonymous"),
+                names(filter("rating", QueryOperator.NOT_EQUALS, "4")));
+        assertEquals(Collections.singletonList("J. R. R. Tolkien"),
+                names(filter("rating", QueryOperator.NULL, null)));
+        assertEquals(Collections.singletonList("Anonymous"),
+                names(in("rating", QueryOperator.IN, "1", "2", "3")));
+        assertEquals(Collections.singletonList("J. K. Rowling"),
+                names(in("rating", QueryOperator.NOT_IN, "1", "2", "3")));
+    }
+
+    @Test
+    void testLike() {
+        assertEquals(Collections.singletonList("J. R. R. Tolkien"), names(filter("fullName", QueryOperator.LIKE, "Tolk")));
+        assertEquals(Arrays.asList("J. K. Rowling", "J. R. R. Tolkien"), names(filter("name", QueryOperator.LIKE, "J._")));
+        assertEquals(Collections.singletonList("Anonymous"), names(filter("name", QueryOperator.ILIKE, "anon%s")));
+        assertTrue(names(filter("name", QueryOperator.LIKE, "anon")).isEmpty());
+    }
+
+    @Test
+    void testLiteralTextOperators() {
+        assertEquals(Arrays.asList("J. K. Rowling", "J. R. R. Tolkien"), names(filter("name", QueryOperator.STARTS_WITH, "J. ")));
+        assertTrue(names(filter("name", QueryOperator.STARTS_WITH, "J_")).isEmpty());
+        assertEquals(Collections.singletonList("J. R. R. Tolkien"), names(filter("name", QueryOperator.ENDS_WITH, "Tolkien")));
+        assertEquals(Collections.singletonList("Anonymous"), names(filter("name", QueryOperator.EQUALS_IGNORE_CASE, "ANONYMOUS")));
+        assertEquals(Collections.singletonList("J. K. Rowling"), names(filter("name", QueryOperator.ISTARTS_WITH, "j. k.")));
+    }
+
+    @Test
+    void testFullText() {
+        assertEquals(Collections.singletonList("J. R. R. Tolkien"), names(filter("name", QueryOperator.FULL_TEXT, "tolkien  j.")));
+        assertTrue(names(filter("name", QueryOperator.FULL_TEXT, "tolkien rowling")).isEmpty());
+    }
+
+    @Test
+    void testFiltersOfSameGroupMatchSameElement() {
+        assertTrue(names(
+                filter("books.title", QueryOperator.LIKE, "Vacancy"),
+                filter("books.published", QueryOperator.LESS_THAN, "2000-01-01")).isEmpty());
+
+        assertEquals(Collections.singletonList("J. K. Rowling"), names(
+                filter("books.title", QueryOperator.LIKE, "Harry"),
+                filter("books.published", QueryOperator.LESS_THAN, "2000-01-01")));
+    }
+
+    @Test
+    void testToOnePaths() {
+        Predicate<Book> fromUk = InMemorySearch.predicate(
+                Collections.singletonList(filter("publisher.country", QueryOperator.EQUALS, "UK")), Book.class);
+        Predicate<Book> withoutPublisher = InMemorySearch.predicate(
+                Collections.singletonList(filter("publisher.name", QueryOperator.NULL, null)), Book.class);
+
+        assertEquals(2, books.stream().filter(fromUk).count());
+        assertEquals(2, books.stream().filter(withoutPublisher).count());
+    }
+
+    @Test
+    void testSort() {
+        SearchRequest request = new SearchRequest();
+        request.setSorts(Collections.singletonList(
+                SortRequest.builder().withField("rating").withOrder(SortOrder.DESC).build()));
+
+        List<String> names = InMemorySearch.search(authors, request, Author.class).stream()
+                .map(Author::getName)
+                .collect(Collectors.toList());
+
+        assertEquals(Arrays.asList("J. K. Rowling", "Anonymous", "J. R. R. Tolkien"), names);
+    }
+
+    @Test
+    void testInvalidFilters() {
+        FilterException notAllowed = assertThrows(FilterException.class,
+                () -> InMemorySearch.predicate(Collections.singletonList(filter("books", QueryOperator.NULL, null)), Author.class));
+        FilterException illegalArgument = assertThrows(FilterException.class,
+                () -> InMemorySearch.predicate(Collections.singletonList(filter("rating", QueryOperator.EQUALS, "five")), Author.class));
+        FilterException emptyGroup = assertThrows(FilterException.class,
+                () -> InMemorySearch.predicate(Collections.singletonList(FilterRequest.builder().withOperator(QueryOperator.OR).build()), Author.class));
+
+        assertEquals(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_FILTERING, notAllowed.getCode());
+        assertEquals(ErrorCode.ILLEGAL_ARGUMENT, illegalArgument.getCode());
+        assertEquals(ErrorCode.FILTERS_CANNOT_BE_EMPTY, emptyGroup.getCode());
+    }
+
+    @Test
+    void testLikePattern() {
+        assertTrue(InMemorySearch.contains("Harry Potter", "Pot"));
+        assertTrue(InMemorySearch.contains("Harry Potter", "H%y_P"));
+        assertFalse(InMemorySearch.contains("Harry Potter", "H%z"));
+        assertTrue(InMemorySearch.contains("", "%"));
+    }
+
+    private List<String> names(FilterRequest... filters) {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Arrays.asList(filters));
+
+        return InMemorySearch.search(authors, request, Author.class).stream()
+                .map(Author::getName)
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,106 @@
+package io.github.wwhysohard.search.metadata;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+import io.github.wwhysohard.search.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterableRegistryTest {
+
+    @Test
+    void testResolveField() {
+        FilterablePath path = FilterableRegistry.resolve(TestModel.class, "name");
+
+        assertTrue(path.isValid());
+        assertNull(path.getJoin());
+        assertEquals("name", path.getAttributeName());
+        assertEquals(String.class, path.getJavaType());
+    }
+
+    @Test
+    void testResolveFieldByNames() {
+        FilterablePath path = FilterableRegistry.resolve(TestModel.class, "alias");
+
+        assertTrue(path.isValid());
+        assertEquals("name", path.getAttributeName());
+    }
+
+    @Test
+    void testResolveJoinedField() {
+        FilterablePath path = FilterableRegistry.resolve(TestModel.class, "children.code");
+
+        assertTrue(path.isValid());
+        assertEquals("children", path.getJoin());
+        assertEquals("code", path.getAttributeName());
+        assertEquals(Integer.class, path.getJavaType());
+    }
+
+    @Test
+    void testResolveInheritedField() {
+        FilterablePath path = FilterableRegistry.resolve(TestModel.class, "id");
+
+        assertTrue(path.isValid());
+        assertEquals(Long.class, path.getJavaType());
+    }
+
+    @Test
+    void testResolveCaseInsensitiveField() {
+        assertEquals("normalizedName", FilterableRegistry.resolve(TestModel.class, "alias").getCaseInsensitiveField());
+        assertEquals("normalizedName", FilterableRegistry.resolve(Book.class, "publisher.name").getCaseInsensitiveField());
+        assertNull(FilterableRegistry.resolve(TestModel.class, "children.code").getCaseInsensitiveField());
+        assertNull(FilterableRegistry.resolve(Book.class, "publisher.country").getCaseInsensitiveField());
+    }
+
+    @Test
+    void testResolvedPathIsCached() {
+        assertSame(FilterableRegistry.resolve(TestModel.class, "children.code"),
+                FilterableRegistry.resolve(TestModel.class, "children.code"));
+    }
+
+    @Test
+    void testResolveInvalidPath() {
+        assertFalse(FilterableRegistry.resolve(TestModel.class, "children").isValid());
+        assertFalse(FilterableRegistry.resolve(TestModel.class, "children.unknown").isValid());
+        assertFalse(FilterableRegistry.resolve(TestModel.class, "name.code").isValid());
+        assertFalse(FilterableRegistry.resolve(TestModel.class, null).isValid());
+    }
+
+    @Test
+    void testGetPaths() {
+        List<String> paths = FilterableRegistry.getPaths(TestModel.class);
+
+        assertEquals(3, paths.size());
+        assertTrue(paths.containsAll(Arrays.asList("id", "name", "children.code")));
+    }
+
+    private static class BaseModel {
+
+        @Filterable
+        private Long id;
+
+    }
+
+    private static class TestModel extends BaseModel {
+
+        @Filterable(names = "alias", caseInsensitiveField = "normalizedName")
+        private String name;
+
+        private String normalizedName;
+
+        @Filterable(joinable = true)
+        private List<ChildModel> children;
+
+    }
+
+    private static class ChildModel {
+
+        @Filterable
+        private Integer code;
+
+    }
+
+}
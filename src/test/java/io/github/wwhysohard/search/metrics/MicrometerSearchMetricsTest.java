@@ -0,0 +1,83 @@
+package io.github.wwhysohard.search.metrics;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.model.AuthorRepository;
+import io.github.wwhysohard.search.model.AuthorSpecification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class MicrometerSearchMetricsTest {
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        Instrumentation.setMetrics(new MicrometerSearchMetrics(registry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Instrumentation.setMetrics(null);
+    }
+
+    @Test
+    void testSearchIsMeasured() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(FilterRequest.builder().withOperator(QueryOperator.OR).withFilters(Arrays.asList(
+                FilterRequest.builder().withField("fullName").withOperator(QueryOperator.LIKE).withValue("Author").build(),
+                FilterRequest.builder().withField("id").withOperator(QueryOperator.IN).withValues(Arrays.asList("1", "2", "3")).build()
+        )).build()));
+        request.setSorts(Collections.singletonList(SortRequest.builder().withField("rating").withOrder(SortOrder.DESC).build()));
+
+        authorRepository.findAll(new AuthorSpecification(request), PageRequest.of(0, 10));
+
+        assertEquals(1, registry.get("search.predicate").tag("specification", "AuthorSpecification").timer().count());
+        assertEquals(1, registry.get("search.sorts").timer().count());
+        assertEquals(1, registry.get("search.operators").tag("operator", "OR").counter().count());
+        assertEquals(1, registry.get("search.operators").tag("operator", "IN").counter().count());
+        assertEquals(2, registry.get("search.filters.depth").summary().max());
+        assertEquals(3, registry.get("search.filters.in.size").summary().max());
+        assertEquals(1, registry.get("search.fields").tags("field", "fullName", "usage", "filter").counter().count());
+        assertEquals(1, registry.get("search.fields").tags("field", "rating", "usage", "sort").counter().count());
+    }
+
+    @Test
+    void testRejectionIsCounted() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(
+                FilterRequest.builder().withField("unknown").withOperator(QueryOperator.EQUALS).withValue("1").build()));
+
+        assertThrows(FilterException.class, () -> authorRepository.findAll(new AuthorSpecification(request)));
+        assertEquals(1, registry.get("search.rejections").tag("code", "FIELD_IS_NOT_ALLOWED_FOR_FILTERING").counter().count());
+    }
+
+    @Test
+    void testRejectedProjectionIsCountedOnce() {
+        SearchRequest request = new SearchRequest();
+        request.setProjection(Collections.singletonList("unknown"));
+
+        assertThrows(FilterException.class, () -> new AuthorSpecification(request).select(null));
+        assertEquals(1, registry.get("search.rejections").tag("code", "FIELD_IS_NOT_ALLOWED_FOR_PROJECTION").counter().count());
+    }
+
+}
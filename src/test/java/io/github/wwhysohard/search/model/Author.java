@@ -0,0 +1,33 @@
+package io.github.wwhysohard.search.model;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+import io.github.wwhysohard.search.cache.SearchCacheInvalidator;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Entity
+@EntityListeners(SearchCacheInvalidator.class)
+public class Author {
+
+    @Id
+    @Filterable
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Filterable(names = "fullName")
+    private String name;
+
+    @Filterable
+    private Integer rating;
+
+    @Filterable(joinable = true)
+    @OneToMany(mappedBy = "author")
+    private List<Book> books = new ArrayList<>();
+
+}
@@ -0,0 +1,12 @@
+package io.github.wwhysohard.search.model;
+
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.specification.GenericSpecification;
+
+public class AuthorSpecification extends GenericSpecification<Author> {
+
+    public AuthorSpecification(SearchRequest request) {
+        super(request, Author.class, false);
+    }
+
+}
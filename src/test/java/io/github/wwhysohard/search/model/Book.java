@@ -0,0 +1,36 @@
+package io.github.wwhysohard.search.model;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+import io.github.wwhysohard.search.cache.SearchCacheInvalidator;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Entity
+@EntityListeners(SearchCacheInvalidator.class)
+public class Book {
+
+    @Id
+    @Filterable
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Filterable
+    private String title;
+
+    @Filterable
+    private LocalDate published;
+
+    @Filterable(joinable = true)
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Author author;
+
+    @Filterable(joinable = true)
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Publisher publisher;
+
+}
@@ -0,0 +1,64 @@
+package io.github.wwhysohard.search.model;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.enums.QueryOperator;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Factories of requests and models shared by tests, models are not persisted
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static SearchRequest request(FilterRequest... filters) {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Arrays.asList(filters));
+        return request;
+    }
+
+    public static FilterRequest filter(String field, QueryOperator operator, String value) {
+        return FilterRequest.builder().withField(field).withOperator(operator).withValue(value).build();
+    }
+
+    public static FilterRequest in(String field, QueryOperator operator, String... values) {
+        return FilterRequest.builder().withField(field).withOperator(operator).withValues(Arrays.asList(values)).build();
+    }
+
+    public static FilterRequest group(QueryOperator operator, FilterRequest... filters) {
+        return FilterRequest.builder().withOperator(operator).withFilters(Arrays.asList(filters)).build();
+    }
+
+    public static Author author(String name, Integer rating) {
+        Author author = new Author();
+        author.setName(name);
+        author.setRating(rating);
+        return author;
+    }
+
+    /**
+     * Creates book published on the first day of the given year, which is added to books of the author
+     */
+    public static Book book(String title, int year, Author author, Publisher publisher) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setPublished(LocalDate.of(year, 1, 1));
+        book.setAuthor(author);
+        book.setPublisher(publisher);
+        if (author != null) author.getBooks().add(book);
+        return book;
+    }
+
+    public static Publisher publisher(String name, String country) {
+        Publisher publisher = new Publisher();
+        publisher.setName(name);
+        publisher.setCountry(country);
+        return publisher;
+    }
+
+}
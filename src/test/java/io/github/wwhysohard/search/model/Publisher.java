@@ -0,0 +1,30 @@
+package io.github.wwhysohard.search.model;
+
+import io.github.wwhysohard.search.annotation.Filterable;
+import io.github.wwhysohard.search.cache.SearchCacheInvalidator;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+@Getter
+@Setter
+@Entity
+@EntityListeners(SearchCacheInvalidator.class)
+public class Publisher {
+
+    @Id
+    @Filterable
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Filterable(caseInsensitiveField = "normalizedName")
+    @Column(nullable = false)
+    private String name;
+
+    private String normalizedName;
+
+    @Filterable
+    private String country;
+
+}
@@ -0,0 +1,107 @@
+package io.github.wwhysohard.search.processor;
+
+import io.github.wwhysohard.search.metadata.FilterableMetamodel;
+import io.github.wwhysohard.search.metadata.FilterablePath;
+import io.github.wwhysohard.search.metadata.FilterableRegistry;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.Book;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterableProcessorTest {
+
+    @TempDir
+    Path output;
+
+    @Test
+    void testMetamodelIsGenerated() throws NoSuchFieldException {
+        FilterableMetamodel metamodel = FilterableRegistry.getMetamodel(Book.class);
+
+        assertNotNull(metamodel);
+        assertEquals(Book.class, metamodel.getModel());
+        assertTrue(metamodel.getPaths().containsAll(Arrays.asList("title", "author.name", "publisher.country")));
+        assertEquals(metamodel.getPaths(), FilterableRegistry.getPaths(Book.class));
+
+        FilterablePath path = FilterableRegistry.resolve(Book.class, "author.name");
+        assertTrue(path.isValid());
+        assertEquals(Author.class.getDeclaredField("name"), path.getField());
+        assertEquals(Author.class, path.getJoins().get(0).getJavaType());
+    }
+
+    @Test
+    void testJoinableWithoutFilterableFieldsFailsBuild() {
+        List<Diagnostic<? extends JavaFileObject>> errors = compile("test.InvalidModel",
+                "package test;\n"
+                        + "import io.github.wwhysohard.search.annotation.Filterable;\n"
+                        + "public class InvalidModel {\n"
+                        + "    @Filterable(joinable = true)\n"
+                        + "    private String name;\n"
+                        + "}\n");
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).getMessage(null).contains("has no @Filterable fields"));
+    }
+
+    @Test
+    void testRawCollectionAndUnknownCaseInsensitiveFieldFailBuild() {
+        List<Diagnostic<? extends JavaFileObject>> errors = compile("test.InvalidModel",
+                "package test;\n"
+                        + "import io.github.wwhysohard.search.annotation.Filterable;\n"
+                        + "public class InvalidModel {\n"
+                        + "    @Filterable(caseInsensitiveField = \"unknown\")\n"
+                        + "    private String name;\n"
+                        + "    @Filterable(joinable = true)\n"
+                        + "    private java.util.List children;\n"
+                        + "}\n");
+
+        assertEquals(2, errors.size());
+    }
+
+    /**
+     * Compiles the given source with {@link FilterableProcessor}
+     *
+     * @param className qualified name of the compiled class
+     * @param source source code
+     *
+     * @return reported errors
+     */
+    private List<Diagnostic<? extends JavaFileObject>> compile(String className, String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+
+        List<String> options = Arrays.asList("-d", output.toString(), "-classpath",
+                System.getProperty("surefire.test.class.path", System.getProperty("java.class.path")));
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null,
+                Collections.singletonList(file));
+        task.setProcessors(Collections.singletonList(new FilterableProcessor()));
+
+        assertFalse(task.call());
+
+        return diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,92 @@
+package io.github.wwhysohard.search.specification;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.model.Book;
+import io.github.wwhysohard.search.model.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class CountQueryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void testCountQueryIsNotSortedNorJoined() {
+        SearchRequest request = sortedByAuthor();
+
+        CriteriaBuilder criteriaBuilder = entityManager.getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Book> root = query.from(Book.class);
+        query.where(new DistinctBookSpecification(request).toPredicate(root, query, criteriaBuilder));
+
+        assertTrue(root.getJoins().isEmpty());
+        assertTrue(query.getOrderList().isEmpty());
+        assertFalse(query.isDistinct());
+    }
+
+    @Test
+    void testContentQueryIsSorted() {
+        SearchRequest request = sortedByAuthor();
+
+        CriteriaBuilder criteriaBuilder = entityManager.getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<Book> query = criteriaBuilder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        query.where(new DistinctBookSpecification(request).toPredicate(root, query, criteriaBuilder));
+
+        assertEquals(1, root.getJoins().size());
+        assertEquals(1, query.getOrderList().size());
+        assertFalse(query.isDistinct());
+    }
+
+    @Test
+    void testPagedSearch() {
+        for (int i = 0; i < 5; i++) {
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            entityManager.persist(book);
+        }
+
+        Page<Book> page = bookRepository.findAll(new DistinctBookSpecification(sortedByAuthor()), PageRequest.of(0, 2));
+
+        assertEquals(5, page.getTotalElements());
+        assertEquals(2, page.getContent().size());
+    }
+
+    private static SearchRequest sortedByAuthor() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(FilterRequest.builder()
+                .withField("title").withOperator(QueryOperator.LIKE).withValue("Book").build()));
+        request.setSorts(Collections.singletonList(SortRequest.builder()
+                .withField("author.name").withOrder(SortOrder.ASC).build()));
+        return request;
+    }
+
+    private static class DistinctBookSpecification extends GenericSpecification<Book> {
+
+        private DistinctBookSpecification(SearchRequest request) {
+            super(request, Book.class, true);
+        }
+
+    }
+
+}
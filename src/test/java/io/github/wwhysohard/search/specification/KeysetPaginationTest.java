@@ -0,0 +1,176 @@
+package io.github.wwhysohard.search.specification;
+
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.AuthorRepository;
+import io.github.wwhysohard.search.model.AuthorSpecification;
+import io.github.wwhysohard.search.model.Book;
+import io.github.wwhysohard.search.model.BookSpecification;
+import io.github.wwhysohard.search.model.Publisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static io.github.wwhysohard.search.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class KeysetPaginationTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @BeforeEach
+    void setUp() {
+        int[] ratings = { 3, 5, 3, 1, 5, 3, 2 };
+
+        for (int i = 0; i < ratings.length; i++) {
+            Author author = new Author();
+            author.setName("author" + (i % 3));
+            author.setRating(ratings[i]);
+            authorRepository.save(author);
+        }
+    }
+
+    @Test
+    void testPagesFollowSortOrder() {
+        List<SortRequest> sorts = Arrays.asList(
+                SortRequest.builder().withField("rating").withOrder(SortOrder.DESC).build(),
+                SortRequest.builder().withField("name").withOrder(SortOrder.ASC).build());
+
+        List<Long> expected = authorRepository.findAll().stream()
+                .sorted(Comparator.comparing(Author::getRating).reversed()
+                        .thenComparing(Author::getName)
+                        .thenComparing(Author::getId))
+                .map(Author::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(expected, paginate(sorts));
+    }
+
+    @Test
+    void testNullValuesArePlacedLast() {
+        for (int i = 0; i < 3; i++) {
+            Author author = new Author();
+            author.setName("unrated" + i);
+            authorRepository.save(author);
+        }
+
+        for (SortOrder order : SortOrder.values()) {
+            List<SortRequest> sorts = Arrays.asList(
+                    SortRequest.builder().withField("rating").withOrder(order).build(),
+                    SortRequest.builder().withField("name").withOrder(SortOrder.ASC).build());
+
+            Comparator<Integer> ratings = (order == SortOrder.ASC)
+                    ? Comparator.naturalOrder()
+                    : Comparator.reverseOrder();
+            List<Long> expected = authorRepository.findAll().stream()
+                    .sorted(Comparator.comparing(Author::getRating, Comparator.nullsLast(ratings))
+                            .thenComparing(Author::getName)
+                            .thenComparing(Author::getId))
+                    .map(Author::getId)
+                    .collect(Collectors.toList());
+
+            assertEquals(expected, paginate(sorts));
+        }
+    }
+
+    @Test
+    void testNotNullFieldIsComparedByPlainRange() {
+        Publisher publisher = entityManager.persist(publisher("Local", "KZ"));
+        Book book = entityManager.persist(book("First", 2010, null, publisher));
+
+        String notNull = query("name", publisher, Publisher.class, PublisherSpecification::new);
+        assertFalse(notNull.contains("is null"), notNull);
+        assertFalse(notNull.contains("case"), notNull);
+
+        // publisher is left joined, so its name is null for books without publisher
+        String leftJoined = query("publisher.name", book, Book.class, BookSpecification::new);
+        assertTrue(leftJoined.contains("is null"), leftJoined);
+        assertTrue(leftJoined.contains("case"), leftJoined);
+    }
+
+    @Test
+    void testCursorOfDifferentSorts() {
+        SearchRequest request = new SearchRequest();
+        request.setSorts(Arrays.asList(SortRequest.builder().withField("rating").withOrder(SortOrder.ASC).build()));
+        request.setKeyset(true);
+
+        AuthorSpecification specification = new AuthorSpecification(request);
+        String cursor = specification.nextCursor(authorRepository.findAll(specification).get(0));
+
+        SearchRequest otherRequest = new SearchRequest();
+        otherRequest.setSorts(Arrays.asList(SortRequest.builder().withField("name").withOrder(SortOrder.ASC).build()));
+        otherRequest.setCursor(cursor);
+
+        FilterException exception = assertThrows(FilterException.class,
+                () -> authorRepository.findAll(new AuthorSpecification(otherRequest)));
+        assertEquals(ErrorCode.INVALID_CURSOR, exception.getCode());
+    }
+
+    /**
+     * Renders keyset query of the page following the given model, sorted by the given field
+     */
+    private <T> String query(String field, T last, Class<T> type, Function<SearchRequest, GenericSpecification<T>> specification) {
+        SearchRequest request = new SearchRequest();
+        request.setSorts(Arrays.asList(SortRequest.builder().withField(field).withOrder(SortOrder.ASC).build()));
+        request.setKeyset(true);
+        request.setCursor(specification.apply(request).nextCursor(last));
+
+        CriteriaBuilder criteriaBuilder = entityManager.getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(type);
+        Root<T> root = query.from(type);
+        query.where(specification.apply(request).toPredicate(root, query, criteriaBuilder));
+
+        return entityManager.getEntityManager().createQuery(query).unwrap(org.hibernate.query.Query.class).getQueryString();
+    }
+
+    private List<Long> paginate(List<SortRequest> sorts) {
+        List<Long> actual = new ArrayList<>();
+        String cursor = null;
+
+        do {
+            SearchRequest request = new SearchRequest();
+            request.setSorts(sorts);
+            request.setKeyset(true);
+            request.setCursor(cursor);
+
+            AuthorSpecification specification = new AuthorSpecification(request);
+            List<Author> page = authorRepository.findAll(specification, PageRequest.of(0, 2)).getContent();
+            page.forEach(author -> actual.add(author.getId()));
+
+            cursor = page.isEmpty() ? null : specification.nextCursor(page.get(page.size() - 1));
+        } while (cursor != null);
+
+        return actual;
+    }
+
+    private static class PublisherSpecification extends GenericSpecification<Publisher> {
+
+        private PublisherSpecification(SearchRequest request) {
+            super(request, Publisher.class, false);
+        }
+
+    }
+
+}
@@ -0,0 +1,95 @@
+package io.github.wwhysohard.search.specification;
+
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.github.wwhysohard.search.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class LazyJoinTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        Publisher local = entityManager.persist(publisher("Local", "KZ"));
+        Publisher foreign = entityManager.persist(publisher("Foreign", "GB"));
+        Author author = entityManager.persist(author("J. K. Rowling", null));
+
+        entityManager.persist(book("First", 2000, author, foreign));
+        entityManager.persist(book("Second", 2000, null, local));
+        entityManager.persist(book("Third", 2000, author, local));
+    }
+
+    @Test
+    void testRootFieldsProduceNoJoins() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(filter("title", QueryOperator.EQUALS, "First")));
+        request.setSorts(Collections.singletonList(SortRequest.builder().withField("id").withOrder(SortOrder.ASC).build()));
+
+        CriteriaBuilder criteriaBuilder = entityManager.getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<Book> query = criteriaBuilder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        query.where(new BookSpecification(request).toPredicate(root, query, criteriaBuilder));
+
+        assertTrue(root.getJoins().isEmpty());
+        assertEquals(1, entityManager.getEntityManager().createQuery(query).getResultList().size());
+    }
+
+    @Test
+    void testJoinsAreCreatedOnDemand() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Arrays.asList(
+                filter("publisher.country", QueryOperator.EQUALS, "KZ"),
+                filter("publisher.name", QueryOperator.EQUALS, "Local")));
+        request.setSorts(Collections.singletonList(SortRequest.builder().withField("author.name").withOrder(SortOrder.DESC).build()));
+
+        CriteriaBuilder criteriaBuilder = entityManager.getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<Book> query = criteriaBuilder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        query.where(new BookSpecification(request).toPredicate(root, query, criteriaBuilder));
+
+        assertEquals(2, root.getJoins().size());
+        assertEquals(2, entityManager.getEntityManager().createQuery(query).getResultList().size());
+    }
+
+    @Test
+    void testMultiHopJoin() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(filter("books.publisher.country", QueryOperator.EQUALS, "GB")));
+
+        List<Author> authors = entityManager.getEntityManager()
+                .createQuery(criteria(request))
+                .getResultList();
+
+        assertEquals(1, authors.size());
+    }
+
+    private CriteriaQuery<Author> criteria(SearchRequest request) {
+        CriteriaBuilder criteriaBuilder = entityManager.getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<Author> query = criteriaBuilder.createQuery(Author.class);
+        Root<Author> root = query.from(Author.class);
+        return query.where(new AuthorSpecification(request).toPredicate(root, query, criteriaBuilder));
+    }
+
+}
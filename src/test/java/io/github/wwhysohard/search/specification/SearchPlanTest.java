@@ -0,0 +1,259 @@
+package io.github.wwhysohard.search.specification;
+
+import io.github.wwhysohard.search.converter.ValueConverter;
+import io.github.wwhysohard.search.converter.ValueConverters;
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.dto.SortRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.enums.SortOrder;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.model.*;
+import io.github.wwhysohard.search.utils.CompiledFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.wwhysohard.search.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class SearchPlanTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        Publisher local = entityManager.persist(publisher("Local", "KZ"));
+        Publisher foreign = entityManager.persist(publisher("Foreign", "GB"));
+
+        entityManager.persist(book("First", 2010, null, foreign));
+        entityManager.persist(book("Second", 2010, null, local));
+        entityManager.persist(book("Third", 2010, null, local));
+        entityManager.persist(book("Fourth", 2010, null, local));
+    }
+
+    @Test
+    void testSpecificationIsReusedAcrossQueries() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(filter("title", QueryOperator.NOT_EQUALS, "Fourth")));
+        request.setSorts(Collections.singletonList(SortRequest.builder().withField("title").withOrder(SortOrder.ASC).build()));
+
+        LocalBookSpecification specification = new LocalBookSpecification(request);
+
+        for (int i = 0; i < 2; i++) {
+            Page<Book> page = bookRepository.findAll(specification, PageRequest.of(0, 1));
+            assertEquals(2, page.getTotalElements());
+            assertEquals("Second", page.getContent().get(0).getTitle());
+        }
+    }
+
+    @Test
+    void testDeprecatedHooksAreApplied() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(filter("title", QueryOperator.NOT_EQUALS, "Fourth")));
+
+        request.setSorts(Collections.singletonList(SortRequest.builder().withField("title").withOrder(SortOrder.ASC).build()));
+
+        LegacyLocalBookSpecification specification = new LegacyLocalBookSpecification(request);
+
+        for (int i = 0; i < 2; i++) {
+            Page<Book> page = bookRepository.findAll(specification, PageRequest.of(0, 1));
+            assertEquals(2, page.getTotalElements());
+            assertEquals("Third", page.getContent().get(0).getTitle());
+        }
+        assertEquals(4, specification.filtered);
+        assertThrows(IllegalStateException.class, specification::getLegacyPredicates);
+    }
+
+    @Test
+    void testSpecificationIsAppliedConcurrently() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(filter("publisher.country", QueryOperator.EQUALS, "KZ")));
+        BookSpecification specification = new BookSpecification(request);
+        CriteriaBuilder criteriaBuilder = entityManager.getEntityManager().getCriteriaBuilder();
+
+        List<CompletableFuture<CriteriaQuery<Book>>> queries = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            queries.add(CompletableFuture.supplyAsync(() -> {
+                CriteriaQuery<Book> query = criteriaBuilder.createQuery(Book.class);
+                Root<Book> root = query.from(Book.class);
+                return query.where(specification.toPredicate(root, query, criteriaBuilder));
+            }));
+        }
+
+        for (CompletableFuture<CriteriaQuery<Book>> query : queries) {
+            assertEquals(3, entityManager.getEntityManager().createQuery(query.join()).getResultList().size());
+        }
+    }
+
+    @Test
+    void testPlanIsSnapshotOfRequest() {
+        SearchRequest request = new SearchRequest();
+        FilterRequest filter = filter("title", QueryOperator.EQUALS, "First");
+        request.setFilters(Collections.singletonList(filter));
+
+        SearchPlan<Book> plan = SearchPlan.compile(request, Book.class);
+        filter.setValue("Second");
+
+        assertEquals("First", plan.getFilters().getFilters().get(0).getValue());
+    }
+
+    @Test
+    void testValuesAreConvertedOnceOnCompile() {
+        ValueConverter<LocalDate> converter = ValueConverters.get(LocalDate.class);
+        AtomicInteger conversions = new AtomicInteger();
+        ValueConverters.register(LocalDate.class, value -> {
+            conversions.incrementAndGet();
+            return converter.convert(value);
+        });
+
+        try {
+            SearchRequest request = new SearchRequest();
+            request.setFilters(Arrays.asList(
+                    filter("published", QueryOperator.GREATER_THAN_OR_EQUAL, "2000-01-01"),
+                    FilterRequest.builder().withField("published").withOperator(QueryOperator.NOT_IN)
+                            .withValues(Arrays.asList("2001-01-01", "2002-01-01")).build()));
+
+            BookSpecification specification = new BookSpecification(request);
+            CompiledFilter compiled = specification.getPlan().getFilters().getCompiled().get(0);
+            assertEquals(LocalDate.of(2000, 1, 1), compiled.getValue());
+            assertEquals(3, conversions.get());
+
+            for (int i = 0; i < 2; i++) {
+                assertEquals(4, bookRepository.findAll(specification).size());
+            }
+            assertEquals(3, conversions.get());
+        } finally {
+            ValueConverters.register(LocalDate.class, converter);
+        }
+    }
+
+    @Test
+    void testCursorIsConvertedOnceOnCompile() {
+        SearchRequest request = new SearchRequest();
+        request.setSorts(Collections.singletonList(SortRequest.builder().withField("published").withOrder(SortOrder.ASC).build()));
+        request.setKeyset(true);
+
+        BookSpecification first = new BookSpecification(request);
+        request.setCursor(first.nextCursor(bookRepository.findAll(first, PageRequest.of(0, 1)).getContent().get(0)));
+
+        ValueConverter<LocalDate> converter = ValueConverters.get(LocalDate.class);
+        AtomicInteger conversions = new AtomicInteger();
+        ValueConverters.register(LocalDate.class, value -> {
+            conversions.incrementAndGet();
+            return converter.convert(value);
+        });
+
+        try {
+            BookSpecification next = new BookSpecification(request);
+            next.getPlan();
+            assertEquals(1, conversions.get());
+
+            for (int i = 0; i < 2; i++) {
+                assertEquals(3, bookRepository.findAll(next).size());
+            }
+            assertEquals(1, conversions.get());
+        } finally {
+            ValueConverters.register(LocalDate.class, converter);
+        }
+    }
+
+    @Test
+    void testInvalidRequestIsRejectedOnCompile() {
+        SearchRequest request = new SearchRequest();
+        request.setSorts(Collections.singletonList(SortRequest.builder().withField("unknown").withOrder(SortOrder.ASC).build()));
+
+        FilterException exception = assertThrows(FilterException.class, () -> SearchPlan.compile(request, Book.class));
+        assertEquals(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_SORTING, exception.getCode());
+
+        request.setSorts(null);
+        request.setProjection(Collections.singletonList("unknown"));
+
+        exception = assertThrows(FilterException.class, () -> new BookSpecification(request).getPlan());
+        assertEquals(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_PROJECTION, exception.getCode());
+    }
+
+    /**
+     * Restricts access to books of local publishers through an explicitly initialized join
+     */
+    private static class LocalBookSpecification extends GenericSpecification<Book> {
+
+        private LocalBookSpecification(SearchRequest request) {
+            super(request, Book.class, false);
+        }
+
+        @Override
+        protected void initializeJoins(Root<Book> root, Map<String, Join<?, ?>> joins) {
+            joins.put("publisher", root.join("publisher", JoinType.INNER));
+        }
+
+        @Override
+        protected void processAccess(Root<Book> root, CriteriaBuilder criteriaBuilder, Map<String, Join<?, ?>> joins,
+                                     List<Predicate> predicates) {
+            predicates.add(criteriaBuilder.equal(joins.get("publisher").get("country"), "KZ"));
+        }
+
+    }
+
+    /**
+     * Restricts access to books of local publishers through deprecated hooks
+     */
+    @SuppressWarnings("deprecation")
+    private static class LegacyLocalBookSpecification extends GenericSpecification<Book> {
+
+        private int filtered;
+
+        private LegacyLocalBookSpecification(SearchRequest request) {
+            super(request, Book.class, false);
+        }
+
+        @Override
+        protected void initializeJoins(Root<Book> root) {
+            joins.put("publisher", root.join("publisher", JoinType.INNER));
+        }
+
+        protected void processAccess(Root<Book> root, CriteriaBuilder criteriaBuilder) {
+            predicates.add(criteriaBuilder.equal(joins.get("publisher").get("country"), "KZ"));
+        }
+
+        protected void filter(Root<Book> root, CriteriaBuilder criteriaBuilder) {
+            filtered++;
+            super.filter(root, criteriaBuilder);
+        }
+
+        protected void sort(Root<Book> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+            query.orderBy(criteriaBuilder.desc(root.get("title")));
+        }
+
+        private int getLegacyPredicates() {
+            return predicates.size();
+        }
+
+    }
+
+}
@@ -0,0 +1,92 @@
+package io.github.wwhysohard.search.specification;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.AuthorSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.github.wwhysohard.search.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class SemiJoinTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        Author rowling = entityManager.persist(author("J. K. Rowling", null));
+        entityManager.persist(book("Harry Potter and the Philosopher's Stone", 1997, rowling, null));
+        entityManager.persist(book("Harry Potter and the Chamber of Secrets", 1998, rowling, null));
+        entityManager.persist(book("The Casual Vacancy", 2012, rowling, null));
+
+        Author tolkien = entityManager.persist(author("J. R. R. Tolkien", null));
+        entityManager.persist(book("The Hobbit", 1937, tolkien, null));
+    }
+
+    @Test
+    void testCollectionFilterDoesNotMultiplyRows() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(filter("books.title", QueryOperator.LIKE, "Harry")));
+
+        CriteriaBuilder criteriaBuilder = entityManager.getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<Author> query = criteriaBuilder.createQuery(Author.class);
+        Root<Author> root = query.from(Author.class);
+        query.where(new AuthorSpecification(request).toPredicate(root, query, criteriaBuilder));
+
+        List<Author> authors = entityManager.getEntityManager().createQuery(query).getResultList();
+
+        assertTrue(root.getJoins().isEmpty());
+        assertFalse(query.isDistinct());
+        assertEquals(1, authors.size());
+        assertEquals("J. K. Rowling", authors.get(0).getName());
+    }
+
+    @Test
+    void testFiltersOfSameGroupMatchSameRow() {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Arrays.asList(
+                filter("books.title", QueryOperator.LIKE, "Vacancy"),
+                filter("books.published", QueryOperator.LESS_THAN, "2000-01-01")));
+
+        assertTrue(search(request).isEmpty());
+    }
+
+    @Test
+    void testNestedGroupOnCollection() {
+        FilterRequest or = FilterRequest.builder()
+                .withOperator(QueryOperator.OR)
+                .withFilters(Arrays.asList(
+                        filter("books.title", QueryOperator.EQUALS, "The Hobbit"),
+                        filter("books.title", QueryOperator.EQUALS, "The Casual Vacancy")))
+                .build();
+
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(or));
+
+        assertEquals(2, search(request).size());
+    }
+
+    private List<Author> search(SearchRequest request) {
+        CriteriaBuilder criteriaBuilder = entityManager.getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<Author> query = criteriaBuilder.createQuery(Author.class);
+        Root<Author> root = query.from(Author.class);
+        query.where(new AuthorSpecification(request).toPredicate(root, query, criteriaBuilder));
+        return entityManager.getEntityManager().createQuery(query).getResultList();
+    }
+
+}
@@ -0,0 +1,107 @@
+package io.github.wwhysohard.search.specification;
+
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.executor.SearchExecutor;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.AuthorRepository;
+import io.github.wwhysohard.search.model.AuthorSpecification;
+import io.github.wwhysohard.search.model.Book;
+import io.github.wwhysohard.search.model.BookRepository;
+import io.github.wwhysohard.search.model.BookSpecification;
+import io.github.wwhysohard.search.model.Publisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static io.github.wwhysohard.search.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class TextOperatorTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private SearchExecutor searchExecutor;
+
+    @BeforeEach
+    void setUp() {
+        searchExecutor = new SearchExecutor(entityManager.getEntityManager());
+
+        for (String name : new String[] { "Harry_Potter", "Harry Potter", "harry%potter", "Ron\\Weasley" }) {
+            Author author = new Author();
+            author.setName(name);
+            entityManager.persist(author);
+        }
+
+        Publisher publisher = new Publisher();
+        publisher.setName("Penguin");
+        publisher.setNormalizedName("penguin classics");
+        entityManager.persist(publisher);
+
+        Book book = new Book();
+        book.setTitle("Emma");
+        book.setPublisher(publisher);
+        entityManager.persist(book);
+    }
+
+    @Test
+    void testWildcardsAreMatchedLiterally() {
+        assertEquals(Collections.singletonList("Harry_Potter"), names(QueryOperator.STARTS_WITH, "Harry_"));
+        assertEquals(Collections.singletonList("harry%potter"), names(QueryOperator.ENDS_WITH, "%potter"));
+        assertEquals(Collections.singletonList("Ron\\Weasley"), names(QueryOperator.STARTS_WITH, "Ron\\"));
+    }
+
+    @Test
+    void testCaseInsensitiveOperators() {
+        assertEquals(Collections.singletonList("Harry Potter"), names(QueryOperator.EQUALS_IGNORE_CASE, "HARRY POTTER"));
+        assertEquals(3, names(QueryOperator.ISTARTS_WITH, "HARRY").size());
+        assertEquals(Collections.singletonList("harry%potter"), names(QueryOperator.ISTARTS_WITH, "HARRY%"));
+    }
+
+    @Test
+    void testCaseInsensitiveFieldIsCompared() {
+        SearchRequest request = request(filter("publisher.name", QueryOperator.ISTARTS_WITH, "Penguin C"));
+
+        assertEquals(1, bookRepository.findAll(new BookSpecification(request)).size());
+        assertEquals(1, searchExecutor.findAll(new BookSpecification(request)).size());
+        assertTrue(bookRepository.findAll(new BookSpecification(request(
+                filter("publisher.name", QueryOperator.EQUALS_IGNORE_CASE, "Penguin")))).isEmpty());
+    }
+
+    @Test
+    void testFullTextRequiresRegisteredFunctions() {
+        SearchRequest request = request(filter("name", QueryOperator.FULL_TEXT, "harry"));
+
+        FilterException exception = assertThrows(FilterException.class, () -> authorRepository.findAll(new AuthorSpecification(request)));
+        assertEquals(ErrorCode.OPERATOR_IS_NOT_SUPPORTED, exception.getCode());
+    }
+
+    private List<String> names(QueryOperator operator, String value) {
+        SearchRequest request = request(filter("name", operator, value));
+
+        List<String> literal = authorRepository.findAll(new AuthorSpecification(request)).stream()
+                .map(Author::getName).sorted().collect(Collectors.toList());
+        List<String> bound = searchExecutor.findAll(new AuthorSpecification(request)).stream()
+                .map(Author::getName).sorted().collect(Collectors.toList());
+
+        assertEquals(literal, bound);
+        return literal;
+    }
+
+}
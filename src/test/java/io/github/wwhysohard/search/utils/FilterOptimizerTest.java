@@ -0,0 +1,144 @@
+package io.github.wwhysohard.search.utils;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.enums.ErrorCode;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.exception.FilterException;
+import io.github.wwhysohard.search.model.Author;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.github.wwhysohard.search.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterOptimizerTest {
+
+    @Test
+    void testFlattenAndDeduplicate() {
+        List<FilterRequest> filters = optimize(
+                filter("name", QueryOperator.LIKE, "King"),
+                group(QueryOperator.AND,
+                        filter("name", QueryOperator.LIKE, "King"),
+                        group(QueryOperator.OR, filter("rating", QueryOperator.NOT_NULL, null))));
+
+        assertEquals(2, filters.size());
+        assertEquals(QueryOperator.LIKE, filters.get(0).getOperator());
+        assertEquals(QueryOperator.NOT_NULL, filters.get(1).getOperator());
+    }
+
+    @Test
+    void testMergeEqualitiesIntoIn() {
+        List<FilterRequest> filters = optimize(group(QueryOperator.OR,
+                filter("rating", QueryOperator.EQUALS, "1"),
+                filter("rating", QueryOperator.EQUALS, "2"),
+                in("rating", QueryOperator.IN, "02", "3")));
+
+        assertEquals(1, filters.size());
+        assertEquals(QueryOperator.IN, filters.get(0).getOperator());
+        assertEquals(Arrays.asList("1", "2", "3"), filters.get(0).getValues());
+    }
+
+    @Test
+    void testIntersectRanges() {
+        List<FilterRequest> filters = optimize(
+                filter("rating", QueryOperator.GREATER_THAN, "1"),
+                filter("rating", QueryOperator.GREATER_THAN_OR_EQUAL, "3"),
+                filter("rating", QueryOperator.LESS_THAN, "10"),
+                filter("rating", QueryOperator.LESS_THAN_OR_EQUAL, "5"));
+
+        assertEquals(2, filters.size());
+        assertEquals(QueryOperator.GREATER_THAN_OR_EQUAL, filters.get(0).getOperator());
+        assertEquals("3", filters.get(0).getValue());
+        assertEquals(QueryOperator.LESS_THAN_OR_EQUAL, filters.get(1).getOperator());
+        assertEquals("5", filters.get(1).getValue());
+
+        List<FilterRequest> point = optimize(
+                filter("rating", QueryOperator.GREATER_THAN_OR_EQUAL, "4"),
+                filter("rating", QueryOperator.LESS_THAN_OR_EQUAL, "4"));
+        assertEquals(Collections.singletonList(QueryOperator.EQUALS), operators(point));
+
+        List<FilterRequest> reduced = optimize(
+                in("rating", QueryOperator.IN, "1", "2", "3", "4"),
+                filter("rating", QueryOperator.NOT_EQUALS, "2"),
+                filter("rating", QueryOperator.LESS_THAN, "4"));
+        assertEquals(Arrays.asList("1", "3"), reduced.get(0).getValues());
+    }
+
+    @Test
+    void testUnsatisfiable() {
+        assertTrue(unsatisfiable(filter("id", QueryOperator.EQUALS, "1"), filter("id", QueryOperator.EQUALS, "2")));
+        assertTrue(unsatisfiable(filter("rating", QueryOperator.GREATER_THAN, "5"), filter("rating", QueryOperator.LESS_THAN, "3")));
+        assertTrue(unsatisfiable(filter("rating", QueryOperator.GREATER_THAN, "5"), filter("rating", QueryOperator.LESS_THAN_OR_EQUAL, "5")));
+        assertTrue(unsatisfiable(in("rating", QueryOperator.IN, "1", "2"), in("rating", QueryOperator.NOT_IN, "2", "1")));
+        assertTrue(unsatisfiable(filter("rating", QueryOperator.NULL, null), filter("rating", QueryOperator.EQUALS, "1")));
+        assertTrue(unsatisfiable(group(QueryOperator.OR,
+                group(QueryOperator.AND, filter("id", QueryOperator.EQUALS, "1"), filter("id", QueryOperator.EQUALS, "2")),
+                group(QueryOperator.AND, filter("name", QueryOperator.NULL, null), filter("name", QueryOperator.NOT_NULL, null)))));
+
+        List<FilterRequest> satisfiable = optimize(group(QueryOperator.OR,
+                group(QueryOperator.AND, filter("id", QueryOperator.EQUALS, "1"), filter("id", QueryOperator.EQUALS, "2")),
+                filter("name", QueryOperator.EQUALS, "King")));
+        assertEquals(Collections.singletonList(QueryOperator.EQUALS), operators(satisfiable));
+    }
+
+    @Test
+    void testStringsAreLeftToDatabase() {
+        List<FilterRequest> range = optimize(
+                filter("name", QueryOperator.GREATER_THAN_OR_EQUAL, "a"),
+                filter("name", QueryOperator.LESS_THAN_OR_EQUAL, "Z"));
+        assertEquals(Arrays.asList(QueryOperator.GREATER_THAN_OR_EQUAL, QueryOperator.LESS_THAN_OR_EQUAL), operators(range));
+
+        List<FilterRequest> equalities = optimize(
+                filter("name", QueryOperator.EQUALS, "King"),
+                in("name", QueryOperator.IN, "KING", "Rowling"),
+                filter("name", QueryOperator.NOT_EQUALS, "king"));
+        assertEquals(Arrays.asList(QueryOperator.EQUALS, QueryOperator.IN, QueryOperator.NOT_EQUALS), operators(equalities));
+
+        assertTrue(unsatisfiable(filter("name", QueryOperator.NULL, null), filter("name", QueryOperator.EQUALS, "King")));
+    }
+
+    @Test
+    void testSemiJoinGroupsArePreserved() {
+        List<FilterRequest> filters = optimize(
+                filter("books.title", QueryOperator.LIKE, "Harry"),
+                group(QueryOperator.AND, filter("books.published", QueryOperator.LESS_THAN, "2000-01-01")));
+
+        assertEquals(Arrays.asList(QueryOperator.LIKE, QueryOperator.AND), operators(filters));
+    }
+
+    @Test
+    void testInvalidFilters() {
+        FilterException notAllowed = assertThrows(FilterException.class,
+                () -> optimize(filter("books", QueryOperator.NULL, null)));
+        FilterException illegalArgument = assertThrows(FilterException.class,
+                () -> optimize(filter("rating", QueryOperator.EQUALS, "five")));
+        FilterException emptyGroup = assertThrows(FilterException.class,
+                () -> optimize(group(QueryOperator.OR)));
+
+        assertEquals(ErrorCode.FIELD_IS_NOT_ALLOWED_FOR_FILTERING, notAllowed.getCode());
+        assertEquals(ErrorCode.ILLEGAL_ARGUMENT, illegalArgument.getCode());
+        assertEquals(ErrorCode.FILTERS_CANNOT_BE_EMPTY, emptyGroup.getCode());
+    }
+
+    private static List<FilterRequest> optimize(FilterRequest... filters) {
+        OptimizedFilters optimized = FilterOptimizer.optimize(Arrays.asList(filters), Author.class);
+        assertFalse(optimized.isUnsatisfiable());
+        return optimized.getFilters();
+    }
+
+    private static boolean unsatisfiable(FilterRequest... filters) {
+        return FilterOptimizer.optimize(Arrays.asList(filters), Author.class).isUnsatisfiable();
+    }
+
+    private static List<QueryOperator> operators(List<FilterRequest> filters) {
+        QueryOperator[] operators = new QueryOperator[filters.size()];
+        for (int i = 0; i < operators.length; i++) {
+            operators[i] = filters.get(i).getOperator();
+        }
+        return Arrays.asList(operators);
+    }
+
+}
@@ -0,0 +1,137 @@
+package io.github.wwhysohard.search.utils;
+
+import io.github.wwhysohard.search.dto.FilterRequest;
+import io.github.wwhysohard.search.dto.SearchRequest;
+import io.github.wwhysohard.search.enums.InListStrategy;
+import io.github.wwhysohard.search.enums.QueryOperator;
+import io.github.wwhysohard.search.executor.SearchExecutor;
+import io.github.wwhysohard.search.model.Author;
+import io.github.wwhysohard.search.model.AuthorRepository;
+import io.github.wwhysohard.search.model.AuthorSpecification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.metadata_builder_contributor="
+                + "io.github.wwhysohard.search.hibernate.SearchMetadataBuilderContributor",
+        "spring.jpa.properties.hibernate.query.in_clause_parameter_padding=true"})
+class InListsTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    private final List<String> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            Author author = new Author();
+            author.setName("Author " + i);
+            author.setRating(i);
+            entityManager.persist(author);
+
+            if (i % 2 == 0) ids.add(String.valueOf(author.getId()));
+        }
+
+        for (long id = -1; id > -2500; id--) {
+            ids.add(String.valueOf(id));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        InLists.reset();
+    }
+
+    @Test
+    void testStrategyIsChosenBySizeAndBinding() {
+        CriteriaBuilder criteriaBuilder = entityManager.getEntityManager().getCriteriaBuilder();
+
+        assertEquals(InListStrategy.PLAIN, InLists.select(criteriaBuilder, Long.class, 100, true));
+        assertEquals(InListStrategy.ARRAY, InLists.select(criteriaBuilder, long.class, 101, true));
+        assertEquals(InListStrategy.PLAIN, InLists.select(criteriaBuilder, Long.class, 1000, false));
+        assertEquals(InListStrategy.CHUNKED, InLists.select(criteriaBuilder, Long.class, 1001, false));
+        assertEquals(InListStrategy.CHUNKED, InLists.select(criteriaBuilder, Object.class, 1001, true));
+    }
+
+    @Test
+    void testLargeListIsBoundAsArray() {
+        SearchExecutor searchExecutor = new SearchExecutor(entityManager.getEntityManager());
+
+        List<Author> in = searchExecutor.findAll(new AuthorSpecification(request(QueryOperator.IN)));
+        List<Author> notIn = searchExecutor.findAll(new AuthorSpecification(request(QueryOperator.NOT_IN)));
+
+        assertEquals(3, in.size());
+        assertEquals(2, notIn.size());
+    }
+
+    @Test
+    void testLargeListIsChunked() {
+        List<Author> in = authorRepository.findAll(new AuthorSpecification(request(QueryOperator.IN)));
+        List<Author> notIn = authorRepository.findAll(new AuthorSpecification(request(QueryOperator.NOT_IN)));
+
+        assertEquals(3, in.size());
+        assertEquals(2, notIn.size());
+    }
+
+    @Test
+    void testBoundListIsChunkedWithoutArrays() {
+        InLists.setArrayThreshold(Integer.MAX_VALUE);
+        InLists.setChunkSize(2);
+        SearchExecutor searchExecutor = new SearchExecutor(entityManager.getEntityManager());
+
+        List<Author> in = searchExecutor.findAll(new AuthorSpecification(request(QueryOperator.IN)));
+        List<Author> notIn = searchExecutor.findAll(new AuthorSpecification(request(QueryOperator.NOT_IN)));
+
+        assertEquals(3, in.size());
+        assertEquals(2, notIn.size());
+    }
+
+    @Test
+    void testStrategyChangesShape() {
+        String prefix = Author.class.getName() + ":AND(id IN ";
+
+        // bound collections are padded to the next power of two
+        assertEquals(prefix + "?4):", shape(ids.subList(0, 3)));
+        assertEquals(shape(ids.subList(0, 3)), shape(ids.subList(0, 4)));
+        assertNotEquals(shape(ids.subList(0, 4)), shape(ids.subList(0, 5)));
+        assertEquals(prefix + "?[]):", shape(ids));
+        assertEquals(shape(ids), shape(ids.subList(0, 101)));
+
+        InLists.setArrayThreshold(Integer.MAX_VALUE);
+        assertEquals(3, InLists.chunks(ids.size()));
+        assertEquals(prefix + "?1024x2+?512):", shape(ids));
+        assertEquals(prefix + "?1024):", shape(ids.subList(0, 1000)));
+    }
+
+    private String shape(List<String> values) {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(
+                FilterRequest.builder().withField("id").withOperator(QueryOperator.IN).withValues(values).build()));
+
+        return SearchShape.of(request, FilterOptimizer.optimize(request.getFilters(), Author.class), Author.class,
+                entityManager.getEntityManager().getCriteriaBuilder());
+    }
+
+    private SearchRequest request(QueryOperator operator) {
+        SearchRequest request = new SearchRequest();
+        request.setFilters(Collections.singletonList(
+                FilterRequest.builder().withField("id").withOperator(operator).withValues(ids).build()));
+        return request;
+    }
+
+}